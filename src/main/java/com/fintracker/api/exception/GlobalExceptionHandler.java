@@ -1,11 +1,13 @@
 package com.fintracker.api.exception;
 
 import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ServiceBusyException;
 import com.fintracker.core.exception.ValidationException;
 import com.fintracker.util.LoggingUtils;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -91,7 +93,7 @@ public class GlobalExceptionHandler {
                 .timestamp(LocalDateTime.now())
                 .status(HttpStatus.UNAUTHORIZED.value())
                 .error(HttpStatus.UNAUTHORIZED.getReasonPhrase())
-                .message("Invalid username or password")
+                .message(ex.getMessage())
                 .path(request.getDescription(false))
                 .build();
         
@@ -99,6 +101,25 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.UNAUTHORIZED);
     }
     
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiError> handleServiceBusyException(ServiceBusyException ex, WebRequest request) {
+        LoggingUtils.setErrorCode("SERVICE_BUSY");
+        log.warn("Request turned away: {}", ex.getMessage());
+        
+        ApiError apiError = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getDescription(false))
+                .build();
+        
+        LoggingUtils.clearErrorCode();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(apiError);
+    }
+    
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ApiError> handleAccessDeniedException(AccessDeniedException ex, WebRequest request) {
         LoggingUtils.setErrorCode("ACCESS_DENIED");
@@ -2,25 +2,32 @@ package com.fintracker.api.v1.controller;
 
 import com.fintracker.api.v1.dto.AuthRequest;
 import com.fintracker.api.v1.dto.AuthResponse;
+import com.fintracker.api.v1.dto.RefreshRequest;
 import com.fintracker.api.v1.dto.UserDTO;
 import com.fintracker.api.v1.mapper.UserMapper;
+import com.fintracker.config.AuthenticatedUser;
+import com.fintracker.config.CustomUserDetailsService;
+import com.fintracker.config.LoginService;
+import com.fintracker.config.TokenRevocationList;
 import com.fintracker.core.domain.User;
+import com.fintracker.core.service.RefreshTokenService;
 import com.fintracker.core.service.UserService;
 import com.fintracker.util.JwtUtils;
+import io.jsonwebtoken.JwtException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -28,29 +35,46 @@ import jakarta.validation.Valid;
 @Tag(name = "Authentication", description = "Authentication API")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
+    private final LoginService loginService;
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
+    private final CustomUserDetailsService userDetailsService;
     private final JwtUtils jwtUtils;
     private final UserMapper userMapper;
 
     @PostMapping("/login")
-    @Operation(summary = "Login user", description = "Authenticate user and return JWT token")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest authRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword())
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateToken(authentication);
-        
-        User user = userService.getUserByUsername(authRequest.getUsername());
-        
-        return ResponseEntity.ok(AuthResponse.builder()
-                .token(jwt)
-                .tokenType("Bearer")
-                .userId(user.getId())
-                .username(user.getUsername())
-                .build());
+    @Operation(summary = "Login user", description = "Authenticate user and return a short-lived JWT token and a refresh token")
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody AuthRequest authRequest) {
+        // Completes on the login pool, so the servlet thread is free while the password is hashed
+        return loginService.login(authRequest.getUsername(), authRequest.getPassword())
+                .thenApply(user -> ResponseEntity.ok(authResponse(user, refreshTokenService.issue(user.getId()))));
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh token", description = "Exchange a refresh token for a new JWT token and refresh token")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        RefreshTokenService.IssuedToken issued = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        AuthenticatedUser user = userDetailsService.principalOf(issued.user()).withoutPassword();
+        return ResponseEntity.ok(authResponse(user, issued.token()));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout user", description = "Revoke the JWT token sent with the request and the given refresh token")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) RefreshRequest refreshRequest) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                JwtUtils.VerifiedToken token = jwtUtils.verify(authorization.substring(7));
+                tokenRevocationList.revoke(token.id(), token.expiration());
+            } catch (JwtException e) {
+                // An expired or invalid token grants nothing already
+            }
+        }
+        if (refreshRequest != null && StringUtils.hasText(refreshRequest.getRefreshToken())) {
+            refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/register")
@@ -60,4 +84,15 @@ public class AuthController {
         User savedUser = userService.createUser(user);
         return ResponseEntity.ok(userMapper.toDTO(savedUser));
     }
+
+    private AuthResponse authResponse(AuthenticatedUser user, String refreshToken) {
+        return AuthResponse.builder()
+                .token(jwtUtils.generateToken(user))
+                .tokenType("Bearer")
+                .expiresIn(jwtUtils.getAccessExpirationMs() / 1000)
+                .refreshToken(refreshToken)
+                .userId(user.getId())
+                .username(user.getUsername())
+                .build();
+    }
 }
\ No newline at end of file
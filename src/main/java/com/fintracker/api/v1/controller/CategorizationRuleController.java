@@ -0,0 +1,75 @@
+package com.fintracker.api.v1.controller;
+
+import com.fintracker.api.v1.dto.CategorizationRuleDTO;
+import com.fintracker.api.v1.mapper.CategorizationRuleMapper;
+import com.fintracker.core.domain.CategorizationRule;
+import com.fintracker.core.service.CategorizationRuleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/v1/categorization-rules")
+@RequiredArgsConstructor
+@Tag(name = "Categorization Rules", description = "Automatic transaction categorization rules API")
+public class CategorizationRuleController {
+
+    private final CategorizationRuleService categorizationRuleService;
+    private final CategorizationRuleMapper categorizationRuleMapper;
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get categorization rule by ID", description = "Get categorization rule details by ID")
+    public ResponseEntity<CategorizationRuleDTO> getRuleById(@PathVariable Long id) {
+        CategorizationRule rule = categorizationRuleService.getRuleById(id);
+        return ResponseEntity.ok(categorizationRuleMapper.toDTO(rule));
+    }
+
+    @GetMapping("/user/{userId}")
+    @Operation(summary = "Get categorization rules by user ID", description = "Get a list of categorization rules for a specific user")
+    public ResponseEntity<List<CategorizationRuleDTO>> getRulesByUserId(@PathVariable Long userId) {
+        List<CategorizationRule> rules = categorizationRuleService.getRulesByUserId(userId);
+        List<CategorizationRuleDTO> ruleDTOs = rules.stream()
+                .map(categorizationRuleMapper::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(ruleDTOs);
+    }
+
+    @PostMapping
+    @Operation(summary = "Create categorization rule", description = "Create a new categorization rule")
+    public ResponseEntity<CategorizationRuleDTO> createRule(@Valid @RequestBody CategorizationRuleDTO ruleDTO) {
+        CategorizationRule rule = categorizationRuleMapper.toEntity(ruleDTO);
+        CategorizationRule savedRule = categorizationRuleService.createRule(
+                rule,
+                ruleDTO.getCategoryId(),
+                ruleDTO.getAccountId(),
+                ruleDTO.getUserId()
+        );
+        return ResponseEntity.ok(categorizationRuleMapper.toDTO(savedRule));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update categorization rule", description = "Update an existing categorization rule")
+    public ResponseEntity<CategorizationRuleDTO> updateRule(@PathVariable Long id, @Valid @RequestBody CategorizationRuleDTO ruleDTO) {
+        CategorizationRule rule = categorizationRuleMapper.toEntity(ruleDTO);
+        CategorizationRule updatedRule = categorizationRuleService.updateRule(
+                id,
+                rule,
+                ruleDTO.getCategoryId(),
+                ruleDTO.getAccountId()
+        );
+        return ResponseEntity.ok(categorizationRuleMapper.toDTO(updatedRule));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete categorization rule", description = "Delete a categorization rule by ID")
+    public ResponseEntity<Void> deleteRule(@PathVariable Long id) {
+        categorizationRuleService.deleteRule(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,8 +1,11 @@
 package com.fintracker.api.v1.controller;
 
 import com.fintracker.api.v1.dto.CategoryDTO;
+import com.fintracker.api.v1.dto.CategoryMergeResultDTO;
+import com.fintracker.api.v1.dto.CategoryTreeDTO;
 import com.fintracker.api.v1.mapper.CategoryMapper;
 import com.fintracker.core.domain.Category;
+import com.fintracker.core.service.CategoryReorganizationService;
 import com.fintracker.core.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +25,7 @@ public class CategoryController {
 
     private final CategoryService categoryService;
     private final CategoryMapper categoryMapper;
+    private final CategoryReorganizationService categoryReorganizationService;
 
     @GetMapping
     @Operation(summary = "Get all categories", description = "Get a list of all categories")
@@ -70,6 +74,13 @@ public class CategoryController {
         return ResponseEntity.ok(categoryDTOs);
     }
 
+    @GetMapping("/tree")
+    @Operation(summary = "Get category tree", description = "Get the whole category hierarchy, or the subtree under a category, in a single query")
+    public ResponseEntity<List<CategoryTreeDTO>> getCategoryTree(@RequestParam(required = false) Long rootId) {
+        List<Category> categories = categoryService.getCategoryTree(rootId);
+        return ResponseEntity.ok(categoryMapper.toTreeDTOs(categories));
+    }
+
     @PostMapping
     @Operation(summary = "Create category", description = "Create a new category")
     public ResponseEntity<CategoryDTO> createCategory(@Valid @RequestBody CategoryDTO categoryDTO) {
@@ -92,4 +103,18 @@ public class CategoryController {
         categoryService.deleteCategory(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/{id}/merge-into/{targetId}")
+    @Operation(summary = "Merge categories", description = "Move all transactions, scheduled transactions, rules and subcategories of a category into another one and delete it")
+    public ResponseEntity<CategoryMergeResultDTO> mergeCategory(@PathVariable Long id, @PathVariable Long targetId) {
+        CategoryReorganizationService.MergeResult result = categoryReorganizationService.mergeCategories(id, targetId);
+        return ResponseEntity.ok(CategoryMergeResultDTO.builder()
+                .sourceCategoryId(id)
+                .targetCategoryId(targetId)
+                .transactionsMoved(result.getTransactionsMoved())
+                .scheduledTransactionsMoved(result.getScheduledTransactionsMoved())
+                .rulesMoved(result.getRulesMoved())
+                .subcategoriesMoved(result.getSubcategoriesMoved())
+                .build());
+    }
 }
\ No newline at end of file
@@ -1,17 +1,42 @@
 package com.fintracker.api.v1.controller;
 
+import com.fintracker.api.v1.dto.CapitalGainsDTO;
+import com.fintracker.api.v1.dto.InvestmentCashFlowDTO;
 import com.fintracker.api.v1.dto.InvestmentDTO;
+import com.fintracker.api.v1.dto.InvestmentLotDTO;
+import com.fintracker.api.v1.dto.InvestmentPriceDTO;
+import com.fintracker.api.v1.dto.InvestmentValuationDTO;
+import com.fintracker.api.v1.dto.PortfolioProjectionDTO;
+import com.fintracker.api.v1.dto.PortfolioReturnsDTO;
+import com.fintracker.api.v1.dto.PriceImportResultDTO;
+import com.fintracker.api.v1.dto.RealizedGainDTO;
+import com.fintracker.api.v1.dto.TradeRequestDTO;
 import com.fintracker.api.v1.mapper.InvestmentMapper;
 import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentCashFlow;
+import com.fintracker.core.domain.InvestmentLot;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.PriceHistoryStore;
+import com.fintracker.core.service.InvestmentProjectionService;
+import com.fintracker.core.service.InvestmentRevaluationService;
 import com.fintracker.core.service.InvestmentService;
+import com.fintracker.core.service.InvestmentValuationService;
+import com.fintracker.core.service.PortfolioAnalyticsService;
+import com.fintracker.core.service.TaxLotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,6 +48,11 @@ public class InvestmentController {
 
     private final InvestmentService investmentService;
     private final InvestmentMapper investmentMapper;
+    private final InvestmentRevaluationService investmentRevaluationService;
+    private final PortfolioAnalyticsService portfolioAnalyticsService;
+    private final InvestmentValuationService investmentValuationService;
+    private final InvestmentProjectionService investmentProjectionService;
+    private final TaxLotService taxLotService;
 
     @GetMapping
     @Operation(summary = "Get all investments", description = "Get a list of all investments")
@@ -102,10 +132,162 @@ public class InvestmentController {
         return ResponseEntity.ok(investmentMapper.toDTO(updatedInvestment));
     }
 
+    @GetMapping("/{id}/value")
+    @Operation(summary = "Get investment value on a date", description = "Value an investment from its units and the closing price on or before the given date")
+    public ResponseEntity<BigDecimal> getValueOn(@PathVariable Long id,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(investmentService.getValueOn(id, date));
+    }
+
+    @GetMapping("/{id}/valuations")
+    @Operation(summary = "Get value history", description = "Get the value history of an investment at a daily, weekly or monthly resolution chosen from the length of the range")
+    public ResponseEntity<List<InvestmentValuationDTO>> getValuationHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<InvestmentValuationDTO> valuations = investmentValuationService.getValuationHistory(id, from, to).stream()
+                .map(investmentMapper::toValuationDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(valuations);
+    }
+
     @GetMapping("/{id}/return-rate")
     @Operation(summary = "Calculate return rate", description = "Calculate the return rate of an investment")
     public ResponseEntity<BigDecimal> calculateReturnRate(@PathVariable Long id) {
         BigDecimal returnRate = investmentService.calculateReturnRate(id);
         return ResponseEntity.ok(returnRate);
     }
+
+    @GetMapping("/{id}/cash-flows")
+    @Operation(summary = "Get cash flows", description = "Get the contributions, withdrawals and dividends of an investment, oldest first")
+    public ResponseEntity<List<InvestmentCashFlowDTO>> getCashFlows(@PathVariable Long id) {
+        List<InvestmentCashFlowDTO> cashFlows = investmentService.getCashFlows(id).stream()
+                .map(investmentMapper::toCashFlowDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(cashFlows);
+    }
+
+    @PostMapping("/{id}/cash-flows")
+    @Operation(summary = "Add cash flow", description = "Record a contribution, withdrawal or dividend for an investment")
+    public ResponseEntity<InvestmentCashFlowDTO> addCashFlow(@PathVariable Long id, @Valid @RequestBody InvestmentCashFlowDTO cashFlowDTO) {
+        InvestmentCashFlow cashFlow = investmentMapper.toCashFlowEntity(cashFlowDTO);
+        InvestmentCashFlow savedCashFlow = investmentService.addCashFlow(id, cashFlow);
+        return ResponseEntity.ok(investmentMapper.toCashFlowDTO(savedCashFlow));
+    }
+
+    @GetMapping("/{id}/lots")
+    @Operation(summary = "Get lots", description = "Get the purchase lots of an investment with the units and cost still held in each")
+    public ResponseEntity<List<InvestmentLotDTO>> getLots(@PathVariable Long id) {
+        List<InvestmentLotDTO> lots = taxLotService.getLots(id).stream()
+                .map(investmentMapper::toLotDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(lots);
+    }
+
+    @PostMapping("/{id}/lots")
+    @Operation(summary = "Record purchase", description = "Open a new lot for units bought, such as a SIP instalment")
+    public ResponseEntity<InvestmentLotDTO> recordPurchase(@PathVariable Long id, @Valid @RequestBody TradeRequestDTO trade) {
+        InvestmentLot lot = taxLotService.recordPurchase(id, trade.getTradeDate(), trade.getUnits(), trade.getAmount());
+        return ResponseEntity.ok(investmentMapper.toLotDTO(lot));
+    }
+
+    @PostMapping("/{id}/sales")
+    @Operation(summary = "Record sale", description = "Sell units, matching them against open lots with the investment's lot matching method")
+    public ResponseEntity<List<RealizedGainDTO>> recordSale(@PathVariable Long id, @Valid @RequestBody TradeRequestDTO trade) {
+        List<RealizedGainDTO> gains = taxLotService.recordSale(id, trade.getTradeDate(), trade.getUnits(), trade.getAmount()).stream()
+                .map(investmentMapper::toRealizedGainDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(gains);
+    }
+
+    @GetMapping("/{id}/realized-gains")
+    @Operation(summary = "Get realized gains", description = "Get the gain realized on every lot an investment's sales drew from")
+    public ResponseEntity<List<RealizedGainDTO>> getRealizedGains(@PathVariable Long id) {
+        List<RealizedGainDTO> gains = taxLotService.getRealizedGains(id).stream()
+                .map(investmentMapper::toRealizedGainDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(gains);
+    }
+
+    @GetMapping("/user/{userId}/capital-gains")
+    @Operation(summary = "Get capital gains by year", description = "Get a user's short- and long-term capital gains for every financial year with sales")
+    public ResponseEntity<List<CapitalGainsDTO>> getCapitalGainsByYear(@PathVariable Long userId) {
+        List<CapitalGainsDTO> summaries = taxLotService.getCapitalGainsByYear(userId).stream()
+                .map(investmentMapper::toCapitalGainsDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(summaries);
+    }
+
+    @GetMapping("/user/{userId}/capital-gains/{financialYear}")
+    @Operation(summary = "Get capital gains for a year", description = "Get a user's capital gains in one financial year, broken down by investment")
+    public ResponseEntity<CapitalGainsDTO> getCapitalGains(@PathVariable Long userId, @PathVariable int financialYear) {
+        TaxLotService.CapitalGainsSummary summary = taxLotService.getCapitalGains(userId, financialYear);
+        return ResponseEntity.ok(investmentMapper.toCapitalGainsDTO(summary));
+    }
+
+    @GetMapping("/user/{userId}/returns")
+    @Operation(summary = "Get portfolio returns", description = "Get XIRR, CAGR and absolute return for every investment of a user and for the portfolio as a whole")
+    public ResponseEntity<PortfolioReturnsDTO> getPortfolioReturns(@PathVariable Long userId) {
+        PortfolioAnalyticsService.PortfolioReturns returns = portfolioAnalyticsService.getPortfolioReturns(userId);
+        return ResponseEntity.ok(investmentMapper.toPortfolioReturnsDTO(returns));
+    }
+
+    @GetMapping("/user/{userId}/projection")
+    @Operation(summary = "Project portfolio value", description = "Monte Carlo projection of a user's portfolio with 10th, 50th and 90th percentile values per year")
+    public ResponseEntity<PortfolioProjectionDTO> getPortfolioProjection(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "30") int years,
+            @RequestParam(defaultValue = "10000") int paths,
+            @RequestParam(required = false) Long seed) {
+        InvestmentProjectionService.Projection projection = investmentProjectionService.project(userId, years, paths, seed);
+        return ResponseEntity.ok(investmentMapper.toProjectionDTO(projection));
+    }
+
+    @PostMapping(value = "/prices/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import prices", description = "Record a CSV or JSON price file (ticker, date, price) and revalue every holding of the listed tickers")
+    public ResponseEntity<PriceImportResultDTO> importPrices(@RequestParam("file") MultipartFile file,
+                                                             @RequestParam(required = false) String format) {
+        String fileFormat = format != null ? format : detectPriceFileFormat(file);
+        InvestmentRevaluationService.PriceImportResult result;
+        try (InputStream in = file.getInputStream()) {
+            result = investmentRevaluationService.importPrices(in, fileFormat);
+        } catch (IOException e) {
+            throw new ValidationException("Could not read price file: " + e.getMessage());
+        }
+        return ResponseEntity.ok(PriceImportResultDTO.builder()
+                .rowsRead(result.getRowsRead())
+                .rowsRejected(result.getRowsRejected())
+                .pricesRecorded(result.getPricesRecorded())
+                .tickers(result.getTickers())
+                .investmentsUpdated(result.getInvestmentsUpdated())
+                .build());
+    }
+
+    @GetMapping("/prices/{ticker}")
+    @Operation(summary = "Get price history", description = "Get the recorded daily prices of a ticker, optionally limited to a date range")
+    public ResponseEntity<List<InvestmentPriceDTO>> getPriceHistory(
+            @PathVariable String ticker,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        PriceHistoryStore.PriceSeries series = investmentRevaluationService.getPriceHistory(ticker, from, to);
+        return ResponseEntity.ok(investmentMapper.toPriceDTOs(ticker, series));
+    }
+
+    @GetMapping("/prices/{ticker}/series")
+    @Operation(summary = "Get price chart series", description = "Get the prices of a ticker reduced to at most the requested number of points")
+    public ResponseEntity<List<InvestmentPriceDTO>> getPriceSeries(
+            @PathVariable String ticker,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "200") int points) {
+        PriceHistoryStore.PriceSeries series = investmentRevaluationService.getPriceSeries(ticker, from, to, points);
+        return ResponseEntity.ok(investmentMapper.toPriceDTOs(ticker, series));
+    }
+
+    private String detectPriceFileFormat(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        boolean json = (name != null && name.toLowerCase().endsWith(".json"))
+                || MediaType.APPLICATION_JSON_VALUE.equals(file.getContentType());
+        return json ? "JSON" : "CSV";
+    }
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package com.fintracker.api.v1.controller;
 
+import com.fintracker.api.v1.dto.CashFlowForecastDTO;
 import com.fintracker.api.v1.dto.ScheduledTransactionDTO;
+import com.fintracker.api.v1.dto.ScheduledTransactionExecutionDTO;
+import com.fintracker.api.v1.dto.ScheduledTransactionRunDTO;
 import com.fintracker.api.v1.dto.TransactionDTO;
 import com.fintracker.api.v1.mapper.ScheduledTransactionMapper;
 import com.fintracker.api.v1.mapper.TransactionMapper;
 import com.fintracker.core.domain.ScheduledTransaction;
 import com.fintracker.core.domain.Transaction;
+import com.fintracker.core.service.CashFlowForecastService;
+import com.fintracker.core.service.ScheduledTransactionExecutor;
+import com.fintracker.core.service.ScheduledTransactionJournal;
 import com.fintracker.core.service.ScheduledTransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,6 +21,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,6 +35,9 @@ public class ScheduledTransactionController {
     private final ScheduledTransactionService scheduledTransactionService;
     private final ScheduledTransactionMapper scheduledTransactionMapper;
     private final TransactionMapper transactionMapper;
+    private final ScheduledTransactionExecutor scheduledTransactionExecutor;
+    private final CashFlowForecastService cashFlowForecastService;
+    private final ScheduledTransactionJournal scheduledTransactionJournal;
 
     @GetMapping
     @Operation(summary = "Get all scheduled transactions", description = "Get a list of all scheduled transactions")
@@ -76,6 +86,17 @@ public class ScheduledTransactionController {
         return ResponseEntity.ok(scheduledTransactionDTOs);
     }
 
+    @GetMapping("/user/{userId}/forecast")
+    @Operation(summary = "Forecast account balances", description = "Project a user's account balances from their active scheduled transactions, with warnings for accounts dropping below a threshold")
+    public ResponseEntity<CashFlowForecastDTO> getCashFlowForecast(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "3") int months,
+            @RequestParam(defaultValue = "DAILY") String granularity,
+            @RequestParam(required = false) BigDecimal lowBalanceThreshold) {
+        CashFlowForecastService.Forecast forecast = cashFlowForecastService.forecast(userId, months, granularity, lowBalanceThreshold);
+        return ResponseEntity.ok(scheduledTransactionMapper.toForecastDTO(forecast));
+    }
+
     @GetMapping("/upcoming")
     @Operation(summary = "Get upcoming scheduled transactions", description = "Get a list of upcoming scheduled transactions before a specific date")
     public ResponseEntity<List<ScheduledTransactionDTO>> getUpcomingScheduledTransactions(
@@ -121,4 +142,28 @@ public class ScheduledTransactionController {
         Transaction transaction = scheduledTransactionService.executeScheduledTransaction(id);
         return ResponseEntity.ok(transactionMapper.toDTO(transaction));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/runs")
+    @Operation(summary = "Get recent batch runs", description = "Get the most recent nightly runs with their progress, failures and throughput")
+    public ResponseEntity<List<ScheduledTransactionRunDTO>> getRecentRuns() {
+        List<ScheduledTransactionRunDTO> runs = scheduledTransactionExecutor.getRecentRuns().stream()
+                .map(scheduledTransactionMapper::toRunDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(runs);
+    }
+
+    @GetMapping("/executions/failures")
+    @Operation(summary = "Get failed executions", description = "Get the scheduled transaction postings that failed, with their attempts, last error and next retry")
+    public ResponseEntity<List<ScheduledTransactionExecutionDTO>> getFailedExecutions() {
+        List<ScheduledTransactionExecutionDTO> failures = scheduledTransactionJournal.getFailures().stream()
+                .map(scheduledTransactionMapper::toExecutionDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(failures);
+    }
+
+    @PostMapping("/executions/{executionId}/retry")
+    @Operation(summary = "Retry failed execution", description = "Queue a failed or given-up posting for an immediate retry with a fresh set of attempts")
+    public ResponseEntity<ScheduledTransactionExecutionDTO> retryExecution(@PathVariable Long executionId) {
+        return ResponseEntity.ok(scheduledTransactionMapper.toExecutionDTO(scheduledTransactionJournal.requeue(executionId)));
+    }
+}
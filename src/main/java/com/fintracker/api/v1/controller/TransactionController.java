@@ -1,8 +1,11 @@
 package com.fintracker.api.v1.controller;
 
+import com.fintracker.api.v1.dto.RecategorizeRequestDTO;
+import com.fintracker.api.v1.dto.RecategorizeResultDTO;
 import com.fintracker.api.v1.dto.TransactionDTO;
 import com.fintracker.api.v1.mapper.TransactionMapper;
 import com.fintracker.core.domain.Transaction;
+import com.fintracker.core.service.CategoryReorganizationService;
 import com.fintracker.core.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,6 +28,7 @@ public class TransactionController {
 
     private final TransactionService transactionService;
     private final TransactionMapper transactionMapper;
+    private final CategoryReorganizationService categoryReorganizationService;
 
     @GetMapping
     @Operation(summary = "Get all transactions", description = "Get a list of all transactions")
@@ -62,6 +67,32 @@ public class TransactionController {
         return ResponseEntity.ok(transactionDTOs);
     }
 
+    @GetMapping("/category/{categoryId}/subtree")
+    @Operation(summary = "Get transactions by category subtree", description = "Get a list of transactions for a category and all of its subcategories, optionally within a date range")
+    public ResponseEntity<List<TransactionDTO>> getTransactionsByCategorySubtree(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        List<Transaction> transactions = start != null && end != null
+                ? transactionService.getTransactionsByCategorySubtreeAndDateRange(categoryId, start, end)
+                : transactionService.getTransactionsByCategorySubtree(categoryId);
+        List<TransactionDTO> transactionDTOs = transactions.stream()
+                .map(transactionMapper::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(transactionDTOs);
+    }
+
+    @GetMapping("/category/{categoryId}/subtree/total")
+    @Operation(summary = "Get category subtree total", description = "Get the total amount of a transaction type for a category and all of its subcategories within a date range")
+    public ResponseEntity<BigDecimal> getCategorySubtreeTotal(
+            @PathVariable Long categoryId,
+            @RequestParam String transactionType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        BigDecimal total = transactionService.getCategorySubtreeTotal(categoryId, transactionType, start, end);
+        return ResponseEntity.ok(total);
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get transactions by user ID", description = "Get a list of transactions created by a specific user")
     public ResponseEntity<List<TransactionDTO>> getTransactionsByUserId(@PathVariable Long userId) {
@@ -110,6 +141,21 @@ public class TransactionController {
         return ResponseEntity.ok(transactionMapper.toDTO(savedTransaction));
     }
 
+    @PostMapping("/recategorize")
+    @Operation(summary = "Bulk recategorize transactions", description = "Move every transaction of a user matching the filters to another category in a single update")
+    public ResponseEntity<RecategorizeResultDTO> recategorizeTransactions(@Valid @RequestBody RecategorizeRequestDTO request) {
+        int updated = categoryReorganizationService.recategorizeTransactions(
+                request.getUserId(),
+                request.getFromCategoryId(),
+                request.isIncludeSubcategories(),
+                request.getDescriptionContains(),
+                request.getStart(),
+                request.getEnd(),
+                request.getTargetCategoryId()
+        );
+        return ResponseEntity.ok(RecategorizeResultDTO.builder().updatedTransactions(updated).build());
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update transaction", description = "Update an existing transaction")
     public ResponseEntity<TransactionDTO> updateTransaction(@PathVariable Long id, @Valid @RequestBody TransactionDTO transactionDTO) {
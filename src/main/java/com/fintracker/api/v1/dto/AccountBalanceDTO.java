@@ -0,0 +1,18 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceDTO {
+    private Long accountId;
+    
+    private BigDecimal balance;
+}
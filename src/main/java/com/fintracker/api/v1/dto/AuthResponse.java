@@ -12,6 +12,8 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
     private String token;
     private String tokenType;
+    private long expiresIn; // Seconds until the access token expires
+    private String refreshToken;
     private Long userId;
     private String username;
 }
\ No newline at end of file
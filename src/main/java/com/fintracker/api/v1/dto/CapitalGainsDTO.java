@@ -0,0 +1,28 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapitalGainsDTO {
+    // Calendar year in which the financial year starts
+    private int financialYear;
+    
+    private BigDecimal proceeds;
+    
+    private BigDecimal costBasis;
+    
+    private BigDecimal shortTermGain;
+    
+    private BigDecimal longTermGain;
+    
+    private List<InvestmentCapitalGainsDTO> investments;
+}
@@ -0,0 +1,30 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashFlowForecastDTO {
+    private Long userId;
+    
+    private LocalDate from;
+    
+    private LocalDate to;
+    
+    private String granularity;
+    
+    private BigDecimal lowBalanceThreshold;
+    
+    private List<ForecastPointDTO> points;
+    
+    private List<LowBalanceWarningDTO> warnings;
+}
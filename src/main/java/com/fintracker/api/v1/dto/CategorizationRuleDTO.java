@@ -0,0 +1,40 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorizationRuleDTO {
+    private Long id;
+    
+    @NotBlank(message = "Match type is required")
+    private String matchType;
+    
+    private String pattern;
+    
+    private BigDecimal minAmount;
+    
+    private BigDecimal maxAmount;
+    
+    private String transactionType;
+    
+    private Long accountId;
+    
+    @NotNull(message = "Category ID is required")
+    private Long categoryId;
+    
+    private Long userId;
+    
+    private int priority;
+    
+    private boolean active;
+}
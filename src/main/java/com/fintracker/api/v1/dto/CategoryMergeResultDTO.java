@@ -0,0 +1,24 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryMergeResultDTO {
+    private Long sourceCategoryId;
+    
+    private Long targetCategoryId;
+    
+    private int transactionsMoved;
+    
+    private int scheduledTransactionsMoved;
+    
+    private int rulesMoved;
+    
+    private int subcategoriesMoved;
+}
@@ -0,0 +1,28 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTreeDTO {
+    private Long id;
+    
+    private String name;
+    
+    private String description;
+    
+    private String type;
+    
+    private Long parentId;
+    
+    @Builder.Default
+    private List<CategoryTreeDTO> children = new ArrayList<>();
+}
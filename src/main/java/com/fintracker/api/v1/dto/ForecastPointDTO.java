@@ -0,0 +1,22 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastPointDTO {
+    private LocalDate date;
+    
+    private BigDecimal totalBalance;
+    
+    private List<AccountBalanceDTO> balances;
+}
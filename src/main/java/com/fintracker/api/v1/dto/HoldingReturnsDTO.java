@@ -0,0 +1,34 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldingReturnsDTO {
+    private Long investmentId;
+    
+    private String name;
+    
+    private String ticker;
+    
+    private BigDecimal invested;
+    
+    private BigDecimal returned;
+    
+    private LocalDate valuationDate;
+    
+    // Percentages; null when the rate is undefined
+    private BigDecimal absoluteReturn;
+    
+    private BigDecimal cagr;
+    
+    private BigDecimal xirr;
+}
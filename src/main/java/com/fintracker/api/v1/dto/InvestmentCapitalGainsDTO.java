@@ -0,0 +1,24 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvestmentCapitalGainsDTO {
+    private Long investmentId;
+    
+    private BigDecimal proceeds;
+    
+    private BigDecimal costBasis;
+    
+    private BigDecimal shortTermGain;
+    
+    private BigDecimal longTermGain;
+}
@@ -7,7 +7,9 @@ import lombok.NoArgsConstructor;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -37,9 +39,21 @@ public class InvestmentDTO {
     
     private BigDecimal expectedReturnRate;
     
+    @PositiveOrZero(message = "Volatility cannot be negative")
+    private BigDecimal volatility;
+    
     private Long userId;
     
     private String notes;
     
     private String ticker;
+    
+    @PositiveOrZero(message = "Units cannot be negative")
+    private BigDecimal units;
+    
+    @Pattern(regexp = "FIFO|LIFO|AVERAGE", message = "Lot matching method must be FIFO, LIFO or AVERAGE")
+    private String lotMatchingMethod;
+    
+    // Read only; maintained from the recorded lots
+    private BigDecimal costBasis;
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvestmentLotDTO {
+    private Long id;
+    
+    private Long investmentId;
+    
+    private LocalDate acquiredOn;
+    
+    private BigDecimal units;
+    
+    private BigDecimal cost;
+    
+    private BigDecimal remainingUnits;
+    
+    private BigDecimal remainingCost;
+    
+    private boolean closed;
+}
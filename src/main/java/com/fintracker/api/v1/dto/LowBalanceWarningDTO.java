@@ -0,0 +1,26 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowBalanceWarningDTO {
+    private Long accountId;
+    
+    private String accountName;
+    
+    // First day the projected balance is below the threshold
+    private LocalDate firstBelowOn;
+    
+    private BigDecimal lowestBalance;
+    
+    private LocalDate lowestOn;
+}
@@ -0,0 +1,28 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioProjectionDTO {
+    private Long userId;
+    
+    private int years;
+    
+    private int paths;
+    
+    // Pass back to reproduce the same projection
+    private long seed;
+    
+    private BigDecimal monthlyContributions;
+    
+    private List<ProjectionPointDTO> points;
+}
@@ -0,0 +1,31 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioReturnsDTO {
+    private Long userId;
+    
+    private LocalDate valuationDate;
+    
+    private BigDecimal invested;
+    
+    private BigDecimal returned;
+    
+    // Percentages; null when the rate is undefined
+    private BigDecimal absoluteReturn;
+    
+    private BigDecimal xirr;
+    
+    private List<HoldingReturnsDTO> holdings;
+}
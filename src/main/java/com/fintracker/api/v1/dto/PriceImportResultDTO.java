@@ -0,0 +1,22 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceImportResultDTO {
+    private long rowsRead;
+    
+    private long rowsRejected;
+    
+    private long pricesRecorded;
+    
+    private int tickers;
+    
+    private int investmentsUpdated;
+}
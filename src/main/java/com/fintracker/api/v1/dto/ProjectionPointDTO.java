@@ -0,0 +1,22 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionPointDTO {
+    private int year;
+    
+    private BigDecimal p10;
+    
+    private BigDecimal p50;
+    
+    private BigDecimal p90;
+}
@@ -0,0 +1,37 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RealizedGainDTO {
+    private Long id;
+    
+    private Long investmentId;
+    
+    private Long lotId;
+    
+    private LocalDate acquiredOn;
+    
+    private LocalDate saleDate;
+    
+    private BigDecimal units;
+    
+    private BigDecimal proceeds;
+    
+    private BigDecimal costBasis;
+    
+    private BigDecimal gain;
+    
+    private int financialYear;
+    
+    private boolean longTerm;
+}
@@ -0,0 +1,31 @@
+package com.fintracker.api.v1.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecategorizeRequestDTO {
+    @NotNull(message = "User ID is required")
+    private Long userId;
+    
+    private Long fromCategoryId;
+    
+    private boolean includeSubcategories;
+    
+    private String descriptionContains;
+    
+    private LocalDateTime start;
+    
+    private LocalDateTime end;
+    
+    @NotNull(message = "Target category ID is required")
+    private Long targetCategoryId;
+}
@@ -42,6 +42,8 @@ public class ScheduledTransactionDTO {
     
     private Long createdById;
     
+    private Long investmentId;
+    
     private String notes;
     
     private boolean active;
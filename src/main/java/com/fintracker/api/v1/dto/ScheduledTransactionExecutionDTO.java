@@ -0,0 +1,36 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransactionExecutionDTO {
+    private Long id;
+    
+    private Long scheduledTransactionId;
+    
+    private Long accountId;
+    
+    private LocalDateTime occurrenceDate;
+    
+    private String status;
+    
+    private int attempts;
+    
+    private int occurrencesPosted;
+    
+    private String lastError;
+    
+    private LocalDateTime nextAttemptAt;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime updatedAt;
+}
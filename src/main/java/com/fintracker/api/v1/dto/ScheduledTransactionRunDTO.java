@@ -0,0 +1,35 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransactionRunDTO {
+    private Long id;
+    
+    private LocalDateTime cutoff;
+    
+    private String status;
+    
+    private int shardIndex;
+    
+    private int shardCount;
+    
+    private long executedCount;
+    
+    private long failedCount;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime finishedAt;
+    
+    // Transactions posted per second; null while the run is unfinished
+    private Double throughput;
+}
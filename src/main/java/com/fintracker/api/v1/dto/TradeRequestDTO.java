@@ -0,0 +1,30 @@
+package com.fintracker.api.v1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeRequestDTO {
+    @NotNull(message = "Trade date is required")
+    private LocalDate tradeDate;
+    
+    @NotNull(message = "Units are required")
+    @Positive(message = "Units must be positive")
+    private BigDecimal units;
+    
+    // Cost of a purchase or proceeds of a sale
+    @NotNull(message = "Amount is required")
+    @PositiveOrZero(message = "Amount cannot be negative")
+    private BigDecimal amount;
+}
@@ -34,7 +34,7 @@ public class TransactionDTO {
     @NotNull(message = "Account ID is required")
     private Long accountId;
     
-    @NotNull(message = "Category ID is required")
+    // Optional on create: when absent, the user's categorization rules pick the category
     private Long categoryId;
     
     private Long createdById;
@@ -29,4 +29,7 @@ public class UserDTO {
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
     private String email;
+    
+    @Size(max = 64, message = "Time zone must be at most 64 characters")
+    private String timezone;
 }
\ No newline at end of file
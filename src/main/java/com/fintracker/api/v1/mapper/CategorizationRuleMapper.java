@@ -0,0 +1,46 @@
+package com.fintracker.api.v1.mapper;
+
+import com.fintracker.api.v1.dto.CategorizationRuleDTO;
+import com.fintracker.core.domain.CategorizationRule;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CategorizationRuleMapper {
+    
+    public CategorizationRuleDTO toDTO(CategorizationRule rule) {
+        if (rule == null) {
+            return null;
+        }
+        
+        return CategorizationRuleDTO.builder()
+                .id(rule.getId())
+                .matchType(rule.getMatchType())
+                .pattern(rule.getPattern())
+                .minAmount(rule.getMinAmount())
+                .maxAmount(rule.getMaxAmount())
+                .transactionType(rule.getTransactionType())
+                .accountId(rule.getAccount() != null ? rule.getAccount().getId() : null)
+                .categoryId(rule.getCategory() != null ? rule.getCategory().getId() : null)
+                .userId(rule.getUser() != null ? rule.getUser().getId() : null)
+                .priority(rule.getPriority())
+                .active(rule.isActive())
+                .build();
+    }
+    
+    public CategorizationRule toEntity(CategorizationRuleDTO ruleDTO) {
+        if (ruleDTO == null) {
+            return null;
+        }
+        
+        return CategorizationRule.builder()
+                .id(ruleDTO.getId())
+                .matchType(ruleDTO.getMatchType())
+                .pattern(ruleDTO.getPattern())
+                .minAmount(ruleDTO.getMinAmount())
+                .maxAmount(ruleDTO.getMaxAmount())
+                .transactionType(ruleDTO.getTransactionType())
+                .priority(ruleDTO.getPriority())
+                .active(ruleDTO.isActive())
+                .build();
+    }
+}
@@ -1,9 +1,15 @@
 package com.fintracker.api.v1.mapper;
 
 import com.fintracker.api.v1.dto.CategoryDTO;
+import com.fintracker.api.v1.dto.CategoryTreeDTO;
 import com.fintracker.core.domain.Category;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class CategoryMapper {
     
@@ -41,4 +47,36 @@ public class CategoryMapper {
         
         return category;
     }
+    
+    /**
+     * Assemble a flat list of categories into a tree using their parent ids.
+     * Categories whose parent is not part of the list become roots.
+     * 
+     * @param categories The categories to arrange, with their parents fetched
+     * @return The root nodes of the assembled tree
+     */
+    public List<CategoryTreeDTO> toTreeDTOs(List<Category> categories) {
+        Map<Long, CategoryTreeDTO> nodes = new LinkedHashMap<>();
+        for (Category category : categories) {
+            nodes.put(category.getId(), CategoryTreeDTO.builder()
+                    .id(category.getId())
+                    .name(category.getName())
+                    .description(category.getDescription())
+                    .type(category.getType())
+                    .parentId(category.getParent() != null ? category.getParent().getId() : null)
+                    .build());
+        }
+        
+        List<CategoryTreeDTO> roots = new ArrayList<>();
+        for (CategoryTreeDTO node : nodes.values()) {
+            CategoryTreeDTO parent = node.getParentId() != null ? nodes.get(node.getParentId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        
+        return roots;
+    }
 }
\ No newline at end of file
@@ -1,10 +1,37 @@
 package com.fintracker.api.v1.mapper;
 
+import com.fintracker.api.v1.dto.CapitalGainsDTO;
+import com.fintracker.api.v1.dto.HoldingReturnsDTO;
+import com.fintracker.api.v1.dto.InvestmentCapitalGainsDTO;
+import com.fintracker.api.v1.dto.InvestmentCashFlowDTO;
 import com.fintracker.api.v1.dto.InvestmentDTO;
+import com.fintracker.api.v1.dto.InvestmentLotDTO;
+import com.fintracker.api.v1.dto.InvestmentPriceDTO;
+import com.fintracker.api.v1.dto.InvestmentValuationDTO;
+import com.fintracker.api.v1.dto.PortfolioProjectionDTO;
+import com.fintracker.api.v1.dto.PortfolioReturnsDTO;
+import com.fintracker.api.v1.dto.ProjectionPointDTO;
+import com.fintracker.api.v1.dto.RealizedGainDTO;
 import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentCashFlow;
+import com.fintracker.core.domain.InvestmentLot;
+import com.fintracker.core.domain.InvestmentValuation;
+import com.fintracker.core.domain.RealizedGain;
 import com.fintracker.core.domain.User;
+import com.fintracker.core.repository.PriceHistoryStore;
+import com.fintracker.core.service.InvestmentProjectionService;
+import com.fintracker.core.service.PortfolioAnalyticsService;
+import com.fintracker.core.service.TaxLotService;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
 @Component
 public class InvestmentMapper {
     
@@ -22,9 +49,13 @@ public class InvestmentMapper {
                 .startDate(investment.getStartDate())
                 .endDate(investment.getEndDate())
                 .expectedReturnRate(investment.getExpectedReturnRate())
+                .volatility(investment.getVolatility())
                 .userId(investment.getUser() != null ? investment.getUser().getId() : null)
                 .notes(investment.getNotes())
                 .ticker(investment.getTicker())
+                .units(investment.getUnits())
+                .lotMatchingMethod(investment.getLotMatchingMethod())
+                .costBasis(investment.getCostBasis())
                 .build();
     }
     
@@ -42,8 +73,11 @@ public class InvestmentMapper {
                 .startDate(investmentDTO.getStartDate())
                 .endDate(investmentDTO.getEndDate())
                 .expectedReturnRate(investmentDTO.getExpectedReturnRate())
+                .volatility(investmentDTO.getVolatility())
                 .notes(investmentDTO.getNotes())
                 .ticker(investmentDTO.getTicker())
+                .units(investmentDTO.getUnits())
+                .lotMatchingMethod(investmentDTO.getLotMatchingMethod())
                 .build();
         
         if (investmentDTO.getUserId() != null) {
@@ -54,4 +88,176 @@ public class InvestmentMapper {
         
         return investment;
     }
+    
+    public List<InvestmentPriceDTO> toPriceDTOs(String ticker, PriceHistoryStore.PriceSeries series) {
+        List<InvestmentPriceDTO> prices = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            prices.add(InvestmentPriceDTO.builder()
+                    .ticker(ticker.trim().toUpperCase(Locale.ROOT))
+                    .date(LocalDate.ofEpochDay(series.getEpochDays()[i]))
+                    .price(BigDecimal.valueOf(series.getPrices()[i]))
+                    .build());
+        }
+        return prices;
+    }
+    
+    public InvestmentCashFlowDTO toCashFlowDTO(InvestmentCashFlow cashFlow) {
+        if (cashFlow == null) {
+            return null;
+        }
+        
+        return InvestmentCashFlowDTO.builder()
+                .id(cashFlow.getId())
+                .investmentId(cashFlow.getInvestment() != null ? cashFlow.getInvestment().getId() : null)
+                .flowDate(cashFlow.getFlowDate())
+                .amount(cashFlow.getAmount())
+                .flowType(cashFlow.getFlowType())
+                .build();
+    }
+    
+    public InvestmentCashFlow toCashFlowEntity(InvestmentCashFlowDTO cashFlowDTO) {
+        if (cashFlowDTO == null) {
+            return null;
+        }
+        
+        return InvestmentCashFlow.builder()
+                .id(cashFlowDTO.getId())
+                .flowDate(cashFlowDTO.getFlowDate())
+                .amount(cashFlowDTO.getAmount())
+                .flowType(cashFlowDTO.getFlowType())
+                .build();
+    }
+    
+    public InvestmentLotDTO toLotDTO(InvestmentLot lot) {
+        if (lot == null) {
+            return null;
+        }
+        
+        return InvestmentLotDTO.builder()
+                .id(lot.getId())
+                .investmentId(lot.getInvestment() != null ? lot.getInvestment().getId() : null)
+                .acquiredOn(lot.getAcquiredOn())
+                .units(lot.getUnits())
+                .cost(lot.getCost())
+                .remainingUnits(lot.getRemainingUnits())
+                .remainingCost(lot.getRemainingCost())
+                .closed(lot.isClosed())
+                .build();
+    }
+    
+    public RealizedGainDTO toRealizedGainDTO(RealizedGain gain) {
+        if (gain == null) {
+            return null;
+        }
+        
+        return RealizedGainDTO.builder()
+                .id(gain.getId())
+                .investmentId(gain.getInvestment() != null ? gain.getInvestment().getId() : null)
+                .lotId(gain.getLot() != null ? gain.getLot().getId() : null)
+                .acquiredOn(gain.getAcquiredOn())
+                .saleDate(gain.getSaleDate())
+                .units(gain.getUnits())
+                .proceeds(gain.getProceeds())
+                .costBasis(gain.getCostBasis())
+                .gain(gain.getGain())
+                .financialYear(gain.getFinancialYear())
+                .longTerm(gain.isLongTerm())
+                .build();
+    }
+    
+    public CapitalGainsDTO toCapitalGainsDTO(TaxLotService.CapitalGainsSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+        
+        return CapitalGainsDTO.builder()
+                .financialYear(summary.getFinancialYear())
+                .proceeds(summary.getProceeds())
+                .costBasis(summary.getCostBasis())
+                .shortTermGain(summary.getShortTermGain())
+                .longTermGain(summary.getLongTermGain())
+                .investments(summary.getInvestments().stream()
+                        .map(gains -> InvestmentCapitalGainsDTO.builder()
+                                .investmentId(gains.getInvestmentId())
+                                .proceeds(gains.getProceeds())
+                                .costBasis(gains.getCostBasis())
+                                .shortTermGain(gains.getShortTermGain())
+                                .longTermGain(gains.getLongTermGain())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    public InvestmentValuationDTO toValuationDTO(InvestmentValuation valuation) {
+        if (valuation == null) {
+            return null;
+        }
+        
+        return InvestmentValuationDTO.builder()
+                .date(valuation.getValuationDate())
+                .value(valuation.getAmount())
+                .resolution(valuation.getResolution())
+                .build();
+    }
+    
+    public PortfolioReturnsDTO toPortfolioReturnsDTO(PortfolioAnalyticsService.PortfolioReturns returns) {
+        if (returns == null) {
+            return null;
+        }
+        
+        return PortfolioReturnsDTO.builder()
+                .userId(returns.getUserId())
+                .valuationDate(returns.getValuationDate())
+                .invested(returns.getInvested())
+                .returned(returns.getReturned())
+                .absoluteReturn(toPercentage(returns.getAbsoluteReturn()))
+                .xirr(toPercentage(returns.getXirr()))
+                .holdings(returns.getHoldings().stream()
+                        .map(this::toHoldingReturnsDTO)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    public PortfolioProjectionDTO toProjectionDTO(InvestmentProjectionService.Projection projection) {
+        if (projection == null) {
+            return null;
+        }
+        
+        return PortfolioProjectionDTO.builder()
+                .userId(projection.getUserId())
+                .years(projection.getYears())
+                .paths(projection.getPaths())
+                .seed(projection.getSeed())
+                .monthlyContributions(projection.getMonthlyContributions())
+                .points(projection.getPoints().stream()
+                        .map(point -> ProjectionPointDTO.builder()
+                                .year(point.getYear())
+                                .p10(point.getP10())
+                                .p50(point.getP50())
+                                .p90(point.getP90())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    private HoldingReturnsDTO toHoldingReturnsDTO(PortfolioAnalyticsService.HoldingReturns holding) {
+        return HoldingReturnsDTO.builder()
+                .investmentId(holding.getInvestmentId())
+                .name(holding.getName())
+                .ticker(holding.getTicker())
+                .invested(holding.getInvested())
+                .returned(holding.getReturned())
+                .valuationDate(holding.getValuationDate())
+                .absoluteReturn(toPercentage(holding.getAbsoluteReturn()))
+                .cagr(toPercentage(holding.getCagr()))
+                .xirr(toPercentage(holding.getXirr()))
+                .build();
+    }
+    
+    private BigDecimal toPercentage(double rate) {
+        if (!Double.isFinite(rate)) {
+            return null;
+        }
+        return BigDecimal.valueOf(rate * 100).setScale(2, RoundingMode.HALF_UP);
+    }
 }
\ No newline at end of file
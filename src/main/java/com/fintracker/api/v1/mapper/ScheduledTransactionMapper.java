@@ -1,12 +1,25 @@
 package com.fintracker.api.v1.mapper;
 
+import com.fintracker.api.v1.dto.AccountBalanceDTO;
+import com.fintracker.api.v1.dto.CashFlowForecastDTO;
+import com.fintracker.api.v1.dto.ForecastPointDTO;
+import com.fintracker.api.v1.dto.LowBalanceWarningDTO;
 import com.fintracker.api.v1.dto.ScheduledTransactionDTO;
+import com.fintracker.api.v1.dto.ScheduledTransactionExecutionDTO;
+import com.fintracker.api.v1.dto.ScheduledTransactionRunDTO;
 import com.fintracker.core.domain.Account;
 import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.Investment;
 import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.domain.ScheduledTransactionExecution;
+import com.fintracker.core.domain.ScheduledTransactionRun;
 import com.fintracker.core.domain.User;
+import com.fintracker.core.service.CashFlowForecastService;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.stream.Collectors;
+
 @Component
 public class ScheduledTransactionMapper {
     
@@ -25,6 +38,7 @@ public class ScheduledTransactionMapper {
                 .accountId(scheduledTransaction.getAccount() != null ? scheduledTransaction.getAccount().getId() : null)
                 .categoryId(scheduledTransaction.getCategory() != null ? scheduledTransaction.getCategory().getId() : null)
                 .createdById(scheduledTransaction.getCreatedBy() != null ? scheduledTransaction.getCreatedBy().getId() : null)
+                .investmentId(scheduledTransaction.getInvestment() != null ? scheduledTransaction.getInvestment().getId() : null)
                 .notes(scheduledTransaction.getNotes())
                 .active(scheduledTransaction.isActive())
                 .build();
@@ -64,6 +78,93 @@ public class ScheduledTransactionMapper {
             scheduledTransaction.setCreatedBy(user);
         }
         
+        if (scheduledTransactionDTO.getInvestmentId() != null) {
+            Investment investment = new Investment();
+            investment.setId(scheduledTransactionDTO.getInvestmentId());
+            scheduledTransaction.setInvestment(investment);
+        }
+        
         return scheduledTransaction;
     }
-}
\ No newline at end of file
+    
+    public ScheduledTransactionRunDTO toRunDTO(ScheduledTransactionRun run) {
+        if (run == null) {
+            return null;
+        }
+        
+        Double throughput = null;
+        if (run.getFinishedAt() != null) {
+            long millis = Math.max(1, Duration.between(run.getStartedAt(), run.getFinishedAt()).toMillis());
+            throughput = run.getExecutedCount() * 1000.0 / millis;
+        }
+        
+        return ScheduledTransactionRunDTO.builder()
+                .id(run.getId())
+                .cutoff(run.getCutoff())
+                .status(run.getStatus())
+                .shardIndex(run.getShardIndex())
+                .shardCount(run.getShardCount())
+                .executedCount(run.getExecutedCount())
+                .failedCount(run.getFailedCount())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .throughput(throughput)
+                .build();
+    }
+    
+    public ScheduledTransactionExecutionDTO toExecutionDTO(ScheduledTransactionExecution execution) {
+        if (execution == null) {
+            return null;
+        }
+        
+        return ScheduledTransactionExecutionDTO.builder()
+                .id(execution.getId())
+                .scheduledTransactionId(execution.getScheduledTransactionId())
+                .accountId(execution.getAccountId())
+                .occurrenceDate(execution.getOccurrenceDate())
+                .status(execution.getStatus())
+                .attempts(execution.getAttempts())
+                .occurrencesPosted(execution.getOccurrencesPosted())
+                .lastError(execution.getLastError())
+                .nextAttemptAt(execution.getNextAttemptAt())
+                .createdAt(execution.getCreatedAt())
+                .updatedAt(execution.getUpdatedAt())
+                .build();
+    }
+    
+    public CashFlowForecastDTO toForecastDTO(CashFlowForecastService.Forecast forecast) {
+        if (forecast == null) {
+            return null;
+        }
+        
+        return CashFlowForecastDTO.builder()
+                .userId(forecast.getUserId())
+                .from(forecast.getFrom())
+                .to(forecast.getTo())
+                .granularity(forecast.getGranularity())
+                .lowBalanceThreshold(forecast.getLowBalanceThreshold())
+                .points(forecast.getPoints().stream()
+                        .map(this::toForecastPointDTO)
+                        .collect(Collectors.toList()))
+                .warnings(forecast.getWarnings().stream()
+                        .map(warning -> LowBalanceWarningDTO.builder()
+                                .accountId(warning.getAccountId())
+                                .accountName(warning.getAccountName())
+                                .firstBelowOn(warning.getFirstBelowOn())
+                                .lowestBalance(warning.getLowestBalance())
+                                .lowestOn(warning.getLowestOn())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    private ForecastPointDTO toForecastPointDTO(CashFlowForecastService.ForecastPoint point) {
+        return ForecastPointDTO.builder()
+                .date(point.getDate())
+                .totalBalance(point.getTotalBalance())
+                .balances(point.getBalances().stream()
+                        .map(balance -> new AccountBalanceDTO(balance.getAccountId(), balance.getBalance()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
@@ -17,6 +17,7 @@ public class UserMapper {
                 .username(user.getUsername())
                 .fullName(user.getFullName())
                 .email(user.getEmail())
+                .timezone(user.getTimezone())
                 .build();
     }
     
@@ -31,6 +32,7 @@ public class UserMapper {
                 .password(userDTO.getPassword())
                 .fullName(userDTO.getFullName())
                 .email(userDTO.getEmail())
+                .timezone(userDTO.getTimezone())
                 .build();
     }
 }
\ No newline at end of file
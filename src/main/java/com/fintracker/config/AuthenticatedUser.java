@@ -0,0 +1,31 @@
+package com.fintracker.config;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * The authenticated principal: a user's name and authorities together with their id, so
+ * that a request can be authorised from its token alone
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    /**
+     * A copy without the password hash, for keeping in memory or building from a token
+     */
+    public AuthenticatedUser withoutPassword() {
+        return new AuthenticatedUser(id, getUsername(), "", getAuthorities());
+    }
+}
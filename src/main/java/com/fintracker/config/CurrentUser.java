@@ -0,0 +1,27 @@
+package com.fintracker.config;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+/**
+ * The user the current request is authenticated as
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    /**
+     * @return The authenticated user's id, or empty outside a request authenticated by token,
+     *         such as on scheduler and login threads
+     */
+    public static Optional<Long> id() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return Optional.ofNullable(user.getId());
+        }
+        return Optional.empty();
+    }
+}
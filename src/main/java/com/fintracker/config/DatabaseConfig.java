@@ -1,15 +1,27 @@
 package com.fintracker.config;
 
+import com.fintracker.core.repository.UserScopedJpaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @Configuration
-@EnableJpaRepositories(basePackages = "com.fintracker.core.repository")
+@EnableJpaRepositories(basePackages = "com.fintracker.core.repository", repositoryBaseClass = UserScopedJpaRepository.class)
 @EnableTransactionManagement
 @EnableJpaAuditing
 public class DatabaseConfig {
     // Database configuration will be handled by Spring Boot's auto-configuration
     // based on application.yml properties
-}
\ No newline at end of file
+
+    /**
+     * Scopes queries in authenticated requests to the authenticated user; see {@link UserScopedTransactionManager}
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new UserScopedTransactionManager(entityManagerFactory);
+    }
+}
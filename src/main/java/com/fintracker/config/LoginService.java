@@ -0,0 +1,122 @@
+package com.fintracker.config;
+
+import com.fintracker.core.exception.ServiceBusyException;
+import com.fintracker.core.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks login credentials on a small pool of its own instead of on servlet threads.
+ *
+ * <p>BCrypt is deliberately slow, so a burst of logins used to hold every request thread
+ * and stall the whole API. Here at most {@code threads} passwords are hashed at once and
+ * at most {@code queue-capacity} logins wait; anything beyond that, or a login that has
+ * waited longer than {@code max-queue-wait-ms}, is turned away at once with a
+ * {@link ServiceBusyException}. The user is loaded once and handed back for the token, and
+ * a password stored at a lower cost than the configured one is rehashed on login.
+ *
+ * <p>Metrics: {@code auth.login.queue} is the time a login waited for the pool,
+ * {@code auth.login.hash} the time spent in BCrypt alone (tagged verify or rehash), and
+ * {@code auth.login.rejected} counts logins turned away.
+ */
+@Service
+@Slf4j
+public class LoginService {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    private final long maxQueueWaitNanos;
+    private final ThreadPoolExecutor pool;
+
+    // Checked against when the user does not exist, so an unknown name takes as long as a wrong password
+    private final String unknownUserHash;
+
+    public LoginService(CustomUserDetailsService userDetailsService, UserService userService, PasswordEncoder passwordEncoder,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.security.login.threads:2}") int threads,
+                        @Value("${app.security.login.queue-capacity:50}") int queueCapacity,
+                        @Value("${app.security.login.max-queue-wait-ms:2000}") long maxQueueWaitMillis) {
+        this.userDetailsService = userDetailsService;
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        this.unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdown();
+    }
+
+    /**
+     * Check a user's credentials on the login pool
+     *
+     * @return The user, without their password; completes with a {@link BadCredentialsException}
+     *         if the credentials are wrong, or a {@link ServiceBusyException} if the login waited too long
+     * @throws ServiceBusyException If the login queue is full
+     */
+    public CompletableFuture<AuthenticatedUser> login(String username, String password) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(username, password, submittedAt), pool);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("auth.login.rejected", "reason", "queue-full").increment();
+            throw new ServiceBusyException("Too many logins in progress; try again shortly", 1);
+        }
+    }
+
+    AuthenticatedUser authenticate(String username, String password, long submittedAt) {
+        long waited = System.nanoTime() - submittedAt;
+        meterRegistry.timer("auth.login.queue").record(waited, TimeUnit.NANOSECONDS);
+        if (waited > maxQueueWaitNanos) {
+            // The client has probably given up already; hashing for it would only grow the backlog
+            meterRegistry.counter("auth.login.rejected", "reason", "queue-wait").increment();
+            throw new ServiceBusyException("Too many logins in progress; try again shortly", 1);
+        }
+
+        AuthenticatedUser user;
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            user = null;
+        }
+        String hash = user != null ? user.getPassword() : unknownUserHash;
+        boolean matches = meterRegistry.timer("auth.login.hash", "operation", "verify")
+                .record(() -> passwordEncoder.matches(password, hash));
+        if (user == null || !matches) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+
+        if (passwordEncoder.upgradeEncoding(hash)) {
+            String rehashed = meterRegistry.timer("auth.login.hash", "operation", "rehash")
+                    .record(() -> passwordEncoder.encode(password));
+            userService.updatePasswordHash(user.getId(), rehashed);
+            log.info("Rehashed the password of user {} at the configured cost", user.getId());
+        }
+        return user.withoutPassword();
+    }
+}
@@ -0,0 +1,249 @@
+package com.fintracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintracker.api.exception.ApiError;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how often each client may call the API, with a token bucket per client and
+ * endpoint group. Anonymous requests are counted against their client address. An
+ * authenticated request is counted against its user and also against its address, whose
+ * budget for authenticated requests is {@code clients-per-address} times a client's, so
+ * that several users behind one address are not held to one user's share while opening
+ * more accounts from one address does not multiply the budget. Login and registration get
+ * the tightest limit, the list endpoints that scan whole tables a tighter one than
+ * everything else.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding the time at which it will be full
+ * again (the generic cell rate algorithm), so taking a token is one compare-and-set and
+ * never blocks. A full bucket behaves exactly like a missing one, so buckets left idle
+ * until they refill are dropped on a timer, never on the request path; if the map reaches
+ * {@code max-buckets} in between, new clients share one bucket per group until the next
+ * eviction frees space. A request over the limit gets 429 with a Retry-After header.
+ *
+ * <p>Declared in {@link SecurityConfig}, so that it runs after the token has been checked.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.max-buckets:100000}")
+    private int maxBuckets;
+
+    @Value("${app.rate-limit.clients-per-address:10}")
+    private int clientsPerAddress;
+
+    @Value("${app.rate-limit.auth.per-minute:10}")
+    private int authPerMinute;
+
+    @Value("${app.rate-limit.auth.burst:5}")
+    private int authBurst;
+
+    @Value("${app.rate-limit.list.per-minute:60}")
+    private int listPerMinute;
+
+    @Value("${app.rate-limit.list.burst:20}")
+    private int listBurst;
+
+    // GET requests matching these patterns count as list requests
+    @Value("${app.rate-limit.list.paths:/api/v1/*,/api/v1/*/user/**}")
+    private String listPathPatterns;
+
+    @Value("${app.rate-limit.default.per-minute:600}")
+    private int defaultPerMinute;
+
+    @Value("${app.rate-limit.default.burst:100}")
+    private int defaultBurst;
+
+    private Limit authLimit;
+    private Limit listLimit;
+    private Limit defaultLimit;
+    private List<String> listPaths;
+
+    /**
+     * A group's limit: up to {@code burst} requests at once, refilled at {@code perMinute}
+     */
+    record Limit(String group, long intervalNanos, long burstNanos) {
+
+        static Limit of(String group, int perMinute, int burst) {
+            long interval = TimeUnit.MINUTES.toNanos(1) / Math.max(perMinute, 1);
+            return new Limit(group, interval, interval * Math.max(burst, 1));
+        }
+
+        /**
+         * The same limit for a number of clients together: they refill that many times faster
+         * and may burst that many times more, so the bucket still holds the same span of time
+         */
+        Limit shared(int clients) {
+            return new Limit(group + "-address", Math.max(intervalNanos / Math.max(clients, 1), 1), burstNanos);
+        }
+    }
+
+    public RateLimitFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        authLimit = Limit.of("auth", authPerMinute, authBurst);
+        listLimit = Limit.of("list", listPerMinute, listBurst);
+        defaultLimit = Limit.of("default", defaultPerMinute, defaultBurst);
+        listPaths = Arrays.stream(listPathPatterns.split(",")).map(String::trim).filter(path -> !path.isEmpty()).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Limit limit = limitFor(request);
+        long retryAfterNanos = acquire(request, limit, System.nanoTime());
+        if (retryAfterNanos <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        meterRegistry.counter("http.server.requests.rate_limited", "group", limit.group()).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .message("Too many requests; try again in " + retryAfterSeconds + " seconds")
+                .path(request.getRequestURI())
+                .build());
+    }
+
+    /**
+     * Take a token for a request: from its address's bucket, and for an authenticated request
+     * from its user's bucket too
+     *
+     * @return 0 if the request may go ahead, otherwise how long until it could, in nanoseconds
+     */
+    long acquire(HttpServletRequest request, Limit limit, long now) {
+        // X-Forwarded-For is set by the client and would let it pick a fresh bucket per request;
+        // behind a proxy, server.forward-headers-strategy puts the real address here
+        String address = "ip:" + request.getRemoteAddr();
+        String user = authenticatedUser();
+        if (user == null) {
+            return tryAcquire(limit.group() + ":" + address, limit, now);
+        }
+
+        String userKey = limit.group() + ":user:" + user;
+        long retryAfterNanos = tryAcquire(userKey, limit, now);
+        if (retryAfterNanos > 0) {
+            return retryAfterNanos;
+        }
+        Limit addressLimit = limit.shared(clientsPerAddress);
+        retryAfterNanos = tryAcquire(addressLimit.group() + ":" + address, addressLimit, now);
+        if (retryAfterNanos > 0) {
+            // The request does not go ahead, so it should not use up the user's token either
+            AtomicLong bucket = buckets.get(userKey);
+            if (bucket != null) {
+                bucket.addAndGet(-limit.intervalNanos());
+            }
+        }
+        return retryAfterNanos;
+    }
+
+    /**
+     * Take a token from one bucket
+     *
+     * @return 0 if the request may go ahead, otherwise how long until it could, in nanoseconds
+     */
+    long tryAcquire(String key, Limit limit, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            // Never evict here: a scan per new client is what a flood of new clients would exploit
+            bucket = buckets.size() < maxBuckets
+                    ? buckets.computeIfAbsent(key, k -> new AtomicLong(now))
+                    : buckets.computeIfAbsent(limit.group() + ":overflow", k -> new AtomicLong(now));
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long newFullAt = Math.max(fullAt, now) + limit.intervalNanos();
+            long allowedAt = newFullAt - limit.burstNanos();
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void evictIdleBuckets() {
+        evictRefilled(System.nanoTime());
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    // A bucket that has refilled is no different from a new one, so dropping it loses nothing
+    private void evictRefilled(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private Limit limitFor(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.startsWith("/api/v1/auth/")) {
+            return authLimit;
+        }
+        if ("GET".equals(request.getMethod())) {
+            for (String path : listPaths) {
+                if (PATHS.match(path, uri)) {
+                    return listLimit;
+                }
+            }
+        }
+        return defaultLimit;
+    }
+
+    private static String authenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return null;
+    }
+}
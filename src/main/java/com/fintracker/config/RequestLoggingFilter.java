@@ -7,19 +7,27 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
 
 /**
  * Filter that logs request and response information and populates MDC context
  * for structured logging.
+ *
+ * <p>Request bodies are logged at DEBUG. Only a request whose body will actually be logged
+ * is wrapped, a sampled share of textual requests to routes that log bodies, and only the
+ * first {@code max-bytes} of the body are kept as it is read. Responses are never wrapped,
+ * so they stream to the client as they are written instead of being buffered whole.
  */
 @Component
 @Slf4j
@@ -35,12 +43,25 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
     private static final String RESPONSE_TIME = "responseTime";
     private static final String SESSION_ID = "sessionId";
 
+    private static final Pattern SENSITIVE_FIELD =
+            Pattern.compile("\"(password|creditCard|ssn|token|refreshToken)\"\\s*:\\s*\"[^\"]*(\"|$)");
+
+    // Longer bodies are logged cut short; 0 turns body logging off
+    @Value("${app.logging.request-body.max-bytes:4096}")
+    private int maxBodyBytes;
+
+    // Share of eligible requests whose body is captured, between 0 and 1
+    @Value("${app.logging.request-body.sample-rate:1.0}")
+    private double bodySampleRate;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
-        ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        // The wrapper keeps what it reads of the body up to the limit and passes the stream through
+        HttpServletRequest requestToUse = shouldCaptureBody(request)
+                ? new ContentCachingRequestWrapper(request, maxBodyBytes)
+                : request;
         
         long startTime = System.currentTimeMillis();
         
@@ -74,10 +95,10 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             }
             
             // Continue with filter chain
-            filterChain.doFilter(requestWrapper, responseWrapper);
+            filterChain.doFilter(requestToUse, response);
             
             // Capture response status
-            int status = responseWrapper.getStatus();
+            int status = response.getStatus();
             MDC.put(HTTP_STATUS, String.valueOf(status));
             
             // Calculate response time
@@ -94,7 +115,7 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             }
             
             // Debug level logging for detailed data
-            if (log.isDebugEnabled() && shouldLogBody(request.getRequestURI())) {
+            if (requestToUse instanceof ContentCachingRequestWrapper requestWrapper) {
                 logRequestBody(requestWrapper);
             }
             
@@ -102,9 +123,6 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             log.error("Error during request processing", e);
             throw e;
         } finally {
-            // Copy content to the response body
-            responseWrapper.copyBodyToResponse();
-            
             // Clear MDC context to prevent memory leaks
             MDC.clear();
         }
@@ -119,31 +137,43 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         return request.getRemoteAddr();
     }
     
-    private void logRequestBody(ContentCachingRequestWrapper request) {
+    /**
+     * Whether to keep this request's body for the log; decided before the request is read
+     */
+    boolean shouldCaptureBody(HttpServletRequest request) {
+        return log.isDebugEnabled()
+                && maxBodyBytes > 0
+                && isTextual(request.getContentType())
+                && shouldLogBody(request.getRequestURI())
+                && (bodySampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < bodySampleRate);
+    }
+    
+    private static boolean isTextual(String contentType) {
         // Don't log binary content or form data
-        String contentType = request.getContentType();
-        if (contentType != null && 
-            (contentType.startsWith("application/json") || 
-             contentType.startsWith("application/xml") || 
-             contentType.startsWith("text/"))) {
-            
-            byte[] content = request.getContentAsByteArray();
-            if (content.length > 0) {
-                String bodyContent = new String(content);
-                // Avoid logging sensitive data by redacting known sensitive fields
-                String redactedContent = redactSensitiveData(bodyContent);
+        return contentType != null &&
+            (contentType.startsWith("application/json") ||
+             contentType.startsWith("application/xml") ||
+             contentType.startsWith("text/"));
+    }
+    
+    private void logRequestBody(ContentCachingRequestWrapper request) {
+        // Only what the handler read is here, at most max-bytes of it
+        byte[] content = request.getContentAsByteArray();
+        if (content.length > 0) {
+            String bodyContent = new String(content, StandardCharsets.UTF_8);
+            // Avoid logging sensitive data by redacting known sensitive fields
+            String redactedContent = redactSensitiveData(bodyContent);
+            if (content.length >= maxBodyBytes) {
+                log.debug("Request body (first {} bytes): {}", content.length, redactedContent);
+            } else {
                 log.debug("Request body: {}", redactedContent);
             }
         }
     }
     
-    private String redactSensitiveData(String content) {
-        // Redact common sensitive fields
-        return content
-            .replaceAll("\"password\"\\s*:\\s*\"[^\"]*\"", "\"password\":\"[REDACTED]\"")
-            .replaceAll("\"creditCard\"\\s*:\\s*\"[^\"]*\"", "\"creditCard\":\"[REDACTED]\"")
-            .replaceAll("\"ssn\"\\s*:\\s*\"[^\"]*\"", "\"ssn\":\"[REDACTED]\"")
-            .replaceAll("\"token\"\\s*:\\s*\"[^\"]*\"", "\"token\":\"[REDACTED]\"");
+    static String redactSensitiveData(String content) {
+        // Redact common sensitive fields, including a value cut off at the end of a truncated body
+        return SENSITIVE_FIELD.matcher(content).replaceAll("\"$1\":\"[REDACTED]\"");
     }
     
     private boolean shouldLogBody(String requestUri) {
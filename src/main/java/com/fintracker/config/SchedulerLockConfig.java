@@ -0,0 +1,66 @@
+package com.fintracker.config;
+
+import com.fintracker.core.service.SchedulerLock;
+import com.fintracker.core.service.SchedulerLockService;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+
+@Configuration
+public class SchedulerLockConfig {
+
+    /**
+     * Wraps every bean method annotated with {@link SchedulerLock} so that it only runs
+     * under its lease. Static, and resolving the lock service lazily, so that registering
+     * a post-processor does not initialise the persistence layer early.
+     */
+    @Bean
+    public static SchedulerLockPostProcessor schedulerLockPostProcessor(ObjectProvider<SchedulerLockService> schedulerLockService) {
+        return new SchedulerLockPostProcessor(schedulerLockService);
+    }
+
+    static class SchedulerLockPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+        SchedulerLockPostProcessor(ObjectProvider<SchedulerLockService> schedulerLockService) {
+            this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, SchedulerLock.class, true),
+                    lockingInterceptor(schedulerLockService));
+            // Outside any transaction advice, so the job's own transactions start only once the lease is held
+            this.beforeExistingAdvisors = true;
+            // Ahead of the @Scheduled processor, which must register the wrapped bean
+            setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        }
+
+        private static MethodInterceptor lockingInterceptor(ObjectProvider<SchedulerLockService> schedulerLockService) {
+            return invocation -> {
+                Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), AopUtils.getTargetClass(invocation.getThis()));
+                SchedulerLock lock = AnnotatedElementUtils.findMergedAnnotation(method, SchedulerLock.class);
+                if (lock == null) {
+                    return invocation.proceed();
+                }
+                // Scheduled methods return nothing, so a skipped trigger has nothing to return either
+                schedulerLockService.getObject().runExclusively(lock.name(), Duration.ofSeconds(lock.leaseSeconds()),
+                        Duration.ofSeconds(lock.minimumHoldSeconds()), () -> {
+                            try {
+                                invocation.proceed();
+                            } catch (RuntimeException | Error e) {
+                                throw e;
+                            } catch (Throwable e) {
+                                throw new UndeclaredThrowableException(e);
+                            }
+                        });
+                return null;
+            };
+        }
+    }
+}
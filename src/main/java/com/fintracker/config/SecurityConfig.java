@@ -1,10 +1,14 @@
 package com.fintracker.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fintracker.util.JwtUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -44,16 +48,25 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final JwtUtils jwtUtils;
     private final RequestLoggingFilter requestLoggingFilter;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenRevocationList tokenRevocationList;
+
+    // Raising it rehashes each user's password at the new cost on their next login
+    @Value("${app.security.bcrypt-strength:10}")
+    private int bcryptStrength;
     
-    public SecurityConfig(UserDetailsService userDetailsService, JwtUtils jwtUtils, RequestLoggingFilter requestLoggingFilter) {
+    public SecurityConfig(UserDetailsService userDetailsService, JwtUtils jwtUtils, RequestLoggingFilter requestLoggingFilter,
+                          UserDetailsCache userDetailsCache, TokenRevocationList tokenRevocationList) {
         this.userDetailsService = userDetailsService;
         this.jwtUtils = jwtUtils;
         this.requestLoggingFilter = requestLoggingFilter;
+        this.userDetailsCache = userDetailsCache;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -71,7 +84,12 @@ public class SecurityConfig {
 
     @Bean
     public OncePerRequestFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtUtils, userDetailsService);
+        return new JwtAuthenticationFilter(jwtUtils, userDetailsCache, tokenRevocationList);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new RateLimitFilter(objectMapper, meterRegistry);
     }
 
     // Add this bean to configure CORS
@@ -90,7 +108,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimitFilter rateLimitFilter) throws Exception {
         return http
             // Disable CSRF protection entirely (common in stateless APIs)
             .csrf(csrf -> csrf.disable())
@@ -120,6 +138,9 @@ public class SecurityConfig {
             // Add the JWT authentication filter before UsernamePasswordAuthenticationFilter
             .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
             
+            // Limit request rates once the caller is known, keyed by user or else by address
+            .addFilterAfter(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
+            
             // Allow H2 console to render in frames from the same origin
             .headers(headers -> headers.frameOptions(frameOptions -> frameOptions.sameOrigin()))
             
@@ -131,14 +152,16 @@ public class SecurityConfig {
         return web -> web.ignoring().requestMatchers(new AntPathRequestMatcher("/h2-console/**"));
     }
 
-    // Inner class for JWT filter
+    // Inner class for JWT filter; the principal comes from the token's claims, so a request costs no query
     private static class JwtAuthenticationFilter extends OncePerRequestFilter {
         private final JwtUtils jwtUtils;
-        private final UserDetailsService userDetailsService;
+        private final UserDetailsCache userDetailsCache;
+        private final TokenRevocationList tokenRevocationList;
 
-        public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService) {
+        public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsCache userDetailsCache, TokenRevocationList tokenRevocationList) {
             this.jwtUtils = jwtUtils;
-            this.userDetailsService = userDetailsService;
+            this.userDetailsCache = userDetailsCache;
+            this.tokenRevocationList = tokenRevocationList;
         }
         @Override
         protected void doFilterInternal(HttpServletRequest request, 
@@ -155,15 +178,22 @@ public class SecurityConfig {
                 // 1. Extract JWT token from Authorization header
                 String jwt = extractJwtFromRequest(request);
                 
-                // 2. If token exists and is valid, process it
-                if (jwt != null && jwtUtils.validateToken(jwt)) {
-                    // 3. Extract username from JWT token
-                    String username = jwtUtils.getUsernameFromToken(jwt);
+                // 2. If token exists, verify it once; an invalid or expired token throws
+                if (jwt != null) {
+                    JwtUtils.VerifiedToken token = jwtUtils.verify(jwt);
+                    // A revoked token is turned away; the check stays in memory unless the token is probably revoked
+                    if (tokenRevocationList.isRevoked(token.id())) {
+                        throw new BadCredentialsException("Token has been revoked");
+                    }
                     
-                    // 4. Load user details using the username
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    // 3. Build the user from the token, or from the user cache when it is enabled
+                    //    or the token predates user claims
+                    UserDetails userDetails = userDetailsCache.isEnabled() ? null : token.user();
+                    if (userDetails == null) {
+                        userDetails = userDetailsCache.get(token.username());
+                    }
                     
-                    // 5. Create authentication object
+                    // 4. Create authentication object
                     UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(
                             userDetails, 
@@ -176,7 +206,7 @@ public class SecurityConfig {
                         new WebAuthenticationDetailsSource().buildDetails(request)
                     );
                     
-                    // 6. Set authentication in the security context
+                    // 5. Set authentication in the security context
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             } catch (Exception e) {
@@ -185,7 +215,7 @@ public class SecurityConfig {
                 logger.error("Cannot set user authentication:", e);
             }
             
-            // 7. Continue with the filter chain
+            // 6. Continue with the filter chain
             filterChain.doFilter(request, response);
         }
 
@@ -0,0 +1,113 @@
+package com.fintracker.config;
+
+import com.fintracker.core.domain.RevokedToken;
+import com.fintracker.core.repository.RevokedTokenRepository;
+import com.fintracker.util.BloomFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers whether an access token has been revoked without a query per request.
+ *
+ * <p>The ids of revoked, unexpired tokens are held in a {@link BloomFilter}. A token the
+ * filter has never seen, which is nearly every token, is let through after a few bit
+ * lookups in memory; only a probable hit is checked against the revocation table. Every
+ * {@code refresh-seconds} the rows revoked since the last read are added, re-reading
+ * {@code overlap-seconds} back so that a revocation committed late, or stamped by a node
+ * whose clock is behind, is not missed. A revocation made on this node takes effect here
+ * at once. The filter is rebuilt from the unexpired rows once a day, after expired ones
+ * are purged, and whenever more ids have been added than it was sized for.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.revocation.expected-tokens:100000}")
+    private long expectedTokens;
+
+    @Value("${app.jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.jwt.revocation.overlap-seconds:60}")
+    private long overlapSeconds;
+
+    private volatile BloomFilter revoked;
+    private LocalDateTime readUpTo;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return Whether the token with this id has been revoked; tokens without an id predate
+     *         revocation and cannot have been
+     */
+    public boolean isRevoked(String tokenId) {
+        BloomFilter filter = revoked;
+        if (tokenId == null || filter == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        boolean isRevoked = revokedTokenRepository.existsByTokenId(tokenId);
+        meterRegistry.counter("auth.revocation.lookups", "result", isRevoked ? "revoked" : "false-positive").increment();
+        return isRevoked;
+    }
+
+    /**
+     * Revoke an access token until it expires
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || isRevoked(tokenId)) {
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .revokedAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()))
+                .build());
+        BloomFilter filter = revoked;
+        if (filter != null) {
+            filter.put(tokenId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.jwt.revocation.rebuild-cron:0 30 3 * * ?}")
+    public synchronized void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> tokenIds = revokedTokenRepository.findUnexpiredTokenIds(startedAt);
+        BloomFilter filter = new BloomFilter(Math.max(expectedTokens, tokenIds.size() * 2L), falsePositiveRate);
+        tokenIds.forEach(filter::put);
+        revoked = filter;
+        readUpTo = startedAt;
+        log.info("Built the access token revocation list from {} revoked tokens", tokenIds.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.refresh-seconds:5}", initialDelayString = "${app.jwt.revocation.refresh-seconds:5}",
+            timeUnit = TimeUnit.SECONDS)
+    public synchronized void refresh() {
+        BloomFilter filter = revoked;
+        if (filter == null || filter.isSaturated()) {
+            rebuild();
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> tokenIds = revokedTokenRepository.findTokenIdsRevokedSince(readUpTo.minusSeconds(overlapSeconds));
+        tokenIds.forEach(filter::put);
+        readUpTo = startedAt;
+    }
+}
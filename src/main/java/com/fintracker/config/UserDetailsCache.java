@@ -0,0 +1,93 @@
+package com.fintracker.config;
+
+import com.fintracker.core.service.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, expiring cache of user details for authenticating requests.
+ *
+ * <p>Tokens carry the user's id and authorities, so requests are normally authorised from
+ * the token alone. Deployments that want a change to a user to take effect before the
+ * user's token expires enable this cache instead: every request then checks the user
+ * against a copy that is at most {@code ttl-seconds} old, and an update or deletion
+ * through {@link com.fintracker.core.service.UserService} drops the copy straight away.
+ * Tokens issued before user claims existed always go through it.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final UserDetailsService userDetailsService;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.security.user-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.security.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.security.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private record Entry(UserDetails userDetails, long expiresAt) {
+    }
+
+    public UserDetailsCache(UserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The user's details without their password, loaded at most once per time to live while enabled
+     *
+     * @throws org.springframework.security.core.userdetails.UsernameNotFoundException If the user does not exist
+     */
+    public UserDetails get(String username) {
+        if (!enabled) {
+            return withoutPassword(userDetailsService.loadUserByUsername(username));
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(username);
+        if (entry != null && now - entry.expiresAt() < 0) {
+            return entry.userDetails();
+        }
+        UserDetails userDetails = withoutPassword(userDetailsService.loadUserByUsername(username));
+        if (entries.size() >= maxSize) {
+            // Expired entries first; if every entry is still live, start over rather than grow
+            entries.values().removeIf(cached -> now - cached.expiresAt() >= 0);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(username, new Entry(userDetails, now + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return userDetails;
+    }
+
+    public void evict(String username) {
+        entries.remove(username);
+    }
+
+    // After commit, so the next request reloads the user as changed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.getUsername());
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static UserDetails withoutPassword(UserDetails userDetails) {
+        return userDetails instanceof AuthenticatedUser authenticatedUser ? authenticatedUser.withoutPassword() : userDetails;
+    }
+}
@@ -0,0 +1,35 @@
+package com.fintracker.config;
+
+import com.fintracker.core.domain.UserOwned;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Lifts the {@link UserOwned} filter for work that must reach every user's rows although it
+ * is started by one user's request, such as merging shared categories or revaluing every
+ * holding of an imported ticker. Must be called inside a transaction; the filter is switched
+ * back on for the current user once the work returns.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserScope {
+
+    private final EntityManager entityManager;
+
+    public <T> T unscoped(Supplier<T> work) {
+        Session session = entityManager.unwrap(Session.class);
+        if (session.getEnabledFilter(UserOwned.FILTER) == null) {
+            return work.get();
+        }
+        session.disableFilter(UserOwned.FILTER);
+        try {
+            return work.get();
+        } finally {
+            CurrentUser.id().ifPresent(userId -> session.enableFilter(UserOwned.FILTER).setParameter(UserOwned.USER_ID, userId));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fintracker.config;
+
+import com.fintracker.core.domain.UserOwned;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Restricts every query in a transaction begun for an authenticated request to the
+ * authenticated user's rows, by switching on the {@link UserOwned} filter for the
+ * transaction's session. Repository methods always run in a transaction, so no query on a
+ * user-owned entity reaches the database without the user's id in its WHERE clause.
+ *
+ * <p>Work without an authenticated user, such as the scheduler, retry worker and login
+ * pool, runs unscoped.
+ */
+public class UserScopedTransactionManager extends JpaTransactionManager {
+
+    public UserScopedTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        CurrentUser.id().ifPresent(userId -> {
+            EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            if (holder != null) {
+                holder.getEntityManager().unwrap(Session.class)
+                        .enableFilter(UserOwned.FILTER)
+                        .setParameter(UserOwned.USER_ID, userId);
+            }
+        });
+    }
+}
@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,7 +18,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts",
+        indexes = @Index(name = "idx_accounts_user", columnList = "user_id"))
+@FilterDef(name = UserOwned.FILTER, defaultCondition = UserOwned.CONDITION,
+        parameters = @ParamDef(name = UserOwned.USER_ID, type = Long.class))
+@Filter(name = UserOwned.FILTER, condition = UserOwned.CONDITION)
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,71 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "categorization_rules",
+        indexes = @Index(name = "idx_categorization_rules_user", columnList = "user_id"))
+@Filter(name = UserOwned.FILTER, condition = UserOwned.CONDITION)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class CategorizationRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String matchType; // CONTAINS, REGEX
+
+    @Column
+    private String pattern; // Matched against the description; blank means filters only
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal maxAmount;
+
+    @Column
+    private String transactionType; // EXPENSE, INCOME, or null for any
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id")
+    private Account account;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private int priority; // Lower values win when several rules match
+
+    @Column(nullable = false)
+    private boolean active;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -14,7 +14,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "categories")
+@Table(name = "categories",
+        uniqueConstraints = @UniqueConstraint(name = "uk_categories_name_type", columnNames = {"name", "type"}))
 @Data
 @Builder
 @NoArgsConstructor
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,7 +14,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "investments")
+@Table(name = "investments",
+        indexes = @Index(name = "idx_investments_user", columnList = "user_id"))
+@Filter(name = UserOwned.FILTER, condition = UserOwned.CONDITION)
 @Data
 @Builder
 @NoArgsConstructor
@@ -46,6 +49,9 @@ public class Investment {
     @Column(precision = 10, scale = 2)
     private BigDecimal expectedReturnRate;
 
+    @Column(precision = 10, scale = 2)
+    private BigDecimal volatility; // Annualized standard deviation of returns, in percent
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -56,6 +62,15 @@ public class Investment {
     @Column
     private String ticker; // For stocks or mutual funds
 
+    @Column(precision = 19, scale = 6)
+    private BigDecimal units; // Units held, used to revalue the holding from ticker prices
+
+    @Column
+    private String lotMatchingMethod; // FIFO, LIFO, AVERAGE; sales are matched FIFO when not set
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal costBasis; // Cost of the units still held, maintained as lots are bought and sold
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
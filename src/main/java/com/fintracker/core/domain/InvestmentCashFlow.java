@@ -0,0 +1,49 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Money moved into or out of an investment after its initial purchase, such as a
+ * SIP instalment, a partial redemption or a paid-out dividend.
+ */
+@Entity
+@Table(name = "investment_cash_flows",
+        indexes = @Index(name = "idx_investment_cash_flows_investment", columnList = "investment_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class InvestmentCashFlow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "investment_id", nullable = false)
+    private Investment investment;
+
+    @Column(nullable = false)
+    private LocalDate flowDate;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount; // Always positive; the direction comes from flowType
+
+    @Column(nullable = false)
+    private String flowType; // CONTRIBUTION, WITHDRAWAL, DIVIDEND
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
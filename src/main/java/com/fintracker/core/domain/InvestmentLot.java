@@ -0,0 +1,59 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Units bought in one purchase, such as a single SIP instalment. Sales draw units out
+ * of lots, and the remaining units and cost are kept on the lot so matching never has
+ * to replay earlier sales.
+ */
+@Entity
+@Table(name = "investment_lots",
+        indexes = @Index(name = "idx_investment_lots_open", columnList = "investment_id, closed, acquired_on"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class InvestmentLot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "investment_id", nullable = false)
+    private Investment investment;
+
+    @Column(name = "acquired_on", nullable = false)
+    private LocalDate acquiredOn;
+
+    @Column(nullable = false, precision = 19, scale = 6)
+    private BigDecimal units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal cost;
+
+    @Column(nullable = false, precision = 19, scale = 6)
+    private BigDecimal remainingUnits;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal remainingCost;
+
+    @Column(nullable = false)
+    private boolean closed; // Set once every unit has been sold
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,41 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily closing price of a ticker. Tickers are stored upper-cased; there is at most
+ * one price per ticker and day, and re-importing a day overwrites it.
+ */
+@Entity
+@Table(name = "investment_prices",
+        uniqueConstraints = @UniqueConstraint(name = "uk_investment_prices_ticker_date", columnNames = {"ticker", "price_date"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvestmentPrice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String ticker;
+
+    @Column(name = "price_date", nullable = false)
+    private LocalDate priceDate;
+
+    @Column(nullable = false, precision = 19, scale = 6)
+    private BigDecimal price;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,42 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One point of an investment's value history. Recent points are daily; background
+ * compaction thins older ones to one per week and then one per month, recording the
+ * resolution each surviving point stands for.
+ */
+@Entity
+@Table(name = "investment_valuations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_investment_valuations_day", columnNames = {"investment_id", "valuation_date"}),
+        indexes = @Index(name = "idx_investment_valuations_resolution", columnList = "resolution, valuation_date"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvestmentValuation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "investment_id", nullable = false)
+    private Long investmentId;
+
+    @Column(name = "valuation_date", nullable = false)
+    private LocalDate valuationDate;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private String resolution; // DAILY, WEEKLY, MONTHLY
+}
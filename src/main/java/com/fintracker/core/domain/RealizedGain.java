@@ -0,0 +1,71 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The part of a sale matched against one lot. Gain, financial year and holding term are
+ * fixed when the sale is recorded, so capital-gains reports only have to add rows up.
+ */
+@Entity
+@Table(name = "realized_gains",
+        indexes = {
+                @Index(name = "idx_realized_gains_investment", columnList = "investment_id, sale_date"),
+                @Index(name = "idx_realized_gains_financial_year", columnList = "financial_year")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class RealizedGain {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "investment_id", nullable = false)
+    private Investment investment;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lot_id", nullable = false)
+    private InvestmentLot lot;
+
+    @Column(nullable = false)
+    private LocalDate acquiredOn;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(nullable = false, precision = 19, scale = 6)
+    private BigDecimal units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal proceeds;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal costBasis;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal gain;
+
+    @Column(name = "financial_year", nullable = false)
+    private int financialYear; // Calendar year in which the financial year starts
+
+    @Column(nullable = false)
+    private boolean longTerm;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
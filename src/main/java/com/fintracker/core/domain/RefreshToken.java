@@ -0,0 +1,52 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A long-lived token that obtains new access tokens. Only a SHA-256 hash of the token is
+ * kept, so the table holds nothing a client could use. A token is used once: refreshing
+ * revokes it and issues its replacement.
+ */
+@Entity
+@Table(name = "refresh_tokens",
+        indexes = {
+                @Index(name = "idx_refresh_tokens_hash", columnList = "token_hash", unique = true),
+                @Index(name = "idx_refresh_tokens_user", columnList = "user_id")
+        })
+@Filter(name = UserOwned.FILTER, condition = UserOwned.CONDITION)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column
+    private LocalDateTime revokedAt; // Set when the token is refreshed or its user logs out
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,7 +16,13 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "scheduled_transactions")
+@Table(name = "scheduled_transactions",
+        indexes = {
+                @Index(name = "idx_scheduled_transactions_due", columnList = "active, due_at"),
+                @Index(name = "idx_scheduled_transactions_claim", columnList = "claim_token"),
+                @Index(name = "idx_scheduled_transactions_user", columnList = "user_id")
+        })
+@Filter(name = UserOwned.FILTER, condition = UserOwned.CONDITION)
 @Data
 @Builder
 @NoArgsConstructor
@@ -34,10 +41,13 @@ public class ScheduledTransaction {
     private BigDecimal amount;
 
     @Column(nullable = false)
-    private String frequency; // DAILY, WEEKLY, MONTHLY, YEARLY
+    private String frequency; // DAILY, WEEKLY, MONTHLY, YEARLY or a recurrence rule such as FREQ=MONTHLY;BYMONTHDAY=15,-1
 
     @Column(nullable = false)
-    private LocalDateTime nextDueDate;
+    private LocalDateTime nextDueDate; // Wall-clock time in the owner's time zone
+
+    @Column(name = "due_at")
+    private LocalDateTime dueAt; // The next due date as server time, which the scheduler compares with
 
     @Column(nullable = false)
     private String transactionType; // EXPENSE, INCOME
@@ -54,12 +64,25 @@ public class ScheduledTransaction {
     @JoinColumn(name = "user_id", nullable = false)
     private User createdBy;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "investment_id")
+    private Investment investment; // Set when the schedule pays into an investment, e.g. a SIP instalment
+
     @Column
     private String notes;
 
     @Column(nullable = false)
     private boolean active;
 
+    @Column
+    private Long lastRunId; // Batch run that last executed this schedule, so a resumed run never posts it twice
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken; // Set while one executor owns the due occurrence; cleared when it is posted
+
+    @Column
+    private LocalDateTime claimedAt; // A claim older than the claim timeout is treated as abandoned
+
     @OneToMany(mappedBy = "scheduledTransaction", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Transaction> transactions = new HashSet<>();
 
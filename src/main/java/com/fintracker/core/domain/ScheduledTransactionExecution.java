@@ -0,0 +1,61 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Journal entry for posting one schedule from one due occurrence onwards. The schedule
+ * and occurrence are unique together, so the same occurrence can never be posted twice;
+ * a failed posting keeps its entry and is retried with a growing delay until it posts or
+ * runs out of attempts.
+ */
+@Entity
+@Table(name = "scheduled_transaction_executions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_scheduled_transaction_executions_occurrence",
+                columnNames = {"scheduled_transaction_id", "occurrence_date"}),
+        indexes = @Index(name = "idx_scheduled_transaction_executions_retry", columnList = "status, next_attempt_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransactionExecution {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "scheduled_transaction_id", nullable = false)
+    private Long scheduledTransactionId; // Kept as a plain id so the journal outlives a deleted schedule
+
+    @Column(nullable = false)
+    private Long accountId; // Lets each node retry only its own account shard
+
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDateTime occurrenceDate; // The due date the posting started from
+
+    @Column(nullable = false)
+    private String status; // POSTED, FAILED, DEAD, SKIPPED
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private int occurrencesPosted; // More than one when missed periods were caught up
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // Set while FAILED
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,56 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One pass of the scheduled transaction batch over one shard of the accounts. The
+ * checkpoint is the highest schedule id below which every due schedule has been handled,
+ * so a run interrupted by a crash or a restart carries on from there with its original
+ * cut-off instead of starting over.
+ */
+@Entity
+@Table(name = "scheduled_transaction_runs",
+        indexes = @Index(name = "idx_scheduled_transaction_runs_status", columnList = "status, started_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransactionRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime cutoff; // Schedules due before this instant belong to the run
+
+    @Column(nullable = false)
+    private String status; // RUNNING, COMPLETED, ABANDONED
+
+    @Column(nullable = false)
+    private int shardIndex; // The run covers accounts whose id leaves this remainder by the shard count
+
+    @Column(nullable = false)
+    private int shardCount;
+
+    @Column(nullable = false)
+    private long checkpointId;
+
+    @Column(nullable = false)
+    private long executedCount; // Transactions posted, counting every caught-up occurrence
+
+    @Column(nullable = false)
+    private long failedCount;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,40 @@
+package com.fintracker.core.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A time-limited claim by one application node, either on a scheduled job or, for names
+ * starting with {@code node:}, on the node's own membership. The holder keeps it alive by
+ * renewing it on every heartbeat; once it expires any node may take it over.
+ */
+@Entity
+@Table(name = "scheduler_leases",
+        indexes = @Index(name = "idx_scheduler_leases_expires", columnList = "expires_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLease {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 100)
+    private String owner; // Node id of the holder
+
+    @Column(nullable = false)
+    private LocalDateTime acquiredAt;
+
+    @Column(nullable = false)
+    private LocalDateTime renewedAt; // Last heartbeat
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -38,6 +38,9 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    @Column(length = 64)
+    private String timezone; // IANA zone id such as Europe/Berlin that the user's schedules fall due in; the server's zone when null
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
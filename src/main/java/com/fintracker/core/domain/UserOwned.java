@@ -0,0 +1,16 @@
+package com.fintracker.core.domain;
+
+/**
+ * The Hibernate filter that restricts queries on user-owned entities to a single user's
+ * rows. Every entity with an owning {@code user_id} column declares it; it is defined on
+ * {@link Account} and switched on for the authenticated user by the transaction manager.
+ */
+public final class UserOwned {
+
+    public static final String FILTER = "userOwned";
+    public static final String USER_ID = "userId";
+    public static final String CONDITION = "user_id = :" + USER_ID;
+
+    private UserOwned() {
+    }
+}
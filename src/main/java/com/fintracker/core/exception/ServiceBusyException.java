@@ -0,0 +1,19 @@
+package com.fintracker.core.exception;
+
+/**
+ * Thrown when work is turned away because the capacity for it is used up, rather than
+ * queued until it times out
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,24 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.CategorizationRule;
+import com.fintracker.core.domain.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CategorizationRuleRepository extends JpaRepository<CategorizationRule, Long> {
+    List<CategorizationRule> findByUserId(Long userId);
+
+    @Query("SELECT r FROM CategorizationRule r LEFT JOIN FETCH r.account JOIN FETCH r.category " +
+            "WHERE r.user.id = :userId AND r.active = true ORDER BY r.priority ASC, r.id ASC")
+    List<CategorizationRule> findActiveRulesForUser(Long userId);
+
+    @Modifying
+    @Query("UPDATE CategorizationRule r SET r.category = :targetCategory, r.updatedAt = :now WHERE r.category.id = :sourceCategoryId")
+    int reassignCategory(Long sourceCategoryId, Category targetCategory, LocalDateTime now);
+}
@@ -0,0 +1,64 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, Long> {
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+    long countByDepth(int depth);
+
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (:categoryId, :categoryId, 0)",
+            nativeQuery = true)
+    int insertSelfPath(Long categoryId);
+
+    // Links every node of the subtree rooted at categoryId to every ancestor of parentId
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth + 1 " +
+            "FROM category_closure p CROSS JOIN category_closure s " +
+            "WHERE p.descendant_id = :parentId AND s.ancestor_id = :categoryId",
+            nativeQuery = true)
+    int insertSubtreePaths(Long categoryId, Long parentId);
+
+    // Cuts the subtree rooted at categoryId loose from its current ancestors, keeping its internal paths
+    @Modifying
+    @Query(value = "DELETE FROM category_closure " +
+            "WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId) " +
+            "AND ancestor_id NOT IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId)",
+            nativeQuery = true)
+    int detachSubtree(Long categoryId);
+
+    @Modifying
+    @Query(value = "DELETE FROM category_closure " +
+            "WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId)",
+            nativeQuery = true)
+    int deleteSubtree(Long categoryId);
+
+    // Merge step 1: unlink the source's strict descendants from the source's strict ancestors
+    @Modifying
+    @Query(value = "DELETE FROM category_closure " +
+            "WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :sourceId AND depth > 0) " +
+            "AND ancestor_id IN (SELECT ancestor_id FROM category_closure WHERE descendant_id = :sourceId AND depth > 0)",
+            nativeQuery = true)
+    int detachDescendantsFromAncestors(Long sourceId);
+
+    // Merge step 2: re-attach the source's descendants under the target, each keeping its depth below the source
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth " +
+            "FROM category_closure p CROSS JOIN category_closure s " +
+            "WHERE p.descendant_id = :targetId AND s.ancestor_id = :sourceId AND s.depth > 0",
+            nativeQuery = true)
+    int attachDescendantsToTarget(Long sourceId, Long targetId);
+
+    // Merge step 3: drop every path that still touches the merged-away node
+    @Modifying
+    @Query(value = "DELETE FROM category_closure WHERE ancestor_id = :categoryId OR descendant_id = :categoryId",
+            nativeQuery = true)
+    int deleteNode(Long categoryId);
+}
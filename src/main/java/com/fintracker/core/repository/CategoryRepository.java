@@ -2,8 +2,11 @@ package com.fintracker.core.repository;
 
 import com.fintracker.core.domain.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +16,20 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByParentId(Long parentId);
     List<Category> findByParentIsNull();
     Optional<Category> findByNameAndType(String name, String type);
-}
\ No newline at end of file
+
+    @Query("SELECT c FROM Category c LEFT JOIN FETCH c.parent")
+    List<Category> findAllWithParent();
+
+    @Query("SELECT c FROM Category c LEFT JOIN FETCH c.parent WHERE c.id IN " +
+            "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :rootId)")
+    List<Category> findSubtreeWithParent(Long rootId);
+
+    @Modifying
+    @Query("UPDATE Category c SET c.parent = :targetCategory, c.updatedAt = :now WHERE c.parent.id = :sourceCategoryId")
+    int reassignParent(Long sourceCategoryId, Category targetCategory, LocalDateTime now);
+
+    // Bypasses the subcategories cascade; callers must move or remove children first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Category c WHERE c.id = :id")
+    int deleteWithoutCascade(Long id);
+}
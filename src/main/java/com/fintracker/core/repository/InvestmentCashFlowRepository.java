@@ -0,0 +1,21 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentCashFlow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InvestmentCashFlowRepository extends JpaRepository<InvestmentCashFlow, Long> {
+    List<InvestmentCashFlow> findByInvestmentIdOrderByFlowDateAsc(Long investmentId);
+
+    @Query("SELECT f FROM InvestmentCashFlow f WHERE f.investment.user.id = :userId ORDER BY f.investment.id, f.flowDate")
+    List<InvestmentCashFlow> findByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM InvestmentCashFlow f WHERE f.investment.id = :investmentId")
+    int deleteByInvestmentId(Long investmentId);
+}
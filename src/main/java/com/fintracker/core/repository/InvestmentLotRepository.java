@@ -0,0 +1,43 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentLot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvestmentLotRepository extends JpaRepository<InvestmentLot, Long> {
+    List<InvestmentLot> findByInvestmentIdOrderByAcquiredOnAscIdAsc(Long investmentId);
+
+    Optional<InvestmentLot> findTopByInvestmentIdOrderByAcquiredOnDesc(Long investmentId);
+
+    // Open lots are read for update, so two sales cannot draw the same units
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM InvestmentLot l WHERE l.investment.id = :investmentId AND l.closed = false " +
+            "ORDER BY l.acquiredOn ASC, l.id ASC")
+    List<InvestmentLot> findOpenLotsOldestFirst(Long investmentId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM InvestmentLot l WHERE l.investment.id = :investmentId AND l.closed = false " +
+            "ORDER BY l.acquiredOn DESC, l.id DESC")
+    List<InvestmentLot> findOpenLotsNewestFirst(Long investmentId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(l.remainingUnits), 0) FROM InvestmentLot l WHERE l.investment.id = :investmentId AND l.closed = false")
+    BigDecimal sumOpenUnits(Long investmentId);
+
+    @Query("SELECT COALESCE(SUM(l.units), 0) FROM InvestmentLot l WHERE l.investment.id = :investmentId AND l.acquiredOn > :date")
+    BigDecimal sumUnitsAcquiredAfter(Long investmentId, LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM InvestmentLot l WHERE l.investment.id = :investmentId")
+    int deleteByInvestmentId(Long investmentId);
+}
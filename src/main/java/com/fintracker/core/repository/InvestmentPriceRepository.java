@@ -0,0 +1,13 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InvestmentPriceRepository extends JpaRepository<InvestmentPrice, Long>, InvestmentPriceRepositoryCustom {
+
+    List<InvestmentPrice> findByTickerOrderByPriceDateAsc(String ticker);
+}
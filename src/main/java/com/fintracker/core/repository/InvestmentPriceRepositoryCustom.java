@@ -0,0 +1,17 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentPrice;
+
+import java.util.List;
+
+public interface InvestmentPriceRepositoryCustom {
+
+    /**
+     * Insert or overwrite a batch of prices, keyed by ticker and date, using JDBC batches
+     * rather than one entity save per row
+     *
+     * @param prices Prices with distinct ticker/date pairs
+     * @return The number of prices written
+     */
+    int upsertPrices(List<InvestmentPrice> prices);
+}
@@ -0,0 +1,85 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentPrice;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class InvestmentPriceRepositoryCustomImpl implements InvestmentPriceRepositoryCustom {
+
+    private static final String UPDATE_PRICE =
+            "UPDATE investment_prices SET price = ?, recorded_at = ? WHERE ticker = ? AND price_date = ?";
+    private static final String INSERT_PRICE =
+            "INSERT INTO investment_prices (ticker, price_date, price, recorded_at) VALUES (?, ?, ?, ?)";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertPrices(List<InvestmentPrice> prices) {
+        if (prices.isEmpty()) {
+            return 0;
+        }
+
+        // Overwrite the days that already exist, then insert whatever the update did not touch
+        List<InvestmentPrice> missing = update(prices);
+        for (int attempt = 1; !missing.isEmpty(); attempt++) {
+            // A savepoint keeps the surrounding transaction usable if the insert fails
+            Savepoint savepoint = jdbcTemplate.execute((ConnectionCallback<Savepoint>) connection -> connection.setSavepoint());
+            try {
+                insert(missing);
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    connection.releaseSavepoint(savepoint);
+                    return null;
+                });
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent import inserted some of the same days since the update; they can be updated now
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    connection.rollback(savepoint);
+                    return null;
+                });
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                missing = update(missing);
+            }
+        }
+        return prices.size();
+    }
+
+    // The prices the update found no row for
+    private List<InvestmentPrice> update(List<InvestmentPrice> prices) {
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_PRICE, prices, prices.size(), (ps, price) -> {
+            ps.setBigDecimal(1, price.getPrice());
+            ps.setTimestamp(2, Timestamp.valueOf(price.getRecordedAt()));
+            ps.setString(3, price.getTicker());
+            ps.setDate(4, Date.valueOf(price.getPriceDate()));
+        })[0];
+
+        List<InvestmentPrice> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(prices.get(i));
+            }
+        }
+        return missing;
+    }
+
+    private void insert(List<InvestmentPrice> prices) {
+        jdbcTemplate.batchUpdate(INSERT_PRICE, prices, prices.size(), (ps, price) -> {
+            ps.setString(1, price.getTicker());
+            ps.setDate(2, Date.valueOf(price.getPriceDate()));
+            ps.setBigDecimal(3, price.getPrice());
+            ps.setTimestamp(4, Timestamp.valueOf(price.getRecordedAt()));
+        });
+    }
+}
@@ -2,15 +2,35 @@ package com.fintracker.core.repository;
 
 import com.fintracker.core.domain.Investment;
 import com.fintracker.core.domain.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface InvestmentRepository extends JpaRepository<Investment, Long> {
     List<Investment> findByUser(User user);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Investment i WHERE i.id = :id")
+    Optional<Investment> findByIdForUpdate(Long id);
+
     List<Investment> findByUserId(Long userId);
     List<Investment> findByInvestmentType(String investmentType);
     List<Investment> findByUserIdAndInvestmentType(Long userId, String investmentType);
+    
+    @Modifying
+    @Query("UPDATE Investment i SET i.currentValue = i.units * " +
+            "(SELECT p.price FROM InvestmentPrice p WHERE p.ticker = UPPER(i.ticker) AND p.priceDate = " +
+            "(SELECT MAX(latest.priceDate) FROM InvestmentPrice latest WHERE latest.ticker = p.ticker)), " +
+            "i.updatedAt = :now " +
+            "WHERE i.units IS NOT NULL AND UPPER(i.ticker) IN :tickers")
+    int revalueFromLatestPrices(Collection<String> tickers, LocalDateTime now);
 }
\ No newline at end of file
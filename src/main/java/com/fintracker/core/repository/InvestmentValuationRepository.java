@@ -0,0 +1,47 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentValuation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InvestmentValuationRepository extends JpaRepository<InvestmentValuation, Long> {
+    List<InvestmentValuation> findByInvestmentIdAndValuationDateBetweenOrderByValuationDateAsc(Long investmentId, LocalDate from, LocalDate to);
+
+    List<InvestmentValuation> findByInvestmentIdInAndResolutionAndValuationDateBeforeOrderByInvestmentIdAscValuationDateAsc(
+            Collection<Long> investmentIds, String resolution, LocalDate before);
+
+    @Query("SELECT DISTINCT v.investmentId FROM InvestmentValuation v WHERE v.resolution = :resolution AND v.valuationDate < :before")
+    List<Long> findInvestmentIdsWithPointsBefore(String resolution, LocalDate before);
+
+    @Modifying
+    @Query("UPDATE InvestmentValuation v SET v.amount = :amount " +
+            "WHERE v.investmentId = :investmentId AND v.valuationDate = :day AND v.resolution = 'DAILY'")
+    int updateDailyAmount(Long investmentId, LocalDate day, BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE InvestmentValuation v SET v.resolution = :resolution WHERE v.id IN :ids")
+    int updateResolution(Collection<Long> ids, String resolution);
+
+    @Modifying
+    @Query("DELETE FROM InvestmentValuation v WHERE v.investmentId = :investmentId")
+    int deleteByInvestmentId(Long investmentId);
+
+    @Modifying
+    @Query("DELETE FROM InvestmentValuation v WHERE v.valuationDate = :day AND v.resolution = 'DAILY' " +
+            "AND v.investmentId IN (SELECT i.id FROM Investment i WHERE i.units IS NOT NULL AND UPPER(i.ticker) IN :tickers)")
+    int deleteDailyPointsForTickers(Collection<String> tickers, LocalDate day);
+
+    @Modifying
+    @Query("INSERT INTO InvestmentValuation (investmentId, valuationDate, amount, resolution) " +
+            "SELECT i.id, :day, i.currentValue, 'DAILY' FROM Investment i " +
+            "WHERE i.units IS NOT NULL AND i.currentValue IS NOT NULL AND UPPER(i.ticker) IN :tickers")
+    int insertDailyPointsForTickers(Collection<String> tickers, LocalDate day);
+}
@@ -0,0 +1,326 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentPrice;
+import com.fintracker.core.exception.ValidationException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * File-backed daily price history, one file per ticker. A file is a sorted run of
+ * fixed-width records (int epoch day, double price) read through a read-only memory
+ * mapping, so range lookups are a binary search over the mapped pages and visiting
+ * points allocates nothing. New days are appended; a correction to an earlier day
+ * rewrites the file and swaps it in atomically.
+ *
+ * <p>This is a read model derived from the {@code investment_prices} table. Imports write
+ * to it only after they commit, and a ticker whose file is missing or empty is rebuilt
+ * from the table on first access, so a new node or a wiped directory fills itself in.
+ * Files are local to each node: a node that already holds a ticker's file does not see
+ * prices imported on another node until that file is deleted.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class PriceHistoryStore {
+
+    static final int RECORD_SIZE = Integer.BYTES + Double.BYTES;
+    private static final String FILE_SUFFIX = ".prices";
+
+    @Value("${app.investments.price-store.directory:./data/prices}")
+    private Path directory;
+
+    private final InvestmentPriceRepository investmentPriceRepository;
+
+    private final ConcurrentMap<String, MappedSeries> mappings = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    /**
+     * Receives price points without boxing them
+     */
+    @FunctionalInterface
+    public interface PricePointConsumer {
+        void accept(int epochDay, double price);
+    }
+
+    /**
+     * A downsampled series in parallel primitive arrays
+     */
+    @lombok.Value
+    public static class PriceSeries {
+        int[] epochDays;
+        double[] prices;
+
+        public int size() {
+            return epochDays.length;
+        }
+    }
+
+    private record MappedSeries(ByteBuffer buffer, int count) {
+        int day(int index) {
+            return buffer.getInt(index * RECORD_SIZE);
+        }
+
+        double price(int index) {
+            return buffer.getDouble(index * RECORD_SIZE + Integer.BYTES);
+        }
+
+        // First index whose day is >= the given day
+        int lowerBound(int epochDay) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (day(mid) < epochDay) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Index of the first record after the given day; unlike {@code lowerBound(epochDay + 1)}
+         * this cannot overflow when the range is left open with {@link Integer#MAX_VALUE}
+         */
+        int upperBound(int epochDay) {
+            return epochDay == Integer.MAX_VALUE ? count : lowerBound(epochDay + 1);
+        }
+    }
+
+    private static final MappedSeries EMPTY = new MappedSeries(ByteBuffer.allocate(0), 0);
+
+    @PostConstruct
+    void createDirectory() throws IOException {
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Record prices for one ticker. Days must be sorted ascending and distinct; a day
+     * that is already stored is overwritten.
+     */
+    public void write(String ticker, int[] epochDays, double[] prices, int count) {
+        if (count == 0) {
+            return;
+        }
+        String key = normalize(ticker);
+        synchronized (writeLock) {
+            MappedSeries existing = series(key);
+            try {
+                if (existing.count() == 0 || epochDays[0] > existing.day(existing.count() - 1)) {
+                    append(key, epochDays, prices, count);
+                } else {
+                    rewrite(key, existing, epochDays, prices, count);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write price history for " + key, e);
+            }
+            mappings.put(key, map(key));
+        }
+    }
+
+    /**
+     * Visit every stored price between two days, inclusive, in date order
+     */
+    public void forEachInRange(String ticker, int fromEpochDay, int toEpochDay, PricePointConsumer consumer) {
+        MappedSeries series = series(normalize(ticker));
+        for (int i = series.lowerBound(fromEpochDay); i < series.count() && series.day(i) <= toEpochDay; i++) {
+            consumer.accept(series.day(i), series.price(i));
+        }
+    }
+
+    /**
+     * @return The most recent price on or before the given day, or NaN if there is none
+     */
+    public double priceOnOrBefore(String ticker, int epochDay) {
+        MappedSeries series = series(normalize(ticker));
+        int index = series.upperBound(epochDay) - 1;
+        return index >= 0 ? series.price(index) : Double.NaN;
+    }
+
+    /**
+     * All prices between two days, inclusive, copied into primitive arrays
+     */
+    public PriceSeries range(String ticker, int fromEpochDay, int toEpochDay) {
+        return downsample(ticker, fromEpochDay, toEpochDay, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reduce the prices between two days to at most {@code maxPoints} points. The range
+     * is cut into equal runs of records and the last (closing) price of each run is kept.
+     */
+    public PriceSeries downsample(String ticker, int fromEpochDay, int toEpochDay, int maxPoints) {
+        if (maxPoints <= 0) {
+            throw new ValidationException("Number of points must be positive");
+        }
+        MappedSeries series = series(normalize(ticker));
+        int from = series.lowerBound(fromEpochDay);
+        int to = series.upperBound(toEpochDay);
+        int available = Math.max(0, to - from);
+        int points = Math.min(available, maxPoints);
+
+        int[] days = new int[points];
+        double[] prices = new double[points];
+        for (int p = 0; p < points; p++) {
+            // Last record of the p-th run; with points == available this is every record
+            int index = from + (int) (((long) (p + 1) * available) / points) - 1;
+            days[p] = series.day(index);
+            prices[p] = series.price(index);
+        }
+        return new PriceSeries(days, prices);
+    }
+
+    public int count(String ticker) {
+        return series(normalize(ticker)).count();
+    }
+
+    private MappedSeries series(String key) {
+        MappedSeries series = mappings.get(key);
+        return series != null ? series : load(key);
+    }
+
+    // Tickers without any prices are not remembered, so prices recorded by another node are found later
+    private MappedSeries load(String key) {
+        synchronized (writeLock) {
+            MappedSeries series = mappings.get(key);
+            if (series != null) {
+                return series;
+            }
+            series = map(key);
+            if (series.count() == 0) {
+                series = rebuild(key);
+            }
+            if (series.count() > 0) {
+                mappings.put(key, series);
+            }
+            return series;
+        }
+    }
+
+    private MappedSeries rebuild(String key) {
+        List<InvestmentPrice> stored = investmentPriceRepository.findByTickerOrderByPriceDateAsc(key);
+        if (stored.isEmpty()) {
+            return EMPTY;
+        }
+        int[] epochDays = new int[stored.size()];
+        double[] prices = new double[stored.size()];
+        for (int i = 0; i < stored.size(); i++) {
+            epochDays[i] = (int) stored.get(i).getPriceDate().toEpochDay();
+            prices[i] = stored.get(i).getPrice().doubleValue();
+        }
+        try {
+            Files.deleteIfExists(file(key));
+            append(key, epochDays, prices, stored.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rebuild price history for " + key, e);
+        }
+        log.info("Rebuilt price history for {} from {} stored prices", key, stored.size());
+        return map(key);
+    }
+
+    private MappedSeries map(String key) {
+        Path file = file(key);
+        if (!Files.exists(file)) {
+            return EMPTY;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int count = (int) (channel.size() / RECORD_SIZE);
+            if (count == 0) {
+                return EMPTY;
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) count * RECORD_SIZE);
+            return new MappedSeries(buffer.order(ByteOrder.BIG_ENDIAN), count);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map price history for " + key, e);
+        }
+    }
+
+    private void append(String key, int[] epochDays, double[] prices, int count) throws IOException {
+        ByteBuffer records = encode(epochDays, prices, 0, count);
+        try (FileChannel channel = FileChannel.open(file(key), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+        }
+    }
+
+    private void rewrite(String key, MappedSeries existing, int[] epochDays, double[] prices, int count) throws IOException {
+        // Merge the stored run with the new one; on equal days the new price wins
+        int[] mergedDays = new int[existing.count() + count];
+        double[] mergedPrices = new double[mergedDays.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < existing.count() || j < count) {
+            if (j == count || (i < existing.count() && existing.day(i) < epochDays[j])) {
+                mergedDays[size] = existing.day(i);
+                mergedPrices[size++] = existing.price(i++);
+            } else {
+                if (i < existing.count() && existing.day(i) == epochDays[j]) {
+                    i++;
+                }
+                mergedDays[size] = epochDays[j];
+                mergedPrices[size++] = prices[j++];
+            }
+        }
+
+        Path target = file(key);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer records = encode(mergedDays, mergedPrices, 0, size);
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Rewrote price history for {} with {} records", key, size);
+    }
+
+    private static ByteBuffer encode(int[] epochDays, double[] prices, int from, int to) {
+        ByteBuffer buffer = ByteBuffer.allocate((to - from) * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        for (int i = from; i < to; i++) {
+            buffer.putInt(epochDays[i]).putDouble(prices[i]);
+        }
+        return buffer.flip();
+    }
+
+    private Path file(String key) {
+        // Keep letters and digits, hex-escape everything else so any ticker is a safe file name
+        StringBuilder name = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                name.append(c);
+            } else {
+                name.append(String.format("_%04x", (int) c));
+            }
+        }
+        return directory.resolve(name.append(FILE_SUFFIX).toString());
+    }
+
+    private static String normalize(String ticker) {
+        if (ticker == null || ticker.isBlank()) {
+            throw new ValidationException("Ticker is required");
+        }
+        return ticker.trim().toUpperCase(Locale.ROOT);
+    }
+}
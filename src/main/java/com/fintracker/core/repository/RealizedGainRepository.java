@@ -0,0 +1,50 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.RealizedGain;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RealizedGainRepository extends JpaRepository<RealizedGain, Long> {
+
+    /**
+     * Realized gains added up per financial year, holding term and, when asked for, investment
+     */
+    interface CapitalGainTotals {
+        Integer getFinancialYear();
+        Long getInvestmentId();
+        Boolean getLongTerm();
+        BigDecimal getProceeds();
+        BigDecimal getCostBasis();
+        BigDecimal getGain();
+    }
+
+    List<RealizedGain> findByInvestmentIdOrderBySaleDateAscIdAsc(Long investmentId);
+
+    Optional<RealizedGain> findTopByInvestmentIdOrderBySaleDateDesc(Long investmentId);
+
+    @Query("SELECT g.financialYear AS financialYear, g.longTerm AS longTerm, SUM(g.proceeds) AS proceeds, " +
+            "SUM(g.costBasis) AS costBasis, SUM(g.gain) AS gain FROM RealizedGain g " +
+            "WHERE g.investment.user.id = :userId GROUP BY g.financialYear, g.longTerm ORDER BY g.financialYear")
+    List<CapitalGainTotals> sumByFinancialYear(Long userId);
+
+    @Query("SELECT g.financialYear AS financialYear, g.investment.id AS investmentId, g.longTerm AS longTerm, " +
+            "SUM(g.proceeds) AS proceeds, SUM(g.costBasis) AS costBasis, SUM(g.gain) AS gain FROM RealizedGain g " +
+            "WHERE g.investment.user.id = :userId AND g.financialYear = :financialYear " +
+            "GROUP BY g.financialYear, g.investment.id, g.longTerm ORDER BY g.investment.id")
+    List<CapitalGainTotals> sumByInvestmentForFinancialYear(Long userId, int financialYear);
+
+    @Query("SELECT COALESCE(SUM(g.units), 0) FROM RealizedGain g WHERE g.investment.id = :investmentId AND g.saleDate > :date")
+    BigDecimal sumUnitsSoldAfter(Long investmentId, LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM RealizedGain g WHERE g.investment.id = :investmentId")
+    int deleteByInvestmentId(Long investmentId);
+}
@@ -0,0 +1,36 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.ScheduledTransactionExecution;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledTransactionExecutionRepository extends JpaRepository<ScheduledTransactionExecution, Long> {
+    Optional<ScheduledTransactionExecution> findByScheduledTransactionIdAndOccurrenceDate(Long scheduledTransactionId, LocalDateTime occurrenceDate);
+
+    /**
+     * The most recently updated entries in the given statuses, of accounts the current user can see.
+     * Entries are not filtered by user themselves, so the account is joined as a query root, which is.
+     */
+    @Query("SELECT e FROM ScheduledTransactionExecution e, Account a " +
+            "WHERE a.id = e.accountId AND e.status IN :statuses ORDER BY e.updatedAt DESC")
+    List<ScheduledTransactionExecution> findVisibleByStatusIn(Collection<String> statuses, Pageable pageable);
+
+    @Query("SELECT e FROM ScheduledTransactionExecution e, Account a WHERE e.id = :id AND a.id = e.accountId")
+    Optional<ScheduledTransactionExecution> findVisibleById(Long id);
+
+    /**
+     * Failed postings of one account shard whose next attempt is due, oldest first
+     */
+    @Query("SELECT e FROM ScheduledTransactionExecution e " +
+            "WHERE e.status = 'FAILED' AND e.nextAttemptAt <= :now " +
+            "AND MOD(e.accountId, :shardCount) = :shardIndex ORDER BY e.nextAttemptAt")
+    List<ScheduledTransactionExecution> findRetryable(LocalDateTime now, int shardCount, int shardIndex, Pageable pageable);
+}
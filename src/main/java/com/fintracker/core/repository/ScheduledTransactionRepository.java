@@ -4,14 +4,32 @@ import com.fintracker.core.domain.Account;
 import com.fintracker.core.domain.Category;
 import com.fintracker.core.domain.ScheduledTransaction;
 import com.fintracker.core.domain.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ScheduledTransactionRepository extends JpaRepository<ScheduledTransaction, Long> {
+
+    // Occurrences that failed belong to the retry worker until they post
+    String NOT_FAILED = "AND NOT EXISTS (SELECT 1 FROM ScheduledTransactionExecution e " +
+            "WHERE e.scheduledTransactionId = s.id AND e.occurrenceDate = s.nextDueDate AND e.status IN ('FAILED', 'DEAD')) ";
+
+    /**
+     * A due schedule and the account it posts to
+     */
+    interface DueSchedule {
+        Long getId();
+        Long getAccountId();
+        LocalDateTime getDueAt();
+    }
+
     List<ScheduledTransaction> findByAccount(Account account);
     List<ScheduledTransaction> findByAccountId(Long accountId);
     List<ScheduledTransaction> findByCategory(Category category);
@@ -21,4 +39,63 @@ public interface ScheduledTransactionRepository extends JpaRepository<ScheduledT
     List<ScheduledTransaction> findByNextDueDateBefore(LocalDateTime date);
     List<ScheduledTransaction> findByActiveTrue();
     List<ScheduledTransaction> findByActiveTrueAndNextDueDateBefore(LocalDateTime date);
-}
\ No newline at end of file
+
+    @Query("SELECT s.id AS id, s.account.id AS accountId FROM ScheduledTransaction s " +
+            "WHERE s.active = true AND s.dueAt < :cutoff AND s.id > :afterId " +
+            "AND (s.lastRunId IS NULL OR s.lastRunId <> :runId) " +
+            "AND MOD(s.account.id, :shardCount) = :shardIndex " + NOT_FAILED + "ORDER BY s.id")
+    List<DueSchedule> findDueForRun(LocalDateTime cutoff, Long afterId, Long runId, int shardCount, int shardIndex, Pageable pageable);
+
+    /**
+     * Upcoming schedules of one account shard in due order, paged by a (due date, id) key;
+     * a null key starts from the oldest. Occurrences awaiting a retry are left out.
+     */
+    @Query("SELECT s.id AS id, s.account.id AS accountId, s.dueAt AS dueAt FROM ScheduledTransaction s " +
+            "WHERE s.active = true AND s.dueAt < :dueBefore " +
+            "AND (:afterDue IS NULL OR s.dueAt > :afterDue OR (s.dueAt = :afterDue AND s.id > :afterId)) " +
+            "AND MOD(s.account.id, :shardCount) = :shardIndex " + NOT_FAILED +
+            "ORDER BY s.dueAt, s.id")
+    List<DueSchedule> findUpcoming(LocalDateTime dueBefore, LocalDateTime afterDue, Long afterId,
+                                   int shardCount, int shardIndex, Pageable pageable);
+
+    /**
+     * Claim the due occurrence of each schedule that nobody else holds; only one claimant can win a row
+     *
+     * @return The number of schedules claimed
+     */
+    @Modifying
+    @Query("UPDATE ScheduledTransaction s SET s.claimToken = :token, s.claimedAt = :now " +
+            "WHERE s.id IN :ids AND s.active = true AND s.dueAt < :dueBefore " +
+            "AND (s.claimToken IS NULL OR s.claimedAt < :staleBefore)")
+    int claimDue(Collection<Long> ids, String token, LocalDateTime dueBefore, LocalDateTime now, LocalDateTime staleBefore);
+
+    @Query("SELECT s FROM ScheduledTransaction s JOIN FETCH s.account JOIN FETCH s.category JOIN FETCH s.createdBy " +
+            "WHERE s.claimToken = :token ORDER BY s.id")
+    List<ScheduledTransaction> findClaimed(String token);
+
+    @Modifying
+    @Query("UPDATE ScheduledTransaction s SET s.claimToken = NULL, s.claimedAt = NULL WHERE s.claimToken = :token")
+    int releaseClaims(String token);
+
+    /**
+     * Give schedules saved before due times were tracked a due time; until their owners pick a
+     * time zone it is the due date itself
+     */
+    @Modifying
+    @Query("UPDATE ScheduledTransaction s SET s.dueAt = s.nextDueDate WHERE s.dueAt IS NULL")
+    int backfillDueTimes();
+
+    @Query("SELECT s FROM ScheduledTransaction s WHERE s.account.user.id = :userId AND s.active = true")
+    List<ScheduledTransaction> findActiveByAccountOwner(Long userId);
+
+    @Query("SELECT s FROM ScheduledTransaction s WHERE s.createdBy.id = :userId AND s.active = true AND s.investment IS NOT NULL")
+    List<ScheduledTransaction> findActiveInvestmentContributions(Long userId);
+
+    @Modifying
+    @Query("UPDATE ScheduledTransaction s SET s.investment = NULL, s.updatedAt = :now WHERE s.investment.id = :investmentId")
+    int detachInvestment(Long investmentId, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ScheduledTransaction s SET s.category = :targetCategory, s.updatedAt = :now WHERE s.category.id = :sourceCategoryId")
+    int reassignCategory(Long sourceCategoryId, Category targetCategory, LocalDateTime now);
+}
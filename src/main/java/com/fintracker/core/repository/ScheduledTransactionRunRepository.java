@@ -0,0 +1,26 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.ScheduledTransactionRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledTransactionRunRepository extends JpaRepository<ScheduledTransactionRun, Long> {
+    Optional<ScheduledTransactionRun> findFirstByStatusAndShardIndexAndShardCountOrderByStartedAtDesc(String status, int shardIndex, int shardCount);
+
+    /**
+     * Close unfinished runs left over from a different number of nodes; their shards no longer exist
+     */
+    @Modifying
+    @Query("UPDATE ScheduledTransactionRun r SET r.status = 'ABANDONED', r.finishedAt = :now " +
+            "WHERE r.status = 'RUNNING' AND r.shardCount <> :shardCount")
+    int abandonRunsOfOtherShardCounts(int shardCount, LocalDateTime now);
+
+    List<ScheduledTransactionRun> findTop20ByOrderByStartedAtDesc();
+}
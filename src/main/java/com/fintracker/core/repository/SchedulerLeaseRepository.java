@@ -0,0 +1,40 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Create a lease nobody has held before. A plain insert, so that two nodes racing for a
+     * new lease end in a duplicate key for one of them rather than a silent overwrite.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_leases (name, owner, acquired_at, renewed_at, expires_at) " +
+            "VALUES (:name, :owner, :now, :now, :expiresAt)", nativeQuery = true)
+    int insertLease(String name, String owner, LocalDateTime now, LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.acquiredAt = :now, l.renewedAt = :now, l.expiresAt = :expiresAt " +
+            "WHERE l.name = :name AND l.expiresAt <= :now")
+    int takeOverExpired(String name, String owner, LocalDateTime now, LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.renewedAt = :now, l.expiresAt = :expiresAt " +
+            "WHERE l.name = :name AND l.owner = :owner AND l.expiresAt > :now")
+    int renew(String name, String owner, LocalDateTime now, LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :expiresAt WHERE l.name = :name AND l.owner = :owner")
+    int release(String name, String owner, LocalDateTime expiresAt);
+
+    @Query("SELECT l.owner FROM SchedulerLease l WHERE l.name LIKE 'node:%' AND l.expiresAt > :now ORDER BY l.owner")
+    List<String> findLiveNodes(LocalDateTime now);
+}
@@ -5,14 +5,16 @@ import com.fintracker.core.domain.Category;
 import com.fintracker.core.domain.Transaction;
 import com.fintracker.core.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     List<Transaction> findByAccount(Account account);
     List<Transaction> findByAccountId(Long accountId);
     List<Transaction> findByCategory(Category category);
@@ -26,4 +28,33 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     
     @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId AND t.transactionDate BETWEEN :start AND :end")
     List<Transaction> findByAccountIdAndDateRange(Long accountId, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+    
+    @Query("SELECT t FROM Transaction t WHERE t.category.id IN " +
+            "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)")
+    List<Transaction> findByCategorySubtree(Long categoryId);
+    
+    @Query("SELECT t FROM Transaction t WHERE t.category.id IN " +
+            "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId) " +
+            "AND t.transactionDate BETWEEN :start AND :end")
+    List<Transaction> findByCategorySubtreeAndDateRange(Long categoryId, LocalDateTime start, LocalDateTime end);
+    
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.category.id IN " +
+            "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId) " +
+            "AND t.transactionType = :transactionType AND t.transactionDate BETWEEN :start AND :end")
+    BigDecimal sumAmountByCategorySubtreeAndDateRange(Long categoryId, String transactionType, LocalDateTime start, LocalDateTime end);
+    
+    @Modifying
+    @Query("UPDATE Transaction t SET t.category = :targetCategory, t.updatedAt = :now " +
+            "WHERE t.createdBy.id = :userId " +
+            "AND (:fromCategoryId IS NULL OR t.category.id = :fromCategoryId OR (:includeSubcategories = true AND t.category.id IN " +
+            "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :fromCategoryId))) " +
+            "AND (:descriptionPattern IS NULL OR LOWER(t.description) LIKE :descriptionPattern ESCAPE '!') " +
+            "AND (:start IS NULL OR t.transactionDate >= :start) " +
+            "AND (:end IS NULL OR t.transactionDate <= :end)")
+    int recategorize(Long userId, Long fromCategoryId, boolean includeSubcategories, String descriptionPattern,
+                     LocalDateTime start, LocalDateTime end, Category targetCategory, LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Transaction t SET t.category = :targetCategory, t.updatedAt = :now WHERE t.category.id = :sourceCategoryId")
+    int reassignCategory(Long sourceCategoryId, Category targetCategory, LocalDateTime now);
+}
@@ -0,0 +1,17 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.Transaction;
+
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Insert transactions with JDBC batches rather than one entity save per row. The
+     * generated ids are not read back, and account balances are left to the caller.
+     *
+     * @param transactions New transactions with account, category and user set
+     * @return The number of transactions inserted
+     */
+    int insertAll(List<Transaction> transactions);
+}
@@ -0,0 +1,48 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (description, amount, transaction_date, transaction_type, account_id, category_id, " +
+                    "user_id, scheduled_transaction_id, notes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions, BATCH_SIZE, (ps, transaction) -> {
+            ps.setString(1, transaction.getDescription());
+            ps.setBigDecimal(2, transaction.getAmount());
+            ps.setTimestamp(3, Timestamp.valueOf(transaction.getTransactionDate()));
+            ps.setString(4, transaction.getTransactionType());
+            ps.setLong(5, transaction.getAccount().getId());
+            ps.setLong(6, transaction.getCategory().getId());
+            ps.setLong(7, transaction.getCreatedBy().getId());
+            if (transaction.getScheduledTransaction() != null) {
+                ps.setLong(8, transaction.getScheduledTransaction().getId());
+            } else {
+                ps.setNull(8, Types.BIGINT);
+            }
+            ps.setString(9, transaction.getNotes());
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+        });
+        return transactions.size();
+    }
+}
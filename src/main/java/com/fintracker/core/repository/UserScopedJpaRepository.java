@@ -0,0 +1,43 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.UserOwned;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.annotations.Filter;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+import java.util.Optional;
+
+/**
+ * Base class of every repository. Hibernate filters apply to queries but not to loading an
+ * entity by id, so while the {@link UserOwned} filter is on, {@link #findById} on a
+ * user-owned entity is answered by a query instead, and another user's row is not found.
+ */
+public class UserScopedJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> {
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+    private final EntityManager entityManager;
+    private final boolean userOwned;
+
+    public UserScopedJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+        this.userOwned = entityInformation.getJavaType().isAnnotationPresent(Filter.class)
+                && entityInformation.getIdAttribute() != null;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        if (!userOwned || entityManager.unwrap(Session.class).getEnabledFilter(UserOwned.FILTER) == null) {
+            return super.findById(id);
+        }
+        String jpql = "SELECT e FROM " + entityInformation.getEntityName() + " e WHERE e."
+                + entityInformation.getIdAttribute().getName() + " = :id";
+        return entityManager.createQuery(jpql, entityInformation.getJavaType())
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+}
@@ -0,0 +1,262 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Projects a user's account balances forward from their current values and the active
+ * scheduled transactions, without writing anything.
+ *
+ * <p>Every schedule is expanded lazily by a cursor over its compiled recurrence rule,
+ * starting from its due date the same way posting does. The cursors sit in a heap ordered
+ * by their next occurrence, so occurrences are applied in time order and never beyond the
+ * horizon. Balances are tracked in cents and sampled at the end of every day or week.
+ * Occurrences that are already overdue count on the first day, since the next run posts them.
+ */
+@Service
+@RequiredArgsConstructor
+public class CashFlowForecastService {
+
+    static final int MAX_MONTHS = 24;
+    static final String DAILY = "DAILY";
+    static final String WEEKLY = "WEEKLY";
+
+    private final AccountService accountService;
+    private final ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @Value
+    @Builder
+    public static class AccountBalance {
+        Long accountId;
+        BigDecimal balance;
+    }
+
+    @Value
+    @Builder
+    public static class ForecastPoint {
+        LocalDate date;
+        BigDecimal totalBalance;
+        List<AccountBalance> balances;
+    }
+
+    @Value
+    @Builder
+    public static class LowBalanceWarning {
+        Long accountId;
+        String accountName;
+        LocalDate firstBelowOn;
+        BigDecimal lowestBalance;
+        LocalDate lowestOn;
+    }
+
+    @Value
+    @Builder
+    public static class Forecast {
+        Long userId;
+        LocalDate from;
+        LocalDate to;
+        String granularity;
+        BigDecimal lowBalanceThreshold;
+        List<ForecastPoint> points;
+        List<LowBalanceWarning> warnings;
+    }
+
+    /**
+     * Forecast the balances of every account of a user
+     *
+     * @param months How far ahead to forecast
+     * @param granularity DAILY or WEEKLY points; the last point always falls on the horizon
+     * @param lowBalanceThreshold Accounts projected to drop below this are reported; zero when null
+     */
+    @Transactional(readOnly = true)
+    public Forecast forecast(Long userId, int months, String granularity, BigDecimal lowBalanceThreshold) {
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new ValidationException("Forecast horizon must be between 1 and " + MAX_MONTHS + " months");
+        }
+        if (!DAILY.equals(granularity) && !WEEKLY.equals(granularity)) {
+            throw new ValidationException("Granularity must be DAILY or WEEKLY");
+        }
+        BigDecimal threshold = lowBalanceThreshold != null ? lowBalanceThreshold : BigDecimal.ZERO;
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusMonths(months);
+
+        List<Account> accounts = accountService.getAccountsByUserId(userId);
+        Map<Long, Integer> slots = new HashMap<>();
+        long[] balances = new long[accounts.size()];
+        for (int i = 0; i < accounts.size(); i++) {
+            slots.put(accounts.get(i).getId(), i);
+            balances[i] = toCents(accounts.get(i).getBalance());
+        }
+
+        PriorityQueue<OccurrenceCursor> cursors = new PriorityQueue<>();
+        for (ScheduledTransaction schedule : scheduledTransactionRepository.findActiveByAccountOwner(userId)) {
+            Integer slot = slots.get(schedule.getAccount().getId());
+            long change = toCents(TransactionService.balanceChange(schedule.getAmount(), schedule.getTransactionType()));
+            if (slot == null || change == 0) {
+                continue;
+            }
+            OccurrenceCursor cursor = new OccurrenceCursor(RecurrenceRule.of(schedule.getFrequency()).iterate(schedule.getNextDueDate()),
+                    slot, change, today);
+            if (!cursor.date().isAfter(horizon)) {
+                cursors.add(cursor);
+            }
+        }
+
+        LowBalanceTracker tracker = new LowBalanceTracker(balances, toCents(threshold), today);
+        int stepDays = DAILY.equals(granularity) ? 1 : 7;
+        List<ForecastPoint> points = new ArrayList<>();
+        LocalDate date = today;
+        while (true) {
+            while (!cursors.isEmpty() && !cursors.peek().date().isAfter(date)) {
+                OccurrenceCursor cursor = cursors.poll();
+                balances[cursor.slot] += cursor.change;
+                tracker.record(cursor.slot, balances[cursor.slot], cursor.date());
+                if (cursor.advance() && !cursor.date().isAfter(horizon)) {
+                    cursors.add(cursor);
+                }
+            }
+            points.add(point(date, accounts, balances));
+            if (!date.isBefore(horizon)) {
+                break;
+            }
+            LocalDate next = date.plusDays(stepDays);
+            date = next.isAfter(horizon) ? horizon : next;
+        }
+
+        return Forecast.builder()
+                .userId(userId)
+                .from(today)
+                .to(horizon)
+                .granularity(granularity)
+                .lowBalanceThreshold(threshold)
+                .points(points)
+                .warnings(tracker.warnings(accounts))
+                .build();
+    }
+
+    private static ForecastPoint point(LocalDate date, List<Account> accounts, long[] balances) {
+        List<AccountBalance> accountBalances = new ArrayList<>(accounts.size());
+        long total = 0;
+        for (int i = 0; i < accounts.size(); i++) {
+            accountBalances.add(AccountBalance.builder()
+                    .accountId(accounts.get(i).getId())
+                    .balance(fromCents(balances[i]))
+                    .build());
+            total += balances[i];
+        }
+        return ForecastPoint.builder()
+                .date(date)
+                .totalBalance(fromCents(total))
+                .balances(accountBalances)
+                .build();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Lazily steps through one schedule's occurrences
+     */
+    private static final class OccurrenceCursor implements Comparable<OccurrenceCursor> {
+        private final RecurrenceRule.Cursor occurrences;
+        private final int slot;
+        private final long change;
+        private final LocalDate today;
+
+        OccurrenceCursor(RecurrenceRule.Cursor occurrences, int slot, long change, LocalDate today) {
+            this.occurrences = occurrences;
+            this.slot = slot;
+            this.change = change;
+            this.today = today;
+        }
+
+        LocalDate date() {
+            LocalDate date = occurrences.current().toLocalDate();
+            return date.isBefore(today) ? today : date;
+        }
+
+        /**
+         * Move to the following occurrence
+         *
+         * @return False if the schedule's recurrence has ended
+         */
+        boolean advance() {
+            return occurrences.advance();
+        }
+
+        @Override
+        public int compareTo(OccurrenceCursor other) {
+            return occurrences.current().compareTo(other.occurrences.current());
+        }
+    }
+
+    /**
+     * Remembers, per account, when it first drops below the threshold and its lowest point
+     */
+    private static final class LowBalanceTracker {
+        private final long threshold;
+        private final LocalDate[] firstBelowOn;
+        private final long[] lowest;
+        private final LocalDate[] lowestOn;
+
+        LowBalanceTracker(long[] balances, long threshold, LocalDate today) {
+            this.threshold = threshold;
+            this.firstBelowOn = new LocalDate[balances.length];
+            this.lowest = balances.clone();
+            this.lowestOn = new LocalDate[balances.length];
+            for (int i = 0; i < balances.length; i++) {
+                lowestOn[i] = today;
+                if (balances[i] < threshold) {
+                    firstBelowOn[i] = today;
+                }
+            }
+        }
+
+        void record(int slot, long balance, LocalDate date) {
+            if (balance < threshold && firstBelowOn[slot] == null) {
+                firstBelowOn[slot] = date;
+            }
+            if (balance < lowest[slot]) {
+                lowest[slot] = balance;
+                lowestOn[slot] = date;
+            }
+        }
+
+        List<LowBalanceWarning> warnings(List<Account> accounts) {
+            List<LowBalanceWarning> warnings = new ArrayList<>();
+            for (int i = 0; i < firstBelowOn.length; i++) {
+                if (firstBelowOn[i] != null) {
+                    warnings.add(LowBalanceWarning.builder()
+                            .accountId(accounts.get(i).getId())
+                            .accountName(accounts.get(i).getName())
+                            .firstBelowOn(firstBelowOn[i])
+                            .lowestBalance(fromCents(lowest[i]))
+                            .lowestOn(lowestOn[i])
+                            .build());
+                }
+            }
+            return warnings;
+        }
+    }
+}
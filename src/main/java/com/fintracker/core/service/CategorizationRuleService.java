@@ -0,0 +1,176 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.CategorizationRule;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.User;
+import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.CategorizationRuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+@Service
+@RequiredArgsConstructor
+public class CategorizationRuleService {
+
+    // Longer patterns are refused; together with the time limit on matching this keeps a rule cheap
+    static final int MAX_PATTERN_LENGTH = 200;
+
+    private final CategorizationRuleRepository categorizationRuleRepository;
+    private final CategoryService categoryService;
+    private final AccountService accountService;
+    private final UserService userService;
+
+    // Compiled rule sets per user, dropped whenever one of the user's rules changes on this node. Other
+    // nodes are not told, so there a change takes effect once the compiled set expires
+    private final ConcurrentMap<Long, CachedRules> compiledRulesByUser = new ConcurrentHashMap<>();
+    // Bumped on every rule change so a compilation that raced with a change is not cached
+    private final AtomicLong rulesVersion = new AtomicLong();
+
+    @Value("${app.categories.rules-cache-ttl-seconds:300}")
+    private long rulesCacheTtlSeconds;
+
+    private record CachedRules(CompiledCategorizationRules rules, long expiresAt) {
+    }
+
+    @Transactional(readOnly = true)
+    public CategorizationRule getRuleById(Long id) {
+        return categorizationRuleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Categorization rule not found with id: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategorizationRule> getRulesByUserId(Long userId) {
+        return categorizationRuleRepository.findByUserId(userId);
+    }
+
+    @Transactional
+    public CategorizationRule createRule(CategorizationRule rule, Long categoryId, Long accountId, Long userId) {
+        validateRule(rule);
+        User user = userService.getUserById(userId);
+        Category category = categoryService.getCategoryById(categoryId);
+
+        rule.setUser(user);
+        rule.setCategory(category);
+        rule.setAccount(accountId != null ? accountService.getAccountById(accountId) : null);
+
+        CategorizationRule savedRule = categorizationRuleRepository.save(rule);
+        evictCompiledRules(userId);
+        return savedRule;
+    }
+
+    @Transactional
+    public CategorizationRule updateRule(Long id, CategorizationRule ruleDetails, Long categoryId, Long accountId) {
+        validateRule(ruleDetails);
+        CategorizationRule rule = getRuleById(id);
+
+        rule.setMatchType(ruleDetails.getMatchType());
+        rule.setPattern(ruleDetails.getPattern());
+        rule.setMinAmount(ruleDetails.getMinAmount());
+        rule.setMaxAmount(ruleDetails.getMaxAmount());
+        rule.setTransactionType(ruleDetails.getTransactionType());
+        rule.setPriority(ruleDetails.getPriority());
+        rule.setActive(ruleDetails.isActive());
+
+        if (categoryId != null && !categoryId.equals(rule.getCategory().getId())) {
+            rule.setCategory(categoryService.getCategoryById(categoryId));
+        }
+        rule.setAccount(accountId != null ? accountService.getAccountById(accountId) : null);
+
+        CategorizationRule savedRule = categorizationRuleRepository.save(rule);
+        evictCompiledRules(rule.getUser().getId());
+        return savedRule;
+    }
+
+    @Transactional
+    public void deleteRule(Long id) {
+        CategorizationRule rule = getRuleById(id);
+        categorizationRuleRepository.delete(rule);
+        evictCompiledRules(rule.getUser().getId());
+    }
+
+    /**
+     * Pick a category for a transaction using the user's rules. The rule set is compiled
+     * on first use and reused until the user's rules change or the compiled set expires.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Category> categorize(Long userId, String description, BigDecimal amount, Long accountId, String transactionType) {
+        long now = System.nanoTime();
+        CachedRules cached = compiledRulesByUser.get(userId);
+        CompiledCategorizationRules rules;
+        if (cached != null && now - cached.expiresAt() < 0) {
+            rules = cached.rules();
+        } else {
+            long version = rulesVersion.get();
+            rules = CompiledCategorizationRules.compile(categorizationRuleRepository.findActiveRulesForUser(userId));
+            if (rulesVersion.get() == version) {
+                compiledRulesByUser.put(userId, new CachedRules(rules, now + TimeUnit.SECONDS.toNanos(rulesCacheTtlSeconds)));
+            }
+        }
+
+        Long categoryId = rules.match(description, amount, accountId, transactionType);
+        return categoryId != null ? Optional.of(categoryService.getCategoryById(categoryId)) : Optional.empty();
+    }
+
+    public void evictCompiledRules(Long userId) {
+        afterCommit(() -> {
+            rulesVersion.incrementAndGet();
+            compiledRulesByUser.remove(userId);
+        });
+    }
+
+    public void evictAllCompiledRules() {
+        afterCommit(() -> {
+            rulesVersion.incrementAndGet();
+            compiledRulesByUser.clear();
+        });
+    }
+
+    // Evicting before commit would let a concurrent request recompile and cache the old rules
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void validateRule(CategorizationRule rule) {
+        if (!"CONTAINS".equals(rule.getMatchType()) && !"REGEX".equals(rule.getMatchType())) {
+            throw new ValidationException("Match type must be CONTAINS or REGEX");
+        }
+        if (rule.getPattern() != null && rule.getPattern().length() > MAX_PATTERN_LENGTH) {
+            throw new ValidationException("Pattern cannot be longer than " + MAX_PATTERN_LENGTH + " characters");
+        }
+        if ("REGEX".equals(rule.getMatchType()) && rule.getPattern() != null) {
+            try {
+                Pattern.compile(rule.getPattern());
+            } catch (PatternSyntaxException e) {
+                throw new ValidationException("Invalid regular expression: " + e.getDescription());
+            }
+        }
+        if (rule.getMinAmount() != null && rule.getMaxAmount() != null
+                && rule.getMinAmount().compareTo(rule.getMaxAmount()) > 0) {
+            throw new ValidationException("Minimum amount cannot be greater than maximum amount");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.fintracker.core.service;
+
+import com.fintracker.config.UserScope;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.CategorizationRuleRepository;
+import com.fintracker.core.repository.CategoryClosureRepository;
+import com.fintracker.core.repository.CategoryRepository;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import com.fintracker.core.repository.TransactionRepository;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Bulk category reorganization. Everything here runs as a handful of set-based UPDATE
+ * statements inside one transaction, without loading the affected rows. Moving a
+ * transaction between categories never touches account balances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryReorganizationService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final TransactionRepository transactionRepository;
+    private final ScheduledTransactionRepository scheduledTransactionRepository;
+    private final CategorizationRuleRepository categorizationRuleRepository;
+    private final CategoryService categoryService;
+    private final CategorizationRuleService categorizationRuleService;
+    private final UserScope userScope;
+
+    @Value
+    @Builder
+    public static class MergeResult {
+        int transactionsMoved;
+        int scheduledTransactionsMoved;
+        int rulesMoved;
+        int subcategoriesMoved;
+    }
+
+    @Transactional
+    public int recategorizeTransactions(Long userId, Long fromCategoryId, boolean includeSubcategories,
+                                        String descriptionContains, LocalDateTime start, LocalDateTime end,
+                                        Long targetCategoryId) {
+        boolean hasDescription = descriptionContains != null && !descriptionContains.isBlank();
+        if (fromCategoryId == null && !hasDescription && start == null && end == null) {
+            throw new ValidationException("At least one filter (category, description or date range) is required");
+        }
+        Category target = requireCategory(targetCategoryId);
+
+        String descriptionPattern = hasDescription ? "%" + escapeLike(descriptionContains.trim().toLowerCase(Locale.ROOT)) + "%" : null;
+        int updated = transactionRepository.recategorize(userId, fromCategoryId, includeSubcategories, descriptionPattern,
+                start, end, target, LocalDateTime.now());
+
+        log.info("Recategorized {} transactions of user {} into category {}", updated, userId, targetCategoryId);
+        return updated;
+    }
+
+    @Transactional
+    public MergeResult mergeCategories(Long sourceCategoryId, Long targetCategoryId) {
+        if (sourceCategoryId.equals(targetCategoryId)) {
+            throw new ValidationException("A category cannot be merged into itself");
+        }
+        Category source = requireCategory(sourceCategoryId);
+        Category target = requireCategory(targetCategoryId);
+        if (!Objects.equals(source.getType(), target.getType())) {
+            throw new ValidationException("Only categories of the same type can be merged; "
+                    + source.getType() + " cannot be merged into " + target.getType());
+        }
+        if (categoryClosureRepository.existsByAncestorIdAndDescendantId(sourceCategoryId, targetCategoryId)) {
+            throw new ValidationException("A category cannot be merged into one of its own subcategories");
+        }
+
+        // Categories are shared, so every user's rows must move before the source can be deleted
+        MergeResult result = userScope.unscoped(() -> moveEverything(sourceCategoryId, target));
+
+        // Both caches are cleared after commit, so no reader re-caches the source in between
+        categoryService.evictCategoryLookupCache();
+        categorizationRuleService.evictAllCompiledRules();
+
+        log.info("Merged category {} into {}: {} transactions, {} scheduled transactions, {} rules, {} subcategories",
+                sourceCategoryId, targetCategoryId, result.getTransactionsMoved(), result.getScheduledTransactionsMoved(),
+                result.getRulesMoved(), result.getSubcategoriesMoved());
+        return result;
+    }
+
+    private MergeResult moveEverything(Long sourceCategoryId, Category target) {
+        LocalDateTime now = LocalDateTime.now();
+        int transactionsMoved = transactionRepository.reassignCategory(sourceCategoryId, target, now);
+        int scheduledTransactionsMoved = scheduledTransactionRepository.reassignCategory(sourceCategoryId, target, now);
+        int rulesMoved = categorizationRuleRepository.reassignCategory(sourceCategoryId, target, now);
+        int subcategoriesMoved = categoryRepository.reassignParent(sourceCategoryId, target, now);
+
+        // Re-hang the source's descendants under the target before the source node disappears
+        categoryClosureRepository.detachDescendantsFromAncestors(sourceCategoryId);
+        categoryClosureRepository.attachDescendantsToTarget(sourceCategoryId, target.getId());
+        categoryClosureRepository.deleteNode(sourceCategoryId);
+        categoryRepository.deleteWithoutCascade(sourceCategoryId);
+
+        return MergeResult.builder()
+                .transactionsMoved(transactionsMoved)
+                .scheduledTransactionsMoved(scheduledTransactionsMoved)
+                .rulesMoved(rulesMoved)
+                .subcategoriesMoved(subcategoriesMoved)
+                .build();
+    }
+
+    private Category requireCategory(Long id) {
+        if (!categoryRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Category not found with id: " + id);
+        }
+        return categoryRepository.getReferenceById(id);
+    }
+
+    // '!' rather than backslash: the JPQL parser rejects a quoted backslash as the escape character
+    private String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -1,20 +1,63 @@
 package com.fintracker.core.service;
 
 import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.CategoryClosure;
 import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.CategoryClosureRepository;
 import com.fintracker.core.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // Category ids keyed by normalized (name, type); only committed categories are cached. Each node
+    // keeps its own copy and evicts it only for changes made on that node, so a rename or delete on
+    // another node is seen here once the entry expires
+    private final ConcurrentMap<String, CachedId> categoryIdsByKey = new ConcurrentHashMap<>();
+    // Creations in flight, so concurrent callers for the same key wait on a single insert
+    private final ConcurrentMap<String, CompletableFuture<Long>> pendingCreations = new ConcurrentHashMap<>();
+
+    @Value("${app.categories.creation-wait-millis:2000}")
+    private long creationWaitMillis;
+
+    @Value("${app.categories.lookup-cache-ttl-seconds:300}")
+    private long lookupCacheTtlSeconds;
+
+    private record CachedId(Long id, long expiresAt) {
+    }
 
     @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
@@ -42,49 +85,244 @@ public class CategoryService {
         return categoryRepository.findByParentId(parentId);
     }
 
+    @Transactional(readOnly = true)
+    public List<Category> getCategoryTree(Long rootId) {
+        if (rootId == null) {
+            return categoryRepository.findAllWithParent();
+        }
+
+        List<Category> subtree = categoryRepository.findSubtreeWithParent(rootId);
+        if (subtree.isEmpty()) {
+            throw new ResourceNotFoundException("Category not found with id: " + rootId);
+        }
+        return subtree;
+    }
+
     @Transactional
     public Category createCategory(Category category) {
         if (category.getParent() != null && category.getParent().getId() != null) {
             Category parent = getCategoryById(category.getParent().getId());
             category.setParent(parent);
         }
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+
+        // Register the new node in the closure table under all of its parent's ancestors
+        categoryClosureRepository.insertSelfPath(savedCategory.getId());
+        if (savedCategory.getParent() != null) {
+            categoryClosureRepository.insertSubtreePaths(savedCategory.getId(), savedCategory.getParent().getId());
+        }
+
+        return savedCategory;
     }
 
     @Transactional
     public Category updateCategory(Long id, Category categoryDetails) {
         Category category = getCategoryById(id);
-        
+        String oldKey = lookupKey(category.getName(), category.getType());
+        afterCommit(() -> categoryIdsByKey.computeIfPresent(oldKey, (key, cached) -> id.equals(cached.id()) ? null : cached));
+        Long oldParentId = category.getParent() != null ? category.getParent().getId() : null;
+
         category.setName(categoryDetails.getName());
         category.setDescription(categoryDetails.getDescription());
         category.setType(categoryDetails.getType());
-        
+
         if (categoryDetails.getParent() != null && categoryDetails.getParent().getId() != null) {
-            Category parent = getCategoryById(categoryDetails.getParent().getId());
+            Long newParentId = categoryDetails.getParent().getId();
+            if (id.equals(newParentId) || categoryClosureRepository.existsByAncestorIdAndDescendantId(id, newParentId)) {
+                throw new ValidationException("Category cannot be moved under itself or one of its subcategories");
+            }
+            Category parent = getCategoryById(newParentId);
             category.setParent(parent);
         } else {
             category.setParent(null);
         }
-        
+
+        Long newParentId = category.getParent() != null ? category.getParent().getId() : null;
+        if (!Objects.equals(oldParentId, newParentId)) {
+            // Move the whole subtree: drop the paths to the old ancestors, then link to the new ones
+            categoryClosureRepository.detachSubtree(id);
+            if (newParentId != null) {
+                categoryClosureRepository.insertSubtreePaths(id, newParentId);
+            }
+        }
+
         return categoryRepository.save(category);
     }
 
     @Transactional
     public void deleteCategory(Long id) {
         Category category = getCategoryById(id);
+        // Subcategories are removed by cascade, so their closure rows go with them
+        categoryClosureRepository.deleteSubtree(id);
         categoryRepository.delete(category);
+        afterCommit(categoryIdsByKey::clear);
     }
 
     @Transactional
     public Category findOrCreateCategory(String name, String type) {
-        Optional<Category> existingCategory = categoryRepository.findByNameAndType(name, type);
+        String normalizedName = name.trim();
+        String normalizedType = type.trim().toUpperCase(Locale.ROOT);
+        String key = lookupKey(normalizedName, normalizedType);
+
+        // Hot path for imports: no SQL at all, the reference is only loaded if its state is read
+        Long cachedId = cachedCategoryId(key);
+        if (cachedId != null) {
+            return categoryRepository.getReferenceById(cachedId);
+        }
+
+        Optional<Category> existingCategory = categoryRepository.findByNameAndType(normalizedName, normalizedType);
         if (existingCategory.isPresent()) {
+            cacheCategoryId(key, existingCategory.get().getId());
             return existingCategory.get();
-        } else {
-            Category newCategory = new Category();
-            newCategory.setName(name);
-            newCategory.setType(type);
-            return categoryRepository.save(newCategory);
         }
+
+        CompletableFuture<Long> creation = new CompletableFuture<>();
+        CompletableFuture<Long> inFlight = pendingCreations.putIfAbsent(key, creation);
+        if (inFlight != null) {
+            return awaitCreation(inFlight, normalizedName, normalizedType);
+        }
+
+        try {
+            Long createdMeanwhile = cachedCategoryId(key);
+            if (createdMeanwhile != null) {
+                creation.complete(createdMeanwhile);
+                return categoryRepository.getReferenceById(createdMeanwhile);
+            }
+
+            Category category = createCommittedCategory(normalizedName, normalizedType);
+            cacheCategoryId(key, category.getId());
+            creation.complete(category.getId());
+            return category;
+        } catch (RuntimeException e) {
+            creation.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingCreations.remove(key, creation);
+        }
+    }
+
+    /**
+     * Wait for another caller's insert of the same category. The wait is bounded: this caller
+     * holds a connection while it waits, and the creator may itself be waiting for one.
+     */
+    private Category awaitCreation(CompletableFuture<Long> inFlight, String name, String type) {
+        try {
+            return categoryRepository.getReferenceById(inFlight.get(creationWaitMillis, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Concurrent creation of category '{}' ({}) did not finish, re-reading it", name, type);
+        }
+        return categoryRepository.findByNameAndType(name, type)
+                .orElseGet(() -> createCommittedCategory(name, type));
+    }
+
+    // Runs in its own transaction so the id handed to waiting callers is already visible to them
+    private Category createCommittedCategory(String name, String type) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        try {
+            return requiresNew.execute(status -> {
+                Category newCategory = new Category();
+                newCategory.setName(name);
+                newCategory.setType(type);
+                return createCategory(newCategory);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance won the race on the unique (name, type) constraint; use its row
+            log.debug("Concurrent creation of category '{}' ({}), re-reading the winning row", name, type);
+            return categoryRepository.findByNameAndType(name, type).orElseThrow(() -> e);
+        }
+    }
+
+    // Evicting before commit would let a concurrent lookup re-cache the category under its old name
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Long cachedCategoryId(String key) {
+        CachedId cached = categoryIdsByKey.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.expiresAt() >= 0) {
+            categoryIdsByKey.remove(key, cached);
+            return null;
+        }
+        return cached.id();
+    }
+
+    private void cacheCategoryId(String key, Long id) {
+        categoryIdsByKey.put(key, new CachedId(id, System.nanoTime() + TimeUnit.SECONDS.toNanos(lookupCacheTtlSeconds)));
+    }
+
+    private String lookupKey(String name, String type) {
+        return name.trim() + '\u0000' + type.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Rebuilds the closure table from the parent links, e.g. for categories created
+     * before the closure table existed.
+     */
+    @Transactional
+    public void rebuildCategoryClosure() {
+        Map<Long, Long> parentIds = new HashMap<>();
+        for (Category category : categoryRepository.findAllWithParent()) {
+            parentIds.put(category.getId(), category.getParent() != null ? category.getParent().getId() : null);
+        }
+
+        List<CategoryClosure> paths = new ArrayList<>();
+        for (Long descendantId : parentIds.keySet()) {
+            Long ancestorId = descendantId;
+            int depth = 0;
+            // Depth guard protects against corrupted parent links forming a cycle
+            while (ancestorId != null && depth <= parentIds.size()) {
+                paths.add(CategoryClosure.builder()
+                        .ancestorId(ancestorId)
+                        .descendantId(descendantId)
+                        .depth(depth)
+                        .build());
+                ancestorId = parentIds.get(ancestorId);
+                depth++;
+            }
+        }
+
+        categoryClosureRepository.deleteAllInBatch();
+        categoryClosureRepository.saveAll(paths);
+        log.info("Rebuilt category closure table with {} paths for {} categories", paths.size(), parentIds.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeCategoryClosure() {
+        if (categoryClosureRepository.countByDepth(0) != categoryRepository.count()) {
+            rebuildCategoryClosure();
+        }
+    }
+
+    /**
+     * Clear the lookup cache once the current transaction commits, like the compiled rule eviction
+     */
+    public void evictCategoryLookupCache() {
+        afterCommit(categoryIdsByKey::clear);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmCategoryLookupCache() {
+        for (Category category : categoryRepository.findAll()) {
+            cacheCategoryId(lookupKey(category.getName(), category.getType()), category.getId());
+        }
+        log.info("Cached {} category lookups", categoryIdsByKey.size());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.CategorizationRule;
+import com.fintracker.util.KeywordAutomaton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, entity-free snapshot of one user's active categorization rules.
+ * All CONTAINS rules share a single keyword automaton, so a description is scanned
+ * once no matter how many rules exist; REGEX rules are precompiled patterns, each
+ * given a time limit per description so a pattern that backtracks badly cannot stall
+ * an import. Rule indexes follow priority order, so the first matching index wins.
+ */
+@Slf4j
+final class CompiledCategorizationRules {
+
+    static final CompiledCategorizationRules EMPTY = compile(List.of());
+    static final long REGEX_TIME_LIMIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final long[] categoryIds;
+    private final BigDecimal[] minAmounts;
+    private final BigDecimal[] maxAmounts;
+    private final Long[] accountIds;
+    private final String[] transactionTypes;
+    private final Pattern[] regexes;
+    private final BitSet patternless;
+    private final KeywordAutomaton keywords;
+
+    private CompiledCategorizationRules(int size, KeywordAutomaton keywords) {
+        this.categoryIds = new long[size];
+        this.minAmounts = new BigDecimal[size];
+        this.maxAmounts = new BigDecimal[size];
+        this.accountIds = new Long[size];
+        this.transactionTypes = new String[size];
+        this.regexes = new Pattern[size];
+        this.patternless = new BitSet(size);
+        this.keywords = keywords;
+    }
+
+    /**
+     * @param rules Active rules, already sorted by priority
+     */
+    static CompiledCategorizationRules compile(List<CategorizationRule> rules) {
+        List<String> keywordsByRule = new ArrayList<>(rules.size());
+        for (CategorizationRule rule : rules) {
+            boolean contains = "CONTAINS".equals(rule.getMatchType()) && hasPattern(rule);
+            keywordsByRule.add(contains ? rule.getPattern() : null);
+        }
+
+        CompiledCategorizationRules compiled = new CompiledCategorizationRules(rules.size(), KeywordAutomaton.compile(keywordsByRule));
+        for (int i = 0; i < rules.size(); i++) {
+            CategorizationRule rule = rules.get(i);
+            compiled.categoryIds[i] = rule.getCategory().getId();
+            compiled.minAmounts[i] = rule.getMinAmount();
+            compiled.maxAmounts[i] = rule.getMaxAmount();
+            compiled.accountIds[i] = rule.getAccount() != null ? rule.getAccount().getId() : null;
+            compiled.transactionTypes[i] = rule.getTransactionType();
+            if (!hasPattern(rule)) {
+                compiled.patternless.set(i);
+            } else if ("REGEX".equals(rule.getMatchType())) {
+                compiled.regexes[i] = Pattern.compile(rule.getPattern(), Pattern.CASE_INSENSITIVE);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Find the category of the highest-priority rule matching a transaction
+     *
+     * @return The category id, or null if no rule matches
+     */
+    Long match(String description, BigDecimal amount, Long accountId, String transactionType) {
+        BitSet candidates = (BitSet) patternless.clone();
+        if (description != null) {
+            keywords.match(description, candidates);
+            for (int i = 0; i < regexes.length; i++) {
+                if (regexes[i] != null && find(regexes[i], description)) {
+                    candidates.set(i);
+                }
+            }
+        }
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (passesFilters(i, amount, accountId, transactionType)) {
+                return categoryIds[i];
+            }
+        }
+        return null;
+    }
+
+    // A pattern that runs out of time counts as not matching
+    private static boolean find(Pattern regex, String description) {
+        try {
+            return regex.matcher(new DeadlineCharSequence(description, System.nanoTime() + REGEX_TIME_LIMIT_NANOS)).find();
+        } catch (RegexTimeoutException e) {
+            log.warn("Categorization pattern '{}' ran out of time on a {} character description", regex.pattern(), description.length());
+            return false;
+        }
+    }
+
+    int size() {
+        return categoryIds.length;
+    }
+
+    private boolean passesFilters(int rule, BigDecimal amount, Long accountId, String transactionType) {
+        if (minAmounts[rule] != null && (amount == null || amount.compareTo(minAmounts[rule]) < 0)) {
+            return false;
+        }
+        if (maxAmounts[rule] != null && (amount == null || amount.compareTo(maxAmounts[rule]) > 0)) {
+            return false;
+        }
+        if (accountIds[rule] != null && !accountIds[rule].equals(accountId)) {
+            return false;
+        }
+        return transactionTypes[rule] == null || transactionTypes[rule].equals(transactionType);
+    }
+
+    private static boolean hasPattern(CategorizationRule rule) {
+        return rule.getPattern() != null && !rule.getPattern().isBlank();
+    }
+
+    /**
+     * The description as the regex engine sees it; reading it past the deadline aborts the match.
+     * The clock is only checked every so many reads, which keeps the common case cheap.
+     */
+    private static final class DeadlineCharSequence implements CharSequence {
+        private final CharSequence text;
+        private final long deadline;
+        private int reads;
+
+        DeadlineCharSequence(CharSequence text, long deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if ((++reads & 1023) == 0 && System.nanoTime() - deadline > 0) {
+                throw new RegexTimeoutException();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(text.subSequence(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+
+    private static final class RegexTimeoutException extends RuntimeException {
+        RegexTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo projection of a user's portfolio. Each holding follows a geometric
+ * random walk in monthly steps, with the drift taken from its expected return and the
+ * spread from its volatility, and receives the monthly equivalent of the active
+ * scheduled transactions linked to it. Holdings are simulated independently.
+ *
+ * <p>Paths are cut into fixed blocks and every block gets its own {@link SplittableRandom}
+ * split from the seed in block order, so the result depends only on the seed and not on
+ * how the fork/join pool schedules the blocks.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvestmentProjectionService {
+
+    static final int MAX_PATHS = 200_000;
+    static final int MAX_YEARS = 50;
+    private static final int PATHS_PER_BLOCK = 1024;
+    private static final int MONTHS_PER_YEAR = 12;
+
+    private final InvestmentRepository investmentRepository;
+    private final ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @Value
+    @Builder
+    public static class ProjectionPoint {
+        int year;
+        BigDecimal p10;
+        BigDecimal p50;
+        BigDecimal p90;
+    }
+
+    @Value
+    @Builder
+    public static class Projection {
+        Long userId;
+        int years;
+        int paths;
+        long seed;
+        BigDecimal monthlyContributions;
+        List<ProjectionPoint> points;
+    }
+
+    /**
+     * Project the value of a user's portfolio at the end of each year
+     *
+     * @param seed Seed for the random walk; a random one is drawn and reported back when null,
+     *             and passing the same seed again reproduces the projection exactly
+     */
+    @Transactional(readOnly = true)
+    public Projection project(Long userId, int years, int paths, Long seed) {
+        if (years < 1 || years > MAX_YEARS) {
+            throw new ValidationException("Projection horizon must be between 1 and " + MAX_YEARS + " years");
+        }
+        if (paths < 1 || paths > MAX_PATHS) {
+            throw new ValidationException("Number of paths must be between 1 and " + MAX_PATHS);
+        }
+
+        List<Investment> investments = investmentRepository.findByUserId(userId);
+        Map<Long, Double> contributionsByInvestment = new HashMap<>();
+        for (ScheduledTransaction schedule : scheduledTransactionRepository.findActiveInvestmentContributions(userId)) {
+            contributionsByInvestment.merge(schedule.getInvestment().getId(), monthlyAmount(schedule), Double::sum);
+        }
+
+        int holdings = investments.size();
+        double[] startValues = new double[holdings];
+        double[] drifts = new double[holdings];
+        double[] shocks = new double[holdings];
+        double[] contributions = new double[holdings];
+        double totalContributions = 0;
+        double dt = 1.0 / MONTHS_PER_YEAR;
+        for (int h = 0; h < holdings; h++) {
+            Investment investment = investments.get(h);
+            BigDecimal value = investment.getCurrentValue() != null ? investment.getCurrentValue() : investment.getInitialAmount();
+            double expectedReturn = rate(investment.getExpectedReturnRate());
+            double volatility = rate(investment.getVolatility());
+            if (expectedReturn <= -1) {
+                throw new ValidationException("Expected return of investment " + investment.getId() + " must be above -100%");
+            }
+            startValues[h] = value.doubleValue();
+            // Log drift chosen so that the mean growth over a year is exactly 1 + expected return
+            drifts[h] = (Math.log1p(expectedReturn) - volatility * volatility / 2) * dt;
+            shocks[h] = volatility * Math.sqrt(dt);
+            contributions[h] = contributionsByInvestment.getOrDefault(investment.getId(), 0.0);
+            totalContributions += contributions[h];
+        }
+
+        // Portfolio value of every path at the end of every year: values[year * paths + path]
+        double[] values = new double[(years + 1) * paths];
+        int blocks = (paths + PATHS_PER_BLOCK - 1) / PATHS_PER_BLOCK;
+        long effectiveSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        SplittableRandom root = new SplittableRandom(effectiveSeed);
+        SplittableRandom[] randoms = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            randoms[b] = root.split();
+        }
+        IntStream.range(0, blocks).parallel().forEach(b -> simulateBlock(b, randoms[b], paths, years,
+                startValues, drifts, shocks, contributions, values));
+
+        List<ProjectionPoint> points = new ArrayList<>(years + 1);
+        for (int year = 0; year <= years; year++) {
+            int from = year * paths;
+            Arrays.sort(values, from, from + paths);
+            points.add(ProjectionPoint.builder()
+                    .year(year)
+                    .p10(money(percentile(values, from, paths, 0.10)))
+                    .p50(money(percentile(values, from, paths, 0.50)))
+                    .p90(money(percentile(values, from, paths, 0.90)))
+                    .build());
+        }
+
+        return Projection.builder()
+                .userId(userId)
+                .years(years)
+                .paths(paths)
+                .seed(effectiveSeed)
+                .monthlyContributions(money(totalContributions))
+                .points(points)
+                .build();
+    }
+
+    private static void simulateBlock(int block, SplittableRandom random, int paths, int years, double[] startValues,
+                                      double[] drifts, double[] shocks, double[] contributions, double[] values) {
+        int holdings = startValues.length;
+        double[] state = new double[holdings];
+        int firstPath = block * PATHS_PER_BLOCK;
+        int lastPath = Math.min(firstPath + PATHS_PER_BLOCK, paths);
+        for (int path = firstPath; path < lastPath; path++) {
+            System.arraycopy(startValues, 0, state, 0, holdings);
+            values[path] = sum(state);
+            for (int year = 1; year <= years; year++) {
+                for (int month = 0; month < MONTHS_PER_YEAR; month++) {
+                    for (int h = 0; h < holdings; h++) {
+                        double growth = shocks[h] == 0 ? drifts[h] : drifts[h] + shocks[h] * random.nextGaussian();
+                        state[h] = Math.max(0, state[h] * Math.exp(growth) + contributions[h]);
+                    }
+                }
+                values[year * paths + path] = sum(state);
+            }
+        }
+    }
+
+    private static double monthlyAmount(ScheduledTransaction schedule) {
+        double amount = schedule.getAmount().doubleValue();
+        // Money paid into the investment adds to it; income drawn from it is a withdrawal
+        double signed = "INCOME".equals(schedule.getTransactionType()) ? -amount : amount;
+        return signed * RecurrenceRule.of(schedule.getFrequency()).occurrencesPerMonth(schedule.getNextDueDate());
+    }
+
+    // Nearest-rank percentile over an already sorted slice
+    private static double percentile(double[] sorted, int from, int count, double quantile) {
+        int rank = (int) Math.ceil(quantile * count) - 1;
+        return sorted[from + Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    private static double sum(double[] state) {
+        double total = 0;
+        for (double value : state) {
+            total += value;
+        }
+        return total;
+    }
+
+    private static double rate(BigDecimal percentage) {
+        return percentage != null ? percentage.doubleValue() / 100 : 0;
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
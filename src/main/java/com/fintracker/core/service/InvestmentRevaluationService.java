@@ -0,0 +1,187 @@
+package com.fintracker.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintracker.config.UserScope;
+import com.fintracker.core.domain.InvestmentPrice;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentPriceRepository;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.PriceHistoryStore;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Revalues holdings in bulk from a price file. Prices are streamed into the price
+ * history table in JDBC batches and mirrored into the {@link PriceHistoryStore} used
+ * for chart reads once the import commits, then every holding of the affected tickers is revalued with
+ * set-based UPDATE statements ({@code units * latest price}), never row by row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvestmentRevaluationService {
+
+    private final InvestmentPriceRepository investmentPriceRepository;
+    private final InvestmentRepository investmentRepository;
+    private final PriceHistoryStore priceHistoryStore;
+    private final InvestmentValuationService investmentValuationService;
+    private final ObjectMapper objectMapper;
+    private final UserScope userScope;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.investments.price-import.batch-size:1000}")
+    private int batchSize;
+
+    @lombok.Value
+    @Builder
+    public static class PriceImportResult {
+        long rowsRead;
+        long rowsRejected;
+        long pricesRecorded;
+        int tickers;
+        int investmentsUpdated;
+    }
+
+    /**
+     * Prices of a ticker between two dates, read from the price history store
+     */
+    public PriceHistoryStore.PriceSeries getPriceHistory(String ticker, LocalDate from, LocalDate to) {
+        return priceHistoryStore.range(ticker, epochDay(from, Integer.MIN_VALUE), epochDay(to, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Prices of a ticker between two dates, reduced to at most the given number of points for charting
+     */
+    public PriceHistoryStore.PriceSeries getPriceSeries(String ticker, LocalDate from, LocalDate to, int maxPoints) {
+        return priceHistoryStore.downsample(ticker, epochDay(from, Integer.MIN_VALUE), epochDay(to, Integer.MAX_VALUE), maxPoints);
+    }
+
+    /**
+     * Record every price in the file and revalue all holdings of the tickers it mentions
+     *
+     * @param in The price file contents
+     * @param format CSV or JSON
+     * @return Counts of what was read, recorded and revalued
+     */
+    @Transactional
+    public PriceImportResult importPrices(InputStream in, String format) {
+        LocalDateTime now = LocalDateTime.now();
+        PriceBatchWriter writer = new PriceBatchWriter(now);
+        PriceFileReader reader = new PriceFileReader(objectMapper.getFactory());
+        try {
+            reader.read(in, format == null ? null : format.toUpperCase(Locale.ROOT), writer);
+        } catch (IOException e) {
+            throw new ValidationException("Could not read price file: " + e.getMessage());
+        }
+        writer.flush();
+
+        // Prices are shared, so every user's holdings of the tickers are revalued and snapshotted alike
+        List<String> tickers = new ArrayList<>(writer.tickers);
+        int investmentsUpdated = userScope.unscoped(() -> revalue(tickers, now));
+
+        log.info("Imported {} prices for {} tickers ({} rows rejected), revalued {} investments",
+                writer.recorded, tickers.size(), reader.getRowsRejected(), investmentsUpdated);
+
+        return PriceImportResult.builder()
+                .rowsRead(reader.getRowsRead())
+                .rowsRejected(reader.getRowsRejected())
+                .pricesRecorded(writer.recorded)
+                .tickers(tickers.size())
+                .investmentsUpdated(investmentsUpdated)
+                .build();
+    }
+
+    // Holdings are revalued against the latest recorded price, so an old file never rolls values back
+    private int revalue(List<String> tickers, LocalDateTime now) {
+        int investmentsUpdated = 0;
+        for (int from = 0; from < tickers.size(); from += batchSize) {
+            List<String> chunk = tickers.subList(from, Math.min(from + batchSize, tickers.size()));
+            investmentsUpdated += investmentRepository.revalueFromLatestPrices(chunk, now);
+            investmentValuationService.recordTickerValues(chunk);
+        }
+        return investmentsUpdated;
+    }
+
+    // After commit, so the file store never holds prices the table rolled back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricesRecorded(PricesRecordedEvent event) {
+        priceHistoryStore.write(event.getTicker(), event.getEpochDays(), event.getPrices(), event.getEpochDays().length);
+    }
+
+    private static int epochDay(LocalDate date, int fallback) {
+        return date != null ? (int) date.toEpochDay() : fallback;
+    }
+
+    /**
+     * Buffers parsed prices and writes them in batches. Within a batch a repeated
+     * ticker/date keeps the last price seen, matching what a later batch would do.
+     */
+    private class PriceBatchWriter implements Consumer<InvestmentPrice> {
+
+        private final LocalDateTime recordedAt;
+        private final Map<String, InvestmentPrice> pending = new LinkedHashMap<>();
+        private final Set<String> tickers = new LinkedHashSet<>();
+        private long recorded;
+
+        PriceBatchWriter(LocalDateTime recordedAt) {
+            this.recordedAt = recordedAt;
+        }
+
+        @Override
+        public void accept(InvestmentPrice price) {
+            price.setRecordedAt(recordedAt);
+            tickers.add(price.getTicker());
+            pending.put(price.getTicker() + '\u0000' + price.getPriceDate(), price);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<InvestmentPrice> batch = new ArrayList<>(pending.values());
+            pending.clear();
+            recorded += investmentPriceRepository.upsertPrices(batch);
+
+            // Feed the same batch to the file store after commit, one sorted run per ticker
+            batch.sort(Comparator.comparing(InvestmentPrice::getTicker).thenComparing(InvestmentPrice::getPriceDate));
+            int[] days = new int[batch.size()];
+            double[] prices = new double[batch.size()];
+            int runStart = 0;
+            for (int i = 0; i <= batch.size(); i++) {
+                if (i == batch.size() || !batch.get(i).getTicker().equals(batch.get(runStart).getTicker())) {
+                    eventPublisher.publishEvent(new PricesRecordedEvent(batch.get(runStart).getTicker(),
+                            Arrays.copyOf(days, i - runStart), Arrays.copyOf(prices, i - runStart)));
+                    runStart = i;
+                }
+                if (i < batch.size()) {
+                    days[i - runStart] = (int) batch.get(i).getPriceDate().toEpochDay();
+                    prices[i - runStart] = batch.get(i).getPrice().doubleValue();
+                }
+            }
+        }
+    }
+}
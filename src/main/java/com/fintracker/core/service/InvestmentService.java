@@ -1,24 +1,41 @@
 package com.fintracker.core.service;
 
 import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentCashFlow;
+import com.fintracker.core.domain.InvestmentLot;
 import com.fintracker.core.domain.User;
 import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentCashFlowRepository;
+import com.fintracker.core.repository.InvestmentLotRepository;
 import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.PriceHistoryStore;
+import com.fintracker.core.repository.RealizedGainRepository;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 public class InvestmentService {
 
     private final InvestmentRepository investmentRepository;
+    private final InvestmentCashFlowRepository investmentCashFlowRepository;
+    private final InvestmentLotRepository investmentLotRepository;
+    private final RealizedGainRepository realizedGainRepository;
+    private final ScheduledTransactionRepository scheduledTransactionRepository;
     private final UserService userService;
+    private final PriceHistoryStore priceHistoryStore;
+    private final InvestmentValuationService investmentValuationService;
 
     @Transactional(readOnly = true)
     public List<Investment> getAllInvestments() {
@@ -31,6 +48,16 @@ public class InvestmentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Investment not found with id: " + id));
     }
 
+    /**
+     * Load an investment and lock it until the transaction ends, so trades on it run one at a
+     * time. It must not have been loaded earlier in the transaction, or its stale state is kept.
+     */
+    @Transactional
+    public Investment getInvestmentForUpdate(Long id) {
+        return investmentRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Investment not found with id: " + id));
+    }
+
     @Transactional(readOnly = true)
     public List<Investment> getInvestmentsByUserId(Long userId) {
         return investmentRepository.findByUserId(userId);
@@ -56,7 +83,26 @@ public class InvestmentService {
             investment.setCurrentValue(investment.getInitialAmount());
         }
         
-        return investmentRepository.save(investment);
+        // Units given up front are the opening lot, so later sales have a cost to be matched against
+        boolean openingLot = investment.getUnits() != null && investment.getUnits().signum() > 0;
+        if (openingLot) {
+            investment.setCostBasis(investment.getInitialAmount());
+        }
+
+        Investment savedInvestment = investmentRepository.save(investment);
+        if (openingLot) {
+            investmentLotRepository.save(InvestmentLot.builder()
+                    .investment(savedInvestment)
+                    .acquiredOn(savedInvestment.getStartDate().toLocalDate())
+                    .units(savedInvestment.getUnits())
+                    .cost(savedInvestment.getInitialAmount())
+                    .remainingUnits(savedInvestment.getUnits())
+                    .remainingCost(savedInvestment.getInitialAmount())
+                    .closed(false)
+                    .build());
+        }
+        investmentValuationService.recordValue(savedInvestment.getId(), savedInvestment.getCurrentValue());
+        return savedInvestment;
     }
 
     @Transactional
@@ -70,15 +116,35 @@ public class InvestmentService {
         investment.setStartDate(investmentDetails.getStartDate());
         investment.setEndDate(investmentDetails.getEndDate());
         investment.setExpectedReturnRate(investmentDetails.getExpectedReturnRate());
+        investment.setVolatility(investmentDetails.getVolatility());
         investment.setNotes(investmentDetails.getNotes());
         investment.setTicker(investmentDetails.getTicker());
+        // Once lots are recorded the ledger owns the units; they change only by purchases and sales
+        if (!sameUnits(investment.getUnits(), investmentDetails.getUnits())) {
+            if (investmentLotRepository.findTopByInvestmentIdOrderByAcquiredOnDesc(id).isPresent()) {
+                throw new ValidationException("Units cannot be changed once lots have been recorded; record a purchase or sale instead");
+            }
+            investment.setUnits(investmentDetails.getUnits());
+        }
+        if (!Objects.equals(investment.getLotMatchingMethod(), investmentDetails.getLotMatchingMethod())
+                && realizedGainRepository.findTopByInvestmentIdOrderBySaleDateDesc(id).isPresent()) {
+            throw new ValidationException("Lot matching method cannot be changed once sales have been recorded");
+        }
+        investment.setLotMatchingMethod(investmentDetails.getLotMatchingMethod());
         
-        return investmentRepository.save(investment);
+        Investment savedInvestment = investmentRepository.save(investment);
+        investmentValuationService.recordValue(savedInvestment.getId(), savedInvestment.getCurrentValue());
+        return savedInvestment;
     }
 
     @Transactional
     public void deleteInvestment(Long id) {
         Investment investment = getInvestmentById(id);
+        investmentCashFlowRepository.deleteByInvestmentId(id);
+        realizedGainRepository.deleteByInvestmentId(id);
+        investmentLotRepository.deleteByInvestmentId(id);
+        investmentValuationService.deleteHistory(id);
+        scheduledTransactionRepository.detachInvestment(id, LocalDateTime.now());
         investmentRepository.delete(investment);
     }
 
@@ -86,7 +152,56 @@ public class InvestmentService {
     public Investment updateInvestmentValue(Long id, BigDecimal newValue) {
         Investment investment = getInvestmentById(id);
         investment.setCurrentValue(newValue);
-        return investmentRepository.save(investment);
+        Investment savedInvestment = investmentRepository.save(investment);
+        investmentValuationService.recordValue(savedInvestment.getId(), newValue);
+        return savedInvestment;
+    }
+
+    /**
+     * Value of an investment on a given day: the units held that day times the closing
+     * price on or before it from the price history store. Investments without units, a
+     * ticker or a known price fall back to their current value.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getValueOn(Long id, LocalDate date) {
+        Investment investment = getInvestmentById(id);
+        if (investment.getUnits() == null || investment.getTicker() == null || investment.getTicker().isBlank()) {
+            return investment.getCurrentValue();
+        }
+        double price = priceHistoryStore.priceOnOrBefore(investment.getTicker(), (int) date.toEpochDay());
+        if (Double.isNaN(price)) {
+            return investment.getCurrentValue();
+        }
+        return getUnitsHeldOn(investment, date).multiply(BigDecimal.valueOf(price)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Wind the current units back through the lot ledger: undo purchases and sales made after the day
+    private BigDecimal getUnitsHeldOn(Investment investment, LocalDate date) {
+        return investment.getUnits()
+                .subtract(investmentLotRepository.sumUnitsAcquiredAfter(investment.getId(), date))
+                .add(realizedGainRepository.sumUnitsSoldAfter(investment.getId(), date))
+                .max(BigDecimal.ZERO);
+    }
+
+    @Transactional(readOnly = true)
+    public List<InvestmentCashFlow> getCashFlows(Long investmentId) {
+        // Cash flows are not filtered by user themselves; their investment must be visible first
+        getInvestmentById(investmentId);
+        return investmentCashFlowRepository.findByInvestmentIdOrderByFlowDateAsc(investmentId);
+    }
+
+    @Transactional
+    public InvestmentCashFlow addCashFlow(Long investmentId, InvestmentCashFlow cashFlow) {
+        if (!"CONTRIBUTION".equals(cashFlow.getFlowType()) && !"WITHDRAWAL".equals(cashFlow.getFlowType())
+                && !"DIVIDEND".equals(cashFlow.getFlowType())) {
+            throw new ValidationException("Cash flow type must be CONTRIBUTION, WITHDRAWAL or DIVIDEND");
+        }
+        Investment investment = getInvestmentById(investmentId);
+        if (cashFlow.getFlowDate().isBefore(investment.getStartDate().toLocalDate())) {
+            throw new ValidationException("Cash flow cannot be dated before the investment start date");
+        }
+        cashFlow.setInvestment(investment);
+        return investmentCashFlowRepository.save(cashFlow);
     }
 
     @Transactional(readOnly = true)
@@ -126,4 +241,8 @@ public class InvestmentService {
         // For short-term investments, just return the simple return percentage
         return returnPercentage.setScale(2, BigDecimal.ROUND_HALF_UP);
     }
-}
\ No newline at end of file
+
+    private static boolean sameUnits(BigDecimal current, BigDecimal requested) {
+        return current == null || requested == null ? current == requested : current.compareTo(requested) == 0;
+    }
+}
@@ -0,0 +1,209 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.InvestmentValuation;
+import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.InvestmentValuationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Value history of investments in retention tiers: daily points for the most recent
+ * days, one point per week after that and one per month beyond the weekly horizon.
+ * Each point is the last (closing) value of its period, so storage per holding stays
+ * bounded and chart queries never need more than a few hundred rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvestmentValuationService {
+
+    static final String DAILY = "DAILY";
+    static final String WEEKLY = "WEEKLY";
+    static final String MONTHLY = "MONTHLY";
+
+    // A requested range is drawn at the finest resolution that fits in this many points
+    private static final int MAX_CHART_POINTS = 400;
+    private static final int COMPACTION_CHUNK_SIZE = 100;
+
+    private final InvestmentValuationRepository investmentValuationRepository;
+    private final InvestmentRepository investmentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.investments.valuations.daily-retention-days:90}")
+    private int dailyRetentionDays;
+
+    @Value("${app.investments.valuations.weekly-retention-years:2}")
+    private int weeklyRetentionYears;
+
+    /**
+     * Record today's value of an investment, replacing an earlier value from today
+     */
+    @Transactional
+    public void recordValue(Long investmentId, BigDecimal amount) {
+        if (amount == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        if (investmentValuationRepository.updateDailyAmount(investmentId, today, amount) == 0) {
+            investmentValuationRepository.save(InvestmentValuation.builder()
+                    .investmentId(investmentId)
+                    .valuationDate(today)
+                    .amount(amount)
+                    .resolution(DAILY)
+                    .build());
+        }
+    }
+
+    /**
+     * Record today's value of every unit-priced holding of the given tickers in two statements
+     *
+     * @return The number of points recorded
+     */
+    @Transactional
+    public int recordTickerValues(Collection<String> tickers) {
+        LocalDate today = LocalDate.now();
+        investmentValuationRepository.deleteDailyPointsForTickers(tickers, today);
+        return investmentValuationRepository.insertDailyPointsForTickers(tickers, today);
+    }
+
+    @Transactional
+    public void deleteHistory(Long investmentId) {
+        investmentValuationRepository.deleteByInvestmentId(investmentId);
+    }
+
+    /**
+     * Value history between two dates at a resolution chosen from the length of the range:
+     * daily while that stays under the point budget, otherwise weekly, otherwise monthly.
+     * Older parts of the range only exist at coarser resolutions and are returned as stored.
+     */
+    @Transactional(readOnly = true)
+    public List<InvestmentValuation> getValuationHistory(Long investmentId, LocalDate from, LocalDate to) {
+        if (!investmentRepository.existsById(investmentId)) {
+            throw new ResourceNotFoundException("Investment not found with id: " + investmentId);
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : LocalDate.EPOCH;
+        if (start.isAfter(end)) {
+            throw new ValidationException("Start date must not be after end date");
+        }
+
+        List<InvestmentValuation> points = investmentValuationRepository
+                .findByInvestmentIdAndValuationDateBetweenOrderByValuationDateAsc(investmentId, start, end);
+        if (points.isEmpty()) {
+            return points;
+        }
+
+        LocalDate firstPoint = points.get(0).getValuationDate();
+        long days = ChronoUnit.DAYS.between(start.isBefore(firstPoint) ? firstPoint : start, end) + 1;
+        if (days <= MAX_CHART_POINTS) {
+            return bucket(points, UnaryOperator.identity(), DAILY);
+        }
+        if (days / 7 <= MAX_CHART_POINTS) {
+            return bucket(points, date -> date.with(DayOfWeek.MONDAY), WEEKLY);
+        }
+        return bucket(points, date -> date.withDayOfMonth(1), MONTHLY);
+    }
+
+    /**
+     * Thin out aged points: daily points past the daily horizon become one point per week,
+     * weekly points past the weekly horizon one point per month. Cutoffs are aligned to
+     * period starts so a period is never split between two tiers.
+     */
+    @Scheduled(cron = "${app.investments.valuations.compaction-cron:0 30 1 * * ?}")
+    @SchedulerLock(name = "investment-valuation-compaction", minimumHoldSeconds = 60)
+    public void compactValuations() {
+        LocalDate today = LocalDate.now();
+        LocalDate weeklyCutoff = today.minusDays(dailyRetentionDays).with(DayOfWeek.MONDAY);
+        LocalDate monthlyCutoff = today.minusYears(weeklyRetentionYears).withDayOfMonth(1);
+
+        int weekly = compactTier(DAILY, WEEKLY, weeklyCutoff, date -> date.with(DayOfWeek.MONDAY));
+        int monthly = compactTier(WEEKLY, MONTHLY, monthlyCutoff, date -> date.withDayOfMonth(1));
+        log.info("Compacted investment valuations: {} daily points removed, {} weekly points removed", weekly, monthly);
+    }
+
+    private int compactTier(String from, String to, LocalDate cutoff, UnaryOperator<LocalDate> period) {
+        List<Long> investmentIds = investmentValuationRepository.findInvestmentIdsWithPointsBefore(from, cutoff);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int removed = 0;
+        for (int i = 0; i < investmentIds.size(); i += COMPACTION_CHUNK_SIZE) {
+            List<Long> chunk = investmentIds.subList(i, Math.min(i + COMPACTION_CHUNK_SIZE, investmentIds.size()));
+            Integer chunkRemoved = transactionTemplate.execute(status -> compactChunk(chunk, from, to, cutoff, period));
+            removed += chunkRemoved != null ? chunkRemoved : 0;
+        }
+        return removed;
+    }
+
+    private int compactChunk(List<Long> investmentIds, String from, String to, LocalDate cutoff, UnaryOperator<LocalDate> period) {
+        List<InvestmentValuation> points = investmentValuationRepository
+                .findByInvestmentIdInAndResolutionAndValuationDateBeforeOrderByInvestmentIdAscValuationDateAsc(investmentIds, from, cutoff);
+
+        // Points arrive grouped by investment and sorted by date; keep the last of each period
+        List<Long> keep = new ArrayList<>();
+        List<Long> drop = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            InvestmentValuation point = points.get(i);
+            boolean lastOfPeriod = i + 1 == points.size()
+                    || !Objects.equals(points.get(i + 1).getInvestmentId(), point.getInvestmentId())
+                    || !period.apply(points.get(i + 1).getValuationDate()).equals(period.apply(point.getValuationDate()));
+            (lastOfPeriod ? keep : drop).add(point.getId());
+        }
+
+        if (!keep.isEmpty()) {
+            investmentValuationRepository.updateResolution(keep, to);
+        }
+        if (!drop.isEmpty()) {
+            investmentValuationRepository.deleteAllByIdInBatch(drop);
+        }
+        return drop.size();
+    }
+
+    private List<InvestmentValuation> bucket(List<InvestmentValuation> points, UnaryOperator<LocalDate> period, String resolution) {
+        List<InvestmentValuation> bucketed = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            InvestmentValuation point = points.get(i);
+            LocalDate key = period.apply(point.getValuationDate());
+            if (i + 1 < points.size() && period.apply(points.get(i + 1).getValuationDate()).equals(key)) {
+                continue;
+            }
+            // Stored points coarser than the requested resolution keep their own
+            String pointResolution = coarser(point.getResolution(), resolution);
+            bucketed.add(InvestmentValuation.builder()
+                    .investmentId(point.getInvestmentId())
+                    .valuationDate(point.getValuationDate())
+                    .amount(point.getAmount())
+                    .resolution(pointResolution)
+                    .build());
+        }
+        return bucketed;
+    }
+
+    private static String coarser(String a, String b) {
+        return rank(a) >= rank(b) ? a : b;
+    }
+
+    private static int rank(String resolution) {
+        return switch (resolution) {
+            case MONTHLY -> 2;
+            case WEEKLY -> 1;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentCashFlow;
+import com.fintracker.core.repository.InvestmentCashFlowRepository;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.util.XirrSolver;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Portfolio-wide return analytics. Each holding's dated cash flows (the initial
+ * purchase, later contributions, withdrawals and dividends, and the current value as
+ * a terminal inflow) are laid out in one pair of primitive arrays, the per-holding
+ * XIRR solves run in parallel over disjoint slices, and the portfolio XIRR is one
+ * more solve over the whole array.
+ */
+@Service
+@RequiredArgsConstructor
+public class PortfolioAnalyticsService {
+
+    private final InvestmentRepository investmentRepository;
+    private final InvestmentCashFlowRepository investmentCashFlowRepository;
+
+    @Value
+    @Builder
+    public static class HoldingReturns {
+        Long investmentId;
+        String name;
+        String ticker;
+        BigDecimal invested;
+        BigDecimal returned;
+        LocalDate valuationDate;
+        double absoluteReturn;
+        double cagr;
+        double xirr;
+    }
+
+    @Value
+    @Builder
+    public static class PortfolioReturns {
+        Long userId;
+        LocalDate valuationDate;
+        BigDecimal invested;
+        BigDecimal returned;
+        double absoluteReturn;
+        double xirr;
+        List<HoldingReturns> holdings;
+    }
+
+    /**
+     * Compute XIRR, CAGR and absolute return for every investment of a user plus the
+     * portfolio as a whole. Rates are fractions; NaN means the rate is undefined, e.g.
+     * for a holding with nothing invested yet.
+     */
+    @Transactional(readOnly = true)
+    public PortfolioReturns getPortfolioReturns(Long userId) {
+        LocalDate today = LocalDate.now();
+        List<Investment> investments = investmentRepository.findByUserId(userId);
+        Map<Long, List<InvestmentCashFlow>> flowsByInvestment = investmentCashFlowRepository.findByUserId(userId).stream()
+                .collect(Collectors.groupingBy(flow -> flow.getInvestment().getId()));
+
+        int holdingCount = investments.size();
+        int[] offsets = new int[holdingCount + 1];
+        for (int h = 0; h < holdingCount; h++) {
+            List<InvestmentCashFlow> flows = flowsByInvestment.getOrDefault(investments.get(h).getId(), Collections.emptyList());
+            offsets[h + 1] = offsets[h] + flows.size() + 2;
+        }
+
+        long[] days = new long[offsets[holdingCount]];
+        double[] amounts = new double[offsets[holdingCount]];
+        BigDecimal[] invested = new BigDecimal[holdingCount];
+        BigDecimal[] returned = new BigDecimal[holdingCount];
+        LocalDate[] valuationDates = new LocalDate[holdingCount];
+        for (int h = 0; h < holdingCount; h++) {
+            Investment investment = investments.get(h);
+            List<InvestmentCashFlow> flows = flowsByInvestment.getOrDefault(investment.getId(), Collections.emptyList());
+            int slot = offsets[h];
+
+            days[slot] = investment.getStartDate().toLocalDate().toEpochDay();
+            amounts[slot++] = -investment.getInitialAmount().doubleValue();
+            invested[h] = investment.getInitialAmount();
+            returned[h] = BigDecimal.ZERO;
+
+            for (InvestmentCashFlow flow : flows) {
+                days[slot] = flow.getFlowDate().toEpochDay();
+                if ("CONTRIBUTION".equals(flow.getFlowType())) {
+                    amounts[slot++] = -flow.getAmount().doubleValue();
+                    invested[h] = invested[h].add(flow.getAmount());
+                } else {
+                    amounts[slot++] = flow.getAmount().doubleValue();
+                    returned[h] = returned[h].add(flow.getAmount());
+                }
+            }
+
+            // A matured investment is valued at its end date, everything else today
+            LocalDateTime endDate = investment.getEndDate();
+            valuationDates[h] = endDate != null && endDate.toLocalDate().isBefore(today) ? endDate.toLocalDate() : today;
+            BigDecimal currentValue = investment.getCurrentValue() != null ? investment.getCurrentValue() : BigDecimal.ZERO;
+            days[slot] = valuationDates[h].toEpochDay();
+            amounts[slot] = currentValue.doubleValue();
+            returned[h] = returned[h].add(currentValue);
+        }
+
+        double[] xirr = new double[holdingCount];
+        double[] cagr = new double[holdingCount];
+        double[] absoluteReturn = new double[holdingCount];
+        IntStream.range(0, holdingCount).parallel().forEach(h -> {
+            xirr[h] = XirrSolver.solve(days, amounts, offsets[h], offsets[h + 1]);
+            absoluteReturn[h] = absoluteReturn(invested[h].doubleValue(), returned[h].doubleValue());
+            double years = (days[offsets[h + 1] - 1] - days[offsets[h]]) / XirrSolver.DAYS_PER_YEAR;
+            cagr[h] = years > 0 && invested[h].signum() > 0
+                    ? Math.pow(returned[h].doubleValue() / invested[h].doubleValue(), 1 / years) - 1
+                    : Double.NaN;
+        });
+
+        List<HoldingReturns> holdings = new ArrayList<>(holdingCount);
+        BigDecimal totalInvested = BigDecimal.ZERO;
+        BigDecimal totalReturned = BigDecimal.ZERO;
+        for (int h = 0; h < holdingCount; h++) {
+            Investment investment = investments.get(h);
+            holdings.add(HoldingReturns.builder()
+                    .investmentId(investment.getId())
+                    .name(investment.getName())
+                    .ticker(investment.getTicker())
+                    .invested(invested[h])
+                    .returned(returned[h])
+                    .valuationDate(valuationDates[h])
+                    .absoluteReturn(absoluteReturn[h])
+                    .cagr(cagr[h])
+                    .xirr(xirr[h])
+                    .build());
+            totalInvested = totalInvested.add(invested[h]);
+            totalReturned = totalReturned.add(returned[h]);
+        }
+
+        return PortfolioReturns.builder()
+                .userId(userId)
+                .valuationDate(today)
+                .invested(totalInvested)
+                .returned(totalReturned)
+                .absoluteReturn(absoluteReturn(totalInvested.doubleValue(), totalReturned.doubleValue()))
+                .xirr(XirrSolver.solve(days, amounts, 0, days.length))
+                .holdings(holdings)
+                .build();
+    }
+
+    private static double absoluteReturn(double invested, double returned) {
+        return invested > 0 ? (returned - invested) / invested : Double.NaN;
+    }
+}
@@ -0,0 +1,148 @@
+package com.fintracker.core.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fintracker.core.domain.InvestmentPrice;
+import com.fintracker.core.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Streams ticker/date/price rows out of a CSV or JSON price file one at a time, so a
+ * file of any size is read in constant memory. CSV files have the columns
+ * {@code ticker,date,price} with an optional header line; JSON files are an array of
+ * {@code {"ticker": ..., "date": ..., "price": ...}} objects. Dates are ISO-8601.
+ * Malformed rows are logged and counted rather than failing the whole file.
+ */
+@Slf4j
+final class PriceFileReader {
+
+    static final String CSV = "CSV";
+    static final String JSON = "JSON";
+
+    private final JsonFactory jsonFactory;
+    private long rowsRead;
+    private long rowsRejected;
+
+    PriceFileReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    void read(InputStream in, String format, Consumer<InvestmentPrice> sink) throws IOException {
+        if (CSV.equals(format)) {
+            readCsv(in, sink);
+        } else if (JSON.equals(format)) {
+            readJson(in, sink);
+        } else {
+            throw new ValidationException("Price file format must be CSV or JSON");
+        }
+    }
+
+    long getRowsRead() {
+        return rowsRead;
+    }
+
+    long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    private void readCsv(InputStream in, Consumer<InvestmentPrice> sink) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] columns = line.split(",", -1);
+            if (lineNumber == 1 && "ticker".equalsIgnoreCase(unquote(columns[0]))) {
+                continue;
+            }
+            if (columns.length != 3) {
+                rowsRead++;
+                reject("line " + lineNumber, "expected 3 columns");
+                continue;
+            }
+            accept("line " + lineNumber, unquote(columns[0]), unquote(columns[1]), unquote(columns[2]), sink);
+        }
+    }
+
+    private void readJson(InputStream in, Consumer<InvestmentPrice> sink) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ValidationException("JSON price file must contain an array of prices");
+            }
+            long index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    rowsRead++;
+                    reject("element " + index++, "expected an object");
+                    continue;
+                }
+                String ticker = null;
+                String date = null;
+                String price = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "ticker" -> ticker = parser.getValueAsString();
+                        case "date" -> date = parser.getValueAsString();
+                        case "price" -> price = parser.getValueAsString();
+                        default -> parser.skipChildren();
+                    }
+                }
+                accept("element " + index++, ticker, date, price, sink);
+            }
+        }
+    }
+
+    private void accept(String position, String ticker, String date, String price, Consumer<InvestmentPrice> sink) {
+        rowsRead++;
+        if (ticker == null || ticker.isBlank() || date == null || price == null) {
+            reject(position, "missing ticker, date or price");
+            return;
+        }
+        try {
+            BigDecimal value = new BigDecimal(price);
+            if (value.signum() <= 0) {
+                reject(position, "price must be positive");
+                return;
+            }
+            sink.accept(InvestmentPrice.builder()
+                    .ticker(ticker.trim().toUpperCase(Locale.ROOT))
+                    .priceDate(LocalDate.parse(date))
+                    .price(value)
+                    .build());
+        } catch (NumberFormatException | DateTimeParseException e) {
+            reject(position, "unreadable date or price");
+        }
+    }
+
+    private void reject(String position, String reason) {
+        rowsRejected++;
+        log.warn("Skipping price file {}: {}", position, reason);
+    }
+
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+}
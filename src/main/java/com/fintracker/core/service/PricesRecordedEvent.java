@@ -0,0 +1,14 @@
+package com.fintracker.core.service;
+
+import lombok.Value;
+
+/**
+ * Published for each ticker's run of prices written to the price history table, so that the
+ * {@link com.fintracker.core.repository.PriceHistoryStore} only mirrors prices once they commit
+ */
+@Value
+public class PricesRecordedEvent {
+    String ticker;
+    int[] epochDays; // Sorted ascending and distinct
+    double[] prices;
+}
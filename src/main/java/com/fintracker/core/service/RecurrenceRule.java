@@ -0,0 +1,493 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.exception.ValidationException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, compiled recurrence rule of a scheduled transaction, written in a subset of
+ * the iCalendar RRULE syntax such as {@code FREQ=MONTHLY;BYMONTHDAY=15,-1}. The plain
+ * frequencies DAILY, WEEKLY, MONTHLY and YEARLY are shorthands for the rules without any
+ * BY parts.
+ *
+ * <p>Supported parts are FREQ, INTERVAL, BYMONTH, BYMONTHDAY, BYDAY and BYSETPOS. BYDAY
+ * ordinals such as {@code 2FR} or {@code -1MO} count within the month and are only allowed
+ * in monthly and yearly rules; a yearly rule repeats in its BYMONTH months, or else in the
+ * month it starts in. A series starts at the schedule's due date and keeps its time of day.
+ * Rules without BY parts step from that date the way the plain frequencies always have, so
+ * a schedule on the 31st clamps to shorter months instead of drifting.
+ *
+ * <p>Rules are parsed once and shared through {@link #of(String)}. Queries jump straight to
+ * the period holding the date asked about and only expand that period, rather than walking
+ * the series from its start.
+ */
+final class RecurrenceRule {
+
+    private static final int CACHE_LIMIT = 10_000;
+    private static final ConcurrentMap<String, RecurrenceRule> CACHE = new ConcurrentHashMap<>();
+
+    private static final Pattern WEEKDAY = Pattern.compile("([+-]?\\d{1,2})?(MO|TU|WE|TH|FR|SA|SU)");
+    private static final List<String> WEEKDAY_CODES = List.of("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+
+    /**
+     * Stands in for stored frequencies that are not valid rules: the series is its start alone
+     */
+    static final RecurrenceRule NEVER = new RecurrenceRule(null, 1, 0, 0, 0, 0, new int[0], new int[0], new int[0]);
+
+    private enum Frequency {
+        // Periods scanned without an occurrence before a rule counts as exhausted; enough to reach the next 29 February
+        DAILY(ChronoUnit.DAYS, 3000),
+        WEEKLY(ChronoUnit.WEEKS, 450),
+        MONTHLY(ChronoUnit.MONTHS, 100),
+        YEARLY(ChronoUnit.YEARS, 10);
+
+        private final ChronoUnit unit;
+        private final int maxEmptyPeriods;
+
+        Frequency(ChronoUnit unit, int maxEmptyPeriods) {
+            this.unit = unit;
+            this.maxEmptyPeriods = maxEmptyPeriods;
+        }
+    }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int byMonth;               // Bit per month 1-12
+    private final long byMonthDay;           // Bit per day of month 1-31
+    private final long byMonthDayFromEnd;    // Bit per day counted back from the month end, -1 being the last
+    private final int byWeekday;             // Bit per ISO weekday 1-7, any week
+    private final int[] ordinalWeekdays;     // With the matching entry of ordinals, e.g. 5 and -1 for the last Friday
+    private final int[] ordinals;
+    private final int[] bySetPos;
+    private final boolean expands;
+
+    private RecurrenceRule(Frequency frequency, int interval, int byMonth, long byMonthDay, long byMonthDayFromEnd,
+                           int byWeekday, int[] ordinalWeekdays, int[] ordinals, int[] bySetPos) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byMonth = byMonth;
+        this.byMonthDay = byMonthDay;
+        this.byMonthDayFromEnd = byMonthDayFromEnd;
+        this.byWeekday = byWeekday;
+        this.ordinalWeekdays = ordinalWeekdays;
+        this.ordinals = ordinals;
+        this.bySetPos = bySetPos;
+        this.expands = byMonth != 0 || hasByMonthDay() || hasByDay() || bySetPos.length > 0;
+    }
+
+    /**
+     * The compiled rule for a stored frequency, parsed on first use only. Text that does not
+     * parse, saved before rules were validated, never repeats.
+     */
+    static RecurrenceRule of(String text) {
+        if (text == null) {
+            return NEVER;
+        }
+        RecurrenceRule rule = CACHE.get(text);
+        if (rule == null) {
+            try {
+                rule = parse(text);
+            } catch (ValidationException e) {
+                rule = NEVER;
+            }
+            if (CACHE.size() >= CACHE_LIMIT) {
+                CACHE.clear();
+            }
+            CACHE.put(text, rule);
+        }
+        return rule;
+    }
+
+    /**
+     * Parse and validate a rule
+     *
+     * @throws ValidationException If the rule is malformed or uses an unsupported part
+     */
+    static RecurrenceRule parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new ValidationException("Recurrence rule is required");
+        }
+        String rule = text.trim().toUpperCase(Locale.ROOT);
+        if (rule.startsWith("RRULE:")) {
+            rule = rule.substring("RRULE:".length());
+        }
+        if (!rule.contains("=")) {
+            rule = "FREQ=" + rule;
+        }
+
+        Map<String, String> parts = new HashMap<>();
+        for (String part : rule.split(";")) {
+            int separator = part.indexOf('=');
+            if (separator <= 0 || separator == part.length() - 1
+                    || parts.put(part.substring(0, separator), part.substring(separator + 1)) != null) {
+                throw invalid(text, "malformed or repeated part '" + part + "'");
+            }
+        }
+
+        String frequencyText = parts.remove("FREQ");
+        if (frequencyText == null) {
+            throw invalid(text, "FREQ is required");
+        }
+        Frequency frequency;
+        try {
+            frequency = Frequency.valueOf(frequencyText);
+        } catch (IllegalArgumentException e) {
+            throw invalid(text, "FREQ must be DAILY, WEEKLY, MONTHLY or YEARLY");
+        }
+
+        String intervalText = parts.remove("INTERVAL");
+        int interval = intervalText != null ? number(text, intervalText, 1, 999) : 1;
+
+        int byMonth = 0;
+        String byMonthText = parts.remove("BYMONTH");
+        if (byMonthText != null) {
+            for (String month : byMonthText.split(",")) {
+                byMonth |= 1 << number(text, month, 1, 12);
+            }
+        }
+
+        long byMonthDay = 0;
+        long byMonthDayFromEnd = 0;
+        String byMonthDayText = parts.remove("BYMONTHDAY");
+        if (byMonthDayText != null) {
+            if (frequency == Frequency.WEEKLY) {
+                throw invalid(text, "BYMONTHDAY is not allowed with FREQ=WEEKLY");
+            }
+            for (String day : byMonthDayText.split(",")) {
+                int value = number(text, day, -31, 31);
+                if (value == 0) {
+                    throw invalid(text, "BYMONTHDAY cannot be 0");
+                }
+                if (value > 0) {
+                    byMonthDay |= 1L << value;
+                } else {
+                    byMonthDayFromEnd |= 1L << -value;
+                }
+            }
+        }
+
+        int byWeekday = 0;
+        List<int[]> ordinalEntries = new ArrayList<>();
+        String byDayText = parts.remove("BYDAY");
+        if (byDayText != null) {
+            for (String day : byDayText.split(",")) {
+                Matcher matcher = WEEKDAY.matcher(day);
+                if (!matcher.matches()) {
+                    throw invalid(text, "unknown BYDAY entry '" + day + "'");
+                }
+                int weekday = WEEKDAY_CODES.indexOf(matcher.group(2)) + 1;
+                if (matcher.group(1) == null) {
+                    byWeekday |= 1 << weekday;
+                    continue;
+                }
+                if (frequency != Frequency.MONTHLY && frequency != Frequency.YEARLY) {
+                    throw invalid(text, "BYDAY ordinals are only allowed in monthly and yearly rules");
+                }
+                int ordinal = number(text, matcher.group(1), -5, 5);
+                if (ordinal == 0) {
+                    throw invalid(text, "BYDAY ordinal cannot be 0");
+                }
+                ordinalEntries.add(new int[]{weekday, ordinal});
+            }
+        }
+
+        int[] bySetPos = new int[0];
+        String bySetPosText = parts.remove("BYSETPOS");
+        if (bySetPosText != null) {
+            bySetPos = Arrays.stream(bySetPosText.split(",")).mapToInt(position -> number(text, position, -366, 366)).toArray();
+            if (Arrays.stream(bySetPos).anyMatch(position -> position == 0)) {
+                throw invalid(text, "BYSETPOS cannot be 0");
+            }
+        }
+
+        if (!parts.isEmpty()) {
+            throw invalid(text, "unsupported parts " + parts.keySet());
+        }
+        return new RecurrenceRule(frequency, interval, byMonth, byMonthDay, byMonthDayFromEnd, byWeekday,
+                ordinalEntries.stream().mapToInt(entry -> entry[0]).toArray(),
+                ordinalEntries.stream().mapToInt(entry -> entry[1]).toArray(),
+                bySetPos);
+    }
+
+    /**
+     * Iterate over the series starting at a due date
+     */
+    Cursor iterate(LocalDateTime start) {
+        return new Cursor(this, start);
+    }
+
+    /**
+     * @return The first occurrence of the series after the given time, or null if the series has ended
+     */
+    LocalDateTime nextAfter(LocalDateTime start, LocalDateTime after) {
+        Cursor cursor = iterate(start).seek(after, false);
+        return cursor.exhausted ? null : cursor.current;
+    }
+
+    /**
+     * @return The occurrences of the series from {@code from} inclusive to {@code to} exclusive
+     */
+    List<LocalDateTime> between(LocalDateTime start, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        Cursor cursor = iterate(start).seek(from, true);
+        while (!cursor.exhausted && cursor.current.isBefore(to)) {
+            occurrences.add(cursor.current);
+            cursor.advance();
+        }
+        return occurrences;
+    }
+
+    /**
+     * Average number of occurrences per month, for spreading an amount over time
+     */
+    double occurrencesPerMonth(LocalDateTime start) {
+        if (frequency == null) {
+            return 0;
+        }
+        if (!expands) {
+            return switch (frequency) {
+                case DAILY -> 365.25 / 12 / interval;
+                case WEEKLY -> 365.25 / 7 / 12 / interval;
+                case MONTHLY -> 1.0 / interval;
+                case YEARLY -> 1.0 / 12 / interval;
+            };
+        }
+        return between(start, start, start.plusYears(4)).size() / 48.0;
+    }
+
+    private boolean hasByMonthDay() {
+        return byMonthDay != 0 || byMonthDayFromEnd != 0;
+    }
+
+    private boolean hasByDay() {
+        return byWeekday != 0 || ordinalWeekdays.length > 0;
+    }
+
+    private LocalDate periodStart(LocalDate date) {
+        return switch (frequency) {
+            case DAILY -> date;
+            case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> date.withDayOfMonth(1);
+            case YEARLY -> date.withDayOfYear(1);
+        };
+    }
+
+    /**
+     * The dates of the series falling in one period, in order
+     *
+     * @param anchor The start of the series, which supplies the day, weekday or month a rule leaves open
+     */
+    private List<LocalDate> expand(LocalDate periodStart, LocalDate anchor) {
+        List<LocalDate> dates = new ArrayList<>();
+        switch (frequency) {
+            case DAILY -> {
+                if (inMonths(periodStart) && matchesMonthDay(periodStart) && matchesWeekday(periodStart)) {
+                    dates.add(periodStart);
+                }
+            }
+            case WEEKLY -> {
+                for (int i = 0; i < 7; i++) {
+                    LocalDate date = periodStart.plusDays(i);
+                    boolean weekday = hasByDay() ? matchesWeekday(date) : date.getDayOfWeek() == anchor.getDayOfWeek();
+                    if (weekday && inMonths(date)) {
+                        dates.add(date);
+                    }
+                }
+            }
+            case MONTHLY -> {
+                if (inMonths(periodStart)) {
+                    expandMonth(periodStart, anchor, dates);
+                }
+            }
+            case YEARLY -> {
+                for (int month = 1; month <= 12; month++) {
+                    if (byMonth != 0 ? (byMonth & 1 << month) != 0 : month == anchor.getMonthValue()) {
+                        expandMonth(periodStart.withMonth(month), anchor, dates);
+                    }
+                }
+            }
+        }
+        return bySetPos.length > 0 ? selectPositions(dates) : dates;
+    }
+
+    private void expandMonth(LocalDate first, LocalDate anchor, List<LocalDate> dates) {
+        int length = first.lengthOfMonth();
+        if (!hasByMonthDay() && !hasByDay()) {
+            dates.add(first.withDayOfMonth(Math.min(anchor.getDayOfMonth(), length)));
+            return;
+        }
+        for (int day = 1; day <= length; day++) {
+            LocalDate date = first.withDayOfMonth(day);
+            if (matchesMonthDay(date) && matchesWeekday(date)) {
+                dates.add(date);
+            }
+        }
+    }
+
+    private boolean inMonths(LocalDate date) {
+        return byMonth == 0 || (byMonth & 1 << date.getMonthValue()) != 0;
+    }
+
+    private boolean matchesMonthDay(LocalDate date) {
+        if (!hasByMonthDay()) {
+            return true;
+        }
+        int day = date.getDayOfMonth();
+        return (byMonthDay & 1L << day) != 0 || (byMonthDayFromEnd & 1L << (date.lengthOfMonth() - day + 1)) != 0;
+    }
+
+    private boolean matchesWeekday(LocalDate date) {
+        if (!hasByDay()) {
+            return true;
+        }
+        int weekday = date.getDayOfWeek().getValue();
+        if ((byWeekday & 1 << weekday) != 0) {
+            return true;
+        }
+        int day = date.getDayOfMonth();
+        for (int i = 0; i < ordinals.length; i++) {
+            if (ordinalWeekdays[i] == weekday) {
+                int ordinal = ordinals[i] > 0 ? (day - 1) / 7 + 1 : -((date.lengthOfMonth() - day) / 7 + 1);
+                if (ordinal == ordinals[i]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<LocalDate> selectPositions(List<LocalDate> dates) {
+        List<LocalDate> selected = new ArrayList<>(bySetPos.length);
+        for (int position : bySetPos) {
+            int index = position > 0 ? position - 1 : dates.size() + position;
+            if (index >= 0 && index < dates.size() && !selected.contains(dates.get(index))) {
+                selected.add(dates.get(index));
+            }
+        }
+        Collections.sort(selected);
+        return selected;
+    }
+
+    private static int number(String text, String value, int min, int max) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= min && number <= max) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw invalid(text, "'" + value + "' must be a number from " + min + " to " + max);
+    }
+
+    private static ValidationException invalid(String text, String reason) {
+        return new ValidationException("Invalid recurrence rule '" + text + "': " + reason);
+    }
+
+    /**
+     * Walks one series forward, expanding a single period at a time
+     */
+    static final class Cursor {
+        private final RecurrenceRule rule;
+        private final LocalDateTime start;
+        private final LocalDate base;
+        private LocalDateTime current;
+        private boolean exhausted;
+        // Periods stepped from the start on the plain path; otherwise the period buffered in dates
+        private long period;
+        private List<LocalDate> dates = List.of();
+        private int position;
+
+        private Cursor(RecurrenceRule rule, LocalDateTime start) {
+            this.rule = rule;
+            this.start = start;
+            this.current = start;
+            this.base = rule.frequency != null ? rule.periodStart(start.toLocalDate()) : null;
+            if (rule.expands) {
+                dates = rule.expand(base, start.toLocalDate());
+                while (position < dates.size() && !dates.get(position).isAfter(start.toLocalDate())) {
+                    position++;
+                }
+            }
+        }
+
+        LocalDateTime current() {
+            return current;
+        }
+
+        /**
+         * Move to the following occurrence
+         *
+         * @return False if the series has ended, leaving the current occurrence in place
+         */
+        boolean advance() {
+            if (exhausted || rule.frequency == null) {
+                exhausted = true;
+                return false;
+            }
+            if (!rule.expands) {
+                current = start.plus(++period * rule.interval, rule.frequency.unit);
+                return true;
+            }
+            for (int scanned = 0; position >= dates.size(); scanned++) {
+                if (scanned == rule.frequency.maxEmptyPeriods) {
+                    exhausted = true;
+                    return false;
+                }
+                load(period + 1);
+            }
+            current = dates.get(position++).atTime(start.toLocalTime());
+            return true;
+        }
+
+        /**
+         * Move to the first occurrence after the bound, or at it if inclusive, jumping
+         * directly to the bound's period
+         */
+        Cursor seek(LocalDateTime bound, boolean inclusive) {
+            if (exhausted || (inclusive ? !current.isBefore(bound) : current.isAfter(bound))) {
+                return this;
+            }
+            if (rule.frequency != null) {
+                ChronoUnit unit = rule.frequency.unit;
+                if (!rule.expands) {
+                    long target = unit.between(start, bound) / rule.interval;
+                    if (target > period) {
+                        // A whole number of steps never overshoots the bound, so stepping on from here is safe
+                        period = target - 1;
+                    }
+                } else {
+                    long target = unit.between(base, rule.periodStart(bound.toLocalDate())) / rule.interval;
+                    if (target > period) {
+                        load(target);
+                    }
+                }
+            }
+            while (advance() && (inclusive ? current.isBefore(bound) : !current.isAfter(bound))) {
+                // Step through the bound's period
+            }
+            return this;
+        }
+
+        private void load(long period) {
+            this.period = period;
+            dates = rule.expand(base.plus(period * rule.interval, rule.frequency.unit), start.toLocalDate());
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.fintracker.core.service;
+
+import com.fintracker.config.UserScope;
+import com.fintracker.core.domain.RefreshToken;
+import com.fintracker.core.domain.User;
+import com.fintracker.core.repository.RefreshTokenRepository;
+import com.fintracker.core.repository.RevokedTokenRepository;
+import com.fintracker.core.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues and rotates refresh tokens. A refresh token is 32 random bytes handed to the client
+ * once; only its SHA-256 hash is stored. Each refresh revokes the token used and issues a
+ * new one, so a token that turns up again after being used has been copied: all of the
+ * user's refresh tokens are then revoked and every session has to log in again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+    private final UserScope userScope;
+
+    @Value("${app.jwt.refresh-expiration-days:30}")
+    private long refreshExpirationDays;
+
+    /**
+     * A new refresh token and the user it was issued to
+     */
+    public record IssuedToken(String token, User user) {
+    }
+
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userRepository.getReferenceById(userId));
+    }
+
+    /**
+     * Exchange a refresh token for a new one
+     *
+     * @throws BadCredentialsException If the token is unknown, expired or already used
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public IssuedToken rotate(String token) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevokedAt() != null) {
+            throw reused(current, now);
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Refresh token has expired");
+        }
+
+        // The read above may be stale: a concurrent refresh with the same token can have used it since
+        if (refreshTokenRepository.revokeIfActive(current.getId(), now) == 0) {
+            throw reused(current, now);
+        }
+        return new IssuedToken(issue(current.getUser()), current.getUser());
+    }
+
+    private BadCredentialsException reused(RefreshToken token, LocalDateTime now) {
+        int revoked = refreshTokenRepository.revokeAllForUser(token.getUser().getId(), now);
+        log.warn("Used refresh token presented again for user {}; revoked their {} other refresh tokens",
+                token.getUser().getId(), revoked);
+        return new BadCredentialsException("Invalid refresh token");
+    }
+
+    /**
+     * Revoke a refresh token, as on logout; an unknown or already revoked token is ignored
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .filter(refreshToken -> refreshToken.getRevokedAt() == null)
+                .ifPresent(refreshToken -> {
+                    refreshToken.setRevokedAt(LocalDateTime.now());
+                    refreshTokenRepository.save(refreshToken);
+                });
+    }
+
+    /**
+     * Revoke every active refresh token of a user, as when their password changes. The user
+     * need not be the one signed in, so the tokens are looked up across users by id.
+     *
+     * @return The number of tokens revoked
+     */
+    @Transactional
+    public int revokeAll(Long userId) {
+        return userScope.unscoped(() -> refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now()));
+    }
+
+    /**
+     * Drop refresh tokens past their expiry, and revocations of access tokens that have expired anyway
+     */
+    @Scheduled(cron = "${app.jwt.purge-cron:0 0 3 * * ?}")
+    @SchedulerLock(name = "token-purge", minimumHoldSeconds = 60)
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int refreshTokens = refreshTokenRepository.deleteExpired(now);
+        int revocations = revokedTokenRepository.deleteExpired(now);
+        log.info("Purged {} expired refresh tokens and {} expired access token revocations", refreshTokens, revocations);
+    }
+
+    private String issue(User user) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .user(user)
+                .createdAt(now)
+                .expiresAt(now.plusDays(refreshExpirationDays))
+                .build());
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.exception.ValidationException;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Converts between a schedule's due dates, which are wall-clock times in its owner's time
+ * zone, and the server's clock, which the scheduler compares them with. A user without a
+ * time zone uses the server's.
+ */
+final class ScheduleTimes {
+
+    private ScheduleTimes() {
+    }
+
+    /**
+     * @throws ValidationException If the time zone is not a known zone id
+     */
+    static ZoneId zone(String timezone) {
+        if (timezone == null) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            throw new ValidationException("Unknown time zone: " + timezone);
+        }
+    }
+
+    /**
+     * The server time at which a wall-clock time in the given zone comes round
+     */
+    static LocalDateTime serverTime(LocalDateTime localTime, String timezone) {
+        ZoneId zone = zone(timezone);
+        if (localTime == null || zone.equals(ZoneId.systemDefault())) {
+            return localTime;
+        }
+        return localTime.atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    /**
+     * The wall-clock time in the given zone at a server time
+     */
+    static LocalDateTime localTime(LocalDateTime serverTime, String timezone) {
+        ZoneId zone = zone(timezone);
+        if (serverTime == null || zone.equals(ZoneId.systemDefault())) {
+            return serverTime;
+        }
+        return serverTime.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone).toLocalDateTime();
+    }
+}
@@ -0,0 +1,17 @@
+package com.fintracker.core.service;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever a schedule is created, edited, posted or deleted, so that anything
+ * tracking due dates in memory can follow along once the change commits
+ */
+@Value
+public class ScheduledTransactionChangedEvent {
+    Long scheduledTransactionId;
+    Long accountId;
+    LocalDateTime dueAt; // Server time the schedule next falls due at
+    boolean active; // False once the schedule is paused or deleted
+}
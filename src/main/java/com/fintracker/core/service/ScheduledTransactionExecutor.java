@@ -0,0 +1,291 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.domain.ScheduledTransactionRun;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import com.fintracker.core.repository.ScheduledTransactionRunRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch that posts every due scheduled transaction, including every period it missed
+ * while the application was down. Schedules fall due at their owners' local midnight, so
+ * the batch runs every quarter of an hour and drains each time zone's bucket as it comes
+ * due, paced by {@link ScheduledTransactionThrottle}.
+ *
+ * <p>Every node runs the batch over its own shard of the accounts, as handed out by
+ * {@link SchedulerLockService}, so a large run is spread over all live nodes. Due schedule
+ * ids are streamed in waves of {@code chunkSize * workers}. Each wave is
+ * split by account so that all schedules of one account land with the same worker and
+ * post in id order, which keeps concurrent balance updates off the same account. Workers
+ * commit one chunk at a time; a chunk that fails is retried schedule by schedule so a bad
+ * row only costs itself. After each wave the run's checkpoint moves past it, and every
+ * posted schedule is stamped with the run id, so a run cut short resumes where it stopped
+ * without posting anything twice.
+ *
+ * <p>Every posting first claims its schedules through the claim columns, the same way
+ * {@link ScheduledTransactionTimer} does when it fires a schedule at its due time, so
+ * the nightly run and the timer never post the same occurrence twice. A schedule that
+ * fails is journaled and left to {@link ScheduledTransactionRetryWorker}; later runs skip
+ * it until it has been retried successfully.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledTransactionExecutor {
+
+    static final String RUNNING = "RUNNING";
+    static final String COMPLETED = "COMPLETED";
+
+    private final ScheduledTransactionRepository scheduledTransactionRepository;
+    private final ScheduledTransactionRunRepository scheduledTransactionRunRepository;
+    private final ScheduledTransactionService scheduledTransactionService;
+    private final ScheduledTransactionJournal scheduledTransactionJournal;
+    private final SchedulerLockService schedulerLockService;
+    private final ScheduledTransactionThrottle scheduledTransactionThrottle;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.scheduled-transactions.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${app.scheduled-transactions.workers:4}")
+    private int workers;
+
+    @Value("${app.scheduled-transactions.claim-timeout-minutes:10}")
+    private long claimTimeoutMinutes;
+
+    // Keeps a slow run from overlapping the next trigger on the same instance
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${app.scheduled-transactions.cron:0 */15 * * * ?}")
+    public void processScheduledTransactions() {
+        runDueTransactions();
+    }
+
+    /**
+     * Post everything that is due, resuming an unfinished run if there is one
+     *
+     * @return The finished run, or null if a run is already in progress on this instance
+     */
+    public ScheduledTransactionRun runDueTransactions() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Scheduled transaction run already in progress; skipping this trigger");
+            return null;
+        }
+        try {
+            return execute(startOrResumeRun());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Post a single schedule that has just fallen due. The claim commits on its own first,
+     * so other instances skip the schedule instead of queueing on its row while it posts;
+     * a claim left behind by a crash expires after the claim timeout.
+     *
+     * @return The number of transactions posted; 0 if the schedule is not due or someone else holds it
+     */
+    public int executeDue(Long id) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> scheduledTransactionRepository.claimDue(
+                List.of(id), token, now, now, now.minusMinutes(claimTimeoutMinutes)));
+        if (claimed == null || claimed == 0) {
+            return 0;
+        }
+
+        try {
+            scheduledTransactionThrottle.acquire(1);
+            Integer posted = transactionTemplate.execute(status -> postClaimed(token, now, null));
+            meterRegistry.counter("scheduled.transactions.executed").increment(posted);
+            scheduledTransactionThrottle.recordPosted(posted);
+            return posted;
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> scheduledTransactionRepository.releaseClaims(token));
+            meterRegistry.counter("scheduled.transactions.failed").increment();
+            journalFailure(id, e);
+            throw e;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduledTransactionRun> getRecentRuns() {
+        return scheduledTransactionRunRepository.findTop20ByOrderByStartedAtDesc();
+    }
+
+    private ScheduledTransactionRun startOrResumeRun() {
+        SchedulerLockService.Shard shard = schedulerLockService.currentShard();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> scheduledTransactionRunRepository
+                .findFirstByStatusAndShardIndexAndShardCountOrderByStartedAtDesc(RUNNING, shard.index(), shard.count())
+                .map(run -> {
+                    log.info("Resuming scheduled transaction run {} after schedule {}", run.getId(), run.getCheckpointId());
+                    return run;
+                })
+                .orElseGet(() -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    scheduledTransactionRunRepository.abandonRunsOfOtherShardCounts(shard.count(), now);
+                    return scheduledTransactionRunRepository.save(ScheduledTransactionRun.builder()
+                            .cutoff(now)
+                            .status(RUNNING)
+                            .shardIndex(shard.index())
+                            .shardCount(shard.count())
+                            .startedAt(now)
+                            .build());
+                }));
+    }
+
+    private ScheduledTransactionRun execute(ScheduledTransactionRun run) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicLong executed = new AtomicLong(run.getExecutedCount());
+        AtomicLong failed = new AtomicLong(run.getFailedCount());
+        int waveSize = chunkSize * workers;
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            while (true) {
+                long checkpoint = run.getCheckpointId();
+                List<ScheduledTransactionRepository.DueSchedule> wave = transactionTemplate.execute(status ->
+                        scheduledTransactionRepository.findDueForRun(run.getCutoff(), checkpoint, run.getId(),
+                                run.getShardCount(), run.getShardIndex(), PageRequest.of(0, waveSize)));
+                if (wave.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<Void>> workerRuns = new ArrayList<>(workers);
+                for (List<Long> ids : splitByAccount(wave)) {
+                    workerRuns.add(CompletableFuture.runAsync(
+                            () -> executeInChunks(run, ids, transactionTemplate, executed, failed), pool));
+                }
+                CompletableFuture.allOf(workerRuns.toArray(CompletableFuture[]::new)).join();
+
+                run.setCheckpointId(wave.get(wave.size() - 1).getId());
+                run.setExecutedCount(executed.get());
+                run.setFailedCount(failed.get());
+                transactionTemplate.executeWithoutResult(status -> scheduledTransactionRunRepository.save(run));
+                log.debug("Scheduled transaction run {} checkpointed at schedule {}", run.getId(), run.getCheckpointId());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        run.setStatus(COMPLETED);
+        run.setFinishedAt(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> scheduledTransactionRunRepository.save(run));
+
+        long duration = sample.stop(meterRegistry.timer("scheduled.transactions.run"));
+        log.info("Scheduled transaction run {} for shard {} of {} finished: {} posted, {} failed in {} ms",
+                run.getId(), run.getShardIndex(), run.getShardCount(), executed.get(), failed.get(), duration / 1_000_000);
+        return run;
+    }
+
+    /**
+     * Split a wave into one id list per worker, with each account's schedules kept together in id order
+     */
+    private List<List<Long>> splitByAccount(List<ScheduledTransactionRepository.DueSchedule> wave) {
+        List<List<Long>> byWorker = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            byWorker.add(new ArrayList<>());
+        }
+        for (ScheduledTransactionRepository.DueSchedule due : wave) {
+            byWorker.get(Math.floorMod(due.getAccountId().hashCode(), workers)).add(due.getId());
+        }
+        byWorker.removeIf(List::isEmpty);
+        return byWorker;
+    }
+
+    private void executeInChunks(ScheduledTransactionRun run, List<Long> ids, TransactionTemplate transactionTemplate,
+                                 AtomicLong executed, AtomicLong failed) {
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            try {
+                scheduledTransactionThrottle.acquire(chunk.size());
+                Integer posted = transactionTemplate.execute(status -> executeChunk(run, chunk));
+                recordExecuted(executed, posted);
+            } catch (RuntimeException e) {
+                log.warn("Chunk of {} scheduled transactions failed in run {}; retrying one by one", chunk.size(), run.getId(), e);
+                for (Long id : chunk) {
+                    try {
+                        scheduledTransactionThrottle.acquire(1);
+                        Integer posted = transactionTemplate.execute(status -> executeChunk(run, List.of(id)));
+                        recordExecuted(executed, posted);
+                    } catch (RuntimeException rowFailure) {
+                        failed.incrementAndGet();
+                        meterRegistry.counter("scheduled.transactions.failed").increment();
+                        log.error("Scheduled transaction {} failed in run {}", id, run.getId(), rowFailure);
+                        journalFailure(id, rowFailure);
+                    }
+                }
+            }
+        }
+    }
+
+    // Hands the schedule to the retry worker; a journal that cannot be written must not stop the run
+    private void journalFailure(Long id, RuntimeException failure) {
+        try {
+            scheduledTransactionJournal.recordFailure(id, failure);
+        } catch (RuntimeException e) {
+            log.error("Could not journal the failure of scheduled transaction {}", id, e);
+        }
+    }
+
+    private void recordExecuted(AtomicLong executed, int posted) {
+        executed.addAndGet(posted);
+        meterRegistry.counter("scheduled.transactions.executed").increment(posted);
+        scheduledTransactionThrottle.recordPosted(posted);
+    }
+
+    private int executeChunk(ScheduledTransactionRun run, List<Long> ids) {
+        // Claimed and released inside the chunk's transaction; the claim only matters to concurrent executors
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        if (scheduledTransactionRepository.claimDue(ids, token, run.getCutoff(), now, now.minusMinutes(claimTimeoutMinutes)) == 0) {
+            return 0;
+        }
+        return postClaimed(token, run.getCutoff(), run);
+    }
+
+    /**
+     * Post every occurrence before the cut-off for the schedules held under a claim token and release them
+     *
+     * @param run The batch run posting them, or null when fired individually
+     */
+    private int postClaimed(String token, LocalDateTime cutoff, ScheduledTransactionRun run) {
+        int posted = 0;
+        for (ScheduledTransaction scheduledTransaction : scheduledTransactionRepository.findClaimed(token)) {
+            scheduledTransaction.setClaimToken(null);
+            scheduledTransaction.setClaimedAt(null);
+            if (run != null) {
+                if (run.getId().equals(scheduledTransaction.getLastRunId())) {
+                    continue;
+                }
+                scheduledTransaction.setLastRunId(run.getId());
+            }
+            posted += scheduledTransactionService.catchUpScheduledTransaction(scheduledTransaction, cutoff);
+        }
+        return posted;
+    }
+}
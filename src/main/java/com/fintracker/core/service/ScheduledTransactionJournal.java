@@ -0,0 +1,186 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.domain.ScheduledTransactionExecution;
+import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.ScheduledTransactionExecutionRepository;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records every posting of a scheduled transaction, keyed by the schedule and the
+ * occurrence it started from, and every failure together with when to try it again.
+ *
+ * <p>A failed occurrence is owned by {@link ScheduledTransactionRetryWorker} from then on:
+ * the nightly run and the timer leave it alone, so a schedule that keeps failing costs one
+ * retry on its own backoff instead of a failed chunk every night. The delay doubles with
+ * every attempt, up to a cap; after the last attempt the entry is marked DEAD until it is
+ * requeued by hand.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledTransactionJournal {
+
+    static final String POSTED = "POSTED";
+    static final String FAILED = "FAILED";
+    static final String DEAD = "DEAD";
+    static final String SKIPPED = "SKIPPED";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_FAILURES = 100;
+
+    private final ScheduledTransactionExecutionRepository scheduledTransactionExecutionRepository;
+    private final ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @Value("${app.scheduled-transactions.retry.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.scheduled-transactions.retry.initial-backoff-seconds:60}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.scheduled-transactions.retry.max-backoff-minutes:1440}")
+    private long maxBackoffMinutes;
+
+    /**
+     * Record that a schedule was posted from an occurrence onwards, resolving an earlier
+     * failure of the same occurrence. Runs in the posting's transaction, so a second posting
+     * of the same occurrence rolls back on the unique key.
+     */
+    @Transactional
+    public ScheduledTransactionExecution recordPosted(ScheduledTransaction scheduledTransaction, LocalDateTime occurrenceDate,
+                                                      int occurrencesPosted) {
+        LocalDateTime now = LocalDateTime.now();
+        ScheduledTransactionExecution execution = scheduledTransactionExecutionRepository
+                .findByScheduledTransactionIdAndOccurrenceDate(scheduledTransaction.getId(), occurrenceDate)
+                .orElseGet(() -> newExecution(scheduledTransaction, occurrenceDate, now));
+        if (POSTED.equals(execution.getStatus())) {
+            throw new IllegalStateException("Scheduled transaction " + scheduledTransaction.getId()
+                    + " was already posted for " + occurrenceDate);
+        }
+        execution.setStatus(POSTED);
+        execution.setAttempts(execution.getAttempts() + 1);
+        execution.setOccurrencesPosted(occurrencesPosted);
+        execution.setNextAttemptAt(null);
+        execution.setUpdatedAt(now);
+        return scheduledTransactionExecutionRepository.save(execution);
+    }
+
+    /**
+     * Record a failed attempt at a schedule's current occurrence and plan the next one.
+     * Runs in a transaction of its own, after the failed posting has rolled back.
+     *
+     * @return The journal entry, or null if the schedule no longer exists
+     */
+    @Transactional
+    public ScheduledTransactionExecution recordFailure(Long scheduledTransactionId, Throwable error) {
+        ScheduledTransaction scheduledTransaction = scheduledTransactionRepository.findById(scheduledTransactionId).orElse(null);
+        if (scheduledTransaction == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ScheduledTransactionExecution execution = scheduledTransactionExecutionRepository
+                .findByScheduledTransactionIdAndOccurrenceDate(scheduledTransactionId, scheduledTransaction.getNextDueDate())
+                .orElseGet(() -> newExecution(scheduledTransaction, scheduledTransaction.getNextDueDate(), now));
+        int attempts = execution.getAttempts() + 1;
+        execution.setAttempts(attempts);
+        execution.setLastError(describe(error));
+        execution.setUpdatedAt(now);
+        if (attempts >= maxAttempts) {
+            execution.setStatus(DEAD);
+            execution.setNextAttemptAt(null);
+            log.error("Scheduled transaction {} failed {} times for {}; giving up until it is requeued",
+                    scheduledTransactionId, attempts, execution.getOccurrenceDate());
+        } else {
+            execution.setStatus(FAILED);
+            execution.setNextAttemptAt(now.plus(backoff(attempts)));
+        }
+        return scheduledTransactionExecutionRepository.save(execution);
+    }
+
+    /**
+     * Settle a failed entry whose retry found nothing to post: if the schedule has moved
+     * past the occurrence, been deactivated or deleted, the entry is skipped; otherwise
+     * another executor holds the schedule and the retry is tried again shortly.
+     */
+    @Transactional
+    public void recordNothingToRetry(Long executionId) {
+        ScheduledTransactionExecution execution = scheduledTransactionExecutionRepository.findById(executionId).orElse(null);
+        if (execution == null || !FAILED.equals(execution.getStatus())) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        boolean current = scheduledTransactionRepository.findById(execution.getScheduledTransactionId())
+                .filter(ScheduledTransaction::isActive)
+                .map(scheduledTransaction -> scheduledTransaction.getNextDueDate().equals(execution.getOccurrenceDate()))
+                .orElse(false);
+        if (current) {
+            execution.setNextAttemptAt(now.plusSeconds(initialBackoffSeconds));
+        } else {
+            execution.setStatus(SKIPPED);
+            execution.setNextAttemptAt(null);
+        }
+        execution.setUpdatedAt(now);
+        scheduledTransactionExecutionRepository.save(execution);
+    }
+
+    /**
+     * Put a failed or dead entry back in line for an immediate retry with a fresh set of attempts
+     */
+    @Transactional
+    public ScheduledTransactionExecution requeue(Long executionId) {
+        ScheduledTransactionExecution execution = scheduledTransactionExecutionRepository.findVisibleById(executionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scheduled transaction execution not found with id: " + executionId));
+        if (!FAILED.equals(execution.getStatus()) && !DEAD.equals(execution.getStatus())) {
+            throw new ValidationException("Only failed executions can be retried; this one is " + execution.getStatus());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        execution.setStatus(FAILED);
+        execution.setAttempts(0);
+        execution.setNextAttemptAt(now);
+        execution.setUpdatedAt(now);
+        return scheduledTransactionExecutionRepository.save(execution);
+    }
+
+    /**
+     * The most recently updated failed and dead entries of the accounts the current user can see
+     */
+    @Transactional(readOnly = true)
+    public List<ScheduledTransactionExecution> getFailures() {
+        return scheduledTransactionExecutionRepository.findVisibleByStatusIn(List.of(FAILED, DEAD), PageRequest.of(0, MAX_FAILURES));
+    }
+
+    Duration backoff(int attempts) {
+        Duration max = Duration.ofMinutes(maxBackoffMinutes);
+        // Capping the exponent first keeps the shift from overflowing
+        Duration delay = Duration.ofSeconds(initialBackoffSeconds).multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private static ScheduledTransactionExecution newExecution(ScheduledTransaction scheduledTransaction,
+                                                              LocalDateTime occurrenceDate, LocalDateTime now) {
+        return ScheduledTransactionExecution.builder()
+                .scheduledTransactionId(scheduledTransaction.getId())
+                .accountId(scheduledTransaction.getAccount().getId())
+                .occurrenceDate(occurrenceDate)
+                .createdAt(now)
+                .build();
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(error);
+        String description = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return description.length() > MAX_ERROR_LENGTH ? description.substring(0, MAX_ERROR_LENGTH) : description;
+    }
+}
@@ -0,0 +1,72 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.ScheduledTransactionExecution;
+import com.fintracker.core.repository.ScheduledTransactionExecutionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries failed scheduled transaction postings once their backoff has passed. Each retry
+ * goes through {@link ScheduledTransactionExecutor#executeDue(Long)} on its own, claim and
+ * all, so it cannot race the timer or another node, and a retry that fails again only
+ * pushes its own entry further back. Every node retries the failures of its own account
+ * shard.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledTransactionRetryWorker {
+
+    private final ScheduledTransactionExecutionRepository scheduledTransactionExecutionRepository;
+    private final ScheduledTransactionExecutor scheduledTransactionExecutor;
+    private final ScheduledTransactionJournal scheduledTransactionJournal;
+    private final SchedulerLockService schedulerLockService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.scheduled-transactions.retry.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.scheduled-transactions.retry.poll-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void retryFailedTransactions() {
+        retryDue(LocalDateTime.now());
+    }
+
+    /**
+     * Retry a batch of the failures whose next attempt is due
+     *
+     * @return The number of failures that posted this time
+     */
+    int retryDue(LocalDateTime now) {
+        SchedulerLockService.Shard shard = schedulerLockService.currentShard();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<ScheduledTransactionExecution> due = transactionTemplate.execute(status -> scheduledTransactionExecutionRepository
+                .findRetryable(now, shard.count(), shard.index(), PageRequest.of(0, batchSize)));
+
+        int recovered = 0;
+        for (ScheduledTransactionExecution execution : due) {
+            try {
+                if (scheduledTransactionExecutor.executeDue(execution.getScheduledTransactionId()) > 0) {
+                    recovered++;
+                    log.info("Scheduled transaction {} posted for {} on attempt {}", execution.getScheduledTransactionId(),
+                            execution.getOccurrenceDate(), execution.getAttempts() + 1);
+                } else {
+                    scheduledTransactionJournal.recordNothingToRetry(execution.getId());
+                }
+            } catch (RuntimeException e) {
+                // Already journaled by the executor with its next attempt
+                log.warn("Retry of scheduled transaction {} failed again", execution.getScheduledTransactionId(), e);
+            }
+        }
+        return recovered;
+    }
+}
@@ -8,22 +8,33 @@ import com.fintracker.core.domain.User;
 import com.fintracker.core.exception.ResourceNotFoundException;
 import com.fintracker.core.repository.ScheduledTransactionRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class ScheduledTransactionService {
 
+    // A schedule further behind than this catches up over several runs
+    private static final int MAX_OCCURRENCES_PER_PASS = 5000;
+
     private final ScheduledTransactionRepository scheduledTransactionRepository;
     private final TransactionService transactionService;
     private final AccountService accountService;
     private final CategoryService categoryService;
     private final UserService userService;
+    private final InvestmentService investmentService;
+    private final ScheduledTransactionJournal scheduledTransactionJournal;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<ScheduledTransaction> getAllScheduledTransactions() {
@@ -59,6 +70,7 @@ public class ScheduledTransactionService {
     @Transactional
     public ScheduledTransaction createScheduledTransaction(ScheduledTransaction scheduledTransaction, 
                                                           Long accountId, Long categoryId, Long userId) {
+        RecurrenceRule.parse(scheduledTransaction.getFrequency());
         Account account = accountService.getAccountById(accountId);
         Category category = categoryService.getCategoryById(categoryId);
         User user = userService.getUserById(userId);
@@ -67,18 +79,25 @@ public class ScheduledTransactionService {
         scheduledTransaction.setCategory(category);
         scheduledTransaction.setCreatedBy(user);
         scheduledTransaction.setActive(true);
+        setNextDueDate(scheduledTransaction, scheduledTransaction.getNextDueDate());
+        if (scheduledTransaction.getInvestment() != null) {
+            scheduledTransaction.setInvestment(investmentService.getInvestmentById(scheduledTransaction.getInvestment().getId()));
+        }
         
-        return scheduledTransactionRepository.save(scheduledTransaction);
+        ScheduledTransaction savedScheduledTransaction = scheduledTransactionRepository.save(scheduledTransaction);
+        publishChange(savedScheduledTransaction, savedScheduledTransaction.isActive());
+        return savedScheduledTransaction;
     }
 
     @Transactional
     public ScheduledTransaction updateScheduledTransaction(Long id, ScheduledTransaction scheduledTransactionDetails) {
+        RecurrenceRule.parse(scheduledTransactionDetails.getFrequency());
         ScheduledTransaction scheduledTransaction = getScheduledTransactionById(id);
         
         scheduledTransaction.setDescription(scheduledTransactionDetails.getDescription());
         scheduledTransaction.setAmount(scheduledTransactionDetails.getAmount());
         scheduledTransaction.setFrequency(scheduledTransactionDetails.getFrequency());
-        scheduledTransaction.setNextDueDate(scheduledTransactionDetails.getNextDueDate());
+        setNextDueDate(scheduledTransaction, scheduledTransactionDetails.getNextDueDate());
         scheduledTransaction.setTransactionType(scheduledTransactionDetails.getTransactionType());
         scheduledTransaction.setNotes(scheduledTransactionDetails.getNotes());
         scheduledTransaction.setActive(scheduledTransactionDetails.isActive());
@@ -95,19 +114,35 @@ public class ScheduledTransactionService {
             scheduledTransaction.setCategory(newCategory);
         }
         
-        return scheduledTransactionRepository.save(scheduledTransaction);
+        if (scheduledTransactionDetails.getInvestment() == null) {
+            scheduledTransaction.setInvestment(null);
+        } else if (scheduledTransaction.getInvestment() == null ||
+            !scheduledTransaction.getInvestment().getId().equals(scheduledTransactionDetails.getInvestment().getId())) {
+            scheduledTransaction.setInvestment(investmentService.getInvestmentById(scheduledTransactionDetails.getInvestment().getId()));
+        }
+        
+        ScheduledTransaction savedScheduledTransaction = scheduledTransactionRepository.save(scheduledTransaction);
+        publishChange(savedScheduledTransaction, savedScheduledTransaction.isActive());
+        return savedScheduledTransaction;
     }
 
     @Transactional
     public void deleteScheduledTransaction(Long id) {
         ScheduledTransaction scheduledTransaction = getScheduledTransactionById(id);
         scheduledTransactionRepository.delete(scheduledTransaction);
+        publishChange(scheduledTransaction, false);
     }
 
     @Transactional
     public Transaction executeScheduledTransaction(Long id) {
-        ScheduledTransaction scheduledTransaction = getScheduledTransactionById(id);
-        
+        return executeScheduledTransaction(getScheduledTransactionById(id));
+    }
+
+    /**
+     * Post one occurrence of an already loaded scheduled transaction and advance its due date
+     */
+    @Transactional
+    public Transaction executeScheduledTransaction(ScheduledTransaction scheduledTransaction) {
         Transaction transaction = new Transaction();
         transaction.setDescription(scheduledTransaction.getDescription());
         transaction.setAmount(scheduledTransaction.getAmount());
@@ -123,46 +158,103 @@ public class ScheduledTransactionService {
             scheduledTransaction.getCreatedBy().getId()
         );
         
+        scheduledTransactionJournal.recordPosted(scheduledTransaction, scheduledTransaction.getNextDueDate(), 1);
         // Update next due date based on frequency
         updateNextDueDate(scheduledTransaction);
         
         return savedTransaction;
     }
     
-    @Scheduled(cron = "0 0 0 * * ?") // Run at midnight every day
+    /**
+     * Post every occurrence of a schedule that fell due before the cut-off in one pass:
+     * the occurrences are inserted as a single batch dated on their due dates, the account
+     * balance moves once by their total, and the due date jumps to the first occurrence
+     * at or after the cut-off. A schedule whose recurrence has no further occurrence is
+     * deactivated once its last one is posted. The posting is journaled under its first
+     * occurrence, which also stops that occurrence from ever being posted again. The cut-off
+     * is server time; due dates are compared with it in their owner's time zone.
+     *
+     * @return The number of occurrences posted
+     */
     @Transactional
-    public void processScheduledTransactions() {
-        LocalDateTime now = LocalDateTime.now();
-        List<ScheduledTransaction> dueTransactions = 
-            scheduledTransactionRepository.findByActiveTrueAndNextDueDateBefore(now);
-        
-        for (ScheduledTransaction scheduledTransaction : dueTransactions) {
-            executeScheduledTransaction(scheduledTransaction.getId());
+    public int catchUpScheduledTransaction(ScheduledTransaction scheduledTransaction, LocalDateTime cutoff) {
+        LocalDateTime firstDue = scheduledTransaction.getNextDueDate();
+        LocalDateTime localCutoff = ScheduleTimes.localTime(cutoff, timezone(scheduledTransaction));
+        // Stepping from the first due date keeps month-end schedules from drifting to the 28th
+        RecurrenceRule.Cursor due = RecurrenceRule.of(scheduledTransaction.getFrequency()).iterate(firstDue);
+        List<Transaction> occurrences = new ArrayList<>();
+        boolean ended = false;
+        while (due.current().isBefore(localCutoff) && occurrences.size() < MAX_OCCURRENCES_PER_PASS) {
+            Transaction transaction = new Transaction();
+            transaction.setDescription(scheduledTransaction.getDescription());
+            transaction.setAmount(scheduledTransaction.getAmount());
+            transaction.setTransactionDate(due.current());
+            transaction.setTransactionType(scheduledTransaction.getTransactionType());
+            transaction.setNotes(scheduledTransaction.getNotes());
+            transaction.setAccount(scheduledTransaction.getAccount());
+            transaction.setCategory(scheduledTransaction.getCategory());
+            transaction.setCreatedBy(scheduledTransaction.getCreatedBy());
+            transaction.setScheduledTransaction(scheduledTransaction);
+            occurrences.add(transaction);
+
+            if (!due.advance()) {
+                ended = true;
+                break;
+            }
+        }
+        if (occurrences.isEmpty()) {
+            return 0;
         }
+
+        transactionService.createTransactionsInBatch(occurrences);
+        scheduledTransactionJournal.recordPosted(scheduledTransaction, firstDue, occurrences.size());
+        if (ended) {
+            scheduledTransaction.setActive(false);
+        } else {
+            setNextDueDate(scheduledTransaction, due.current());
+        }
+        scheduledTransactionRepository.save(scheduledTransaction);
+        publishChange(scheduledTransaction, scheduledTransaction.isActive());
+        return occurrences.size();
     }
     
     private void updateNextDueDate(ScheduledTransaction scheduledTransaction) {
-        LocalDateTime nextDueDate = scheduledTransaction.getNextDueDate();
-        
-        switch (scheduledTransaction.getFrequency()) {
-            case "DAILY":
-                nextDueDate = nextDueDate.plusDays(1);
-                break;
-            case "WEEKLY":
-                nextDueDate = nextDueDate.plusWeeks(1);
-                break;
-            case "MONTHLY":
-                nextDueDate = nextDueDate.plusMonths(1);
-                break;
-            case "YEARLY":
-                nextDueDate = nextDueDate.plusYears(1);
-                break;
-            default:
-                // No change
-                break;
+        LocalDateTime due = scheduledTransaction.getNextDueDate();
+        LocalDateTime next = RecurrenceRule.of(scheduledTransaction.getFrequency()).nextAfter(due, due);
+        if (next != null) {
+            setNextDueDate(scheduledTransaction, next);
+        } else {
+            scheduledTransaction.setActive(false);
         }
-        
-        scheduledTransaction.setNextDueDate(nextDueDate);
         scheduledTransactionRepository.save(scheduledTransaction);
+        publishChange(scheduledTransaction, scheduledTransaction.isActive());
+    }
+    
+    /**
+     * Give schedules saved before due times were tracked one, before the timer and the
+     * scheduled run first look for due schedules
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void backfillDueTimes() {
+        scheduledTransactionRepository.backfillDueTimes();
+    }
+
+    // The due date is kept in the owner's time zone; the scheduler only ever looks at the due time
+    private void setNextDueDate(ScheduledTransaction scheduledTransaction, LocalDateTime nextDueDate) {
+        scheduledTransaction.setNextDueDate(nextDueDate);
+        scheduledTransaction.setDueAt(ScheduleTimes.serverTime(nextDueDate, timezone(scheduledTransaction)));
+    }
+
+    private static String timezone(ScheduledTransaction scheduledTransaction) {
+        User owner = scheduledTransaction.getCreatedBy();
+        return owner == null ? null : owner.getTimezone();
+    }
+
+    // Listeners run after commit, so an in-memory timer never sees a due date that rolls back
+    private void publishChange(ScheduledTransaction scheduledTransaction, boolean active) {
+        eventPublisher.publishEvent(new ScheduledTransactionChangedEvent(scheduledTransaction.getId(),
+                scheduledTransaction.getAccount().getId(), scheduledTransaction.getDueAt(), active));
     }
-}
\ No newline at end of file
+}
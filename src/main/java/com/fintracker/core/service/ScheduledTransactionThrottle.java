@@ -0,0 +1,112 @@
+package com.fintracker.core.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces scheduled transaction postings to a maximum rate and keeps a per-minute history
+ * of them for the last hour.
+ *
+ * <p>Schedules fall due at their owners' local midnight, so the due work arrives in one
+ * bucket per time zone through the day. Each bucket is drained at no more than
+ * {@code max-postings-per-second}, whichever executor posts it, instead of as fast as the
+ * database accepts writes. How evenly the writes are spread is published as
+ * {@code scheduled.transactions.write.smoothness}: the mean postings per minute over the
+ * last hour divided by the busiest minute, so 1.0 is perfectly even and values near 0 are
+ * a spike.
+ */
+@Service
+public class ScheduledTransactionThrottle {
+
+    private static final int MINUTES = 60;
+
+    @Value("${app.scheduled-transactions.max-postings-per-second:0}")
+    private double maxPostingsPerSecond;
+
+    // The earliest System.nanoTime() the next posting may start at
+    private long nextFreeAt = System.nanoTime();
+
+    private final long[] minuteOfSlot = new long[MINUTES];
+    private final long[] postingsInSlot = new long[MINUTES];
+
+    public ScheduledTransactionThrottle(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("scheduled.transactions.write.peak", this, throttle -> throttle.peak(currentMinute()));
+        meterRegistry.gauge("scheduled.transactions.write.smoothness", this, throttle -> throttle.smoothness(currentMinute()));
+    }
+
+    /**
+     * Wait until the given number of postings fits under the maximum rate. Call it outside
+     * a transaction, so a waiting worker holds no locks.
+     */
+    public void acquire(int permits) {
+        if (maxPostingsPerSecond <= 0 || permits <= 0) {
+            return;
+        }
+        long cost = (long) (permits * TimeUnit.SECONDS.toNanos(1) / maxPostingsPerSecond);
+        long startAt;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // Idle time is not saved up, so a quiet hour cannot turn into a burst
+            startAt = Math.max(nextFreeAt, now);
+            nextFreeAt = startAt + cost;
+        }
+        long wait = startAt - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void recordPosted(int postings) {
+        if (postings > 0) {
+            record(currentMinute(), postings);
+        }
+    }
+
+    synchronized void record(long minute, int postings) {
+        int slot = (int) (minute % MINUTES);
+        if (minuteOfSlot[slot] != minute) {
+            minuteOfSlot[slot] = minute;
+            postingsInSlot[slot] = 0;
+        }
+        postingsInSlot[slot] += postings;
+    }
+
+    /**
+     * The most postings in any one minute of the hour up to the given minute
+     */
+    synchronized long peak(long minute) {
+        long peak = 0;
+        for (int slot = 0; slot < MINUTES; slot++) {
+            if (minute - minuteOfSlot[slot] < MINUTES) {
+                peak = Math.max(peak, postingsInSlot[slot]);
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Mean postings per minute over the hour up to the given minute, divided by the peak; 1.0 when idle
+     */
+    synchronized double smoothness(long minute) {
+        long total = 0;
+        long peak = 0;
+        for (int slot = 0; slot < MINUTES; slot++) {
+            if (minute - minuteOfSlot[slot] < MINUTES) {
+                total += postingsInSlot[slot];
+                peak = Math.max(peak, postingsInSlot[slot]);
+            }
+        }
+        return peak == 0 ? 1.0 : (double) total / MINUTES / peak;
+    }
+
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+}
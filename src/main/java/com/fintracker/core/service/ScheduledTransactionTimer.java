@@ -0,0 +1,257 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires scheduled transactions close to their due time instead of leaving them all to the
+ * nightly run.
+ *
+ * <p>Active schedules falling due within the look-ahead window are held in memory in due
+ * order. The queue is refilled incrementally, continuing from the last loaded (due date, id)
+ * key, and follows schedule changes once they commit. Every tick hands the schedules whose
+ * time has come to a small bounded pool, one schedule per account at a time; whatever the
+ * pool cannot take waits for the next tick. Posting stays exactly-once without relying on
+ * this queue: each firing must first win the schedule's claim, so a stale entry, another
+ * instance or the nightly run can never post the same occurrence twice. After a restart the
+ * queue is rebuilt from the database, which also picks up anything that fell due meanwhile.
+ *
+ * <p>Each node only queues the schedules of its own account shard, and rebuilds the queue
+ * whenever nodes join or leave.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledTransactionTimer {
+
+    private static final int REFILL_PAGE_SIZE = 1000;
+
+    private final ScheduledTransactionRepository scheduledTransactionRepository;
+    private final ScheduledTransactionExecutor scheduledTransactionExecutor;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${app.scheduled-transactions.timer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.scheduled-transactions.timer.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${app.scheduled-transactions.timer.refill-seconds:60}")
+    private long refillSeconds;
+
+    @Value("${app.scheduled-transactions.timer.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.scheduled-transactions.timer.workers:4}")
+    private int workers;
+
+    @Value("${app.scheduled-transactions.timer.capacity:100000}")
+    private int capacity;
+
+    // Both guarded by the lock
+    private final TreeSet<Entry> queue = new TreeSet<>();
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+    private final Object lock = new Object();
+
+    // Accounts with a schedule currently posting
+    private final Set<Long> busyAccounts = ConcurrentHashMap.newKeySet();
+
+    // Every active schedule of the shard at or before this key has been loaded; null until the first refill
+    private volatile Entry loadedThrough;
+    private volatile SchedulerLockService.Shard shard;
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService workerPool;
+
+    record Entry(LocalDateTime due, long id, long accountId) implements Comparable<Entry> {
+        private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::due).thenComparingLong(Entry::id);
+
+        @Override
+        public int compareTo(Entry other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        workerPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(workers));
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-transaction-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> safely("refill", () -> refill(LocalDateTime.now())),
+                0, refillSeconds, TimeUnit.SECONDS);
+        ticker.scheduleWithFixedDelay(() -> safely("dispatch", () -> dispatchDue(LocalDateTime.now())),
+                tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    /**
+     * Keep the in-memory queue in step with a committed schedule change. Due dates past the
+     * loaded key are left to the refill, which reaches them in order.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduledTransactionChangedEvent event) {
+        synchronized (lock) {
+            remove(event.getScheduledTransactionId());
+            Entry loaded = loadedThrough;
+            if (!event.isActive() || loaded == null || !shard.owns(event.getAccountId())) {
+                return;
+            }
+            Entry entry = new Entry(event.getDueAt(), event.getScheduledTransactionId(), event.getAccountId());
+            if (entry.compareTo(loaded) <= 0) {
+                add(entry);
+            }
+        }
+    }
+
+    /**
+     * Load the schedules falling due before the end of the window that are not loaded yet
+     */
+    void refill(LocalDateTime now) {
+        SchedulerLockService.Shard currentShard = schedulerLockService.currentShard();
+        synchronized (lock) {
+            if (!currentShard.equals(shard)) {
+                log.info("Scheduled transaction timer now serves account shard {} of {}", currentShard.index(), currentShard.count());
+                queue.clear();
+                entriesById.clear();
+                loadedThrough = null;
+                shard = currentShard;
+            }
+        }
+
+        LocalDateTime windowEnd = now.plusMinutes(windowMinutes);
+        while (true) {
+            int room;
+            synchronized (lock) {
+                room = Math.min(REFILL_PAGE_SIZE, capacity - entriesById.size());
+            }
+            if (room <= 0) {
+                log.warn("Scheduled transaction timer is full at {} entries; the rest waits for a later refill", capacity);
+                return;
+            }
+
+            Entry cursor = loadedThrough;
+            List<ScheduledTransactionRepository.DueSchedule> page = scheduledTransactionRepository.findUpcoming(windowEnd,
+                    cursor != null ? cursor.due() : null, cursor != null ? cursor.id() : null,
+                    currentShard.count(), currentShard.index(), PageRequest.of(0, room));
+            synchronized (lock) {
+                for (ScheduledTransactionRepository.DueSchedule due : page) {
+                    Entry entry = new Entry(due.getDueAt(), due.getId(), due.getAccountId());
+                    add(entry);
+                    cursor = entry;
+                }
+                loadedThrough = cursor;
+            }
+            if (page.size() < room) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hand every schedule that is due to the worker pool
+     */
+    void dispatchDue(LocalDateTime now) {
+        synchronized (lock) {
+            Iterator<Entry> entries = queue.iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (entry.due().isAfter(now)) {
+                    return;
+                }
+                // One schedule per account at a time keeps balance updates on an account from racing
+                if (!busyAccounts.add(entry.accountId())) {
+                    continue;
+                }
+                try {
+                    workerPool.execute(() -> fire(entry));
+                } catch (RejectedExecutionException e) {
+                    busyAccounts.remove(entry.accountId());
+                    return;
+                }
+                entries.remove();
+                entriesById.remove(entry.id(), entry);
+            }
+        }
+    }
+
+    int size() {
+        synchronized (lock) {
+            return entriesById.size();
+        }
+    }
+
+    private void fire(Entry entry) {
+        try {
+            if (scheduledTransactionExecutor.executeDue(entry.id()) == 0) {
+                log.debug("Scheduled transaction {} was not claimed; it is no longer due or another executor has it", entry.id());
+            }
+        } catch (RuntimeException e) {
+            // executeDue journals a failed posting for the retry worker; one that was never claimed stays due
+            log.error("Scheduled transaction {} failed; the retry worker will try it again after its backoff", entry.id(), e);
+        } finally {
+            busyAccounts.remove(entry.accountId());
+        }
+    }
+
+    private void add(Entry entry) {
+        remove(entry.id());
+        entriesById.put(entry.id(), entry);
+        queue.add(entry);
+    }
+
+    private void remove(Long id) {
+        Entry previous = entriesById.remove(id);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+    }
+
+    // An exception escaping a periodic task would cancel it for good
+    private void safely(String task, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.error("Scheduled transaction timer {} failed", task, e);
+        }
+    }
+}
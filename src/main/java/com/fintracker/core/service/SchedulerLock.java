@@ -0,0 +1,34 @@
+package com.fintracker.core.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a {@code @Scheduled} method into running on only one node at a time. A node whose
+ * trigger fires while another node holds the lease skips that trigger.
+ *
+ * @see SchedulerLockService#runExclusively
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SchedulerLock {
+
+    /**
+     * Lease name, shared by every node running the job
+     */
+    String name();
+
+    /**
+     * How long the lease outlives a node that dies mid-run; renewed by the heartbeat while the job runs
+     */
+    long leaseSeconds() default 300;
+
+    /**
+     * Shortest time the lease is held, even when the job finishes sooner
+     */
+    long minimumHoldSeconds() default 0;
+}
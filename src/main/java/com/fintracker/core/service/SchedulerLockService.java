@@ -0,0 +1,225 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.repository.SchedulerLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates scheduled work between application nodes through leases in the shared
+ * database; nothing beyond the existing database is needed.
+ *
+ * <p>A job lease lets exactly one node run a job: the first node to insert or take over
+ * the expired lease runs it, and keeps the lease alive with a heartbeat for as long as the
+ * job takes. Each node also holds a membership lease of its own, renewed on the same
+ * heartbeat. The live memberships define the shards that work can be split into, so a
+ * large run can use every node instead of one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLockService {
+
+    static final String NODE_PREFIX = "node:";
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.scheduler.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${app.scheduler.heartbeat-seconds:10}")
+    private long heartbeatSeconds;
+
+    @Value("${app.scheduler.node-lease-seconds:30}")
+    private long nodeLeaseSeconds;
+
+    // Job leases this node holds right now, with the duration each renewal extends them by
+    private final ConcurrentMap<String, Duration> heldLeases = new ConcurrentHashMap<>();
+
+    private String nodeId;
+    private ScheduledExecutorService heartbeat;
+
+    /**
+     * The slice of keyed work that belongs to one node: keys whose remainder by the
+     * number of live nodes equals this node's position among them
+     */
+    public record Shard(int index, int count) {
+        public static final Shard ALL = new Shard(0, 1);
+
+        public boolean owns(long key) {
+            return Math.floorMod(key, count) == index;
+        }
+    }
+
+    @PostConstruct
+    void initNodeId() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : defaultNodeId();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        heartbeat();
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduler-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(() -> {
+            // An exception escaping a periodic task would cancel it for good
+            try {
+                heartbeat();
+            } catch (RuntimeException e) {
+                log.error("Scheduler lease heartbeat failed", e);
+            }
+        }, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        log.info("Scheduler node {} started", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        // Leaving promptly lets the remaining nodes take over this node's shard on their next run
+        try {
+            release(NODE_PREFIX + nodeId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("Could not release membership lease of scheduler node {}", nodeId, e);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Run a job only if this node wins its lease. The lease is renewed while the job runs
+     * and released afterwards, but not before the minimum hold has passed, so nodes whose
+     * clocks trigger the same job a little apart do not run it twice.
+     *
+     * @return Whether the job ran on this node
+     */
+    public boolean runExclusively(String name, Duration leaseDuration, Duration minimumHold, Runnable job) {
+        LocalDateTime acquiredAt = LocalDateTime.now();
+        if (!tryAcquire(name, leaseDuration)) {
+            log.debug("Skipping job {}; its lease is held by another node", name);
+            return false;
+        }
+        heldLeases.put(name, leaseDuration);
+        try {
+            job.run();
+            return true;
+        } finally {
+            heldLeases.remove(name);
+            LocalDateTime holdUntil = acquiredAt.plus(minimumHold);
+            LocalDateTime now = LocalDateTime.now();
+            release(name, holdUntil.isAfter(now) ? holdUntil : now);
+        }
+    }
+
+    /**
+     * Take a lease if nobody holds it, or if its holder let it expire
+     */
+    public boolean tryAcquire(String name, Duration leaseDuration) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(leaseDuration);
+        Boolean takenOver = transactionTemplate.execute(status ->
+                schedulerLeaseRepository.takeOverExpired(name, nodeId, now, expiresAt) == 1);
+        if (Boolean.TRUE.equals(takenOver)) {
+            return true;
+        }
+        Boolean exists = transactionTemplate.execute(status -> schedulerLeaseRepository.existsById(name));
+        return !Boolean.TRUE.equals(exists) && insert(name, now, expiresAt);
+    }
+
+    /**
+     * The shard of this node among the nodes alive right now. A node that has not
+     * registered yet counts itself in, so it never skips its own work.
+     */
+    public Shard currentShard() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        List<String> liveNodes = new ArrayList<>(transactionTemplate.execute(status ->
+                schedulerLeaseRepository.findLiveNodes(LocalDateTime.now())));
+        if (!liveNodes.contains(nodeId)) {
+            liveNodes.add(nodeId);
+            Collections.sort(liveNodes);
+        }
+        return new Shard(liveNodes.indexOf(nodeId), liveNodes.size());
+    }
+
+    /**
+     * Renew this node's membership and every job lease it is running under
+     */
+    void heartbeat() {
+        String membership = NODE_PREFIX + nodeId;
+        Duration nodeLease = Duration.ofSeconds(nodeLeaseSeconds);
+        if (!renew(membership, nodeLease) && !tryAcquire(membership, nodeLease)) {
+            log.warn("Scheduler node {} could not renew its membership lease", nodeId);
+        }
+        heldLeases.forEach((name, leaseDuration) -> {
+            if (!renew(name, leaseDuration)) {
+                log.warn("Scheduler node {} lost the lease on job {} while running it", nodeId, name);
+            }
+        });
+    }
+
+    private boolean renew(String name, Duration leaseDuration) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        Integer renewed = transactionTemplate.execute(status ->
+                schedulerLeaseRepository.renew(name, nodeId, now, now.plus(leaseDuration)));
+        return renewed != null && renewed == 1;
+    }
+
+    private void release(String name, LocalDateTime expiresAt) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> schedulerLeaseRepository.release(name, nodeId, expiresAt));
+    }
+
+    private boolean insert(String name, LocalDateTime now, LocalDateTime expiresAt) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> schedulerLeaseRepository.insertLease(name, nodeId, now, expiresAt));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the same lease first
+            return false;
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        // Suffixed so that two instances on one host never share an id
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,326 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentCashFlow;
+import com.fintracker.core.domain.InvestmentLot;
+import com.fintracker.core.domain.RealizedGain;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentCashFlowRepository;
+import com.fintracker.core.repository.InvestmentLotRepository;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.RealizedGainRepository;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buy and sell lots of an investment. Every purchase opens a lot; a sale is matched
+ * against open lots oldest first (FIFO), newest first (LIFO) or at the average cost of
+ * all open units (AVERAGE, with units still drawn oldest first to date the holding).
+ *
+ * <p>Open lots are fetched a page at a time into a deque in matching order, so a sale
+ * only reads the lots it consumes plus at most one page, however many closed SIP
+ * instalments came before. Trades must be recorded in date order.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaxLotService {
+
+    private static final int LOT_PAGE_SIZE = 64;
+    private static final BigDecimal ZERO_UNITS = BigDecimal.ZERO.setScale(6);
+
+    private final InvestmentService investmentService;
+    private final InvestmentRepository investmentRepository;
+    private final InvestmentLotRepository investmentLotRepository;
+    private final RealizedGainRepository realizedGainRepository;
+    private final InvestmentCashFlowRepository investmentCashFlowRepository;
+
+    @Value("${app.investments.tax.financial-year-start-month:4}")
+    private int financialYearStartMonth;
+
+    @Value("${app.investments.tax.long-term-days:365}")
+    private int longTermDays;
+
+    @lombok.Value
+    @Builder
+    public static class CapitalGainsSummary {
+        int financialYear;
+        BigDecimal proceeds;
+        BigDecimal costBasis;
+        BigDecimal shortTermGain;
+        BigDecimal longTermGain;
+        List<InvestmentGains> investments; // Empty in the per-year overview
+    }
+
+    @lombok.Value
+    @Builder
+    public static class InvestmentGains {
+        Long investmentId;
+        BigDecimal proceeds;
+        BigDecimal costBasis;
+        BigDecimal shortTermGain;
+        BigDecimal longTermGain;
+    }
+
+    @Transactional(readOnly = true)
+    public List<InvestmentLot> getLots(Long investmentId) {
+        // Lots and gains are not filtered by user themselves; their investment must be visible first
+        investmentService.getInvestmentById(investmentId);
+        return investmentLotRepository.findByInvestmentIdOrderByAcquiredOnAscIdAsc(investmentId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RealizedGain> getRealizedGains(Long investmentId) {
+        investmentService.getInvestmentById(investmentId);
+        return realizedGainRepository.findByInvestmentIdOrderBySaleDateAscIdAsc(investmentId);
+    }
+
+    @Transactional
+    public InvestmentLot recordPurchase(Long investmentId, LocalDate date, BigDecimal units, BigDecimal amount) {
+        Investment investment = investmentService.getInvestmentForUpdate(investmentId);
+        validateTrade(investment, date, units, amount);
+
+        InvestmentLot lot = investmentLotRepository.save(InvestmentLot.builder()
+                .investment(investment)
+                .acquiredOn(date)
+                .units(units)
+                .cost(amount)
+                .remainingUnits(units)
+                .remainingCost(amount)
+                .closed(false)
+                .build());
+
+        investment.setUnits(orZero(investment.getUnits()).add(units));
+        investment.setCostBasis(orZero(investment.getCostBasis()).add(amount));
+        investmentRepository.save(investment);
+        recordCashFlow(investment, date, amount, "CONTRIBUTION");
+        return lot;
+    }
+
+    /**
+     * Sell units and record the realized gain against each lot they came from
+     *
+     * @return One realized gain per lot drawn from, in matching order
+     */
+    @Transactional
+    public List<RealizedGain> recordSale(Long investmentId, LocalDate date, BigDecimal units, BigDecimal proceeds) {
+        // Trades on one investment are serialized on its row; the open lots are locked as they are read as well
+        Investment investment = investmentService.getInvestmentForUpdate(investmentId);
+        validateTrade(investment, date, units, proceeds);
+
+        String method = investment.getLotMatchingMethod() != null ? investment.getLotMatchingMethod() : "FIFO";
+        boolean newestFirst = "LIFO".equals(method);
+        // Average cost of every open unit, fixed before any of them are drawn
+        BigDecimal averageCost = null;
+        if ("AVERAGE".equals(method)) {
+            BigDecimal openUnits = investmentLotRepository.sumOpenUnits(investmentId);
+            if (openUnits.compareTo(units) < 0) {
+                throw new ValidationException("Cannot sell " + units + " units; only " + openUnits + " are held");
+            }
+            averageCost = orZero(investment.getCostBasis()).divide(openUnits, MathContext.DECIMAL64);
+        }
+
+        List<RealizedGain> gains = new ArrayList<>();
+        Deque<InvestmentLot> openLots = new ArrayDeque<>();
+        BigDecimal unitsLeft = units;
+        BigDecimal proceedsLeft = proceeds;
+        BigDecimal costSold = BigDecimal.ZERO;
+        while (unitsLeft.signum() > 0) {
+            if (openLots.isEmpty()) {
+                // Lots drawn so far are closed, so the first page of open lots starts after them
+                investmentLotRepository.flush();
+                openLots.addAll(findOpenLots(investmentId, newestFirst, PageRequest.of(0, LOT_PAGE_SIZE)));
+                if (openLots.isEmpty()) {
+                    throw new ValidationException("Cannot sell " + units + " units; only "
+                            + units.subtract(unitsLeft) + " are held");
+                }
+            }
+            InvestmentLot lot = openLots.peekFirst();
+
+            BigDecimal drawn = unitsLeft.min(lot.getRemainingUnits());
+            boolean exhausted = drawn.compareTo(lot.getRemainingUnits()) == 0;
+            boolean lastDraw = drawn.compareTo(unitsLeft) == 0;
+            BigDecimal lotCost = exhausted ? lot.getRemainingCost()
+                    : money(lot.getRemainingCost().multiply(drawn).divide(lot.getRemainingUnits(), MathContext.DECIMAL64));
+            BigDecimal cost = averageCost != null ? money(averageCost.multiply(drawn)) : lotCost;
+            // The last draw takes whatever is left so rounding never loses a cent of the proceeds
+            BigDecimal share = lastDraw ? proceedsLeft
+                    : money(proceeds.multiply(drawn).divide(units, MathContext.DECIMAL64));
+
+            gains.add(RealizedGain.builder()
+                    .investment(investment)
+                    .lot(lot)
+                    .acquiredOn(lot.getAcquiredOn())
+                    .saleDate(date)
+                    .units(drawn)
+                    .proceeds(share)
+                    .costBasis(cost)
+                    .gain(share.subtract(cost))
+                    .financialYear(financialYearOf(date))
+                    .longTerm(ChronoUnit.DAYS.between(lot.getAcquiredOn(), date) > longTermDays)
+                    .build());
+
+            lot.setRemainingUnits(exhausted ? ZERO_UNITS : lot.getRemainingUnits().subtract(drawn));
+            lot.setRemainingCost(exhausted ? BigDecimal.ZERO.setScale(2) : lot.getRemainingCost().subtract(lotCost));
+            lot.setClosed(exhausted);
+            investmentLotRepository.save(lot);
+            if (exhausted) {
+                openLots.pollFirst();
+            }
+
+            unitsLeft = unitsLeft.subtract(drawn);
+            proceedsLeft = proceedsLeft.subtract(share);
+            costSold = costSold.add(cost);
+        }
+
+        investment.setUnits(orZero(investment.getUnits()).subtract(units).max(BigDecimal.ZERO));
+        investment.setCostBasis(orZero(investment.getCostBasis()).subtract(costSold).max(BigDecimal.ZERO));
+        investmentRepository.save(investment);
+        recordCashFlow(investment, date, proceeds, "WITHDRAWAL");
+        return realizedGainRepository.saveAll(gains);
+    }
+
+    /**
+     * Realized gains of a user added up per financial year
+     */
+    @Transactional(readOnly = true)
+    public List<CapitalGainsSummary> getCapitalGainsByYear(Long userId) {
+        Map<Integer, GainsAccumulator> byYear = new LinkedHashMap<>();
+        for (RealizedGainRepository.CapitalGainTotals totals : realizedGainRepository.sumByFinancialYear(userId)) {
+            byYear.computeIfAbsent(totals.getFinancialYear(), year -> new GainsAccumulator()).add(totals);
+        }
+
+        List<CapitalGainsSummary> summaries = new ArrayList<>(byYear.size());
+        byYear.forEach((year, accumulator) -> summaries.add(accumulator.toSummary(year, List.of())));
+        return summaries;
+    }
+
+    /**
+     * Realized gains of a user in one financial year, with a breakdown per investment
+     */
+    @Transactional(readOnly = true)
+    public CapitalGainsSummary getCapitalGains(Long userId, int financialYear) {
+        GainsAccumulator total = new GainsAccumulator();
+        Map<Long, GainsAccumulator> byInvestment = new LinkedHashMap<>();
+        for (RealizedGainRepository.CapitalGainTotals totals
+                : realizedGainRepository.sumByInvestmentForFinancialYear(userId, financialYear)) {
+            total.add(totals);
+            byInvestment.computeIfAbsent(totals.getInvestmentId(), id -> new GainsAccumulator()).add(totals);
+        }
+
+        List<InvestmentGains> investments = new ArrayList<>(byInvestment.size());
+        byInvestment.forEach((investmentId, accumulator) -> investments.add(InvestmentGains.builder()
+                .investmentId(investmentId)
+                .proceeds(accumulator.proceeds)
+                .costBasis(accumulator.costBasis)
+                .shortTermGain(accumulator.shortTermGain)
+                .longTermGain(accumulator.longTermGain)
+                .build()));
+        return total.toSummary(financialYear, investments);
+    }
+
+    /**
+     * The financial year a date falls in, named after the calendar year it starts in
+     */
+    int financialYearOf(LocalDate date) {
+        return date.getMonthValue() >= financialYearStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+
+    private List<InvestmentLot> findOpenLots(Long investmentId, boolean newestFirst, Pageable page) {
+        return newestFirst
+                ? investmentLotRepository.findOpenLotsNewestFirst(investmentId, page)
+                : investmentLotRepository.findOpenLotsOldestFirst(investmentId, page);
+    }
+
+    private void validateTrade(Investment investment, LocalDate date, BigDecimal units, BigDecimal amount) {
+        if (units == null || units.signum() <= 0) {
+            throw new ValidationException("Units must be positive");
+        }
+        if (amount == null || amount.signum() < 0) {
+            throw new ValidationException("Amount cannot be negative");
+        }
+        if (date.isBefore(investment.getStartDate().toLocalDate())) {
+            throw new ValidationException("Trade cannot be dated before the investment start date");
+        }
+        // Matching draws on the lots open at the time of the sale, which only holds if trades arrive in date order
+        LocalDate lastTrade = latestTradeDate(investment.getId());
+        if (lastTrade != null && date.isBefore(lastTrade)) {
+            throw new ValidationException("Trades must be recorded in date order; the last trade was on " + lastTrade);
+        }
+    }
+
+    private LocalDate latestTradeDate(Long investmentId) {
+        LocalDate lastPurchase = investmentLotRepository.findTopByInvestmentIdOrderByAcquiredOnDesc(investmentId)
+                .map(InvestmentLot::getAcquiredOn).orElse(null);
+        LocalDate lastSale = realizedGainRepository.findTopByInvestmentIdOrderBySaleDateDesc(investmentId)
+                .map(RealizedGain::getSaleDate).orElse(null);
+        if (lastPurchase == null || lastSale == null) {
+            return lastPurchase != null ? lastPurchase : lastSale;
+        }
+        return lastPurchase.isAfter(lastSale) ? lastPurchase : lastSale;
+    }
+
+    private void recordCashFlow(Investment investment, LocalDate date, BigDecimal amount, String flowType) {
+        if (amount.signum() == 0) {
+            return;
+        }
+        investmentCashFlowRepository.save(InvestmentCashFlow.builder()
+                .investment(investment)
+                .flowDate(date)
+                .amount(amount)
+                .flowType(flowType)
+                .build());
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal money(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class GainsAccumulator {
+        private BigDecimal proceeds = BigDecimal.ZERO;
+        private BigDecimal costBasis = BigDecimal.ZERO;
+        private BigDecimal shortTermGain = BigDecimal.ZERO;
+        private BigDecimal longTermGain = BigDecimal.ZERO;
+
+        void add(RealizedGainRepository.CapitalGainTotals totals) {
+            proceeds = proceeds.add(totals.getProceeds());
+            costBasis = costBasis.add(totals.getCostBasis());
+            if (Boolean.TRUE.equals(totals.getLongTerm())) {
+                longTermGain = longTermGain.add(totals.getGain());
+            } else {
+                shortTermGain = shortTermGain.add(totals.getGain());
+            }
+        }
+
+        CapitalGainsSummary toSummary(int financialYear, List<InvestmentGains> investments) {
+            return CapitalGainsSummary.builder()
+                    .financialYear(financialYear)
+                    .proceeds(proceeds)
+                    .costBasis(costBasis)
+                    .shortTermGain(shortTermGain)
+                    .longTermGain(longTermGain)
+                    .investments(investments)
+                    .build();
+        }
+    }
+}
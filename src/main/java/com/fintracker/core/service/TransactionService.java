@@ -5,6 +5,7 @@ import com.fintracker.core.domain.Category;
 import com.fintracker.core.domain.Transaction;
 import com.fintracker.core.domain.User;
 import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
 import com.fintracker.core.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -12,7 +13,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +26,7 @@ public class TransactionService {
     private final AccountService accountService;
     private final CategoryService categoryService;
     private final UserService userService;
+    private final CategorizationRuleService categorizationRuleService;
 
     @Transactional(readOnly = true)
     public List<Transaction> getAllTransactions() {
@@ -59,10 +64,27 @@ public class TransactionService {
         return transactionRepository.findByUserIdAndDateRange(userId, start, end);
     }
 
+    @Transactional(readOnly = true)
+    public List<Transaction> getTransactionsByCategorySubtree(Long categoryId) {
+        return transactionRepository.findByCategorySubtree(categoryId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Transaction> getTransactionsByCategorySubtreeAndDateRange(Long categoryId, LocalDateTime start, LocalDateTime end) {
+        return transactionRepository.findByCategorySubtreeAndDateRange(categoryId, start, end);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getCategorySubtreeTotal(Long categoryId, String transactionType, LocalDateTime start, LocalDateTime end) {
+        return transactionRepository.sumAmountByCategorySubtreeAndDateRange(categoryId, transactionType, start, end);
+    }
+
     @Transactional
     public Transaction createTransaction(Transaction transaction, Long accountId, Long categoryId, Long userId) {
         Account account = accountService.getAccountById(accountId);
-        Category category = categoryService.getCategoryById(categoryId);
+        Category category = categoryId != null
+                ? categoryService.getCategoryById(categoryId)
+                : autoCategorize(transaction, accountId, userId);
         User user = userService.getUserById(userId);
         
         transaction.setAccount(account);
@@ -75,6 +97,28 @@ public class TransactionService {
         return transactionRepository.save(transaction);
     }
 
+    /**
+     * Insert many transactions in JDBC batches and move each account's balance once by
+     * their combined amount, instead of a save and a balance update per transaction
+     *
+     * @param transactions New transactions with account, category and user already resolved
+     * @return The number of transactions inserted
+     */
+    @Transactional
+    public int createTransactionsInBatch(List<Transaction> transactions) {
+        Map<Long, Account> accounts = new LinkedHashMap<>();
+        Map<Long, BigDecimal> changes = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            Account account = transaction.getAccount();
+            accounts.putIfAbsent(account.getId(), account);
+            changes.merge(account.getId(), balanceChange(transaction.getAmount(), transaction.getTransactionType()), BigDecimal::add);
+        }
+        
+        int inserted = transactionRepository.insertAll(transactions);
+        accounts.forEach((accountId, account) -> applyBalanceChange(account, changes.get(accountId)));
+        return inserted;
+    }
+
     @Transactional
     public Transaction updateTransaction(Long id, Transaction transactionDetails) {
         Transaction transaction = getTransactionById(id);
@@ -114,14 +158,28 @@ public class TransactionService {
         transactionRepository.delete(transaction);
     }
     
+    private Category autoCategorize(Transaction transaction, Long accountId, Long userId) {
+        return categorizationRuleService.categorize(userId, transaction.getDescription(), transaction.getAmount(),
+                        accountId, transaction.getTransactionType())
+                .orElseThrow(() -> new ValidationException("Category ID is required when no categorization rule matches"));
+    }
+    
     private void updateAccountBalance(Account account, BigDecimal amount, String transactionType) {
+        applyBalanceChange(account, balanceChange(amount, transactionType));
+    }
+    
+    private void applyBalanceChange(Account account, BigDecimal change) {
+        account.setBalance(account.getBalance().add(change));
+        accountService.updateAccount(account.getId(), account);
+    }
+    
+    static BigDecimal balanceChange(BigDecimal amount, String transactionType) {
         if ("EXPENSE".equals(transactionType)) {
-            account.setBalance(account.getBalance().subtract(amount));
+            return amount.negate();
         } else if ("INCOME".equals(transactionType)) {
-            account.setBalance(account.getBalance().add(amount));
+            return amount;
         }
         // For TRANSFER, the balance update would be handled differently
-        
-        accountService.updateAccount(account.getId(), account);
+        return BigDecimal.ZERO;
     }
 }
\ No newline at end of file
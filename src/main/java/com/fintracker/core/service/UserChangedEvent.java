@@ -0,0 +1,13 @@
+package com.fintracker.core.service;
+
+import lombok.Value;
+
+/**
+ * Published whenever a user is updated or deleted, so that anything holding on to the user's
+ * details can drop them once the change commits
+ */
+@Value
+public class UserChangedEvent {
+    Long userId;
+    String username; // The name the user had before the change
+}
@@ -1,15 +1,19 @@
 package com.fintracker.core.service;
 
+import com.fintracker.core.domain.ScheduledTransaction;
 import com.fintracker.core.domain.User;
 import com.fintracker.core.exception.ResourceNotFoundException;
 import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
 import com.fintracker.core.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +21,9 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ScheduledTransactionRepository scheduledTransactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefreshTokenService refreshTokenService;
 
     @Transactional(readOnly = true)
     public List<User> getAllUsers() {
@@ -43,6 +50,7 @@ public class UserService {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new ValidationException("Email already exists");
         }
+        ScheduleTimes.zone(user.getTimezone());
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         return userRepository.save(user);
@@ -61,21 +69,51 @@ public class UserService {
             userRepository.existsByEmail(userDetails.getEmail())) {
             throw new ValidationException("Email already exists");
         }
+        ScheduleTimes.zone(userDetails.getTimezone());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
 
         user.setUsername(userDetails.getUsername());
         user.setFullName(userDetails.getFullName());
         user.setEmail(userDetails.getEmail());
+        if (!Objects.equals(user.getTimezone(), userDetails.getTimezone())) {
+            user.setTimezone(userDetails.getTimezone());
+            moveSchedulesToTimezone(user);
+        }
         
         if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+            // Sessions started with the old password have to log in again
+            refreshTokenService.revokeAll(user.getId());
         }
 
         return userRepository.save(user);
     }
 
+    // The due dates stay the same wall-clock times; only the server time they fall due at moves
+    private void moveSchedulesToTimezone(User user) {
+        List<ScheduledTransaction> schedules = scheduledTransactionRepository.findByCreatedById(user.getId());
+        for (ScheduledTransaction schedule : schedules) {
+            schedule.setDueAt(ScheduleTimes.serverTime(schedule.getNextDueDate(), user.getTimezone()));
+        }
+        scheduledTransactionRepository.saveAll(schedules);
+        for (ScheduledTransaction schedule : schedules) {
+            eventPublisher.publishEvent(new ScheduledTransactionChangedEvent(schedule.getId(),
+                    schedule.getAccount().getId(), schedule.getDueAt(), schedule.isActive()));
+        }
+    }
+
+    /**
+     * Replace a user's password hash with one already computed, such as a rehash at a new cost
+     */
+    @Transactional
+    public void updatePasswordHash(Long id, String passwordHash) {
+        userRepository.updatePassword(id, passwordHash);
+    }
+
     @Transactional
     public void deleteUser(Long id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
     }
 }
\ No newline at end of file
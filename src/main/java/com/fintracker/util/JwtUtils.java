@@ -1,39 +1,91 @@
 package com.fintracker.util;
 
+import com.fintracker.config.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies access tokens. The signing key and parser are built once; a token is
+ * verified by a single parse, and recently verified tokens are remembered by their hash
+ * until they expire, so a client sending the same token on every request only pays for
+ * its first verification. Access tokens are short-lived and carry a unique id by which
+ * they can be revoked; clients renew them with a refresh token.
+ */
 @Component
 public class JwtUtils {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
-
-    @Value("${app.jwt.expiration-ms}")
-    private int jwtExpirationMs;
+    static final String USER_ID_CLAIM = "uid";
+    static final String AUTHORITIES_CLAIM = "authorities";
+
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final int jwtExpirationMs;
+    private final int verifiedCacheSize;
+    private final ConcurrentMap<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    /**
+     * A token whose signature and expiry have been checked
+     *
+     * @param id The token's unique id, or null for tokens issued before tokens had one
+     * @param user The principal the token describes, or null for tokens issued without user claims
+     */
+    public record VerifiedToken(String id, String username, Date expiration, AuthenticatedUser user, Claims claims) {
+
+        boolean isExpired() {
+            return expiration.getTime() <= System.currentTimeMillis();
+        }
+    }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtils(@Value("${app.jwt.secret}") String jwtSecret,
+                    @Value("${app.jwt.access-expiration-ms:900000}") int jwtExpirationMs,
+                    @Value("${app.jwt.verified-cache-size:10000}") int verifiedCacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.verifiedCacheSize = verifiedCacheSize;
     }
 
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+            return generateToken(authenticatedUser);
+        }
         return generateToken(userDetails.getUsername());
     }
 
+    /**
+     * A token that carries the user's id and authorities, so requests can be authorised without loading the user
+     */
+    public String generateToken(AuthenticatedUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(AUTHORITIES_CLAIM, user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        return createToken(claims, user.getUsername());
+    }
+
     public String generateToken(String username) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, username);
@@ -45,45 +97,100 @@ public class JwtUtils {
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verify a token's signature and expiry, parsing it at most once while it stays in the cache
+     *
+     * @throws io.jsonwebtoken.JwtException If the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedCacheSize <= 0) {
+            return parse(token);
+        }
+        String key = hash(token);
+        VerifiedToken cached = verified.get(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            verified.remove(key);
+        }
+        // An expired token throws here, so it never goes back into the cache
+        VerifiedToken parsed = parse(token);
+        if (verified.size() >= verifiedCacheSize) {
+            verified.values().removeIf(VerifiedToken::isExpired);
+            if (verified.size() >= verifiedCacheSize) {
+                verified.clear();
+            }
+        }
+        verified.put(key, parsed);
+        return parsed;
+    }
+
+    /**
+     * @return How long an access token is valid for, in milliseconds
+     */
+    public int getAccessExpirationMs() {
+        return jwtExpirationMs;
+    }
+
     public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+        return verify(token).expiration();
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return claimsResolver.apply(verify(token).claims());
     }
 
+    /**
+     * @return Whether the token is genuine and unexpired; malformed and forged tokens throw
+     */
     public boolean validateToken(String token) {
-        return (!isTokenExpired(token));
+        return !verify(token).isExpired();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        VerifiedToken verifiedToken = verify(token);
+        return verifiedToken.username().equals(userDetails.getUsername()) && !verifiedToken.isExpired();
+    }
+
+    int cachedTokens() {
+        return verified.size();
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new VerifiedToken(claims.getId(), claims.getSubject(), claims.getExpiration(), userFromClaims(claims), claims);
+    }
+
+    private static AuthenticatedUser userFromClaims(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        if (userId == null || authorities == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), "",
+                authorities.stream().map(authority -> new SimpleGrantedAuthority(authority.toString())).toList());
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    // Tokens are kept by hash, so the cache never holds a usable credential
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.fintracker.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Immutable Aho-Corasick automaton over a fixed set of case-insensitive keywords.
+ * Matching scans the text once, regardless of how many keywords were compiled in.
+ */
+public final class KeywordAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    private KeywordAutomaton(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[][] outputs) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Compile an automaton for the given keywords
+     *
+     * @param keywords The keywords; a keyword's position in the list is the id reported on a match.
+     *                 Null or empty entries never match.
+     * @return The compiled automaton
+     */
+    public static KeywordAutomaton compile(List<String> keywords) {
+        List<Map<Character, Integer>> gotoFunction = new ArrayList<>();
+        List<List<Integer>> stateOutputs = new ArrayList<>();
+        gotoFunction.add(new HashMap<>());
+        stateOutputs.add(new ArrayList<>());
+
+        for (int id = 0; id < keywords.size(); id++) {
+            String keyword = keywords.get(id);
+            if (keyword == null || keyword.isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = Character.toLowerCase(keyword.charAt(i));
+                Integer next = gotoFunction.get(state).get(c);
+                if (next == null) {
+                    next = gotoFunction.size();
+                    gotoFunction.add(new HashMap<>());
+                    stateOutputs.add(new ArrayList<>());
+                    gotoFunction.get(state).put(c, next);
+                }
+                state = next;
+            }
+            stateOutputs.get(state).add(id);
+        }
+
+        // Breadth-first pass computes failure links and folds each state's suffix outputs into it
+        int stateCount = gotoFunction.size();
+        int[] fail = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>(gotoFunction.get(ROOT).values());
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : gotoFunction.get(state).entrySet()) {
+                char c = edge.getKey();
+                int child = edge.getValue();
+                queue.add(child);
+
+                int fallback = fail[state];
+                while (fallback != ROOT && !gotoFunction.get(fallback).containsKey(c)) {
+                    fallback = fail[fallback];
+                }
+                Integer target = state == ROOT ? null : gotoFunction.get(fallback).get(c);
+                fail[child] = target != null ? target : ROOT;
+                stateOutputs.get(child).addAll(stateOutputs.get(fail[child]));
+            }
+        }
+
+        char[][] edgeChars = new char[stateCount][];
+        int[][] edgeTargets = new int[stateCount][];
+        int[][] outputs = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            Map<Character, Integer> edges = gotoFunction.get(state);
+            char[] chars = new char[edges.size()];
+            int i = 0;
+            for (char c : edges.keySet()) {
+                chars[i++] = c;
+            }
+            Arrays.sort(chars);
+            int[] targets = new int[chars.length];
+            for (i = 0; i < chars.length; i++) {
+                targets[i] = edges.get(chars[i]);
+            }
+            edgeChars[state] = chars;
+            edgeTargets[state] = targets;
+
+            List<Integer> ids = stateOutputs.get(state);
+            outputs[state] = ids.isEmpty() ? NO_OUTPUT : ids.stream().mapToInt(Integer::intValue).distinct().toArray();
+        }
+
+        return new KeywordAutomaton(edgeChars, edgeTargets, fail, outputs);
+    }
+
+    /**
+     * Scan the text and set the id of every keyword it contains
+     *
+     * @param text The text to scan
+     * @param matches Receives the ids of the matched keywords
+     */
+    public void match(CharSequence text, BitSet matches) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next = transition(state, c);
+            while (next < 0 && state != ROOT) {
+                state = fail[state];
+                next = transition(state, c);
+            }
+            state = next < 0 ? ROOT : next;
+            for (int id : outputs[state]) {
+                matches.set(id);
+            }
+        }
+    }
+
+    private int transition(int state, char c) {
+        int index = Arrays.binarySearch(edgeChars[state], c);
+        return index >= 0 ? edgeTargets[state][index] : -1;
+    }
+}
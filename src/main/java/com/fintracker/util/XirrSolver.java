@@ -0,0 +1,171 @@
+package com.fintracker.util;
+
+/**
+ * Internal rate of return for irregular, dated cash flows (XIRR) over primitive arrays.
+ * Time is measured in years of 365.25 days from the first flow. Newton's method is
+ * tried first; if it diverges the root is bracketed and refined with Brent's method.
+ * Stateless and allocation-free, so it is safe to call from many threads at once.
+ */
+public final class XirrSolver {
+
+    public static final double DAYS_PER_YEAR = 365.25;
+
+    private static final double TOLERANCE = 1e-10;
+    private static final int MAX_NEWTON_ITERATIONS = 50;
+    private static final int MAX_BRENT_ITERATIONS = 200;
+    private static final double MIN_RATE = -0.999999;
+    private static final double MAX_RATE = 1e6;
+
+    private XirrSolver() {
+    }
+
+    /**
+     * Solve for the annualized rate at which the flows have zero net present value
+     *
+     * @param days    Day of each flow (e.g. epoch day), any order
+     * @param amounts Amount of each flow; money paid in is negative, money received positive
+     * @param from    First flow to use, inclusive
+     * @param to      Last flow to use, exclusive
+     * @return The rate as a fraction (0.07 for 7%), or NaN when no rate exists
+     */
+    public static double solve(long[] days, double[] amounts, int from, int to) {
+        if (to - from < 2 || !hasBothSigns(amounts, from, to)) {
+            return Double.NaN;
+        }
+        long firstDay = days[from];
+        for (int i = from + 1; i < to; i++) {
+            firstDay = Math.min(firstDay, days[i]);
+        }
+
+        double rate = newton(days, amounts, from, to, firstDay, 0.1);
+        if (!Double.isNaN(rate)) {
+            return rate;
+        }
+        return brent(days, amounts, from, to, firstDay);
+    }
+
+    /**
+     * Net present value of the flows at the given rate, discounted to the first day
+     */
+    public static double npv(long[] days, double[] amounts, int from, int to, long firstDay, double rate) {
+        double base = Math.log1p(rate);
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            double years = (days[i] - firstDay) / DAYS_PER_YEAR;
+            sum += amounts[i] * Math.exp(-years * base);
+        }
+        return sum;
+    }
+
+    private static double newton(long[] days, double[] amounts, int from, int to, long firstDay, double guess) {
+        double rate = guess;
+        for (int iteration = 0; iteration < MAX_NEWTON_ITERATIONS; iteration++) {
+            double base = Math.log1p(rate);
+            double value = 0;
+            double derivative = 0;
+            for (int i = from; i < to; i++) {
+                double years = (days[i] - firstDay) / DAYS_PER_YEAR;
+                double discounted = amounts[i] * Math.exp(-years * base);
+                value += discounted;
+                derivative -= years * discounted / (1 + rate);
+            }
+            if (derivative == 0 || !Double.isFinite(derivative)) {
+                return Double.NaN;
+            }
+            double next = rate - value / derivative;
+            if (!Double.isFinite(next) || next <= MIN_RATE) {
+                return Double.NaN;
+            }
+            if (Math.abs(next - rate) < TOLERANCE) {
+                return next;
+            }
+            rate = next;
+        }
+        return Double.NaN;
+    }
+
+    private static double brent(long[] days, double[] amounts, int from, int to, long firstDay) {
+        double a = MIN_RATE;
+        double fa = npv(days, amounts, from, to, firstDay, a);
+        double b = 1.0;
+        double fb = npv(days, amounts, from, to, firstDay, b);
+        while (fa * fb > 0 && b < MAX_RATE) {
+            b *= 10;
+            fb = npv(days, amounts, from, to, firstDay, b);
+        }
+        if (fa * fb > 0 || Double.isNaN(fa) || Double.isNaN(fb)) {
+            return Double.NaN;
+        }
+
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        for (int iteration = 0; iteration < MAX_BRENT_ITERATIONS; iteration++) {
+            if (fb * fc > 0) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tolerance = 2 * Math.ulp(b) + TOLERANCE / 2;
+            double midpoint = (c - b) / 2;
+            if (Math.abs(midpoint) <= tolerance || fb == 0) {
+                return b;
+            }
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                // Inverse quadratic interpolation, or the secant step when only two points differ
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * midpoint * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * midpoint * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * midpoint * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = midpoint;
+                    e = d;
+                }
+            } else {
+                d = midpoint;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, midpoint);
+            fb = npv(days, amounts, from, to, firstDay, b);
+        }
+        return Double.NaN;
+    }
+
+    private static boolean hasBothSigns(double[] amounts, int from, int to) {
+        boolean positive = false;
+        boolean negative = false;
+        for (int i = from; i < to; i++) {
+            positive |= amounts[i] > 0;
+            negative |= amounts[i] < 0;
+        }
+        return positive && negative;
+    }
+}
@@ -2,9 +2,16 @@ package com.fintracker.api.v1.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fintracker.api.v1.dto.AuthRequest;
+import com.fintracker.api.v1.dto.RefreshRequest;
 import com.fintracker.api.v1.dto.UserDTO;
 import com.fintracker.api.v1.mapper.UserMapper;
+import com.fintracker.config.AuthenticatedUser;
+import com.fintracker.config.CustomUserDetailsService;
+import com.fintracker.config.LoginService;
+import com.fintracker.config.TokenRevocationList;
 import com.fintracker.core.domain.User;
+import com.fintracker.core.exception.ServiceBusyException;
+import com.fintracker.core.service.RefreshTokenService;
 import com.fintracker.core.service.UserService;
 import com.fintracker.util.JwtUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,15 +21,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.is;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,11 +49,20 @@ public class AuthControllerTest {
     private ObjectMapper objectMapper;
 
     @MockBean
-    private AuthenticationManager authenticationManager;
+    private LoginService loginService;
 
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
     @MockBean
     private JwtUtils jwtUtils;
 
@@ -52,7 +72,7 @@ public class AuthControllerTest {
     private User user;
     private UserDTO userDTO;
     private AuthRequest authRequest;
-    private Authentication authentication;
+    private AuthenticatedUser authenticatedUser;
 
     @BeforeEach
     void setUp() {
@@ -77,32 +97,129 @@ public class AuthControllerTest {
                 .password("password")
                 .build();
 
-        authentication = new UsernamePasswordAuthenticationToken("testuser", "password");
+        authenticatedUser = new AuthenticatedUser(1L, "testuser", "", List.of(new SimpleGrantedAuthority("USER")));
     }
 
     @Test
     void login_WithValidCredentials_ShouldReturnToken() throws Exception {
         // Arrange
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(authentication);
-        when(jwtUtils.generateToken(authentication)).thenReturn("test-jwt-token");
-        when(userService.getUserByUsername("testuser")).thenReturn(user);
+        when(loginService.login("testuser", "password")).thenReturn(CompletableFuture.completedFuture(authenticatedUser));
+        when(jwtUtils.generateToken(authenticatedUser)).thenReturn("test-jwt-token");
+        when(jwtUtils.getAccessExpirationMs()).thenReturn(900_000);
+        when(refreshTokenService.issue(1L)).thenReturn("test-refresh-token");
 
         // Act & Assert
-        mockMvc.perform(post("/api/v1/auth/login")
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
                 .with(SecurityMockMvcRequestPostProcessors.csrf()) // Updated csrf method
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.token", is("test-jwt-token")))
                 .andExpect(jsonPath("$.tokenType", is("Bearer")))
+                .andExpect(jsonPath("$.expiresIn", is(900)))
+                .andExpect(jsonPath("$.refreshToken", is("test-refresh-token")))
                 .andExpect(jsonPath("$.userId", is(1)))
                 .andExpect(jsonPath("$.username", is("testuser")));
 
-        verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils, times(1)).generateToken(authentication);
-        verify(userService, times(1)).getUserByUsername("testuser");
+        verify(loginService, times(1)).login("testuser", "password");
+        verify(jwtUtils, times(1)).generateToken(authenticatedUser);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void login_WithInvalidCredentials_ShouldReturnUnauthorized() throws Exception {
+        // Arrange
+        when(loginService.login("testuser", "password"))
+                .thenReturn(CompletableFuture.failedFuture(new BadCredentialsException("Invalid username or password")));
+
+        // Act & Assert
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(jwtUtils, refreshTokenService);
+    }
+
+    @Test
+    void login_WhenLoginQueueIsFull_ShouldReturnServiceUnavailable() throws Exception {
+        // Arrange
+        when(loginService.login("testuser", "password"))
+                .thenThrow(new ServiceBusyException("Too many logins in progress; try again shortly", 1));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/auth/login")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verifyNoInteractions(jwtUtils);
+    }
+
+    @Test
+    void refresh_WithValidRefreshToken_ShouldReturnNewTokens() throws Exception {
+        // Arrange
+        AuthenticatedUser withPassword = new AuthenticatedUser(1L, "testuser", "hash", List.of(new SimpleGrantedAuthority("USER")));
+        when(refreshTokenService.rotate("old-refresh-token")).thenReturn(new RefreshTokenService.IssuedToken("new-refresh-token", user));
+        when(userDetailsService.principalOf(user)).thenReturn(withPassword);
+        when(jwtUtils.generateToken(authenticatedUser)).thenReturn("new-jwt-token");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshRequest("old-refresh-token"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token", is("new-jwt-token")))
+                .andExpect(jsonPath("$.refreshToken", is("new-refresh-token")))
+                .andExpect(jsonPath("$.userId", is(1)));
+    }
+
+    @Test
+    void refresh_WithUsedRefreshToken_ShouldReturnUnauthorized() throws Exception {
+        // Arrange
+        when(refreshTokenService.rotate("used-refresh-token")).thenThrow(new BadCredentialsException("Invalid refresh token"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshRequest("used-refresh-token"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message", is("Invalid refresh token")));
+
+        verifyNoInteractions(jwtUtils);
+    }
+
+    @Test
+    void logout_WithTokens_ShouldRevokeBoth() throws Exception {
+        // Arrange
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+        when(jwtUtils.verify("test-jwt-token"))
+                .thenReturn(new JwtUtils.VerifiedToken("token-id", "testuser", expiration, authenticatedUser, null));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/auth/logout")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .header("Authorization", "Bearer test-jwt-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshRequest("test-refresh-token"))))
+                .andExpect(status().isNoContent());
+
+        verify(tokenRevocationList).revoke("token-id", expiration);
+        verify(refreshTokenService).revoke("test-refresh-token");
     }
 
     @Test
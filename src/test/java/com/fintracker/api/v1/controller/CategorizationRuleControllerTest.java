@@ -0,0 +1,124 @@
+package com.fintracker.api.v1.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintracker.api.v1.dto.CategorizationRuleDTO;
+import com.fintracker.api.v1.mapper.CategorizationRuleMapper;
+import com.fintracker.core.domain.CategorizationRule;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.User;
+import com.fintracker.core.service.CategorizationRuleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CategorizationRuleController.class)
+public class CategorizationRuleControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CategorizationRuleService categorizationRuleService;
+
+    @MockBean
+    private CategorizationRuleMapper categorizationRuleMapper;
+
+    private CategorizationRule rule;
+    private CategorizationRuleDTO ruleDTO;
+
+    @BeforeEach
+    void setUp() {
+        rule = CategorizationRule.builder()
+                .id(1L)
+                .matchType("CONTAINS")
+                .pattern("swiggy")
+                .category(Category.builder().id(2L).build())
+                .user(User.builder().id(1L).build())
+                .priority(1)
+                .active(true)
+                .build();
+
+        ruleDTO = CategorizationRuleDTO.builder()
+                .id(1L)
+                .matchType("CONTAINS")
+                .pattern("swiggy")
+                .categoryId(2L)
+                .userId(1L)
+                .priority(1)
+                .active(true)
+                .build();
+    }
+
+    @Test
+    @WithMockUser
+    void getRulesByUserId_ShouldReturnRules() throws Exception {
+        // Arrange
+        List<CategorizationRule> rules = Arrays.asList(rule);
+        when(categorizationRuleService.getRulesByUserId(1L)).thenReturn(rules);
+        when(categorizationRuleMapper.toDTO(rule)).thenReturn(ruleDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/categorization-rules/user/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].pattern", is("swiggy")))
+                .andExpect(jsonPath("$[0].categoryId", is(2)));
+
+        verify(categorizationRuleService, times(1)).getRulesByUserId(1L);
+    }
+
+    @Test
+    @WithMockUser
+    void createRule_WithValidRule_ShouldReturnCreatedRule() throws Exception {
+        // Arrange
+        when(categorizationRuleMapper.toEntity(ruleDTO)).thenReturn(rule);
+        when(categorizationRuleService.createRule(eq(rule), eq(2L), any(), eq(1L))).thenReturn(rule);
+        when(categorizationRuleMapper.toDTO(rule)).thenReturn(ruleDTO);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/categorization-rules")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ruleDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.matchType", is("CONTAINS")));
+
+        verify(categorizationRuleService, times(1)).createRule(eq(rule), eq(2L), any(), eq(1L));
+    }
+
+    @Test
+    @WithMockUser
+    void deleteRule_WithValidId_ShouldReturnNoContent() throws Exception {
+        // Arrange
+        doNothing().when(categorizationRuleService).deleteRule(1L);
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/v1/categorization-rules/1")
+                .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        verify(categorizationRuleService, times(1)).deleteRule(1L);
+    }
+}
@@ -2,8 +2,10 @@ package com.fintracker.api.v1.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fintracker.api.v1.dto.CategoryDTO;
+import com.fintracker.api.v1.dto.CategoryTreeDTO;
 import com.fintracker.api.v1.mapper.CategoryMapper;
 import com.fintracker.core.domain.Category;
+import com.fintracker.core.service.CategoryReorganizationService;
 import com.fintracker.core.service.CategoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -41,6 +44,9 @@ public class CategoryControllerTest {
     @MockBean
     private CategoryMapper categoryMapper;
 
+    @MockBean
+    private CategoryReorganizationService categoryReorganizationService;
+
     private Category category;
     private Category parentCategory;
     private CategoryDTO categoryDTO;
@@ -190,6 +196,40 @@ public class CategoryControllerTest {
         verify(categoryMapper, times(1)).toDTO(category);
     }
 
+    @Test
+    @WithMockUser
+    void getCategoryTree_ShouldReturnNestedCategories() throws Exception {
+        // Arrange
+        List<Category> categories = Arrays.asList(parentCategory, category);
+        CategoryTreeDTO childNode = CategoryTreeDTO.builder()
+                .id(2L)
+                .name("Test Category")
+                .type("EXPENSE")
+                .parentId(1L)
+                .build();
+        CategoryTreeDTO rootNode = CategoryTreeDTO.builder()
+                .id(1L)
+                .name("Parent Category")
+                .type("EXPENSE")
+                .children(new ArrayList<>(List.of(childNode)))
+                .build();
+        when(categoryService.getCategoryTree(null)).thenReturn(categories);
+        when(categoryMapper.toTreeDTOs(categories)).thenReturn(List.of(rootNode));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].children", hasSize(1)))
+                .andExpect(jsonPath("$[0].children[0].id", is(2)))
+                .andExpect(jsonPath("$[0].children[0].parentId", is(1)));
+
+        verify(categoryService, times(1)).getCategoryTree(null);
+        verify(categoryMapper, times(1)).toTreeDTOs(categories);
+    }
+
     @Test
     @WithMockUser
     void createCategory_WithValidCategory_ShouldReturnCreatedCategory() throws Exception {
@@ -255,4 +295,30 @@ public class CategoryControllerTest {
 
         verify(categoryService, times(1)).deleteCategory(2L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void mergeCategory_WithValidIds_ShouldReturnMovedCounts() throws Exception {
+        // Arrange
+        CategoryReorganizationService.MergeResult result = CategoryReorganizationService.MergeResult.builder()
+                .transactionsMoved(12)
+                .scheduledTransactionsMoved(2)
+                .rulesMoved(1)
+                .subcategoriesMoved(3)
+                .build();
+        when(categoryReorganizationService.mergeCategories(2L, 1L)).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/categories/2/merge-into/1")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sourceCategoryId", is(2)))
+                .andExpect(jsonPath("$.targetCategoryId", is(1)))
+                .andExpect(jsonPath("$.transactionsMoved", is(12)))
+                .andExpect(jsonPath("$.scheduledTransactionsMoved", is(2)))
+                .andExpect(jsonPath("$.rulesMoved", is(1)))
+                .andExpect(jsonPath("$.subcategoriesMoved", is(3)));
+
+        verify(categoryReorganizationService, times(1)).mergeCategories(2L, 1L);
+    }
+}
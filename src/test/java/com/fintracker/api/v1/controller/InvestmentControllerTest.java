@@ -1,21 +1,37 @@
 package com.fintracker.api.v1.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintracker.api.v1.dto.CapitalGainsDTO;
 import com.fintracker.api.v1.dto.InvestmentDTO;
+import com.fintracker.api.v1.dto.InvestmentValuationDTO;
+import com.fintracker.api.v1.dto.PortfolioProjectionDTO;
+import com.fintracker.api.v1.dto.PortfolioReturnsDTO;
+import com.fintracker.api.v1.dto.ProjectionPointDTO;
+import com.fintracker.api.v1.dto.RealizedGainDTO;
+import com.fintracker.api.v1.dto.TradeRequestDTO;
 import com.fintracker.api.v1.mapper.InvestmentMapper;
 import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentValuation;
+import com.fintracker.core.domain.RealizedGain;
 import com.fintracker.core.domain.User;
+import com.fintracker.core.service.InvestmentProjectionService;
+import com.fintracker.core.service.InvestmentRevaluationService;
 import com.fintracker.core.service.InvestmentService;
+import com.fintracker.core.service.InvestmentValuationService;
+import com.fintracker.core.service.PortfolioAnalyticsService;
+import com.fintracker.core.service.TaxLotService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -44,6 +60,21 @@ public class InvestmentControllerTest {
     @MockBean
     private InvestmentMapper investmentMapper;
 
+    @MockBean
+    private InvestmentRevaluationService investmentRevaluationService;
+
+    @MockBean
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+
+    @MockBean
+    private InvestmentValuationService investmentValuationService;
+
+    @MockBean
+    private InvestmentProjectionService investmentProjectionService;
+
+    @MockBean
+    private TaxLotService taxLotService;
+
     private User user;
     private Investment investment;
     private InvestmentDTO investmentDTO;
@@ -335,4 +366,206 @@ public class InvestmentControllerTest {
 
         verify(investmentService, times(1)).calculateReturnRate(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void importPrices_WithJsonFile_ShouldDetectFormatAndReturnCounts() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "prices.json", MediaType.APPLICATION_JSON_VALUE,
+                "[{\"ticker\":\"TEST\",\"date\":\"2024-03-01\",\"price\":12.5}]".getBytes());
+        InvestmentRevaluationService.PriceImportResult result = InvestmentRevaluationService.PriceImportResult.builder()
+                .rowsRead(1)
+                .rowsRejected(0)
+                .pricesRecorded(1)
+                .tickers(1)
+                .investmentsUpdated(3)
+                .build();
+        when(investmentRevaluationService.importPrices(any(), eq("JSON"))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/v1/investments/prices/import")
+                .file(file)
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pricesRecorded", is(1)))
+                .andExpect(jsonPath("$.investmentsUpdated", is(3)));
+
+        verify(investmentRevaluationService, times(1)).importPrices(any(), eq("JSON"));
+    }
+
+    @Test
+    @WithMockUser
+    void getPortfolioReturns_WithValidUserId_ShouldReturnReturns() throws Exception {
+        // Arrange
+        PortfolioAnalyticsService.PortfolioReturns returns = PortfolioAnalyticsService.PortfolioReturns.builder()
+                .userId(1L)
+                .xirr(0.125)
+                .holdings(List.of())
+                .build();
+        PortfolioReturnsDTO returnsDTO = PortfolioReturnsDTO.builder()
+                .userId(1L)
+                .invested(new BigDecimal("10000.00"))
+                .xirr(new BigDecimal("12.50"))
+                .holdings(List.of())
+                .build();
+        when(portfolioAnalyticsService.getPortfolioReturns(1L)).thenReturn(returns);
+        when(investmentMapper.toPortfolioReturnsDTO(returns)).thenReturn(returnsDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/investments/user/1/returns"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId", is(1)))
+                .andExpect(jsonPath("$.xirr", is(12.50)))
+                .andExpect(jsonPath("$.holdings", hasSize(0)));
+
+        verify(portfolioAnalyticsService, times(1)).getPortfolioReturns(1L);
+    }
+
+    @Test
+    @WithMockUser
+    void recordSale_WithValidTrade_ShouldReturnRealizedGains() throws Exception {
+        // Arrange
+        TradeRequestDTO trade = TradeRequestDTO.builder()
+                .tradeDate(LocalDate.of(2024, 5, 1))
+                .units(new BigDecimal("10"))
+                .amount(new BigDecimal("2500.00"))
+                .build();
+        RealizedGain gain = RealizedGain.builder().id(1L).build();
+        RealizedGainDTO gainDTO = RealizedGainDTO.builder()
+                .id(1L)
+                .investmentId(1L)
+                .gain(new BigDecimal("500.00"))
+                .financialYear(2024)
+                .longTerm(true)
+                .build();
+        when(taxLotService.recordSale(1L, LocalDate.of(2024, 5, 1), new BigDecimal("10"), new BigDecimal("2500.00")))
+                .thenReturn(List.of(gain));
+        when(investmentMapper.toRealizedGainDTO(gain)).thenReturn(gainDTO);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/investments/1/sales")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(trade)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].gain", is(500.00)))
+                .andExpect(jsonPath("$[0].longTerm", is(true)));
+    }
+
+    @Test
+    @WithMockUser
+    void recordSale_WithoutUnits_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        TradeRequestDTO trade = TradeRequestDTO.builder()
+                .tradeDate(LocalDate.of(2024, 5, 1))
+                .amount(new BigDecimal("2500.00"))
+                .build();
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/investments/1/sales")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(trade)))
+                .andExpect(status().isBadRequest());
+
+        verify(taxLotService, never()).recordSale(any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void getCapitalGains_WithFinancialYear_ShouldReturnSummary() throws Exception {
+        // Arrange
+        TaxLotService.CapitalGainsSummary summary = TaxLotService.CapitalGainsSummary.builder()
+                .financialYear(2024)
+                .investments(List.of())
+                .build();
+        CapitalGainsDTO summaryDTO = CapitalGainsDTO.builder()
+                .financialYear(2024)
+                .shortTermGain(new BigDecimal("-100.00"))
+                .longTermGain(new BigDecimal("1000.00"))
+                .investments(List.of())
+                .build();
+        when(taxLotService.getCapitalGains(1L, 2024)).thenReturn(summary);
+        when(investmentMapper.toCapitalGainsDTO(summary)).thenReturn(summaryDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/investments/user/1/capital-gains/2024"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.financialYear", is(2024)))
+                .andExpect(jsonPath("$.longTermGain", is(1000.00)));
+
+        verify(taxLotService, times(1)).getCapitalGains(1L, 2024);
+    }
+
+    @Test
+    @WithMockUser
+    void getPortfolioProjection_WithSeed_ShouldReturnPercentiles() throws Exception {
+        // Arrange
+        InvestmentProjectionService.Projection projection = InvestmentProjectionService.Projection.builder()
+                .userId(1L)
+                .years(5)
+                .paths(1000)
+                .seed(42L)
+                .points(List.of())
+                .build();
+        PortfolioProjectionDTO projectionDTO = PortfolioProjectionDTO.builder()
+                .userId(1L)
+                .years(5)
+                .paths(1000)
+                .seed(42L)
+                .points(List.of(ProjectionPointDTO.builder()
+                        .year(0)
+                        .p10(new BigDecimal("10000.00"))
+                        .p50(new BigDecimal("10000.00"))
+                        .p90(new BigDecimal("10000.00"))
+                        .build()))
+                .build();
+        when(investmentProjectionService.project(1L, 5, 1000, 42L)).thenReturn(projection);
+        when(investmentMapper.toProjectionDTO(projection)).thenReturn(projectionDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/investments/user/1/projection")
+                        .param("years", "5")
+                        .param("paths", "1000")
+                        .param("seed", "42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seed", is(42)))
+                .andExpect(jsonPath("$.points", hasSize(1)))
+                .andExpect(jsonPath("$.points[0].p50", is(10000.00)));
+
+        verify(investmentProjectionService, times(1)).project(1L, 5, 1000, 42L);
+    }
+
+    @Test
+    @WithMockUser
+    void getValuationHistory_WithRange_ShouldReturnPoints() throws Exception {
+        // Arrange
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        InvestmentValuation valuation = InvestmentValuation.builder()
+                .investmentId(1L)
+                .valuationDate(to)
+                .amount(new BigDecimal("11000.00"))
+                .resolution("DAILY")
+                .build();
+        InvestmentValuationDTO valuationDTO = InvestmentValuationDTO.builder()
+                .date(to)
+                .value(new BigDecimal("11000.00"))
+                .resolution("DAILY")
+                .build();
+        when(investmentValuationService.getValuationHistory(1L, from, to)).thenReturn(List.of(valuation));
+        when(investmentMapper.toValuationDTO(valuation)).thenReturn(valuationDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/investments/1/valuations")
+                .param("from", "2024-01-01")
+                .param("to", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].resolution", is("DAILY")))
+                .andExpect(jsonPath("$[0].value", is(11000.00)));
+
+        verify(investmentValuationService, times(1)).getValuationHistory(1L, from, to);
+    }
+}
@@ -1,15 +1,24 @@
 package com.fintracker.api.v1.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintracker.api.v1.dto.CashFlowForecastDTO;
+import com.fintracker.api.v1.dto.LowBalanceWarningDTO;
 import com.fintracker.api.v1.dto.ScheduledTransactionDTO;
+import com.fintracker.api.v1.dto.ScheduledTransactionExecutionDTO;
+import com.fintracker.api.v1.dto.ScheduledTransactionRunDTO;
 import com.fintracker.api.v1.dto.TransactionDTO;
 import com.fintracker.api.v1.mapper.ScheduledTransactionMapper;
 import com.fintracker.api.v1.mapper.TransactionMapper;
 import com.fintracker.core.domain.Account;
 import com.fintracker.core.domain.Category;
 import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.domain.ScheduledTransactionExecution;
+import com.fintracker.core.domain.ScheduledTransactionRun;
 import com.fintracker.core.domain.Transaction;
 import com.fintracker.core.domain.User;
+import com.fintracker.core.service.CashFlowForecastService;
+import com.fintracker.core.service.ScheduledTransactionExecutor;
+import com.fintracker.core.service.ScheduledTransactionJournal;
 import com.fintracker.core.service.ScheduledTransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +30,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
@@ -53,6 +63,15 @@ public class ScheduledTransactionControllerTest {
     @MockBean
     private TransactionMapper transactionMapper;
 
+    @MockBean
+    private ScheduledTransactionExecutor scheduledTransactionExecutor;
+
+    @MockBean
+    private CashFlowForecastService cashFlowForecastService;
+
+    @MockBean
+    private ScheduledTransactionJournal scheduledTransactionJournal;
+
     private User user;
     private Account account;
     private Category category;
@@ -339,4 +358,125 @@ public class ScheduledTransactionControllerTest {
         verify(scheduledTransactionService, times(1)).executeScheduledTransaction(1L);
         verify(transactionMapper, times(1)).toDTO(transaction);
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void getRecentRuns_ShouldReturnRunsWithThroughput() throws Exception {
+        // Arrange
+        ScheduledTransactionRun run = ScheduledTransactionRun.builder()
+                .id(1L)
+                .status("COMPLETED")
+                .executedCount(500L)
+                .build();
+        ScheduledTransactionRunDTO runDTO = ScheduledTransactionRunDTO.builder()
+                .id(1L)
+                .status("COMPLETED")
+                .executedCount(500L)
+                .failedCount(2L)
+                .throughput(250.0)
+                .build();
+        when(scheduledTransactionExecutor.getRecentRuns()).thenReturn(List.of(run));
+        when(scheduledTransactionMapper.toRunDTO(run)).thenReturn(runDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/scheduled-transactions/runs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("COMPLETED")))
+                .andExpect(jsonPath("$[0].failedCount", is(2)))
+                .andExpect(jsonPath("$[0].throughput", is(250.0)));
+
+        verify(scheduledTransactionExecutor, times(1)).getRecentRuns();
+    }
+
+    @Test
+    @WithMockUser
+    void getCashFlowForecast_ShouldReturnPointsAndWarnings() throws Exception {
+        // Arrange
+        CashFlowForecastService.Forecast forecast = CashFlowForecastService.Forecast.builder()
+                .userId(1L)
+                .granularity("WEEKLY")
+                .points(List.of())
+                .warnings(List.of())
+                .build();
+        CashFlowForecastDTO forecastDTO = CashFlowForecastDTO.builder()
+                .userId(1L)
+                .granularity("WEEKLY")
+                .points(List.of())
+                .warnings(List.of(LowBalanceWarningDTO.builder()
+                        .accountId(1L)
+                        .firstBelowOn(LocalDate.of(2024, 3, 1))
+                        .lowestBalance(new BigDecimal("-50.00"))
+                        .build()))
+                .build();
+        when(cashFlowForecastService.forecast(1L, 6, "WEEKLY", new BigDecimal("100"))).thenReturn(forecast);
+        when(scheduledTransactionMapper.toForecastDTO(forecast)).thenReturn(forecastDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/scheduled-transactions/user/1/forecast")
+                        .param("months", "6")
+                        .param("granularity", "WEEKLY")
+                        .param("lowBalanceThreshold", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity", is("WEEKLY")))
+                .andExpect(jsonPath("$.warnings", hasSize(1)))
+                .andExpect(jsonPath("$.warnings[0].firstBelowOn", is("2024-03-01")));
+
+        verify(cashFlowForecastService, times(1)).forecast(1L, 6, "WEEKLY", new BigDecimal("100"));
+    }
+
+    @Test
+    @WithMockUser
+    void getFailedExecutions_ShouldReturnFailuresWithLastError() throws Exception {
+        // Arrange
+        ScheduledTransactionExecution execution = ScheduledTransactionExecution.builder()
+                .id(3L)
+                .scheduledTransactionId(1L)
+                .status("FAILED")
+                .attempts(2)
+                .build();
+        ScheduledTransactionExecutionDTO executionDTO = ScheduledTransactionExecutionDTO.builder()
+                .id(3L)
+                .scheduledTransactionId(1L)
+                .status("FAILED")
+                .attempts(2)
+                .lastError("ResourceNotFoundException: Category not found with id: 1")
+                .build();
+        when(scheduledTransactionJournal.getFailures()).thenReturn(List.of(execution));
+        when(scheduledTransactionMapper.toExecutionDTO(execution)).thenReturn(executionDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/scheduled-transactions/executions/failures"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].attempts", is(2)))
+                .andExpect(jsonPath("$[0].lastError", is("ResourceNotFoundException: Category not found with id: 1")));
+
+        verify(scheduledTransactionJournal, times(1)).getFailures();
+    }
+
+    @Test
+    @WithMockUser
+    void retryExecution_ShouldRequeueIt() throws Exception {
+        // Arrange
+        ScheduledTransactionExecution execution = ScheduledTransactionExecution.builder()
+                .id(3L)
+                .status("FAILED")
+                .build();
+        ScheduledTransactionExecutionDTO executionDTO = ScheduledTransactionExecutionDTO.builder()
+                .id(3L)
+                .status("FAILED")
+                .attempts(0)
+                .build();
+        when(scheduledTransactionJournal.requeue(3L)).thenReturn(execution);
+        when(scheduledTransactionMapper.toExecutionDTO(execution)).thenReturn(executionDTO);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/scheduled-transactions/executions/3/retry")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("FAILED")))
+                .andExpect(jsonPath("$.attempts", is(0)));
+
+        verify(scheduledTransactionJournal, times(1)).requeue(3L);
+    }
+}
@@ -1,12 +1,14 @@
 package com.fintracker.api.v1.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintracker.api.v1.dto.RecategorizeRequestDTO;
 import com.fintracker.api.v1.dto.TransactionDTO;
 import com.fintracker.api.v1.mapper.TransactionMapper;
 import com.fintracker.core.domain.Account;
 import com.fintracker.core.domain.Category;
 import com.fintracker.core.domain.Transaction;
 import com.fintracker.core.domain.User;
+import com.fintracker.core.service.CategoryReorganizationService;
 import com.fintracker.core.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -47,6 +49,9 @@ public class TransactionControllerTest {
     @MockBean
     private TransactionMapper transactionMapper;
 
+    @MockBean
+    private CategoryReorganizationService categoryReorganizationService;
+
     private User user;
     private Account account;
     private Category category;
@@ -312,4 +317,28 @@ public class TransactionControllerTest {
 
         verify(transactionService, times(1)).deleteTransaction(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void recategorizeTransactions_WithFilters_ShouldReturnUpdatedCount() throws Exception {
+        // Arrange
+        RecategorizeRequestDTO request = RecategorizeRequestDTO.builder()
+                .userId(1L)
+                .fromCategoryId(1L)
+                .includeSubcategories(true)
+                .descriptionContains("coffee")
+                .targetCategoryId(2L)
+                .build();
+        when(categoryReorganizationService.recategorizeTransactions(1L, 1L, true, "coffee", null, null, 2L)).thenReturn(7);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/transactions/recategorize")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updatedTransactions", is(7)));
+
+        verify(categoryReorganizationService, times(1)).recategorizeTransactions(1L, 1L, true, "coffee", null, null, 2L);
+    }
+}
@@ -0,0 +1,129 @@
+package com.fintracker.config;
+
+import com.fintracker.core.exception.ServiceBusyException;
+import com.fintracker.core.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginServiceTest {
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private UserService userService;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private SimpleMeterRegistry meterRegistry;
+    private LoginService loginService;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(5);
+        meterRegistry = new SimpleMeterRegistry();
+        loginService = new LoginService(userDetailsService, userService, passwordEncoder, meterRegistry, 1, 1, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loginService.stop();
+    }
+
+    private AuthenticatedUser user(String passwordHash) {
+        return new AuthenticatedUser(1L, "testuser", passwordHash, List.of(new SimpleGrantedAuthority("USER")));
+    }
+
+    @Test
+    void authenticate_WithValidCredentials_ShouldReturnUserWithoutPassword() {
+        // Arrange
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user(passwordEncoder.encode("secret")));
+
+        // Act
+        AuthenticatedUser result = loginService.authenticate("testuser", "secret", System.nanoTime());
+
+        // Assert
+        assertEquals(1L, result.getId());
+        assertEquals("", result.getPassword());
+        assertEquals(1, meterRegistry.get("auth.login.hash").tag("operation", "verify").timer().count());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void authenticate_WithWrongPasswordOrUnknownUser_ShouldThrowBadCredentials() {
+        // Arrange
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user(passwordEncoder.encode("secret")));
+        when(userDetailsService.loadUserByUsername("nobody")).thenThrow(new UsernameNotFoundException("nobody"));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> loginService.authenticate("testuser", "wrong", System.nanoTime()));
+        assertThrows(BadCredentialsException.class, () -> loginService.authenticate("nobody", "secret", System.nanoTime()));
+        // The unknown user is hashed against too
+        assertEquals(2, meterRegistry.get("auth.login.hash").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    void authenticate_WithPasswordHashedAtLowerCost_ShouldRehashIt() {
+        // Arrange
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user(new BCryptPasswordEncoder(4).encode("secret")));
+
+        // Act
+        loginService.authenticate("testuser", "secret", System.nanoTime());
+
+        // Assert
+        verify(userService).updatePasswordHash(eq(1L), argThat(hash -> hash.startsWith("$2a$05$")));
+        assertEquals(1, meterRegistry.get("auth.login.hash").tag("operation", "rehash").timer().count());
+    }
+
+    @Test
+    void authenticate_AfterWaitingTooLong_ShouldBeTurnedAway() {
+        // Act & Assert
+        long submittedLongAgo = System.nanoTime() - TimeUnit.SECONDS.toNanos(10);
+        assertThrows(ServiceBusyException.class, () -> loginService.authenticate("testuser", "secret", submittedLongAgo));
+        assertEquals(1.0, meterRegistry.get("auth.login.rejected").tag("reason", "queue-wait").counter().count());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void login_WhenPoolAndQueueAreFull_ShouldRejectAtOnce() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDetailsService.loadUserByUsername(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new UsernameNotFoundException(invocation.getArgument(0));
+        });
+
+        // Act
+        CompletableFuture<AuthenticatedUser> running = loginService.login("first", "secret");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<AuthenticatedUser> queued = loginService.login("second", "secret");
+
+        // Assert
+        assertThrows(ServiceBusyException.class, () -> loginService.login("third", "secret"));
+        assertEquals(1.0, meterRegistry.get("auth.login.rejected").tag("reason", "queue-full").counter().count());
+        release.countDown();
+        assertThrows(Exception.class, running::join);
+        assertThrows(Exception.class, queued::join);
+    }
+}
@@ -0,0 +1,256 @@
+package com.fintracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimitFilter = new RateLimitFilter(new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+        ReflectionTestUtils.setField(rateLimitFilter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimitFilter, "maxBuckets", 100);
+        ReflectionTestUtils.setField(rateLimitFilter, "clientsPerAddress", 2);
+        ReflectionTestUtils.setField(rateLimitFilter, "authPerMinute", 6);
+        ReflectionTestUtils.setField(rateLimitFilter, "authBurst", 2);
+        ReflectionTestUtils.setField(rateLimitFilter, "listPerMinute", 60);
+        ReflectionTestUtils.setField(rateLimitFilter, "listBurst", 3);
+        ReflectionTestUtils.setField(rateLimitFilter, "listPathPatterns", "/api/v1/*,/api/v1/*/user/**");
+        ReflectionTestUtils.setField(rateLimitFilter, "defaultPerMinute", 600);
+        ReflectionTestUtils.setField(rateLimitFilter, "defaultBurst", 100);
+        rateLimitFilter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null,
+                List.of(new SimpleGrantedAuthority("USER"))));
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void doFilter_OverAuthLimit_ShouldReturnTooManyRequestsWithRetryAfter() throws Exception {
+        // Act
+        MockHttpServletResponse first = perform("POST", "/api/v1/auth/login", "10.0.0.1");
+        MockHttpServletResponse second = perform("POST", "/api/v1/auth/login", "10.0.0.1");
+        MockHttpServletResponse third = perform("POST", "/api/v1/auth/login", "10.0.0.1");
+        MockHttpServletResponse otherClient = perform("POST", "/api/v1/auth/login", "10.0.0.2");
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals("10", third.getHeader("Retry-After"));
+        assertTrue(third.getContentAsString().contains("Too many requests"));
+        assertEquals(200, otherClient.getStatus());
+        assertEquals(1.0, meterRegistry.get("http.server.requests.rate_limited").tag("group", "auth").counter().count());
+    }
+
+    @Test
+    void doFilter_WithAuthenticatedUser_ShouldLimitListRequestsPerUser() throws Exception {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("testuser", null,
+                List.of(new SimpleGrantedAuthority("USER"))));
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("GET", "/api/v1/transactions/user/1", "10.0.0." + i).getStatus());
+        }
+        MockHttpServletResponse limited = perform("GET", "/api/v1/transactions", "10.0.0.9");
+        MockHttpServletResponse single = perform("GET", "/api/v1/transactions/5", "10.0.0.9");
+
+        // Assert
+        assertEquals(429, limited.getStatus());
+        assertEquals(200, single.getStatus());
+    }
+
+    @Test
+    void doFilter_WithManyUsersBehindOneAddress_ShouldShareTheAddressBudget() throws Exception {
+        // Arrange: three list requests per user, six per address for all of its users together
+        for (String username : List.of("alice", "bob", "carol")) {
+            signIn(username);
+            assertEquals(200, perform("GET", "/api/v1/transactions", "10.0.0.1").getStatus());
+            assertEquals(200, perform("GET", "/api/v1/transactions", "10.0.0.1").getStatus());
+        }
+        signIn("dave");
+
+        // Act
+        MockHttpServletResponse sameAddress = perform("GET", "/api/v1/transactions", "10.0.0.1");
+
+        // Assert: refused by the address, and dave's own budget is left untouched
+        assertEquals(429, sameAddress.getStatus());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("GET", "/api/v1/transactions", "10.0.0.2").getStatus());
+        }
+        assertEquals(429, perform("GET", "/api/v1/transactions", "10.0.0.3").getStatus());
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillAtConfiguredRate() {
+        // Arrange
+        RateLimitFilter.Limit limit = RateLimitFilter.Limit.of("test", 60, 1);
+        long now = 1_000_000_000L;
+
+        // Act & Assert
+        assertEquals(0, rateLimitFilter.tryAcquire("client", limit, now));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimitFilter.tryAcquire("client", limit, now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), rateLimitFilter.tryAcquire("client", limit, now + TimeUnit.MILLISECONDS.toNanos(500)));
+        assertEquals(0, rateLimitFilter.tryAcquire("client", limit, now + TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    void evictIdleBuckets_ShouldDropRefilledBucketsOnly() {
+        // Arrange
+        RateLimitFilter.Limit limit = RateLimitFilter.Limit.of("test", 60, 1);
+        long now = System.nanoTime();
+        rateLimitFilter.tryAcquire("idle", limit, now - TimeUnit.SECONDS.toNanos(5));
+        rateLimitFilter.tryAcquire("busy", limit, now);
+
+        // Act
+        rateLimitFilter.evictIdleBuckets();
+
+        // Assert
+        assertEquals(1, rateLimitFilter.bucketCount());
+        assertTrue(rateLimitFilter.tryAcquire("busy", limit, now) > 0);
+    }
+
+    @Test
+    void tryAcquire_WhenMapIsFull_ShouldShareOverflowBucket() {
+        // Arrange
+        ReflectionTestUtils.setField(rateLimitFilter, "maxBuckets", 2);
+        RateLimitFilter.Limit limit = RateLimitFilter.Limit.of("test", 60, 1);
+        long now = System.nanoTime();
+        rateLimitFilter.tryAcquire("first", limit, now);
+
+        rateLimitFilter.tryAcquire("second", limit, now);
+
+        // Act
+        long third = rateLimitFilter.tryAcquire("third", limit, now);
+        long fourth = rateLimitFilter.tryAcquire("fourth", limit, now);
+
+        // Assert
+        assertEquals(0, third);
+        assertTrue(fourth > 0);
+        // The two clients plus the group's shared bucket
+        assertEquals(3, rateLimitFilter.bucketCount());
+    }
+
+    @Test
+    void tryAcquire_WhenMapIsFull_ShouldLeaveEvictionToTheTimer() {
+        // Arrange
+        ReflectionTestUtils.setField(rateLimitFilter, "maxBuckets", 1);
+        RateLimitFilter.Limit limit = RateLimitFilter.Limit.of("test", 60, 1);
+        long now = System.nanoTime();
+        rateLimitFilter.tryAcquire("idle", limit, now - TimeUnit.SECONDS.toNanos(5));
+
+        // Act
+        long newClient = rateLimitFilter.tryAcquire("new", limit, now);
+
+        // Assert: the refilled bucket is still there and the new client went to the shared bucket
+        assertEquals(0, newClient);
+        assertEquals(2, rateLimitFilter.bucketCount());
+        rateLimitFilter.evictIdleBuckets();
+        assertEquals(1, rateLimitFilter.bucketCount());
+    }
+
+    @Test
+    void tryAcquire_WithManyThreadsOnOneBucket_ShouldGrantExactlyTheBurst() throws Exception {
+        // Arrange: 100 tokens and no refill within the test, taken by 8 threads at once
+        RateLimitFilter.Limit limit = RateLimitFilter.Limit.of("test", 1, 100);
+        long now = System.nanoTime();
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (rateLimitFilter.tryAcquire("shared", limit, now) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    void doFilter_ShouldAddMicrosecondsPerRequest() throws Exception {
+        // Arrange: a signed-in user spread over many addresses, with limits that never refuse
+        ReflectionTestUtils.setField(rateLimitFilter, "defaultPerMinute", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(rateLimitFilter, "defaultBurst", Integer.MAX_VALUE);
+        rateLimitFilter.init();
+        signIn("testuser");
+        for (int i = 0; i < 20_000; i++) {
+            perform("POST", "/api/v1/transactions", "10.0." + (i % 50) + ".1");
+        }
+
+        // Act
+        int requests = 50_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            perform("POST", "/api/v1/transactions", "10.0." + (i % 50) + ".1");
+        }
+        long averageNanos = (System.nanoTime() - started) / requests;
+
+        // Assert: a loose bound that includes building the mock request and response
+        assertTrue(averageNanos < TimeUnit.MICROSECONDS.toNanos(100), "Average " + averageNanos + " ns per request");
+    }
+
+    @Test
+    void doFilter_OutsideApi_ShouldNotBeLimited() throws Exception {
+        // Act & Assert
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, perform("POST", "/actuator/health", "10.0.0.1").getStatus());
+        }
+        assertEquals(0, rateLimitFilter.bucketCount());
+    }
+}
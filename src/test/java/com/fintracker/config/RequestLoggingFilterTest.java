@@ -0,0 +1,114 @@
+package com.fintracker.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestLoggingFilterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private Level originalLevel;
+    private RequestLoggingFilter requestLoggingFilter;
+
+    @BeforeEach
+    void setUp() {
+        originalLevel = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        requestLoggingFilter = new RequestLoggingFilter();
+        ReflectionTestUtils.setField(requestLoggingFilter, "maxBodyBytes", 16);
+        ReflectionTestUtils.setField(requestLoggingFilter, "bodySampleRate", 1.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.setLevel(originalLevel);
+    }
+
+    private ServletRequest perform(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicReference<ServletRequest> seenRequest = new AtomicReference<>();
+        AtomicReference<ServletResponse> seenResponse = new AtomicReference<>();
+        requestLoggingFilter.doFilter(request, response, (req, res) -> {
+            seenRequest.set(req);
+            seenResponse.set(res);
+            req.getInputStream().readAllBytes();
+            res.getWriter().write("[1,2,3]");
+        });
+        assertSame(response, seenResponse.get(), "The response should never be wrapped");
+        return seenRequest.get();
+    }
+
+    private static MockHttpServletRequest jsonRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/accounts");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @Test
+    void doFilter_WithBodyLogging_ShouldCaptureOnlyPrefixAndStreamResponse() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        ServletRequest seen = perform(jsonRequest("{\"name\":\"a much longer account name\"}"), response);
+
+        // Assert
+        ContentCachingRequestWrapper wrapper = assertInstanceOf(ContentCachingRequestWrapper.class, seen);
+        assertEquals(16, wrapper.getContentAsByteArray().length);
+        assertEquals("[1,2,3]", response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenNotSampledOrNotDebug_ShouldNotWrapRequest() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(requestLoggingFilter, "bodySampleRate", 0.0);
+
+        // Act
+        ServletRequest unsampled = perform(jsonRequest("{}"), new MockHttpServletResponse());
+        ReflectionTestUtils.setField(requestLoggingFilter, "bodySampleRate", 1.0);
+        logger.setLevel(Level.INFO);
+        ServletRequest infoLevel = perform(jsonRequest("{}"), new MockHttpServletResponse());
+
+        // Assert
+        assertFalse(unsampled instanceof ContentCachingRequestWrapper);
+        assertFalse(infoLevel instanceof ContentCachingRequestWrapper);
+    }
+
+    @Test
+    void doFilter_WithBinaryOrActuatorRequest_ShouldNotWrapRequest() throws Exception {
+        // Arrange
+        MockHttpServletRequest upload = new MockHttpServletRequest("POST", "/api/v1/investments/prices/import");
+        upload.setContentType("multipart/form-data");
+        MockHttpServletRequest actuator = new MockHttpServletRequest("POST", "/actuator/loggers/com.fintracker");
+        actuator.setContentType("application/json");
+
+        // Act & Assert
+        assertFalse(perform(upload, new MockHttpServletResponse()) instanceof ContentCachingRequestWrapper);
+        assertFalse(perform(actuator, new MockHttpServletResponse()) instanceof ContentCachingRequestWrapper);
+    }
+
+    @Test
+    void redactSensitiveData_WithTruncatedValue_ShouldRedactIt() {
+        // Act
+        String complete = RequestLoggingFilter.redactSensitiveData("{\"username\":\"a\",\"password\":\"secret\"}");
+        String truncated = RequestLoggingFilter.redactSensitiveData("{\"username\":\"a\",\"password\":\"sec");
+
+        // Assert
+        assertEquals("{\"username\":\"a\",\"password\":\"[REDACTED]\"}", complete);
+        assertEquals("{\"username\":\"a\",\"password\":\"[REDACTED]\"", truncated);
+    }
+}
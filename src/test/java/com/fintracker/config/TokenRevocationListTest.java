@@ -0,0 +1,103 @@
+package com.fintracker.config;
+
+import com.fintracker.core.domain.RevokedToken;
+import com.fintracker.core.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository, meterRegistry);
+        ReflectionTestUtils.setField(tokenRevocationList, "expectedTokens", 1000L);
+        ReflectionTestUtils.setField(tokenRevocationList, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(tokenRevocationList, "overlapSeconds", 60L);
+    }
+
+    @Test
+    void isRevoked_WithTokenNeverRevoked_ShouldNotQueryDatabase() {
+        // Arrange
+        when(revokedTokenRepository.findUnexpiredTokenIds(any())).thenReturn(List.of("revoked-id"));
+        tokenRevocationList.rebuild();
+
+        // Act
+        boolean revoked = tokenRevocationList.isRevoked("live-id");
+
+        // Assert
+        assertFalse(revoked);
+        verify(revokedTokenRepository, never()).existsByTokenId(any());
+    }
+
+    @Test
+    void isRevoked_WithRevokedToken_ShouldConfirmWithExactLookup() {
+        // Arrange
+        when(revokedTokenRepository.findUnexpiredTokenIds(any())).thenReturn(List.of("revoked-id"));
+        when(revokedTokenRepository.existsByTokenId("revoked-id")).thenReturn(true);
+        tokenRevocationList.rebuild();
+
+        // Act & Assert
+        assertTrue(tokenRevocationList.isRevoked("revoked-id"));
+        assertEquals(1.0, meterRegistry.counter("auth.revocation.lookups", "result", "revoked").count());
+    }
+
+    @Test
+    void refresh_ShouldAddRevocationsFromOtherNodesWithOverlap() {
+        // Arrange
+        when(revokedTokenRepository.findUnexpiredTokenIds(any())).thenReturn(List.of());
+        tokenRevocationList.rebuild();
+        LocalDateTime builtAt = (LocalDateTime) ReflectionTestUtils.getField(tokenRevocationList, "readUpTo");
+        when(revokedTokenRepository.findTokenIdsRevokedSince(builtAt.minusSeconds(60))).thenReturn(List.of("elsewhere-id"));
+        when(revokedTokenRepository.existsByTokenId("elsewhere-id")).thenReturn(true);
+
+        // Act
+        tokenRevocationList.refresh();
+
+        // Assert
+        assertTrue(tokenRevocationList.isRevoked("elsewhere-id"));
+    }
+
+    @Test
+    void revoke_ShouldStoreTokenAndTakeEffectAtOnce() {
+        // Arrange
+        when(revokedTokenRepository.findUnexpiredTokenIds(any())).thenReturn(List.of());
+        tokenRevocationList.rebuild();
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+
+        // Act
+        tokenRevocationList.revoke("logout-id", expiresAt);
+
+        // Assert
+        verify(revokedTokenRepository).save(argThat((RevokedToken token) -> token.getTokenId().equals("logout-id")));
+        when(revokedTokenRepository.existsByTokenId("logout-id")).thenReturn(true);
+        assertTrue(tokenRevocationList.isRevoked("logout-id"));
+    }
+
+    @Test
+    void isRevoked_WithTokenWithoutId_ShouldNotBeRevoked() {
+        // Act & Assert
+        assertFalse(tokenRevocationList.isRevoked(null));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+}
@@ -0,0 +1,115 @@
+package com.fintracker.config;
+
+import com.fintracker.core.service.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDetailsCacheTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @InjectMocks
+    private UserDetailsCache userDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userDetailsCache, "enabled", true);
+        ReflectionTestUtils.setField(userDetailsCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(userDetailsCache, "maxSize", 2);
+    }
+
+    private void stubUser(String username) {
+        when(userDetailsService.loadUserByUsername(username)).thenReturn(new AuthenticatedUser(1L, username, "hash",
+                List.of(new SimpleGrantedAuthority("USER"))));
+    }
+
+    @Test
+    void get_WhenCached_ShouldLoadUserOnceWithoutPassword() {
+        // Arrange
+        stubUser("testuser");
+
+        // Act
+        UserDetails first = userDetailsCache.get("testuser");
+        UserDetails second = userDetailsCache.get("testuser");
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("", first.getPassword());
+        assertEquals(1L, ((AuthenticatedUser) first).getId());
+        verify(userDetailsService, times(1)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void get_WhenExpired_ShouldReloadUser() {
+        // Arrange
+        ReflectionTestUtils.setField(userDetailsCache, "ttlSeconds", 0L);
+        stubUser("testuser");
+
+        // Act
+        userDetailsCache.get("testuser");
+        userDetailsCache.get("testuser");
+
+        // Assert
+        verify(userDetailsService, times(2)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void onUserChanged_ShouldEvictUser() {
+        // Arrange
+        stubUser("testuser");
+        userDetailsCache.get("testuser");
+
+        // Act
+        userDetailsCache.onUserChanged(new UserChangedEvent(1L, "testuser"));
+        userDetailsCache.get("testuser");
+
+        // Assert
+        verify(userDetailsService, times(2)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void get_WhenFull_ShouldStayWithinMaxSize() {
+        // Arrange
+        stubUser("first");
+        stubUser("second");
+        stubUser("third");
+
+        // Act
+        userDetailsCache.get("first");
+        userDetailsCache.get("second");
+        userDetailsCache.get("third");
+
+        // Assert
+        assertTrue(userDetailsCache.size() <= 2);
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldAlwaysLoadUser() {
+        // Arrange
+        ReflectionTestUtils.setField(userDetailsCache, "enabled", false);
+        stubUser("testuser");
+
+        // Act
+        userDetailsCache.get("testuser");
+        userDetailsCache.get("testuser");
+
+        // Assert
+        verify(userDetailsService, times(2)).loadUserByUsername("testuser");
+        assertEquals(0, userDetailsCache.size());
+    }
+}
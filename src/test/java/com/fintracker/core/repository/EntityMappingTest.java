@@ -0,0 +1,71 @@
+package com.fintracker.core.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Builds the schema from the entity mappings, as the application does on start-up. Index
+ * and unique constraint columns are resolved against the mapped column names, and one that
+ * does not resolve stops the entity manager factory, so the context failing to load here is
+ * the application failing to boot.
+ */
+@DataJpaTest
+public class EntityMappingTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void everyEntity_ShouldBeQueryable() {
+        for (EntityType<?> entity : entityManager.getMetamodel().getEntities()) {
+            Long count = entityManager.createQuery("SELECT COUNT(e) FROM " + entity.getName() + " e", Long.class)
+                    .getSingleResult();
+            assertEquals(0L, count, entity.getName());
+        }
+    }
+
+    @Test
+    void declaredIndexesAndUniqueConstraints_ShouldExistInSchema() {
+        // Arrange
+        Set<String> indexes = names("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES");
+        Set<String> constraints = names("SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS");
+
+        // Act & Assert
+        for (EntityType<?> entity : entityManager.getMetamodel().getEntities()) {
+            Table table = entity.getJavaType().getAnnotation(Table.class);
+            if (table == null) {
+                continue;
+            }
+            for (Index index : table.indexes()) {
+                assertTrue(indexes.contains(index.name().toUpperCase(Locale.ROOT)),
+                        entity.getName() + " index " + index.name() + " was not created");
+            }
+            for (UniqueConstraint constraint : table.uniqueConstraints()) {
+                assertTrue(constraints.contains(constraint.name().toUpperCase(Locale.ROOT)),
+                        entity.getName() + " unique constraint " + constraint.name() + " was not created");
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> names(String sql) {
+        Set<String> names = new HashSet<>();
+        for (Object name : (List<Object>) entityManager.createNativeQuery(sql).getResultList()) {
+            names.add(name.toString().toUpperCase(Locale.ROOT));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,101 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentPrice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InvestmentPriceRepositoryCustomImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private InvestmentPriceRepositoryCustomImpl repository;
+
+    private InvestmentPrice newDay;
+    private InvestmentPrice storedDay;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InvestmentPriceRepositoryCustomImpl(jdbcTemplate);
+        newDay = price(LocalDate.of(2024, 3, 2));
+        storedDay = price(LocalDate.of(2024, 3, 1));
+    }
+
+    private InvestmentPrice price(LocalDate day) {
+        return InvestmentPrice.builder().ticker("VTI").priceDate(day).price(new BigDecimal("250.00"))
+                .recordedAt(LocalDateTime.of(2024, 3, 2, 18, 0)).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertPrices_WithDayInsertedConcurrently_ShouldRollBackInsertAndUpdateIt() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0, 1}}, new int[][]{{1}});
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("uk_investment_prices_ticker_date"));
+
+        // Act
+        int written = repository.upsertPrices(List.of(newDay, storedDay));
+
+        // Assert
+        assertEquals(2, written);
+        ArgumentCaptor<List<InvestmentPrice>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE"), updates.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(newDay), updates.getAllValues().get(1));
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        // Savepoint set before the insert and rolled back to after it failed
+        verify(jdbcTemplate, times(2)).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertPrices_WithInsertFailingEveryTime_ShouldGiveUpAfterRetrying() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}});
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("uk_investment_prices_ticker_date"));
+
+        // Act & Assert
+        assertThrows(DuplicateKeyException.class, () -> repository.upsertPrices(List.of(newDay)));
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertPrices_WithEveryDayStored_ShouldNotInsert() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1}});
+
+        // Act
+        int written = repository.upsertPrices(List.of(storedDay));
+
+        // Assert
+        assertEquals(1, written);
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+    }
+}
@@ -0,0 +1,134 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.InvestmentPrice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PriceHistoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private InvestmentPriceRepository investmentPriceRepository;
+    private PriceHistoryStore priceHistoryStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        investmentPriceRepository = mock(InvestmentPriceRepository.class);
+        priceHistoryStore = new PriceHistoryStore(investmentPriceRepository);
+        ReflectionTestUtils.setField(priceHistoryStore, "directory", directory);
+        priceHistoryStore.createDirectory();
+    }
+
+    @Test
+    void write_WithLaterDays_ShouldAppendFixedWidthRecords() throws Exception {
+        // Act
+        priceHistoryStore.write("vti", new int[]{10, 11, 12}, new double[]{1.0, 2.0, 3.0}, 3);
+        priceHistoryStore.write("VTI", new int[]{13}, new double[]{4.0}, 1);
+
+        // Assert
+        assertEquals(4, priceHistoryStore.count("VTI"));
+        assertEquals(4L * PriceHistoryStore.RECORD_SIZE, Files.size(directory.resolve("VTI.prices")));
+    }
+
+    @Test
+    void write_WithEarlierDays_ShouldMergeAndOverwriteExistingDays() {
+        // Arrange
+        priceHistoryStore.write("VTI", new int[]{10, 12, 14}, new double[]{1.0, 3.0, 5.0}, 3);
+
+        // Act
+        priceHistoryStore.write("VTI", new int[]{11, 12}, new double[]{2.0, 30.0}, 2);
+
+        // Assert
+        List<String> points = new ArrayList<>();
+        priceHistoryStore.forEachInRange("VTI", 0, 100, (day, price) -> points.add(day + "=" + price));
+        assertEquals(List.of("10=1.0", "11=2.0", "12=30.0", "14=5.0"), points);
+    }
+
+    @Test
+    void priceOnOrBefore_ShouldReturnLastKnownClose() {
+        // Arrange
+        priceHistoryStore.write("BRK.B", new int[]{10, 15}, new double[]{1.0, 2.0}, 2);
+
+        // Act & Assert
+        assertEquals(1.0, priceHistoryStore.priceOnOrBefore("brk.b", 14));
+        assertEquals(2.0, priceHistoryStore.priceOnOrBefore("brk.b", 15));
+        assertTrue(Double.isNaN(priceHistoryStore.priceOnOrBefore("brk.b", 9)));
+        assertTrue(Double.isNaN(priceHistoryStore.priceOnOrBefore("UNKNOWN", 15)));
+    }
+
+    @Test
+    void downsample_ShouldKeepClosingPriceOfEachRun() {
+        // Arrange
+        int[] days = new int[1000];
+        double[] prices = new double[1000];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = 20000 + i;
+            prices[i] = i;
+        }
+        priceHistoryStore.write("VTI", days, prices, days.length);
+
+        // Act
+        PriceHistoryStore.PriceSeries series = priceHistoryStore.downsample("VTI", 20100, 20499, 100);
+
+        // Assert
+        assertEquals(100, series.size());
+        assertEquals(20103, series.getEpochDays()[0]);
+        assertEquals(20499, series.getEpochDays()[99]);
+        assertEquals(499.0, series.getPrices()[99]);
+        assertEquals(400, priceHistoryStore.range("VTI", 20100, 20499).size());
+    }
+
+    @Test
+    void range_WithOpenUpperBound_ShouldReturnEveryPriceFromStart() {
+        // Arrange
+        priceHistoryStore.write("VTI", new int[]{10, 11, 12}, new double[]{1.0, 2.0, 3.0}, 3);
+
+        // Act
+        PriceHistoryStore.PriceSeries series = priceHistoryStore.range("VTI", 11, Integer.MAX_VALUE);
+
+        // Assert
+        assertArrayEquals(new int[]{11, 12}, series.getEpochDays());
+        assertArrayEquals(new double[]{2.0, 3.0}, series.getPrices());
+        assertEquals(3.0, priceHistoryStore.priceOnOrBefore("VTI", Integer.MAX_VALUE));
+    }
+
+    @Test
+    void count_WithMissingFile_ShouldRebuildItFromPriceTableOnce() throws Exception {
+        // Arrange
+        when(investmentPriceRepository.findByTickerOrderByPriceDateAsc("VTI")).thenReturn(List.of(
+                InvestmentPrice.builder().ticker("VTI").priceDate(LocalDate.ofEpochDay(10)).price(new BigDecimal("1.50")).build(),
+                InvestmentPrice.builder().ticker("VTI").priceDate(LocalDate.ofEpochDay(11)).price(new BigDecimal("2.25")).build()));
+
+        // Act
+        int count = priceHistoryStore.count("vti");
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(2.25, priceHistoryStore.priceOnOrBefore("VTI", 20));
+        assertEquals(2L * PriceHistoryStore.RECORD_SIZE, Files.size(directory.resolve("VTI.prices")));
+        verify(investmentPriceRepository, times(1)).findByTickerOrderByPriceDateAsc("VTI");
+    }
+
+    @Test
+    void count_WithTickerWithoutPrices_ShouldAskPriceTableAgainLater() {
+        // Act
+        assertEquals(0, priceHistoryStore.count("NEW"));
+        assertEquals(0, priceHistoryStore.count("NEW"));
+
+        // Assert
+        verify(investmentPriceRepository, times(2)).findByTickerOrderByPriceDateAsc("NEW");
+    }
+}
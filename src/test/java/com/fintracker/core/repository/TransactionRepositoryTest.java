@@ -0,0 +1,83 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.config.DatabaseConfig;
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.Transaction;
+import com.fintracker.core.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(DatabaseConfig.class)
+public class TransactionRepositoryTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+    private Account account;
+    private Category groceries;
+    private Category dining;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder().username("alice").password("hash").fullName("Alice")
+                .email("alice@example.com").build());
+        account = entityManager.persist(Account.builder().name("Checking").accountType("CHECKING")
+                .balance(BigDecimal.ZERO).user(user).build());
+        groceries = entityManager.persist(Category.builder().name("Groceries").type("EXPENSE").build());
+        dining = entityManager.persist(Category.builder().name("Dining").type("EXPENSE").build());
+    }
+
+    private Transaction transaction(String description) {
+        return entityManager.persist(Transaction.builder().description(description).amount(new BigDecimal("10.00"))
+                .transactionDate(LocalDateTime.of(2024, 3, 1, 12, 0)).transactionType("EXPENSE")
+                .account(account).category(groceries).createdBy(user).build());
+    }
+
+    @Test
+    void recategorize_WithEscapedWildcards_ShouldMatchThemLiterally() {
+        // Arrange
+        Transaction literal = transaction("Cafe 50% OFF_ weekend");
+        Transaction wildcardOnly = transaction("Cafe 50 percent OFF weekend");
+        entityManager.flush();
+
+        // Act
+        int updated = transactionRepository.recategorize(user.getId(), groceries.getId(), false, "%50!% off!_%",
+                null, null, dining, LocalDateTime.now());
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(dining.getId(), transactionRepository.findById(literal.getId()).orElseThrow().getCategory().getId());
+        assertEquals(groceries.getId(), transactionRepository.findById(wildcardOnly.getId()).orElseThrow().getCategory().getId());
+    }
+
+    @Test
+    void recategorize_WithoutDescription_ShouldMoveEveryMatchingTransaction() {
+        // Arrange
+        transaction("Supermarket");
+        transaction("Bakery");
+        entityManager.flush();
+
+        // Act
+        int updated = transactionRepository.recategorize(user.getId(), groceries.getId(), true, null,
+                LocalDateTime.of(2024, 1, 1, 0, 0), null, dining, LocalDateTime.now());
+
+        // Assert
+        assertEquals(2, updated);
+    }
+}
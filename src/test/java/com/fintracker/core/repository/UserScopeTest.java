@@ -0,0 +1,105 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.core.domain.UserOwned;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every query on a user's data must carry the user's id: each entity with an owning
+ * {@code user_id} column declares the {@link UserOwned} filter and an index to serve it, and
+ * no native query, which Hibernate filters do not reach, reads an owned table
+ */
+public class UserScopeTest {
+
+    @Test
+    void ownedEntities_ShouldDeclareFilterAndUserIndex() throws Exception {
+        // Arrange
+        List<Class<?>> owned = ownedEntities();
+
+        // Act & Assert
+        assertTrue(owned.size() >= 5, "Expected accounts, transactions, investments, schedules and rules to be owned");
+        for (Class<?> entity : owned) {
+            Filter filter = entity.getAnnotation(Filter.class);
+            assertNotNull(filter, entity.getSimpleName() + " has a user_id column but is not filtered by user");
+            assertEquals(UserOwned.FILTER, filter.name());
+            assertEquals(UserOwned.CONDITION, filter.condition());
+            assertTrue(Arrays.stream(entity.getAnnotation(Table.class).indexes())
+                            .map(Index::columnList)
+                            .anyMatch(columns -> columns.startsWith("user_id")),
+                    entity.getSimpleName() + " has no index leading with user_id");
+        }
+    }
+
+    @Test
+    void nativeQueries_ShouldNotReadOwnedTables() throws Exception {
+        // Arrange
+        List<Pattern> ownedTables = new ArrayList<>();
+        for (Class<?> entity : ownedEntities()) {
+            ownedTables.add(Pattern.compile("\\b" + entity.getAnnotation(Table.class).name() + "\\b", Pattern.CASE_INSENSITIVE));
+        }
+
+        // Act & Assert
+        for (Class<?> repository : classesIn("com.fintracker.core.repository", null)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                Query query = method.getAnnotation(Query.class);
+                if (query == null || !query.nativeQuery()) {
+                    continue;
+                }
+                for (Pattern table : ownedTables) {
+                    assertFalse(table.matcher(query.value()).find(),
+                            repository.getSimpleName() + "." + method.getName() + " reads " + table.pattern() + " unscoped");
+                }
+            }
+        }
+    }
+
+    private static List<Class<?>> ownedEntities() throws Exception {
+        List<Class<?>> owned = new ArrayList<>();
+        for (Class<?> entity : classesIn("com.fintracker.core.domain", Entity.class)) {
+            for (Field field : entity.getDeclaredFields()) {
+                JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+                if (joinColumn != null && "user_id".equals(joinColumn.name())) {
+                    owned.add(entity);
+                    break;
+                }
+            }
+        }
+        return owned;
+    }
+
+    private static List<Class<?>> classesIn(String basePackage, Class<? extends Annotation> annotation)
+            throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition definition) {
+                return true;
+            }
+        };
+        scanner.addIncludeFilter(annotation != null ? new AnnotationTypeFilter(annotation) : (reader, factory) -> true);
+        List<Class<?>> classes = new ArrayList<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(basePackage)) {
+            classes.add(ClassUtils.forName(definition.getBeanClassName(), UserScopeTest.class.getClassLoader()));
+        }
+        return classes;
+    }
+}
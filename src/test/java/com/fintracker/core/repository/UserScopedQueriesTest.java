@@ -0,0 +1,164 @@
+package com.fintracker.core.repository;
+
+import com.fintracker.config.AuthenticatedUser;
+import com.fintracker.config.DatabaseConfig;
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.RefreshToken;
+import com.fintracker.core.domain.Transaction;
+import com.fintracker.core.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs real queries through the user-scoped transaction manager with two users' rows in the
+ * database, complementing the static checks in {@link UserScopeTest}: reads, bulk updates and
+ * bulk deletes made while one user is signed in must leave the other user's rows alone.
+ */
+@DataJpaTest
+@Import(DatabaseConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserScopedQueriesTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User alice;
+    private User bob;
+    private Account bobsAccount;
+    private Category groceries;
+    private Category dining;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("alice");
+        bob = user("bob");
+        groceries = categoryRepository.save(Category.builder().name("Groceries").type("EXPENSE").build());
+        dining = categoryRepository.save(Category.builder().name("Dining").type("EXPENSE").build());
+        transaction(account(alice));
+        bobsAccount = account(bob);
+        transaction(bobsAccount);
+        expiredRefreshToken(alice, "a");
+        expiredRefreshToken(bob, "b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        refreshTokenRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    private User user(String username) {
+        return userRepository.save(User.builder().username(username).password("hash").fullName(username)
+                .email(username + "@example.com").build());
+    }
+
+    private Account account(User owner) {
+        return accountRepository.save(Account.builder().name("Checking").accountType("CHECKING")
+                .balance(BigDecimal.ZERO).user(owner).build());
+    }
+
+    private void transaction(Account account) {
+        transactionRepository.save(Transaction.builder().description("Weekly shop").amount(new BigDecimal("80.00"))
+                .transactionDate(LocalDateTime.of(2024, 3, 1, 10, 0)).transactionType("EXPENSE")
+                .account(account).category(groceries).createdBy(account.getUser()).build());
+    }
+
+    private void expiredRefreshToken(User owner, String hash) {
+        refreshTokenRepository.save(RefreshToken.builder().user(owner).tokenHash(hash)
+                .createdAt(LocalDateTime.now().minusDays(40)).expiresAt(LocalDateTime.now().minusDays(10)).build());
+    }
+
+    private <T> T as(User user, Supplier<T> work) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> work.get());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void reads_ShouldOnlySeeSignedInUsersRows() {
+        // Act
+        List<Account> accounts = as(alice, accountRepository::findAll);
+        boolean bobsAccountFound = as(alice, () -> accountRepository.findById(bobsAccount.getId()).isPresent());
+        List<Transaction> bobsTransactions = as(alice, () -> transactionRepository.findByCreatedById(bob.getId()));
+
+        // Assert
+        assertEquals(1, accounts.size());
+        assertEquals(alice.getId(), accounts.get(0).getUser().getId());
+        assertFalse(bobsAccountFound);
+        assertTrue(bobsTransactions.isEmpty());
+    }
+
+    @Test
+    void bulkUpdate_ShouldOnlyChangeSignedInUsersRows() {
+        // Act
+        int updated = as(alice, () -> transactionRepository.reassignCategory(groceries.getId(), dining, LocalDateTime.now()));
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(1, transactionRepository.findByCategoryId(dining.getId()).size());
+        List<Transaction> untouched = transactionRepository.findByCategoryId(groceries.getId());
+        assertEquals(1, untouched.size());
+        assertEquals(bob.getId(), untouched.get(0).getCreatedBy().getId());
+    }
+
+    @Test
+    void bulkDelete_ShouldOnlyRemoveSignedInUsersRows() {
+        // Act
+        int deleted = as(alice, () -> refreshTokenRepository.deleteExpired(LocalDateTime.now()));
+
+        // Assert
+        assertEquals(1, deleted);
+        List<RefreshToken> remaining = refreshTokenRepository.findAll();
+        assertEquals(1, remaining.size());
+        assertEquals("b", remaining.get(0).getTokenHash());
+    }
+
+    @Test
+    void withoutSignedInUser_ShouldSeeEveryUsersRows() {
+        // Act & Assert
+        assertEquals(2, accountRepository.findAll().size());
+        assertEquals(2, transactionRepository.findAll().size());
+    }
+}
@@ -0,0 +1,162 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CashFlowForecastServiceTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @InjectMocks
+    private CashFlowForecastService cashFlowForecastService;
+
+    private Account account;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now();
+        account = Account.builder()
+                .id(1L)
+                .name("Checking")
+                .balance(new BigDecimal("1000.00"))
+                .build();
+    }
+
+    private ScheduledTransaction schedule(String amount, String type, String frequency, LocalDateTime nextDueDate) {
+        return ScheduledTransaction.builder()
+                .amount(new BigDecimal(amount))
+                .transactionType(type)
+                .frequency(frequency)
+                .nextDueDate(nextDueDate)
+                .account(account)
+                .active(true)
+                .build();
+    }
+
+    private void stubSchedules(ScheduledTransaction... schedules) {
+        when(accountService.getAccountsByUserId(1L)).thenReturn(List.of(account));
+        when(scheduledTransactionRepository.findActiveByAccountOwner(1L)).thenReturn(List.of(schedules));
+    }
+
+    private static BigDecimal balanceOn(CashFlowForecastService.Forecast forecast, LocalDate date) {
+        return forecast.getPoints().stream()
+                .filter(point -> point.getDate().equals(date))
+                .findFirst()
+                .orElseThrow()
+                .getTotalBalance();
+    }
+
+    @Test
+    void forecast_WithDailyPoints_ShouldApplyOccurrencesInDateOrder() {
+        // Arrange
+        stubSchedules(
+                schedule("500.00", "INCOME", "WEEKLY", today.plusDays(1).atTime(9, 0)),
+                schedule("1200.00", "EXPENSE", "MONTHLY", today.plusDays(10).atStartOfDay()));
+
+        // Act
+        CashFlowForecastService.Forecast forecast = cashFlowForecastService.forecast(1L, 1, "DAILY", null);
+
+        // Assert
+        assertEquals(ChronoUnit.DAYS.between(today, today.plusMonths(1)) + 1, forecast.getPoints().size());
+        assertEquals(new BigDecimal("1000.00"), balanceOn(forecast, today));
+        assertEquals(new BigDecimal("1500.00"), balanceOn(forecast, today.plusDays(1)));
+        // Salary on days 1 and 8, rent on day 10
+        assertEquals(new BigDecimal("800.00"), balanceOn(forecast, today.plusDays(10)));
+        assertEquals(1L, forecast.getPoints().get(0).getBalances().get(0).getAccountId());
+        assertTrue(forecast.getWarnings().isEmpty());
+        verify(accountService, never()).updateAccount(any(), any());
+    }
+
+    @Test
+    void forecast_WhenBalanceDropsBelowThreshold_ShouldWarn() {
+        // Arrange
+        account.setBalance(new BigDecimal("100.00"));
+        LocalDateTime firstDue = today.plusDays(5).atStartOfDay();
+        stubSchedules(schedule("150.00", "EXPENSE", "MONTHLY", firstDue));
+
+        // Act
+        CashFlowForecastService.Forecast forecast = cashFlowForecastService.forecast(1L, 3, "WEEKLY", BigDecimal.ZERO);
+
+        // Assert
+        assertEquals(1, forecast.getWarnings().size());
+        CashFlowForecastService.LowBalanceWarning warning = forecast.getWarnings().get(0);
+        assertEquals("Checking", warning.getAccountName());
+        assertEquals(today.plusDays(5), warning.getFirstBelowOn());
+        assertEquals(new BigDecimal("-350.00"), warning.getLowestBalance());
+        assertEquals(firstDue.plusMonths(2).toLocalDate(), warning.getLowestOn());
+    }
+
+    @Test
+    void forecast_WithWeeklyPoints_ShouldEndOnHorizon() {
+        // Arrange
+        stubSchedules();
+
+        // Act
+        CashFlowForecastService.Forecast forecast = cashFlowForecastService.forecast(1L, 1, "WEEKLY", null);
+
+        // Assert
+        LocalDate horizon = today.plusMonths(1);
+        assertEquals(today, forecast.getPoints().get(0).getDate());
+        assertEquals(today.plusDays(7), forecast.getPoints().get(1).getDate());
+        assertEquals(horizon, forecast.getPoints().get(forecast.getPoints().size() - 1).getDate());
+        assertEquals(horizon, forecast.getTo());
+    }
+
+    @Test
+    void forecast_WithOverdueSchedule_ShouldCountMissedOccurrencesToday() {
+        // Arrange
+        stubSchedules(schedule("10.00", "EXPENSE", "DAILY", LocalDateTime.now().minusDays(3)));
+
+        // Act
+        CashFlowForecastService.Forecast forecast = cashFlowForecastService.forecast(1L, 1, "DAILY", null);
+
+        // Assert
+        // Three missed days plus today's occurrence
+        assertEquals(new BigDecimal("960.00"), balanceOn(forecast, today));
+        assertEquals(new BigDecimal("950.00"), balanceOn(forecast, today.plusDays(1)));
+    }
+
+    @Test
+    void forecast_WithUnknownFrequency_ShouldApplyItOnce() {
+        // Arrange
+        stubSchedules(schedule("25.00", "EXPENSE", "ONCE", today.plusDays(2).atStartOfDay()));
+
+        // Act
+        CashFlowForecastService.Forecast forecast = cashFlowForecastService.forecast(1L, 1, "DAILY", null);
+
+        // Assert
+        assertEquals(new BigDecimal("975.00"), balanceOn(forecast, today.plusMonths(1)));
+    }
+
+    @Test
+    void forecast_WithInvalidArguments_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> cashFlowForecastService.forecast(1L, 0, "DAILY", null));
+        assertThrows(ValidationException.class, () -> cashFlowForecastService.forecast(1L, 25, "DAILY", null));
+        assertThrows(ValidationException.class, () -> cashFlowForecastService.forecast(1L, 3, "HOURLY", null));
+        verifyNoInteractions(accountService, scheduledTransactionRepository);
+    }
+}
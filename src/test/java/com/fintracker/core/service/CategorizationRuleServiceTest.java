@@ -0,0 +1,239 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.CategorizationRule;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.User;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.CategorizationRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategorizationRuleServiceTest {
+
+    @Mock
+    private CategorizationRuleRepository categorizationRuleRepository;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private CategorizationRuleService categorizationRuleService;
+
+    private User user;
+    private Account account;
+    private Category groceries;
+    private Category dining;
+    private Category rent;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(categorizationRuleService, "rulesCacheTtlSeconds", 300L);
+        user = User.builder()
+                .id(1L)
+                .username("testuser")
+                .build();
+
+        account = Account.builder()
+                .id(1L)
+                .name("Test Account")
+                .build();
+
+        groceries = Category.builder().id(10L).name("Groceries").type("EXPENSE").build();
+        dining = Category.builder().id(11L).name("Dining").type("EXPENSE").build();
+        rent = Category.builder().id(12L).name("Rent").type("EXPENSE").build();
+    }
+
+    private CategorizationRule rule(String matchType, String pattern, Category category, int priority) {
+        return CategorizationRule.builder()
+                .matchType(matchType)
+                .pattern(pattern)
+                .category(category)
+                .user(user)
+                .priority(priority)
+                .active(true)
+                .build();
+    }
+
+    @Test
+    void categorize_WithKeywordRules_ShouldMatchCaseInsensitivelyInOnePass() {
+        // Arrange
+        List<CategorizationRule> rules = Arrays.asList(
+                rule("CONTAINS", "swiggy", dining, 1),
+                rule("CONTAINS", "bigbasket", groceries, 2));
+        when(categorizationRuleRepository.findActiveRulesForUser(1L)).thenReturn(rules);
+        when(categoryService.getCategoryById(10L)).thenReturn(groceries);
+
+        // Act
+        Optional<Category> result = categorizationRuleService.categorize(
+                1L, "UPI/BIGBASKET/ORDER 1234", new BigDecimal("850.00"), 1L, "EXPENSE");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("Groceries", result.get().getName());
+    }
+
+    @Test
+    void categorize_WithSeveralMatches_ShouldPickHighestPriorityRule() {
+        // Arrange
+        List<CategorizationRule> rules = Arrays.asList(
+                rule("REGEX", "^rent\\b", rent, 1),
+                rule("CONTAINS", "rent", dining, 5));
+        when(categorizationRuleRepository.findActiveRulesForUser(1L)).thenReturn(rules);
+        when(categoryService.getCategoryById(12L)).thenReturn(rent);
+
+        // Act
+        Optional<Category> result = categorizationRuleService.categorize(
+                1L, "Rent for March", new BigDecimal("25000.00"), 1L, "EXPENSE");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(12L, result.get().getId());
+    }
+
+    @Test
+    void categorize_WithAmountAndAccountFilters_ShouldSkipRulesThatDoNotApply() {
+        // Arrange
+        CategorizationRule largeOnly = rule("CONTAINS", "amazon", groceries, 1);
+        largeOnly.setMinAmount(new BigDecimal("5000.00"));
+        CategorizationRule otherAccount = rule("CONTAINS", "amazon", rent, 2);
+        otherAccount.setAccount(Account.builder().id(2L).build());
+        CategorizationRule fallback = rule("CONTAINS", "amazon", dining, 3);
+        when(categorizationRuleRepository.findActiveRulesForUser(1L))
+                .thenReturn(Arrays.asList(largeOnly, otherAccount, fallback));
+        when(categoryService.getCategoryById(11L)).thenReturn(dining);
+
+        // Act
+        Optional<Category> result = categorizationRuleService.categorize(
+                1L, "Amazon Pay", new BigDecimal("499.00"), 1L, "EXPENSE");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(11L, result.get().getId());
+    }
+
+    @Test
+    void categorize_WithNoMatchingRule_ShouldReturnEmpty() {
+        // Arrange
+        when(categorizationRuleRepository.findActiveRulesForUser(1L))
+                .thenReturn(Arrays.asList(rule("CONTAINS", "swiggy", dining, 1)));
+
+        // Act
+        Optional<Category> result = categorizationRuleService.categorize(
+                1L, "Salary credit", new BigDecimal("100000.00"), 1L, "INCOME");
+
+        // Assert
+        assertFalse(result.isPresent());
+        verify(categoryService, never()).getCategoryById(any());
+    }
+
+    @Test
+    void categorize_CalledRepeatedly_ShouldCompileRulesOnce() {
+        // Arrange
+        when(categorizationRuleRepository.findActiveRulesForUser(1L))
+                .thenReturn(Arrays.asList(rule("CONTAINS", "swiggy", dining, 1)));
+        when(categoryService.getCategoryById(11L)).thenReturn(dining);
+
+        // Act
+        categorizationRuleService.categorize(1L, "Swiggy order", new BigDecimal("300.00"), 1L, "EXPENSE");
+        categorizationRuleService.categorize(1L, "Swiggy Instamart", new BigDecimal("450.00"), 1L, "EXPENSE");
+
+        // Assert
+        verify(categorizationRuleRepository, times(1)).findActiveRulesForUser(1L);
+    }
+
+    @Test
+    void createRule_ShouldRecompileRulesOnNextUse() {
+        // Arrange
+        CategorizationRule newRule = rule("CONTAINS", "zomato", dining, 2);
+        when(categorizationRuleRepository.findActiveRulesForUser(1L))
+                .thenReturn(Arrays.asList(rule("CONTAINS", "swiggy", dining, 1)));
+        when(userService.getUserById(1L)).thenReturn(user);
+        when(categoryService.getCategoryById(11L)).thenReturn(dining);
+        when(categorizationRuleRepository.save(any(CategorizationRule.class))).thenReturn(newRule);
+
+        // Act
+        categorizationRuleService.categorize(1L, "Swiggy order", new BigDecimal("300.00"), 1L, "EXPENSE");
+        categorizationRuleService.createRule(newRule, 11L, null, 1L);
+        categorizationRuleService.categorize(1L, "Swiggy order", new BigDecimal("300.00"), 1L, "EXPENSE");
+
+        // Assert
+        verify(categorizationRuleRepository, times(2)).findActiveRulesForUser(1L);
+    }
+
+    @Test
+    void createRule_WithInvalidRegex_ShouldThrowException() {
+        // Arrange
+        CategorizationRule invalid = rule("REGEX", "([unclosed", dining, 1);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> categorizationRuleService.createRule(invalid, 11L, null, 1L));
+        verify(categorizationRuleRepository, never()).save(any(CategorizationRule.class));
+    }
+
+    @Test
+    void categorize_AfterCompiledRulesExpire_ShouldRecompileThem() {
+        // Arrange: rules changed on another node are only seen once the compiled set expires
+        ReflectionTestUtils.setField(categorizationRuleService, "rulesCacheTtlSeconds", 0L);
+        when(categorizationRuleRepository.findActiveRulesForUser(1L))
+                .thenReturn(Arrays.asList(rule("CONTAINS", "swiggy", dining, 1)));
+        when(categoryService.getCategoryById(11L)).thenReturn(dining);
+
+        // Act
+        categorizationRuleService.categorize(1L, "Swiggy order", new BigDecimal("300.00"), 1L, "EXPENSE");
+        categorizationRuleService.categorize(1L, "Swiggy order", new BigDecimal("300.00"), 1L, "EXPENSE");
+
+        // Assert
+        verify(categorizationRuleRepository, times(2)).findActiveRulesForUser(1L);
+    }
+
+    @Test
+    void categorize_WithBacktrackingRegex_ShouldGiveUpOnItAndTryLowerPriorityRules() {
+        // Arrange
+        when(categorizationRuleRepository.findActiveRulesForUser(1L)).thenReturn(Arrays.asList(
+                rule("REGEX", "^(\\w+\\s?)*$", rent, 1),
+                rule("CONTAINS", "aaaa", groceries, 2)));
+        when(categoryService.getCategoryById(10L)).thenReturn(groceries);
+
+        // Act
+        long started = System.nanoTime();
+        Optional<Category> result = categorizationRuleService.categorize(
+                1L, "a".repeat(40) + "!", new BigDecimal("10.00"), 1L, "EXPENSE");
+
+        // Assert
+        assertEquals(groceries, result.orElseThrow());
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void createRule_WithOverlongPattern_ShouldThrowException() {
+        // Arrange
+        CategorizationRule overlong = rule("REGEX", "a".repeat(CategorizationRuleService.MAX_PATTERN_LENGTH + 1), dining, 1);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> categorizationRuleService.createRule(overlong, 11L, null, 1L));
+        verify(categorizationRuleRepository, never()).save(any(CategorizationRule.class));
+    }
+}
@@ -0,0 +1,109 @@
+package com.fintracker.core.service;
+
+import com.fintracker.config.AuthenticatedUser;
+import com.fintracker.config.DatabaseConfig;
+import com.fintracker.config.UserScope;
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.Transaction;
+import com.fintracker.core.domain.User;
+import com.fintracker.core.repository.AccountRepository;
+import com.fintracker.core.repository.CategoryRepository;
+import com.fintracker.core.repository.TransactionRepository;
+import com.fintracker.core.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Merges run for real through the user-scoped transaction manager, with the request's user
+ * filter switched on, to show that a merge started by one user moves every user's rows
+ */
+@DataJpaTest
+@Import({DatabaseConfig.class, UserScope.class, CategoryReorganizationService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CategoryMergeAcrossUsersTest {
+
+    @Autowired
+    private CategoryReorganizationService categoryReorganizationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @MockBean
+    private CategoryService categoryService;
+
+    @MockBean
+    private CategorizationRuleService categorizationRuleService;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    private User user(String username) {
+        return userRepository.save(User.builder().username(username).password("hash").fullName(username)
+                .email(username + "@example.com").build());
+    }
+
+    private void transaction(User user, Category category) {
+        Account account = accountRepository.save(Account.builder().name("Checking").accountType("CHECKING")
+                .balance(BigDecimal.ZERO).user(user).build());
+        transactionRepository.save(Transaction.builder().description("Coffee").amount(new BigDecimal("4.50"))
+                .transactionDate(LocalDateTime.of(2024, 3, 1, 8, 0)).transactionType("EXPENSE")
+                .account(account).category(category).createdBy(user).build());
+    }
+
+    private void signIn(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void mergeCategories_StartedByOneUser_ShouldMoveEveryUsersTransactions() {
+        // Arrange
+        User alice = user("alice");
+        User bob = user("bob");
+        Category coffee = categoryRepository.save(Category.builder().name("Coffee").type("EXPENSE").build());
+        Category dining = categoryRepository.save(Category.builder().name("Dining").type("EXPENSE").build());
+        transaction(alice, coffee);
+        transaction(bob, coffee);
+        signIn(alice);
+
+        // Act
+        CategoryReorganizationService.MergeResult result = categoryReorganizationService.mergeCategories(coffee.getId(), dining.getId());
+
+        // Assert
+        SecurityContextHolder.clearContext();
+        assertEquals(2, result.getTransactionsMoved());
+        assertFalse(categoryRepository.existsById(coffee.getId()));
+        assertEquals(2, transactionRepository.findByCategoryId(dining.getId()).size());
+    }
+}
@@ -0,0 +1,173 @@
+package com.fintracker.core.service;
+
+import com.fintracker.config.UserScope;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.CategorizationRuleRepository;
+import com.fintracker.core.repository.CategoryClosureRepository;
+import com.fintracker.core.repository.CategoryRepository;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import com.fintracker.core.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryReorganizationServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @Mock
+    private CategorizationRuleRepository categorizationRuleRepository;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private CategorizationRuleService categorizationRuleService;
+
+    @Mock
+    private UserScope userScope;
+
+    @InjectMocks
+    private CategoryReorganizationService categoryReorganizationService;
+
+    private Category source;
+    private Category target;
+
+    @BeforeEach
+    void setUp() {
+        source = Category.builder().id(1L).name("Coffee").type("EXPENSE").build();
+        target = Category.builder().id(2L).name("Dining").type("EXPENSE").build();
+    }
+
+    @Test
+    void recategorizeTransactions_WithDescriptionFilter_ShouldIssueSingleEscapedUpdate() {
+        // Arrange
+        when(categoryRepository.existsById(2L)).thenReturn(true);
+        when(categoryRepository.getReferenceById(2L)).thenReturn(target);
+        when(transactionRepository.recategorize(eq(5L), eq(1L), eq(true), eq("%50!% off!_%"),
+                isNull(), isNull(), eq(target), any(LocalDateTime.class))).thenReturn(4);
+
+        // Act
+        int updated = categoryReorganizationService.recategorizeTransactions(5L, 1L, true, " 50% OFF_ ", null, null, 2L);
+
+        // Assert
+        assertEquals(4, updated);
+        verify(transactionRepository, never()).findAll();
+    }
+
+    @Test
+    void recategorizeTransactions_WithoutFilters_ShouldThrowValidationException() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () ->
+                categoryReorganizationService.recategorizeTransactions(5L, null, false, " ", null, null, 2L));
+        verify(transactionRepository, never()).recategorize(anyLong(), any(), anyBoolean(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void recategorizeTransactions_WithUnknownTarget_ShouldThrowResourceNotFoundException() {
+        // Arrange
+        when(categoryRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () ->
+                categoryReorganizationService.recategorizeTransactions(5L, 1L, false, null, null, null, 99L));
+    }
+
+    @Test
+    void mergeCategories_ShouldMoveEverythingThenDeleteSource() {
+        // Arrange
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(categoryRepository.existsById(2L)).thenReturn(true);
+        when(categoryRepository.getReferenceById(1L)).thenReturn(source);
+        when(categoryRepository.getReferenceById(2L)).thenReturn(target);
+        when(categoryClosureRepository.existsByAncestorIdAndDescendantId(1L, 2L)).thenReturn(false);
+        when(userScope.unscoped(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(transactionRepository.reassignCategory(eq(1L), eq(target), any(LocalDateTime.class))).thenReturn(10);
+        when(scheduledTransactionRepository.reassignCategory(eq(1L), eq(target), any(LocalDateTime.class))).thenReturn(2);
+        when(categorizationRuleRepository.reassignCategory(eq(1L), eq(target), any(LocalDateTime.class))).thenReturn(3);
+        when(categoryRepository.reassignParent(eq(1L), eq(target), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        CategoryReorganizationService.MergeResult result = categoryReorganizationService.mergeCategories(1L, 2L);
+
+        // Assert
+        assertEquals(10, result.getTransactionsMoved());
+        assertEquals(2, result.getScheduledTransactionsMoved());
+        assertEquals(3, result.getRulesMoved());
+        assertEquals(1, result.getSubcategoriesMoved());
+
+        InOrder inOrder = inOrder(categoryClosureRepository, categoryRepository);
+        inOrder.verify(categoryClosureRepository).detachDescendantsFromAncestors(1L);
+        inOrder.verify(categoryClosureRepository).attachDescendantsToTarget(1L, 2L);
+        inOrder.verify(categoryClosureRepository).deleteNode(1L);
+        inOrder.verify(categoryRepository).deleteWithoutCascade(1L);
+        verify(categoryService, times(1)).evictCategoryLookupCache();
+        verify(categorizationRuleService, times(1)).evictAllCompiledRules();
+        verify(userScope).unscoped(any());
+    }
+
+    @Test
+    void mergeCategories_IntoOwnDescendant_ShouldThrowValidationException() {
+        // Arrange
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(categoryRepository.existsById(2L)).thenReturn(true);
+        when(categoryRepository.getReferenceById(1L)).thenReturn(source);
+        when(categoryRepository.getReferenceById(2L)).thenReturn(target);
+        when(categoryClosureRepository.existsByAncestorIdAndDescendantId(1L, 2L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> categoryReorganizationService.mergeCategories(1L, 2L));
+        verify(transactionRepository, never()).reassignCategory(any(), any(), any());
+        verify(categoryRepository, never()).deleteWithoutCascade(any());
+    }
+
+    @Test
+    void mergeCategories_WithDifferentTypes_ShouldThrowValidationException() {
+        // Arrange
+        Category salary = Category.builder().id(2L).name("Salary").type("INCOME").build();
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(categoryRepository.existsById(2L)).thenReturn(true);
+        when(categoryRepository.getReferenceById(1L)).thenReturn(source);
+        when(categoryRepository.getReferenceById(2L)).thenReturn(salary);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> categoryReorganizationService.mergeCategories(1L, 2L));
+        verify(transactionRepository, never()).reassignCategory(any(), any(), any());
+        verify(categoryRepository, never()).deleteWithoutCascade(any());
+        verifyNoInteractions(categoryService, categorizationRuleService);
+    }
+
+    @Test
+    void mergeCategories_IntoItself_ShouldThrowValidationException() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> categoryReorganizationService.mergeCategories(1L, 1L));
+        verifyNoInteractions(transactionRepository, categoryRepository);
+    }
+}
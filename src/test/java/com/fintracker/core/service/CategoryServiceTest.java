@@ -1,7 +1,10 @@
 package com.fintracker.core.service;
 
 import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.CategoryClosure;
 import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.CategoryClosureRepository;
 import com.fintracker.core.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,13 +12,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +40,12 @@ public class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -32,6 +54,7 @@ public class CategoryServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(categoryService, "lookupCacheTtlSeconds", 300L);
         parentCategory = Category.builder()
                 .id(1L)
                 .name("Parent Category")
@@ -238,6 +261,7 @@ public class CategoryServiceTest {
                 .thenReturn(Optional.empty());
         
         Category newCategory = Category.builder()
+                .id(3L)
                 .name("New Category")
                 .type("INCOME")
                 .build();
@@ -254,4 +278,275 @@ public class CategoryServiceTest {
         verify(categoryRepository, times(1)).findByNameAndType("New Category", "INCOME");
         verify(categoryRepository, times(1)).save(any(Category.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCategoryTree_WithoutRoot_ShouldReturnAllCategoriesFromSingleQuery() {
+        // Arrange
+        List<Category> categories = Arrays.asList(parentCategory, category);
+        when(categoryRepository.findAllWithParent()).thenReturn(categories);
+
+        // Act
+        List<Category> result = categoryService.getCategoryTree(null);
+
+        // Assert
+        assertEquals(2, result.size());
+        verify(categoryRepository, times(1)).findAllWithParent();
+        verify(categoryRepository, never()).findByParentId(any());
+    }
+
+    @Test
+    void getCategoryTree_WithRoot_ShouldReturnSubtree() {
+        // Arrange
+        List<Category> subtree = Arrays.asList(parentCategory, category);
+        when(categoryRepository.findSubtreeWithParent(1L)).thenReturn(subtree);
+
+        // Act
+        List<Category> result = categoryService.getCategoryTree(1L);
+
+        // Assert
+        assertEquals(2, result.size());
+        verify(categoryRepository, times(1)).findSubtreeWithParent(1L);
+    }
+
+    @Test
+    void getCategoryTree_WithUnknownRoot_ShouldThrowException() {
+        // Arrange
+        when(categoryRepository.findSubtreeWithParent(999L)).thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> categoryService.getCategoryTree(999L));
+    }
+
+    @Test
+    void createCategory_WithParent_ShouldInsertClosurePaths() {
+        // Arrange
+        Category newCategory = Category.builder()
+                .name("New Category")
+                .type("EXPENSE")
+                .parent(parentCategory)
+                .build();
+        Category savedCategory = Category.builder()
+                .id(3L)
+                .name("New Category")
+                .type("EXPENSE")
+                .parent(parentCategory)
+                .build();
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(parentCategory));
+        when(categoryRepository.save(any(Category.class))).thenReturn(savedCategory);
+
+        // Act
+        categoryService.createCategory(newCategory);
+
+        // Assert
+        verify(categoryClosureRepository, times(1)).insertSelfPath(3L);
+        verify(categoryClosureRepository, times(1)).insertSubtreePaths(3L, 1L);
+    }
+
+    @Test
+    void updateCategory_WithNewParent_ShouldMoveSubtreeInClosureTable() {
+        // Arrange
+        Category newParent = Category.builder()
+                .id(5L)
+                .name("New Parent")
+                .type("EXPENSE")
+                .build();
+        Category details = Category.builder()
+                .name("Test Category")
+                .type("EXPENSE")
+                .parent(newParent)
+                .build();
+
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(category));
+        when(categoryRepository.findById(5L)).thenReturn(Optional.of(newParent));
+        when(categoryClosureRepository.existsByAncestorIdAndDescendantId(2L, 5L)).thenReturn(false);
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Category result = categoryService.updateCategory(2L, details);
+
+        // Assert
+        assertEquals(5L, result.getParent().getId());
+        verify(categoryClosureRepository, times(1)).detachSubtree(2L);
+        verify(categoryClosureRepository, times(1)).insertSubtreePaths(2L, 5L);
+    }
+
+    @Test
+    void updateCategory_WithDescendantAsParent_ShouldThrowException() {
+        // Arrange
+        Category descendant = new Category();
+        descendant.setId(2L);
+        Category details = Category.builder()
+                .name("Parent Category")
+                .type("EXPENSE")
+                .parent(descendant)
+                .build();
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(parentCategory));
+        when(categoryClosureRepository.existsByAncestorIdAndDescendantId(1L, 2L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> categoryService.updateCategory(1L, details));
+        verify(categoryClosureRepository, never()).detachSubtree(any());
+        verify(categoryRepository, never()).save(any(Category.class));
+    }
+
+    @Test
+    void deleteCategory_ShouldRemoveSubtreeClosurePaths() {
+        // Arrange
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(category));
+
+        // Act
+        categoryService.deleteCategory(2L);
+
+        // Assert
+        verify(categoryClosureRepository, times(1)).deleteSubtree(2L);
+        verify(categoryRepository, times(1)).delete(category);
+    }
+
+    @Test
+    void rebuildCategoryClosure_ShouldCreatePathToEveryAncestor() {
+        // Arrange
+        when(categoryRepository.findAllWithParent()).thenReturn(Arrays.asList(parentCategory, category));
+
+        // Act
+        categoryService.rebuildCategoryClosure();
+
+        // Assert
+        verify(categoryClosureRepository, times(1)).deleteAllInBatch();
+        verify(categoryClosureRepository, times(1)).saveAll(argThat(paths -> {
+            List<CategoryClosure> list = new ArrayList<>();
+            paths.forEach(list::add);
+            return list.size() == 3 && list.stream().anyMatch(path ->
+                    path.getAncestorId() == 1L && path.getDescendantId() == 2L && path.getDepth() == 1);
+        }));
+    }
+
+    @Test
+    void findOrCreateCategory_WithCachedCategory_ShouldNotQueryDatabase() {
+        // Arrange
+        when(categoryRepository.findByNameAndType("Test Category", "EXPENSE"))
+                .thenReturn(Optional.of(category));
+        when(categoryRepository.getReferenceById(2L)).thenReturn(category);
+        categoryService.findOrCreateCategory("Test Category", "EXPENSE");
+
+        // Act
+        Category result = categoryService.findOrCreateCategory("  Test Category ", "expense");
+
+        // Assert
+        assertEquals(2L, result.getId());
+        verify(categoryRepository, times(1)).findByNameAndType("Test Category", "EXPENSE");
+        verify(categoryRepository, times(1)).getReferenceById(2L);
+    }
+
+    @Test
+    void findOrCreateCategory_WithExpiredCachedCategory_ShouldReadItAgain() {
+        // Arrange: a category renamed or deleted on another node is only noticed once its entry expires
+        ReflectionTestUtils.setField(categoryService, "lookupCacheTtlSeconds", 0L);
+        when(categoryRepository.findByNameAndType("Test Category", "EXPENSE"))
+                .thenReturn(Optional.of(category));
+        categoryService.findOrCreateCategory("Test Category", "EXPENSE");
+
+        // Act
+        Category result = categoryService.findOrCreateCategory("Test Category", "EXPENSE");
+
+        // Assert
+        assertEquals(2L, result.getId());
+        verify(categoryRepository, times(2)).findByNameAndType("Test Category", "EXPENSE");
+        verify(categoryRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    void findOrCreateCategory_WhenConcurrentInsertWins_ShouldReturnWinningRow() {
+        // Arrange
+        when(categoryRepository.findByNameAndType("Test Category", "EXPENSE"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(category));
+        when(categoryRepository.save(any(Category.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_categories_name_type"));
+
+        // Act
+        Category result = categoryService.findOrCreateCategory("Test Category", "EXPENSE");
+
+        // Assert
+        assertEquals(2L, result.getId());
+        verify(categoryRepository, times(2)).findByNameAndType("Test Category", "EXPENSE");
+        verify(categoryRepository, times(1)).save(any(Category.class));
+    }
+
+    @Test
+    void findOrCreateCategory_WithConcurrentCallers_ShouldInsertOnce() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(categoryService, "creationWaitMillis", 5000L);
+        Category created = Category.builder().id(3L).name("New Category").type("INCOME").build();
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(categoryRepository.findByNameAndType("New Category", "INCOME")).thenReturn(Optional.empty());
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> {
+            saving.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return created;
+        });
+        when(categoryRepository.getReferenceById(3L)).thenReturn(created);
+
+        FutureTask<Category> first = new FutureTask<>(() -> categoryService.findOrCreateCategory("New Category", "INCOME"));
+        FutureTask<Category> second = new FutureTask<>(() -> categoryService.findOrCreateCategory("New Category", "INCOME"));
+        Thread creator = new Thread(first);
+        Thread waiter = new Thread(second);
+
+        // Act: the second caller arrives while the first is inserting and parks on its creation
+        creator.start();
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        waiter.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (waiter.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        assertEquals(3L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(3L, second.get(5, TimeUnit.SECONDS).getId());
+        verify(categoryRepository, times(1)).save(any(Category.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findOrCreateCategory_WhenConcurrentCreationStalls_ShouldStopWaitingAndReRead() {
+        // Arrange: another caller's insert that never finishes, e.g. stuck waiting for a connection
+        ReflectionTestUtils.setField(categoryService, "creationWaitMillis", 10L);
+        Map<String, CompletableFuture<Long>> pendingCreations =
+                (Map<String, CompletableFuture<Long>>) ReflectionTestUtils.getField(categoryService, "pendingCreations");
+        pendingCreations.put("Test Category\u0000EXPENSE", new CompletableFuture<>());
+        when(categoryRepository.findByNameAndType("Test Category", "EXPENSE"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(category));
+
+        // Act
+        Category result = categoryService.findOrCreateCategory("Test Category", "EXPENSE");
+
+        // Assert
+        assertEquals(2L, result.getId());
+        verify(categoryRepository, never()).save(any(Category.class));
+    }
+
+    @Test
+    void evictCategoryLookupCache_InTransaction_ShouldClearOnlyAfterCommit() {
+        // Arrange
+        when(categoryRepository.findByNameAndType("Test Category", "EXPENSE")).thenReturn(Optional.of(category));
+        categoryService.findOrCreateCategory("Test Category", "EXPENSE");
+        Map<?, ?> categoryIdsByKey = (Map<?, ?>) ReflectionTestUtils.getField(categoryService, "categoryIdsByKey");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            categoryService.evictCategoryLookupCache();
+
+            // Assert
+            assertEquals(1, categoryIdsByKey.size());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(categoryIdsByKey.isEmpty());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
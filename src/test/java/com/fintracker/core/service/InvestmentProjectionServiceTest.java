@@ -0,0 +1,105 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InvestmentProjectionServiceTest {
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @InjectMocks
+    private InvestmentProjectionService investmentProjectionService;
+
+    private Investment investment(long id, String value, String expectedReturn, String volatility) {
+        return Investment.builder()
+                .id(id)
+                .name("Holding " + id)
+                .investmentType("MUTUAL_FUND")
+                .initialAmount(new BigDecimal(value))
+                .currentValue(new BigDecimal(value))
+                .expectedReturnRate(expectedReturn != null ? new BigDecimal(expectedReturn) : null)
+                .volatility(volatility != null ? new BigDecimal(volatility) : null)
+                .build();
+    }
+
+    @Test
+    void project_WithSameSeed_ShouldBeReproducible() {
+        // Arrange
+        when(investmentRepository.findByUserId(1L)).thenReturn(List.of(
+                investment(1L, "10000.00", "10.00", "18.00"),
+                investment(2L, "5000.00", "6.00", "5.00")));
+        when(scheduledTransactionRepository.findActiveInvestmentContributions(1L)).thenReturn(Collections.emptyList());
+
+        // Act
+        InvestmentProjectionService.Projection first = investmentProjectionService.project(1L, 10, 5000, 42L);
+        InvestmentProjectionService.Projection second = investmentProjectionService.project(1L, 10, 5000, 42L);
+
+        // Assert
+        assertEquals(42L, first.getSeed());
+        assertEquals(11, first.getPoints().size());
+        assertEquals(first.getPoints(), second.getPoints());
+        for (InvestmentProjectionService.ProjectionPoint point : first.getPoints()) {
+            assertTrue(point.getP10().compareTo(point.getP50()) <= 0);
+            assertTrue(point.getP50().compareTo(point.getP90()) <= 0);
+        }
+        InvestmentProjectionService.ProjectionPoint last = first.getPoints().get(10);
+        assertTrue(last.getP10().compareTo(last.getP90()) < 0);
+    }
+
+    @Test
+    void project_WithoutVolatility_ShouldCompoundDeterministically() {
+        // Arrange
+        Investment deposit = investment(1L, "10000.00", "12.00", null);
+        ScheduledTransaction instalment = ScheduledTransaction.builder()
+                .amount(new BigDecimal("100.00"))
+                .frequency("MONTHLY")
+                .transactionType("EXPENSE")
+                .investment(deposit)
+                .active(true)
+                .build();
+        when(investmentRepository.findByUserId(1L)).thenReturn(List.of(deposit));
+        when(scheduledTransactionRepository.findActiveInvestmentContributions(1L)).thenReturn(List.of(instalment));
+
+        // Act
+        InvestmentProjectionService.Projection result = investmentProjectionService.project(1L, 1, 100, null);
+
+        // Assert
+        double monthly = Math.pow(1.12, 1.0 / 12);
+        double expected = 10000 * 1.12 + 100 * (Math.pow(monthly, 12) - 1) / (monthly - 1);
+        InvestmentProjectionService.ProjectionPoint year = result.getPoints().get(1);
+        assertEquals(expected, year.getP50().doubleValue(), 0.05);
+        assertEquals(year.getP10(), year.getP90());
+        assertEquals(new BigDecimal("100.00"), result.getMonthlyContributions());
+        assertEquals(new BigDecimal("10000.00"), result.getPoints().get(0).getP50());
+    }
+
+    @Test
+    void project_WithTooManyPaths_ShouldThrowValidationException() {
+        // Act & Assert
+        assertThrows(ValidationException.class,
+                () -> investmentProjectionService.project(1L, 10, InvestmentProjectionService.MAX_PATHS + 1, 1L));
+        assertThrows(ValidationException.class,
+                () -> investmentProjectionService.project(1L, InvestmentProjectionService.MAX_YEARS + 1, 100, 1L));
+        verify(investmentRepository, never()).findByUserId(anyLong());
+    }
+}
@@ -0,0 +1,178 @@
+package com.fintracker.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintracker.config.UserScope;
+import com.fintracker.core.domain.InvestmentPrice;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentPriceRepository;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.PriceHistoryStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InvestmentRevaluationServiceTest {
+
+    @Mock
+    private InvestmentPriceRepository investmentPriceRepository;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    @Mock
+    private InvestmentValuationService investmentValuationService;
+
+    @Mock
+    private UserScope userScope;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private InvestmentRevaluationService investmentRevaluationService;
+
+    @BeforeEach
+    void setUp() {
+        investmentRevaluationService = new InvestmentRevaluationService(investmentPriceRepository, investmentRepository, priceHistoryStore,
+                investmentValuationService, new ObjectMapper(), userScope, eventPublisher);
+        ReflectionTestUtils.setField(investmentRevaluationService, "batchSize", 2);
+        lenient().when(userScope.unscoped(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
+    private InputStream file(String contents) {
+        return new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importPrices_WithCsvFile_ShouldRecordInBatchesAndRevalueByTicker() {
+        // Arrange
+        String csv = "ticker,date,price\n" +
+                "aapl,2024-03-01,180.50\n" +
+                "MSFT,2024-03-01,410.10\n" +
+                "\"GOOG\",2024-03-01,140.00\n" +
+                "BAD,not-a-date,1.00\n";
+        when(investmentPriceRepository.upsertPrices(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        when(investmentRepository.revalueFromLatestPrices(anyList(), any(LocalDateTime.class))).thenReturn(5, 1);
+
+        // Act
+        InvestmentRevaluationService.PriceImportResult result = investmentRevaluationService.importPrices(file(csv), "csv");
+
+        // Assert
+        assertEquals(4, result.getRowsRead());
+        assertEquals(1, result.getRowsRejected());
+        assertEquals(3, result.getPricesRecorded());
+        assertEquals(3, result.getTickers());
+        assertEquals(6, result.getInvestmentsUpdated());
+
+        ArgumentCaptor<List<InvestmentPrice>> batches = ArgumentCaptor.forClass(List.class);
+        verify(investmentPriceRepository, times(2)).upsertPrices(batches.capture());
+        InvestmentPrice first = batches.getAllValues().get(0).get(0);
+        assertEquals("AAPL", first.getTicker());
+        assertEquals(LocalDate.of(2024, 3, 1), first.getPriceDate());
+        assertEquals(new BigDecimal("180.50"), first.getPrice());
+        assertNotNull(first.getRecordedAt());
+
+        ArgumentCaptor<List<String>> tickers = ArgumentCaptor.forClass(List.class);
+        verify(investmentRepository, times(2)).revalueFromLatestPrices(tickers.capture(), any(LocalDateTime.class));
+        assertEquals(Arrays.asList("AAPL", "MSFT"), tickers.getAllValues().get(0));
+        assertEquals(List.of("GOOG"), tickers.getAllValues().get(1));
+        verify(investmentValuationService, times(2)).recordTickerValues(anyList());
+
+        // The file store is only written once the import commits
+        verifyNoInteractions(priceHistoryStore);
+        ArgumentCaptor<PricesRecordedEvent> events = ArgumentCaptor.forClass(PricesRecordedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        List<String> runs = new ArrayList<>();
+        for (PricesRecordedEvent event : events.getAllValues()) {
+            runs.add(event.getTicker() + "@" + event.getEpochDays()[0] + "=" + event.getPrices()[0] + "x" + event.getEpochDays().length);
+        }
+        long day = LocalDate.of(2024, 3, 1).toEpochDay();
+        assertEquals(Arrays.asList("AAPL@" + day + "=180.5x1", "MSFT@" + day + "=410.1x1", "GOOG@" + day + "=140.0x1"), runs);
+    }
+
+    @Test
+    void onPricesRecorded_ShouldWriteRunToPriceStore() {
+        // Arrange
+        int[] days = {10, 11};
+        double[] prices = {1.0, 2.0};
+
+        // Act
+        investmentRevaluationService.onPricesRecorded(new PricesRecordedEvent("VTI", days, prices));
+
+        // Assert
+        verify(priceHistoryStore).write("VTI", days, prices, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importPrices_WithJsonFile_ShouldKeepLastPriceForRepeatedDay() {
+        // Arrange
+        ReflectionTestUtils.setField(investmentRevaluationService, "batchSize", 1000);
+        String json = "[" +
+                "{\"ticker\": \"VTI\", \"date\": \"2024-03-01\", \"price\": 250.0}," +
+                "{\"ticker\": \"vti\", \"date\": \"2024-03-01\", \"price\": \"251.25\", \"currency\": \"USD\"}," +
+                "{\"ticker\": \"VTI\", \"date\": \"2024-03-01\", \"price\": -1}" +
+                "]";
+        when(investmentPriceRepository.upsertPrices(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        when(investmentRepository.revalueFromLatestPrices(anyList(), any(LocalDateTime.class))).thenReturn(2);
+
+        // Act
+        InvestmentRevaluationService.PriceImportResult result = investmentRevaluationService.importPrices(file(json), "JSON");
+
+        // Assert
+        assertEquals(3, result.getRowsRead());
+        assertEquals(1, result.getRowsRejected());
+        assertEquals(1, result.getPricesRecorded());
+        assertEquals(2, result.getInvestmentsUpdated());
+
+        ArgumentCaptor<List<InvestmentPrice>> batch = ArgumentCaptor.forClass(List.class);
+        verify(investmentPriceRepository).upsertPrices(batch.capture());
+        assertEquals(new BigDecimal("251.25"), batch.getValue().get(0).getPrice());
+    }
+
+    @Test
+    void importPrices_WithUnknownFormat_ShouldThrowValidationException() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> investmentRevaluationService.importPrices(file(""), "XML"));
+        verifyNoInteractions(investmentPriceRepository, investmentRepository, priceHistoryStore, investmentValuationService);
+    }
+
+    @Test
+    void getPriceSeries_ShouldConvertDatesToEpochDaysAndOpenEndedRanges() {
+        // Arrange
+        PriceHistoryStore.PriceSeries series = new PriceHistoryStore.PriceSeries(new int[]{1}, new double[]{2.0});
+        int from = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        when(priceHistoryStore.downsample("VTI", from, Integer.MAX_VALUE, 100)).thenReturn(series);
+
+        // Act
+        PriceHistoryStore.PriceSeries result = investmentRevaluationService.getPriceSeries("VTI", LocalDate.of(2024, 1, 1), null, 100);
+
+        // Assert
+        assertSame(series, result);
+    }
+}
@@ -1,17 +1,27 @@
 package com.fintracker.core.service;
 
 import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentCashFlow;
+import com.fintracker.core.domain.InvestmentLot;
 import com.fintracker.core.domain.User;
 import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentCashFlowRepository;
+import com.fintracker.core.repository.PriceHistoryStore;
+import com.fintracker.core.repository.RealizedGainRepository;
+import com.fintracker.core.repository.InvestmentLotRepository;
 import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -19,6 +29,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,9 +38,27 @@ public class InvestmentServiceTest {
     @Mock
     private InvestmentRepository investmentRepository;
 
+    @Mock
+    private InvestmentCashFlowRepository investmentCashFlowRepository;
+
     @Mock
     private UserService userService;
 
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    @Mock
+    private InvestmentValuationService investmentValuationService;
+
+    @Mock
+    private ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @Mock
+    private InvestmentLotRepository investmentLotRepository;
+
+    @Mock
+    private RealizedGainRepository realizedGainRepository;
+
     @InjectMocks
     private InvestmentService investmentService;
 
@@ -170,6 +199,33 @@ public class InvestmentServiceTest {
         verify(investmentRepository, times(1)).save(any(Investment.class));
     }
 
+    @Test
+    void createInvestment_WithUnits_ShouldOpenLotAtInitialCost() {
+        // Arrange
+        Investment newInvestment = Investment.builder()
+                .id(2L)
+                .name("Index Fund")
+                .investmentType("MUTUAL_FUND")
+                .initialAmount(new BigDecimal("5000.00"))
+                .startDate(now)
+                .ticker("VTI")
+                .units(new BigDecimal("20"))
+                .build();
+        when(userService.getUserById(1L)).thenReturn(user);
+        when(investmentRepository.save(newInvestment)).thenReturn(newInvestment);
+
+        // Act
+        investmentService.createInvestment(newInvestment, 1L);
+
+        // Assert
+        ArgumentCaptor<InvestmentLot> lot = ArgumentCaptor.forClass(InvestmentLot.class);
+        verify(investmentLotRepository).save(lot.capture());
+        assertEquals(now.toLocalDate(), lot.getValue().getAcquiredOn());
+        assertEquals(new BigDecimal("20"), lot.getValue().getRemainingUnits());
+        assertEquals(new BigDecimal("5000.00"), lot.getValue().getRemainingCost());
+        assertEquals(new BigDecimal("5000.00"), newInvestment.getCostBasis());
+    }
+
     @Test
     void updateInvestment_WithValidInvestment_ShouldReturnUpdatedInvestment() {
         // Arrange
@@ -212,9 +268,34 @@ public class InvestmentServiceTest {
 
         // Assert
         verify(investmentRepository, times(1)).findById(1L);
+        verify(investmentCashFlowRepository, times(1)).deleteByInvestmentId(1L);
+        verify(realizedGainRepository, times(1)).deleteByInvestmentId(1L);
+        verify(investmentLotRepository, times(1)).deleteByInvestmentId(1L);
+        verify(scheduledTransactionRepository, times(1)).detachInvestment(eq(1L), any(LocalDateTime.class));
         verify(investmentRepository, times(1)).delete(investment);
     }
 
+    @Test
+    void updateInvestment_WithChangedUnitsOnceLotsRecorded_ShouldThrowException() {
+        // Arrange
+        investment.setUnits(new BigDecimal("20.000000"));
+        Investment details = Investment.builder()
+                .name("Test Investment")
+                .investmentType("SIP")
+                .initialAmount(new BigDecimal("10000.00"))
+                .startDate(now.minusMonths(6))
+                .units(new BigDecimal("25"))
+                .build();
+        when(investmentRepository.findById(1L)).thenReturn(Optional.of(investment));
+        when(investmentLotRepository.findTopByInvestmentIdOrderByAcquiredOnDesc(1L))
+                .thenReturn(Optional.of(InvestmentLot.builder().id(3L).build()));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> investmentService.updateInvestment(1L, details));
+        assertEquals(new BigDecimal("20.000000"), investment.getUnits());
+        verify(investmentRepository, never()).save(any(Investment.class));
+    }
+
     @Test
     void updateInvestmentValue_WithValidIdAndValue_ShouldUpdateAndReturnInvestment() {
         // Arrange
@@ -244,6 +325,7 @@ public class InvestmentServiceTest {
         assertEquals(newValue, result.getCurrentValue());
         verify(investmentRepository, times(1)).findById(1L);
         verify(investmentRepository, times(1)).save(any(Investment.class));
+        verify(investmentValuationService, times(1)).recordValue(1L, newValue);
     }
 
     @Test
@@ -258,4 +340,114 @@ public class InvestmentServiceTest {
         assertNotNull(result);
         verify(investmentRepository, times(1)).findById(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void addCashFlow_WithContribution_ShouldAttachToInvestment() {
+        // Arrange
+        InvestmentCashFlow cashFlow = InvestmentCashFlow.builder()
+                .flowDate(LocalDate.now().minusMonths(1))
+                .amount(new BigDecimal("500.00"))
+                .flowType("CONTRIBUTION")
+                .build();
+        when(investmentRepository.findById(1L)).thenReturn(Optional.of(investment));
+        when(investmentCashFlowRepository.save(cashFlow)).thenReturn(cashFlow);
+
+        // Act
+        InvestmentCashFlow result = investmentService.addCashFlow(1L, cashFlow);
+
+        // Assert
+        assertEquals(investment, result.getInvestment());
+        verify(investmentCashFlowRepository, times(1)).save(cashFlow);
+    }
+
+    @Test
+    void addCashFlow_BeforeStartDate_ShouldThrowValidationException() {
+        // Arrange
+        InvestmentCashFlow cashFlow = InvestmentCashFlow.builder()
+                .flowDate(LocalDate.now().minusYears(1))
+                .amount(new BigDecimal("500.00"))
+                .flowType("WITHDRAWAL")
+                .build();
+        when(investmentRepository.findById(1L)).thenReturn(Optional.of(investment));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> investmentService.addCashFlow(1L, cashFlow));
+        verify(investmentCashFlowRepository, never()).save(any(InvestmentCashFlow.class));
+    }
+
+    @Test
+    void getValueOn_WithUnitsAndStoredPrice_ShouldValueFromPriceHistory() {
+        // Arrange
+        investment.setUnits(new BigDecimal("10.5"));
+        LocalDate date = LocalDate.of(2024, 3, 1);
+        when(investmentRepository.findById(1L)).thenReturn(Optional.of(investment));
+        when(priceHistoryStore.priceOnOrBefore("TEST", (int) date.toEpochDay())).thenReturn(100.25);
+        when(investmentLotRepository.sumUnitsAcquiredAfter(1L, date)).thenReturn(BigDecimal.ZERO);
+        when(realizedGainRepository.sumUnitsSoldAfter(1L, date)).thenReturn(BigDecimal.ZERO);
+
+        // Act
+        BigDecimal result = investmentService.getValueOn(1L, date);
+
+        // Assert
+        assertEquals(new BigDecimal("1052.63"), result);
+    }
+
+    @Test
+    void getValueOn_WithTradesAfterTheDay_ShouldValueUnitsHeldThatDay() {
+        // Arrange: 10 units now, after buying 4 and selling 6 since the day
+        investment.setUnits(new BigDecimal("10"));
+        LocalDate date = LocalDate.of(2024, 3, 1);
+        when(investmentRepository.findById(1L)).thenReturn(Optional.of(investment));
+        when(priceHistoryStore.priceOnOrBefore("TEST", (int) date.toEpochDay())).thenReturn(50.0);
+        when(investmentLotRepository.sumUnitsAcquiredAfter(1L, date)).thenReturn(new BigDecimal("4"));
+        when(realizedGainRepository.sumUnitsSoldAfter(1L, date)).thenReturn(new BigDecimal("6"));
+
+        // Act
+        BigDecimal result = investmentService.getValueOn(1L, date);
+
+        // Assert
+        assertEquals(new BigDecimal("600.00"), result);
+    }
+
+    @Test
+    void getValueOn_BeforeAnyUnitsWereBought_ShouldBeZero() {
+        // Arrange
+        investment.setUnits(new BigDecimal("10"));
+        LocalDate date = LocalDate.of(2023, 1, 1);
+        when(investmentRepository.findById(1L)).thenReturn(Optional.of(investment));
+        when(priceHistoryStore.priceOnOrBefore("TEST", (int) date.toEpochDay())).thenReturn(50.0);
+        when(investmentLotRepository.sumUnitsAcquiredAfter(1L, date)).thenReturn(new BigDecimal("10"));
+        when(realizedGainRepository.sumUnitsSoldAfter(1L, date)).thenReturn(BigDecimal.ZERO);
+
+        // Act
+        BigDecimal result = investmentService.getValueOn(1L, date);
+
+        // Assert
+        assertEquals(new BigDecimal("0.00"), result);
+    }
+
+    @Test
+    void getValueOn_WithoutStoredPrice_ShouldFallBackToCurrentValue() {
+        // Arrange
+        investment.setUnits(new BigDecimal("10"));
+        LocalDate date = LocalDate.of(2024, 3, 1);
+        when(investmentRepository.findById(1L)).thenReturn(Optional.of(investment));
+        when(priceHistoryStore.priceOnOrBefore("TEST", (int) date.toEpochDay())).thenReturn(Double.NaN);
+
+        // Act
+        BigDecimal result = investmentService.getValueOn(1L, date);
+
+        // Assert
+        assertEquals(investment.getCurrentValue(), result);
+    }
+
+    @Test
+    void getCashFlows_WithInvestmentNotVisible_ShouldThrowException() {
+        // Arrange
+        when(investmentRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> investmentService.getCashFlows(1L));
+        verifyNoInteractions(investmentCashFlowRepository);
+    }
+}
@@ -0,0 +1,167 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.InvestmentValuation;
+import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.InvestmentValuationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InvestmentValuationServiceTest {
+
+    @Mock
+    private InvestmentValuationRepository investmentValuationRepository;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private InvestmentValuationService investmentValuationService;
+
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(investmentValuationService, "dailyRetentionDays", 90);
+        ReflectionTestUtils.setField(investmentValuationService, "weeklyRetentionYears", 2);
+    }
+
+    private InvestmentValuation point(LocalDate date, String amount, String resolution) {
+        return InvestmentValuation.builder()
+                .id(++nextId)
+                .investmentId(1L)
+                .valuationDate(date)
+                .amount(new BigDecimal(amount))
+                .resolution(resolution)
+                .build();
+    }
+
+    @Test
+    void recordValue_WithoutPointToday_ShouldInsertDailyPoint() {
+        // Arrange
+        when(investmentValuationRepository.updateDailyAmount(eq(1L), any(LocalDate.class), eq(new BigDecimal("150.00")))).thenReturn(0);
+
+        // Act
+        investmentValuationService.recordValue(1L, new BigDecimal("150.00"));
+
+        // Assert
+        ArgumentCaptor<InvestmentValuation> saved = ArgumentCaptor.forClass(InvestmentValuation.class);
+        verify(investmentValuationRepository).save(saved.capture());
+        assertEquals("DAILY", saved.getValue().getResolution());
+        assertEquals(LocalDate.now(), saved.getValue().getValuationDate());
+    }
+
+    @Test
+    void recordValue_WithPointToday_ShouldOverwriteIt() {
+        // Arrange
+        when(investmentValuationRepository.updateDailyAmount(eq(1L), any(LocalDate.class), eq(new BigDecimal("150.00")))).thenReturn(1);
+
+        // Act
+        investmentValuationService.recordValue(1L, new BigDecimal("150.00"));
+
+        // Assert
+        verify(investmentValuationRepository, never()).save(any(InvestmentValuation.class));
+    }
+
+    @Test
+    void compactValuations_ShouldKeepLastPointOfEachWeekAndMonth() {
+        // Arrange
+        LocalDate oldMonday = LocalDate.now().minusYears(1).with(DayOfWeek.MONDAY);
+        InvestmentValuation monday = point(oldMonday, "100.00", "DAILY");
+        InvestmentValuation friday = point(oldMonday.plusDays(4), "104.00", "DAILY");
+        InvestmentValuation nextMonday = point(oldMonday.plusDays(7), "105.00", "DAILY");
+        LocalDate oldMonth = LocalDate.now().minusYears(3).withDayOfMonth(1);
+        InvestmentValuation firstWeek = point(oldMonth.plusDays(3), "50.00", "WEEKLY");
+        InvestmentValuation lastWeek = point(oldMonth.plusDays(24), "55.00", "WEEKLY");
+
+        when(investmentValuationRepository.findInvestmentIdsWithPointsBefore(eq("DAILY"), any(LocalDate.class))).thenReturn(List.of(1L));
+        when(investmentValuationRepository.findInvestmentIdsWithPointsBefore(eq("WEEKLY"), any(LocalDate.class))).thenReturn(List.of(1L));
+        when(investmentValuationRepository.findByInvestmentIdInAndResolutionAndValuationDateBeforeOrderByInvestmentIdAscValuationDateAsc(
+                eq(List.of(1L)), eq("DAILY"), any(LocalDate.class))).thenReturn(Arrays.asList(monday, friday, nextMonday));
+        when(investmentValuationRepository.findByInvestmentIdInAndResolutionAndValuationDateBeforeOrderByInvestmentIdAscValuationDateAsc(
+                eq(List.of(1L)), eq("WEEKLY"), any(LocalDate.class))).thenReturn(Arrays.asList(firstWeek, lastWeek));
+
+        // Act
+        investmentValuationService.compactValuations();
+
+        // Assert
+        verify(investmentValuationRepository).updateResolution(List.of(friday.getId(), nextMonday.getId()), "WEEKLY");
+        verify(investmentValuationRepository).deleteAllByIdInBatch(List.of(monday.getId()));
+        verify(investmentValuationRepository).updateResolution(List.of(lastWeek.getId()), "MONTHLY");
+        verify(investmentValuationRepository).deleteAllByIdInBatch(List.of(firstWeek.getId()));
+    }
+
+    @Test
+    void getValuationHistory_WithShortRange_ShouldReturnDailyPoints() {
+        // Arrange
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        LocalDate from = to.minusDays(30);
+        List<InvestmentValuation> points = new ArrayList<>();
+        for (int i = 0; i <= 30; i++) {
+            points.add(point(from.plusDays(i), "100.00", "DAILY"));
+        }
+        when(investmentRepository.existsById(1L)).thenReturn(true);
+        when(investmentValuationRepository.findByInvestmentIdAndValuationDateBetweenOrderByValuationDateAsc(1L, from, to)).thenReturn(points);
+
+        // Act
+        List<InvestmentValuation> result = investmentValuationService.getValuationHistory(1L, from, to);
+
+        // Assert
+        assertEquals(31, result.size());
+        assertTrue(result.stream().allMatch(point -> "DAILY".equals(point.getResolution())));
+    }
+
+    @Test
+    void getValuationHistory_WithLongRange_ShouldStayWithinPointBudget() {
+        // Arrange
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        LocalDate from = to.minusYears(20);
+        List<InvestmentValuation> points = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            points.add(point(date, "100.00", "DAILY"));
+        }
+        when(investmentRepository.existsById(1L)).thenReturn(true);
+        when(investmentValuationRepository.findByInvestmentIdAndValuationDateBetweenOrderByValuationDateAsc(1L, from, to)).thenReturn(points);
+
+        // Act
+        List<InvestmentValuation> result = investmentValuationService.getValuationHistory(1L, from, to);
+
+        // Assert
+        assertTrue(result.size() <= 400);
+        assertEquals("MONTHLY", result.get(0).getResolution());
+        assertEquals(to, result.get(result.size() - 1).getValuationDate());
+    }
+
+    @Test
+    void getValuationHistory_WithUnknownInvestment_ShouldThrowResourceNotFoundException() {
+        // Arrange
+        when(investmentRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> investmentValuationService.getValuationHistory(99L, null, null));
+        verify(investmentValuationRepository, never()).findByInvestmentIdAndValuationDateBetweenOrderByValuationDateAsc(any(), any(), any());
+    }
+}
@@ -0,0 +1,140 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentCashFlow;
+import com.fintracker.core.repository.InvestmentCashFlowRepository;
+import com.fintracker.core.repository.InvestmentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PortfolioAnalyticsServiceTest {
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private InvestmentCashFlowRepository investmentCashFlowRepository;
+
+    @InjectMocks
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+
+    private Investment investment(long id, LocalDate start, String initial, String current) {
+        return Investment.builder()
+                .id(id)
+                .name("Holding " + id)
+                .investmentType("STOCK")
+                .initialAmount(new BigDecimal(initial))
+                .currentValue(new BigDecimal(current))
+                .startDate(start.atStartOfDay())
+                .build();
+    }
+
+    @Test
+    void getPortfolioReturns_WithSingleYearHolding_ShouldMatchSimpleReturn() {
+        // Arrange
+        LocalDate start = LocalDate.now().minusDays(365);
+        Investment holding = investment(1L, start, "1000.00", "1100.00");
+        when(investmentRepository.findByUserId(1L)).thenReturn(List.of(holding));
+        when(investmentCashFlowRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+
+        // Act
+        PortfolioAnalyticsService.PortfolioReturns result = portfolioAnalyticsService.getPortfolioReturns(1L);
+
+        // Assert
+        PortfolioAnalyticsService.HoldingReturns returns = result.getHoldings().get(0);
+        assertEquals(0.10, returns.getAbsoluteReturn(), 1e-9);
+        assertEquals(Math.pow(1.1, 365.25 / 365) - 1, returns.getXirr(), 1e-6);
+        assertEquals(returns.getXirr(), returns.getCagr(), 1e-6);
+        assertEquals(returns.getXirr(), result.getXirr(), 1e-9);
+    }
+
+    @Test
+    void getPortfolioReturns_WithIntermediateCashFlows_ShouldWeightByTiming() {
+        // Arrange
+        LocalDate start = LocalDate.now().minusYears(2);
+        Investment sip = investment(1L, start, "1000.00", "2300.00");
+        Investment matured = investment(2L, start, "500.00", "550.00");
+        matured.setEndDate(start.plusYears(1).atStartOfDay());
+        InvestmentCashFlow contribution = InvestmentCashFlow.builder()
+                .investment(sip)
+                .flowDate(start.plusYears(1))
+                .amount(new BigDecimal("1000.00"))
+                .flowType("CONTRIBUTION")
+                .build();
+        InvestmentCashFlow dividend = InvestmentCashFlow.builder()
+                .investment(sip)
+                .flowDate(start.plusYears(1).plusMonths(6))
+                .amount(new BigDecimal("50.00"))
+                .flowType("DIVIDEND")
+                .build();
+        when(investmentRepository.findByUserId(1L)).thenReturn(Arrays.asList(sip, matured));
+        when(investmentCashFlowRepository.findByUserId(1L)).thenReturn(Arrays.asList(contribution, dividend));
+
+        // Act
+        PortfolioAnalyticsService.PortfolioReturns result = portfolioAnalyticsService.getPortfolioReturns(1L);
+
+        // Assert
+        PortfolioAnalyticsService.HoldingReturns sipReturns = result.getHoldings().get(0);
+        assertEquals(new BigDecimal("2000.00"), sipReturns.getInvested());
+        assertEquals(new BigDecimal("2350.00"), sipReturns.getReturned());
+        assertEquals(0.175, sipReturns.getAbsoluteReturn(), 1e-9);
+        // The second 1000 was invested for only half as long, so XIRR beats the naive CAGR
+        assertTrue(sipReturns.getXirr() > sipReturns.getCagr());
+
+        PortfolioAnalyticsService.HoldingReturns maturedReturns = result.getHoldings().get(1);
+        assertEquals(start.plusYears(1), maturedReturns.getValuationDate());
+        assertEquals(0.10, maturedReturns.getXirr(), 1e-3);
+
+        assertEquals(new BigDecimal("2500.00"), result.getInvested());
+        assertEquals(new BigDecimal("2900.00"), result.getReturned());
+        assertTrue(Double.isFinite(result.getXirr()));
+    }
+
+    @Test
+    void getPortfolioReturns_WithThousandsOfHoldings_ShouldSolveEveryHolding() {
+        // Arrange
+        List<Investment> holdings = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            holdings.add(investment(id, LocalDate.now().minusDays(100 + id % 1000), "100.00", String.valueOf(90 + id % 40)));
+        }
+        when(investmentRepository.findByUserId(1L)).thenReturn(holdings);
+        when(investmentCashFlowRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+
+        // Act
+        PortfolioAnalyticsService.PortfolioReturns result = portfolioAnalyticsService.getPortfolioReturns(1L);
+
+        // Assert
+        assertEquals(5000, result.getHoldings().size());
+        assertTrue(result.getHoldings().stream().allMatch(holding -> Double.isFinite(holding.getXirr())));
+        assertTrue(Double.isFinite(result.getXirr()));
+    }
+
+    @Test
+    void getPortfolioReturns_WithoutInvestments_ShouldReturnUndefinedRates() {
+        // Arrange
+        when(investmentRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+        when(investmentCashFlowRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+
+        // Act
+        PortfolioAnalyticsService.PortfolioReturns result = portfolioAnalyticsService.getPortfolioReturns(1L);
+
+        // Assert
+        assertTrue(result.getHoldings().isEmpty());
+        assertTrue(Double.isNaN(result.getXirr()));
+        assertTrue(Double.isNaN(result.getAbsoluteReturn()));
+    }
+}
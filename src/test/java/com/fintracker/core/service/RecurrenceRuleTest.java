@@ -0,0 +1,140 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurrenceRuleTest {
+
+    @Test
+    void between_WithLastBusinessDayRule_ShouldSkipWeekends() {
+        // Arrange
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 31, 8, 0);
+
+        // Act
+        List<LocalDateTime> occurrences = rule.between(start, start, LocalDateTime.of(2024, 7, 1, 0, 0));
+
+        // Assert
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 31, 8, 0), LocalDateTime.of(2024, 2, 29, 8, 0),
+                LocalDateTime.of(2024, 3, 29, 8, 0), LocalDateTime.of(2024, 4, 30, 8, 0),
+                LocalDateTime.of(2024, 5, 31, 8, 0), LocalDateTime.of(2024, 6, 28, 8, 0)), occurrences);
+    }
+
+    @Test
+    void nextAfter_WithOrdinalWeekday_ShouldFindSecondFridayOfMonth() {
+        // Arrange
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=2FR");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 12, 0, 0);
+
+        // Act
+        LocalDateTime next = rule.nextAfter(start, start);
+        LocalDateTime following = rule.nextAfter(start, next);
+
+        // Assert
+        assertEquals(LocalDateTime.of(2024, 2, 9, 0, 0), next);
+        assertEquals(LocalDateTime.of(2024, 3, 8, 0, 0), following);
+    }
+
+    @Test
+    void between_WithWeeklyInterval_ShouldSkipAlternateWeeks() {
+        // Arrange
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=FR");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 5, 0, 0);
+
+        // Act
+        List<LocalDateTime> occurrences = rule.between(start, start, LocalDateTime.of(2024, 2, 3, 0, 0));
+
+        // Assert
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 5, 0, 0), LocalDateTime.of(2024, 1, 19, 0, 0),
+                LocalDateTime.of(2024, 2, 2, 0, 0)), occurrences);
+    }
+
+    @Test
+    void nextAfter_FarAhead_ShouldJumpToThatPeriod() {
+        // Arrange
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=15,-1");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, 0, 0);
+
+        // Act
+        LocalDateTime next = rule.nextAfter(start, LocalDateTime.of(2030, 2, 20, 0, 0));
+
+        // Assert
+        assertEquals(LocalDateTime.of(2030, 2, 28, 0, 0), next);
+    }
+
+    @Test
+    void nextAfter_WithPlainMonthlyFrequency_ShouldNotDriftFromMonthEnd() {
+        // Arrange
+        RecurrenceRule rule = RecurrenceRule.parse("monthly");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 31, 0, 0);
+
+        // Act
+        LocalDateTime next = rule.nextAfter(start, LocalDateTime.of(2024, 3, 15, 0, 0));
+
+        // Assert
+        assertEquals(LocalDateTime.of(2024, 3, 31, 0, 0), next);
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), rule.nextAfter(start, start));
+    }
+
+    @Test
+    void nextAfter_WithLeapDayRule_ShouldWaitForNextLeapYear() {
+        // Arrange
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=29");
+        LocalDateTime start = LocalDateTime.of(2024, 2, 29, 0, 0);
+
+        // Act
+        LocalDateTime next = rule.nextAfter(start, start);
+
+        // Assert
+        assertEquals(LocalDateTime.of(2028, 2, 29, 0, 0), next);
+    }
+
+    @Test
+    void nextAfter_WithRuleThatNeverMatches_ShouldReturnNull() {
+        // Arrange
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30");
+        LocalDateTime start = LocalDateTime.of(2024, 2, 10, 0, 0);
+
+        // Act & Assert
+        assertNull(rule.nextAfter(start, start));
+        assertEquals(start, rule.nextAfter(start, start.minusDays(1)));
+    }
+
+    @Test
+    void occurrencesPerMonth_WithTwoDaysPerMonth_ShouldAverageTwo() {
+        // Act
+        double perMonth = RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=15,-1").occurrencesPerMonth(LocalDateTime.of(2024, 1, 15, 0, 0));
+
+        // Assert
+        assertEquals(2.0, perMonth, 1e-9);
+    }
+
+    @Test
+    void of_ShouldShareCompiledRulesAndNeverRepeatUnknownText() {
+        // Act
+        RecurrenceRule first = RecurrenceRule.of("FREQ=MONTHLY;BYMONTHDAY=1");
+        RecurrenceRule second = RecurrenceRule.of("FREQ=MONTHLY;BYMONTHDAY=1");
+
+        // Assert
+        assertSame(first, second);
+        assertSame(RecurrenceRule.NEVER, RecurrenceRule.of("ONCE"));
+        assertNull(RecurrenceRule.NEVER.nextAfter(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void parse_WithInvalidRules_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> RecurrenceRule.parse(""));
+        assertThrows(ValidationException.class, () -> RecurrenceRule.parse("FREQ=HOURLY"));
+        assertThrows(ValidationException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=1MO"));
+        assertThrows(ValidationException.class, () -> RecurrenceRule.parse("FREQ=MONTHLY;COUNT=3"));
+        assertThrows(ValidationException.class, () -> RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=0"));
+        assertThrows(ValidationException.class, () -> RecurrenceRule.parse("FREQ=MONTHLY;INTERVAL=0"));
+        assertThrows(ValidationException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYMONTHDAY=1"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.fintracker.core.service;
+
+import com.fintracker.config.UserScope;
+import com.fintracker.core.domain.RefreshToken;
+import com.fintracker.core.domain.User;
+import com.fintracker.core.repository.RefreshTokenRepository;
+import com.fintracker.core.repository.RevokedTokenRepository;
+import com.fintracker.core.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserScope userScope;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpirationDays", 30L);
+        user = User.builder().id(1L).username("testuser").build();
+    }
+
+    @Test
+    void issue_ShouldStoreOnlyTheTokenHash() {
+        // Arrange
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+
+        // Act
+        String token = refreshTokenService.issue(1L);
+
+        // Assert
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertNotEquals(token, saved.getValue().getTokenHash());
+        assertEquals(RefreshTokenService.hash(token), saved.getValue().getTokenHash());
+        assertEquals(user, saved.getValue().getUser());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(LocalDateTime.now().plusDays(29)));
+    }
+
+    @Test
+    void rotate_WithValidToken_ShouldRevokeItAndIssueAnother() {
+        // Arrange
+        RefreshToken current = RefreshToken.builder().id(5L).user(user).tokenHash(RefreshTokenService.hash("old"))
+                .createdAt(LocalDateTime.now()).expiresAt(LocalDateTime.now().plusDays(1)).build();
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.revokeIfActive(eq(5L), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        RefreshTokenService.IssuedToken issued = refreshTokenService.rotate("old");
+
+        // Assert
+        assertNotEquals("old", issued.token());
+        assertSame(user, issued.user());
+        verify(refreshTokenRepository).revokeIfActive(eq(5L), any(LocalDateTime.class));
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+        verify(refreshTokenRepository, never()).revokeAllForUser(any(), any());
+    }
+
+    @Test
+    void rotate_WithSameTokenTwiceConcurrently_ShouldTreatTheLoserAsReuse() {
+        // Arrange: both requests read the token before either has revoked it
+        RefreshToken current = RefreshToken.builder().id(5L).user(user).tokenHash(RefreshTokenService.hash("old"))
+                .createdAt(LocalDateTime.now()).expiresAt(LocalDateTime.now().plusDays(1)).build();
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.revokeIfActive(eq(5L), any(LocalDateTime.class))).thenReturn(1, 0);
+
+        // Act & Assert
+        assertNotNull(refreshTokenService.rotate("old").token());
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("old"));
+        verify(refreshTokenRepository).revokeAllForUser(eq(1L), any(LocalDateTime.class));
+        verify(refreshTokenRepository, times(1)).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void rotate_WithUsedToken_ShouldRevokeEveryTokenOfTheUser() {
+        // Arrange
+        RefreshToken used = RefreshToken.builder().id(5L).user(user).tokenHash(RefreshTokenService.hash("used"))
+                .createdAt(LocalDateTime.now()).expiresAt(LocalDateTime.now().plusDays(1))
+                .revokedAt(LocalDateTime.now().minusMinutes(5)).build();
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("used"))).thenReturn(Optional.of(used));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("used"));
+        verify(refreshTokenRepository).revokeAllForUser(eq(1L), any(LocalDateTime.class));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_WithExpiredOrUnknownToken_ShouldThrowException() {
+        // Arrange
+        RefreshToken expired = RefreshToken.builder().id(5L).user(user).tokenHash(RefreshTokenService.hash("expired"))
+                .createdAt(LocalDateTime.now().minusDays(31)).expiresAt(LocalDateTime.now().minusDays(1)).build();
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("expired"))).thenReturn(Optional.of(expired));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("unknown"))).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("expired"));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("unknown"));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void revokeAll_ShouldRevokeEveryActiveTokenOfTheUserAcrossUsers() {
+        // Arrange
+        when(userScope.unscoped(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(refreshTokenRepository.revokeAllForUser(eq(1L), any(LocalDateTime.class))).thenReturn(3);
+
+        // Act
+        int revoked = refreshTokenService.revokeAll(1L);
+
+        // Assert
+        assertEquals(3, revoked);
+        verify(userScope).unscoped(any());
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteExpiredTokensAndRevocations() {
+        // Act
+        refreshTokenService.purgeExpired();
+
+        // Assert
+        verify(refreshTokenRepository).deleteExpired(any(LocalDateTime.class));
+        verify(revokedTokenRepository).deleteExpired(any(LocalDateTime.class));
+    }
+}
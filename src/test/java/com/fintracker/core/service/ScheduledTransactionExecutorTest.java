@@ -0,0 +1,300 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.Category;
+import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.domain.ScheduledTransactionRun;
+import com.fintracker.core.domain.User;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import com.fintracker.core.repository.ScheduledTransactionRunRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduledTransactionExecutorTest {
+
+    @Mock
+    private ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @Mock
+    private ScheduledTransactionRunRepository scheduledTransactionRunRepository;
+
+    @Mock
+    private ScheduledTransactionService scheduledTransactionService;
+
+    @Mock
+    private ScheduledTransactionJournal scheduledTransactionJournal;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledTransactionExecutor scheduledTransactionExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduledTransactionExecutor = new ScheduledTransactionExecutor(scheduledTransactionRepository,
+                scheduledTransactionRunRepository, scheduledTransactionService, scheduledTransactionJournal, schedulerLockService,
+                new ScheduledTransactionThrottle(meterRegistry), transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(scheduledTransactionExecutor, "chunkSize", 2);
+        ReflectionTestUtils.setField(scheduledTransactionExecutor, "workers", 2);
+    }
+
+    private static ScheduledTransactionRepository.DueSchedule due(long id, long accountId) {
+        return new ScheduledTransactionRepository.DueSchedule() {
+            public Long getId() { return id; }
+            public Long getAccountId() { return accountId; }
+            public LocalDateTime getDueAt() { return null; }
+        };
+    }
+
+    // Claims are granted to whoever asks; each load of a claim is a fresh copy, as a new transaction would see after a rollback
+    private void stubSchedules() {
+        Map<String, Collection<?>> claims = new ConcurrentHashMap<>();
+        when(scheduledTransactionRepository.claimDue(anyCollection(), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            Collection<?> ids = List.copyOf((Collection<?>) invocation.getArgument(0));
+            claims.put(invocation.getArgument(1), ids);
+            return ids.size();
+        });
+        when(scheduledTransactionRepository.findClaimed(anyString())).thenAnswer(invocation -> {
+            List<ScheduledTransaction> schedules = new ArrayList<>();
+            for (Object id : claims.get((String) invocation.getArgument(0))) {
+                schedules.add(ScheduledTransaction.builder()
+                        .id((Long) id)
+                        .description("Rent")
+                        .amount(new BigDecimal("100.00"))
+                        .frequency("MONTHLY")
+                        .nextDueDate(LocalDateTime.now().minusDays(1))
+                        .transactionType("EXPENSE")
+                        .account(Account.builder().id(10L + (Long) id % 2).build())
+                        .category(Category.builder().id(1L).build())
+                        .createdBy(User.builder().id(1L).build())
+                        .active(true)
+                        .claimToken(invocation.getArgument(0))
+                        .claimedAt(LocalDateTime.now())
+                        .build());
+            }
+            return schedules;
+        });
+    }
+
+    private void stubNewRun() {
+        when(schedulerLockService.currentShard()).thenReturn(SchedulerLockService.Shard.ALL);
+        when(scheduledTransactionRunRepository.findFirstByStatusAndShardIndexAndShardCountOrderByStartedAtDesc("RUNNING", 0, 1))
+                .thenReturn(Optional.empty());
+        when(scheduledTransactionRunRepository.save(any(ScheduledTransactionRun.class))).thenAnswer(invocation -> {
+            ScheduledTransactionRun run = invocation.getArgument(0);
+            if (run.getId() == null) {
+                run.setId(7L);
+            }
+            return run;
+        });
+    }
+
+    @Test
+    void runDueTransactions_ShouldPostEveryDueScheduleAndCheckpoint() {
+        // Arrange
+        stubNewRun();
+        stubSchedules();
+        when(scheduledTransactionRepository.findDueForRun(any(LocalDateTime.class), eq(0L), eq(7L), eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(List.of(due(1L, 11L), due(2L, 10L), due(3L, 11L)));
+        when(scheduledTransactionRepository.findDueForRun(any(LocalDateTime.class), eq(3L), eq(7L), eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        when(scheduledTransactionService.catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // Act
+        ScheduledTransactionRun run = scheduledTransactionExecutor.runDueTransactions();
+
+        // Assert
+        assertEquals("COMPLETED", run.getStatus());
+        assertEquals(3L, run.getCheckpointId());
+        assertEquals(3L, run.getExecutedCount());
+        assertEquals(1, run.getShardCount());
+        verify(scheduledTransactionRunRepository).abandonRunsOfOtherShardCounts(eq(1), any(LocalDateTime.class));
+        assertEquals(0L, run.getFailedCount());
+        assertNotNull(run.getFinishedAt());
+        verify(scheduledTransactionService, times(3)).catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class));
+        assertEquals(3.0, meterRegistry.counter("scheduled.transactions.executed").count());
+        assertEquals(1L, meterRegistry.timer("scheduled.transactions.run").count());
+    }
+
+    @Test
+    void runDueTransactions_WithFailingSchedule_ShouldOnlySkipThatSchedule() {
+        // Arrange
+        ReflectionTestUtils.setField(scheduledTransactionExecutor, "chunkSize", 10);
+        ReflectionTestUtils.setField(scheduledTransactionExecutor, "workers", 1);
+        stubNewRun();
+        stubSchedules();
+        when(scheduledTransactionRepository.findDueForRun(any(LocalDateTime.class), eq(0L), eq(7L), eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(List.of(due(1L, 11L), due(2L, 10L), due(3L, 11L)));
+        when(scheduledTransactionRepository.findDueForRun(any(LocalDateTime.class), eq(3L), eq(7L), eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        doAnswer(invocation -> {
+            ScheduledTransaction schedule = invocation.getArgument(0);
+            if (schedule.getId() == 2L) {
+                throw new IllegalStateException("Account closed");
+            }
+            assertEquals(7L, schedule.getLastRunId());
+            assertNull(schedule.getClaimToken());
+            return 1;
+        }).when(scheduledTransactionService).catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class));
+
+        // Act
+        ScheduledTransactionRun run = scheduledTransactionExecutor.runDueTransactions();
+
+        // Assert
+        assertEquals("COMPLETED", run.getStatus());
+        assertEquals(2L, run.getExecutedCount());
+        assertEquals(1L, run.getFailedCount());
+        assertEquals(1.0, meterRegistry.counter("scheduled.transactions.failed").count());
+        // Whole chunk up to the failure, then each schedule on its own
+        verify(scheduledTransactionService, times(5)).catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class));
+        verify(scheduledTransactionJournal).recordFailure(eq(2L), any(IllegalStateException.class));
+        verifyNoMoreInteractions(scheduledTransactionJournal);
+    }
+
+    @Test
+    void runDueTransactions_WithUnfinishedRun_ShouldResumeFromCheckpoint() {
+        // Arrange
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(3);
+        ScheduledTransactionRun unfinished = ScheduledTransactionRun.builder()
+                .id(5L)
+                .cutoff(cutoff)
+                .status("RUNNING")
+                .shardCount(1)
+                .checkpointId(200L)
+                .executedCount(200L)
+                .startedAt(cutoff)
+                .build();
+        when(schedulerLockService.currentShard()).thenReturn(SchedulerLockService.Shard.ALL);
+        when(scheduledTransactionRunRepository.findFirstByStatusAndShardIndexAndShardCountOrderByStartedAtDesc("RUNNING", 0, 1))
+                .thenReturn(Optional.of(unfinished));
+        when(scheduledTransactionRepository.findDueForRun(eq(cutoff), eq(200L), eq(5L), eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        ScheduledTransactionRun run = scheduledTransactionExecutor.runDueTransactions();
+
+        // Assert
+        assertSame(unfinished, run);
+        assertEquals("COMPLETED", run.getStatus());
+        assertEquals(200L, run.getExecutedCount());
+        verify(scheduledTransactionRunRepository, times(1)).save(unfinished);
+        verify(scheduledTransactionService, never()).catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void runDueTransactions_WithScheduleClaimedElsewhere_ShouldSkipIt() {
+        // Arrange
+        stubNewRun();
+        when(scheduledTransactionRepository.findDueForRun(any(LocalDateTime.class), eq(0L), eq(7L), eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(List.of(due(1L, 11L)));
+        when(scheduledTransactionRepository.findDueForRun(any(LocalDateTime.class), eq(1L), eq(7L), eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        when(scheduledTransactionRepository.claimDue(anyCollection(), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act
+        ScheduledTransactionRun run = scheduledTransactionExecutor.runDueTransactions();
+
+        // Assert
+        assertEquals(0L, run.getExecutedCount());
+        assertEquals(1L, run.getCheckpointId());
+        verify(scheduledTransactionRepository, never()).findClaimed(anyString());
+        verify(scheduledTransactionService, never()).catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void executeDue_WhenClaimed_ShouldPostUpToNow() {
+        // Arrange
+        stubSchedules();
+        when(scheduledTransactionService.catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // Act
+        int posted = scheduledTransactionExecutor.executeDue(3L);
+
+        // Assert
+        assertEquals(1, posted);
+        ArgumentCaptor<ScheduledTransaction> captor = ArgumentCaptor.forClass(ScheduledTransaction.class);
+        verify(scheduledTransactionService).catchUpScheduledTransaction(captor.capture(), any(LocalDateTime.class));
+        assertEquals(3L, captor.getValue().getId());
+        assertNull(captor.getValue().getClaimToken());
+        assertNull(captor.getValue().getLastRunId());
+        assertEquals(1.0, meterRegistry.counter("scheduled.transactions.executed").count());
+    }
+
+    @Test
+    void executeDue_WhenNotClaimed_ShouldPostNothing() {
+        // Arrange
+        when(scheduledTransactionRepository.claimDue(anyCollection(), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act
+        int posted = scheduledTransactionExecutor.executeDue(3L);
+
+        // Assert
+        assertEquals(0, posted);
+        verify(scheduledTransactionRepository, never()).findClaimed(anyString());
+        verify(scheduledTransactionService, never()).catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void executeDue_WhenPostingFails_ShouldReleaseClaim() {
+        // Arrange
+        stubSchedules();
+        when(scheduledTransactionService.catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class)))
+                .thenThrow(new IllegalStateException("Account closed"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> scheduledTransactionExecutor.executeDue(3L));
+        verify(scheduledTransactionRepository).releaseClaims(anyString());
+        verify(scheduledTransactionJournal).recordFailure(eq(3L), any(IllegalStateException.class));
+        assertEquals(1.0, meterRegistry.counter("scheduled.transactions.failed").count());
+    }
+
+    @Test
+    void executeDue_WhenJournalFails_ShouldStillRethrowPostingFailure() {
+        // Arrange
+        stubSchedules();
+        when(scheduledTransactionService.catchUpScheduledTransaction(any(ScheduledTransaction.class), any(LocalDateTime.class)))
+                .thenThrow(new IllegalStateException("Account closed"));
+        when(scheduledTransactionJournal.recordFailure(eq(3L), any(IllegalStateException.class)))
+                .thenThrow(new IllegalStateException("Journal unavailable"));
+
+        // Act & Assert
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> scheduledTransactionExecutor.executeDue(3L));
+        assertEquals("Account closed", thrown.getMessage());
+    }
+}
@@ -0,0 +1,230 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.ScheduledTransaction;
+import com.fintracker.core.domain.ScheduledTransactionExecution;
+import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.ScheduledTransactionExecutionRepository;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduledTransactionJournalTest {
+
+    @Mock
+    private ScheduledTransactionExecutionRepository scheduledTransactionExecutionRepository;
+
+    @Mock
+    private ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @InjectMocks
+    private ScheduledTransactionJournal scheduledTransactionJournal;
+
+    private ScheduledTransaction scheduledTransaction;
+    private LocalDateTime dueDate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduledTransactionJournal, "maxAttempts", 3);
+        ReflectionTestUtils.setField(scheduledTransactionJournal, "initialBackoffSeconds", 60L);
+        ReflectionTestUtils.setField(scheduledTransactionJournal, "maxBackoffMinutes", 30L);
+
+        dueDate = LocalDateTime.of(2024, 3, 1, 0, 0);
+        scheduledTransaction = ScheduledTransaction.builder()
+                .id(1L)
+                .nextDueDate(dueDate)
+                .account(Account.builder().id(10L).build())
+                .active(true)
+                .build();
+    }
+
+    private ScheduledTransactionExecution failedExecution(int attempts) {
+        return ScheduledTransactionExecution.builder()
+                .id(5L)
+                .scheduledTransactionId(1L)
+                .accountId(10L)
+                .occurrenceDate(dueDate)
+                .status("FAILED")
+                .attempts(attempts)
+                .nextAttemptAt(dueDate.plusMinutes(5))
+                .build();
+    }
+
+    @Test
+    void recordFailure_WithFirstFailure_ShouldScheduleRetryAfterInitialBackoff() {
+        // Arrange
+        when(scheduledTransactionRepository.findById(1L)).thenReturn(Optional.of(scheduledTransaction));
+        when(scheduledTransactionExecutionRepository.findByScheduledTransactionIdAndOccurrenceDate(1L, dueDate)).thenReturn(Optional.empty());
+        when(scheduledTransactionExecutionRepository.save(any(ScheduledTransactionExecution.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        ScheduledTransactionExecution execution = scheduledTransactionJournal.recordFailure(1L,
+                new DataIntegrityViolationException("Insert failed", new IllegalStateException("Category is gone")));
+
+        // Assert
+        assertEquals("FAILED", execution.getStatus());
+        assertEquals(1, execution.getAttempts());
+        assertEquals(10L, execution.getAccountId());
+        assertEquals(dueDate, execution.getOccurrenceDate());
+        assertEquals("IllegalStateException: Category is gone", execution.getLastError());
+        assertFalse(execution.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+    }
+
+    @Test
+    void recordFailure_WithLastAttempt_ShouldGiveUp() {
+        // Arrange
+        when(scheduledTransactionRepository.findById(1L)).thenReturn(Optional.of(scheduledTransaction));
+        when(scheduledTransactionExecutionRepository.findByScheduledTransactionIdAndOccurrenceDate(1L, dueDate))
+                .thenReturn(Optional.of(failedExecution(2)));
+        when(scheduledTransactionExecutionRepository.save(any(ScheduledTransactionExecution.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ScheduledTransactionExecution execution = scheduledTransactionJournal.recordFailure(1L, new IllegalStateException("Account closed"));
+
+        // Assert
+        assertEquals("DEAD", execution.getStatus());
+        assertEquals(3, execution.getAttempts());
+        assertNull(execution.getNextAttemptAt());
+    }
+
+    @Test
+    void recordFailure_WhenScheduleDeleted_ShouldRecordNothing() {
+        // Arrange
+        when(scheduledTransactionRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        ScheduledTransactionExecution execution = scheduledTransactionJournal.recordFailure(1L, new IllegalStateException("Gone"));
+
+        // Assert
+        assertNull(execution);
+        verifyNoInteractions(scheduledTransactionExecutionRepository);
+    }
+
+    @Test
+    void recordPosted_AfterFailure_ShouldResolveIt() {
+        // Arrange
+        when(scheduledTransactionExecutionRepository.findByScheduledTransactionIdAndOccurrenceDate(1L, dueDate))
+                .thenReturn(Optional.of(failedExecution(2)));
+        when(scheduledTransactionExecutionRepository.save(any(ScheduledTransactionExecution.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ScheduledTransactionExecution execution = scheduledTransactionJournal.recordPosted(scheduledTransaction, dueDate, 2);
+
+        // Assert
+        assertEquals("POSTED", execution.getStatus());
+        assertEquals(3, execution.getAttempts());
+        assertEquals(2, execution.getOccurrencesPosted());
+        assertNull(execution.getNextAttemptAt());
+    }
+
+    @Test
+    void recordPosted_WhenOccurrenceAlreadyPosted_ShouldThrowException() {
+        // Arrange
+        ScheduledTransactionExecution posted = failedExecution(1);
+        posted.setStatus("POSTED");
+        when(scheduledTransactionExecutionRepository.findByScheduledTransactionIdAndOccurrenceDate(1L, dueDate))
+                .thenReturn(Optional.of(posted));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> scheduledTransactionJournal.recordPosted(scheduledTransaction, dueDate, 1));
+        verify(scheduledTransactionExecutionRepository, never()).save(any(ScheduledTransactionExecution.class));
+    }
+
+    @Test
+    void recordNothingToRetry_WhenScheduleMovedOn_ShouldSkipEntry() {
+        // Arrange
+        ScheduledTransactionExecution execution = failedExecution(1);
+        scheduledTransaction.setNextDueDate(dueDate.plusMonths(1));
+        when(scheduledTransactionExecutionRepository.findById(5L)).thenReturn(Optional.of(execution));
+        when(scheduledTransactionRepository.findById(1L)).thenReturn(Optional.of(scheduledTransaction));
+
+        // Act
+        scheduledTransactionJournal.recordNothingToRetry(5L);
+
+        // Assert
+        assertEquals("SKIPPED", execution.getStatus());
+        assertNull(execution.getNextAttemptAt());
+        verify(scheduledTransactionExecutionRepository).save(execution);
+    }
+
+    @Test
+    void requeue_WithDeadEntry_ShouldRetryImmediately() {
+        // Arrange
+        ScheduledTransactionExecution execution = failedExecution(3);
+        execution.setStatus("DEAD");
+        when(scheduledTransactionExecutionRepository.findVisibleById(5L)).thenReturn(Optional.of(execution));
+        when(scheduledTransactionExecutionRepository.save(execution)).thenReturn(execution);
+
+        // Act
+        ScheduledTransactionExecution requeued = scheduledTransactionJournal.requeue(5L);
+
+        // Assert
+        assertEquals("FAILED", requeued.getStatus());
+        assertEquals(0, requeued.getAttempts());
+        assertFalse(requeued.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void requeue_WithPostedEntry_ShouldThrowException() {
+        // Arrange
+        ScheduledTransactionExecution execution = failedExecution(1);
+        execution.setStatus("POSTED");
+        when(scheduledTransactionExecutionRepository.findVisibleById(5L)).thenReturn(Optional.of(execution));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> scheduledTransactionJournal.requeue(5L));
+    }
+
+    @Test
+    void requeue_WithEntryNotVisible_ShouldThrowException() {
+        // Arrange
+        when(scheduledTransactionExecutionRepository.findVisibleById(5L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> scheduledTransactionJournal.requeue(5L));
+        verify(scheduledTransactionExecutionRepository, never()).save(any(ScheduledTransactionExecution.class));
+    }
+
+    @Test
+    void getFailures_ShouldOnlyReadEntriesOfVisibleAccounts() {
+        // Arrange
+        ScheduledTransactionExecution execution = failedExecution(2);
+        when(scheduledTransactionExecutionRepository.findVisibleByStatusIn(List.of("FAILED", "DEAD"), PageRequest.of(0, 100)))
+                .thenReturn(List.of(execution));
+
+        // Act
+        List<ScheduledTransactionExecution> failures = scheduledTransactionJournal.getFailures();
+
+        // Assert
+        assertEquals(List.of(execution), failures);
+    }
+
+    @Test
+    void backoff_ShouldDoubleUpToCap() {
+        // Act & Assert
+        assertEquals(Duration.ofMinutes(1), scheduledTransactionJournal.backoff(1));
+        assertEquals(Duration.ofMinutes(2), scheduledTransactionJournal.backoff(2));
+        assertEquals(Duration.ofMinutes(16), scheduledTransactionJournal.backoff(5));
+        assertEquals(Duration.ofMinutes(30), scheduledTransactionJournal.backoff(6));
+        assertEquals(Duration.ofMinutes(30), scheduledTransactionJournal.backoff(60));
+    }
+}
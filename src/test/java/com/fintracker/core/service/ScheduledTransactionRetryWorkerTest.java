@@ -0,0 +1,93 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.ScheduledTransactionExecution;
+import com.fintracker.core.repository.ScheduledTransactionExecutionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduledTransactionRetryWorkerTest {
+
+    @Mock
+    private ScheduledTransactionExecutionRepository scheduledTransactionExecutionRepository;
+
+    @Mock
+    private ScheduledTransactionExecutor scheduledTransactionExecutor;
+
+    @Mock
+    private ScheduledTransactionJournal scheduledTransactionJournal;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ScheduledTransactionRetryWorker scheduledTransactionRetryWorker;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduledTransactionRetryWorker, "batchSize", 100);
+    }
+
+    private static ScheduledTransactionExecution failed(long id, long scheduledTransactionId) {
+        return ScheduledTransactionExecution.builder()
+                .id(id)
+                .scheduledTransactionId(scheduledTransactionId)
+                .status("FAILED")
+                .attempts(1)
+                .build();
+    }
+
+    @Test
+    void retryDue_ShouldRetryEachFailureOnItsOwn() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        when(schedulerLockService.currentShard()).thenReturn(new SchedulerLockService.Shard(1, 2));
+        when(scheduledTransactionExecutionRepository.findRetryable(eq(now), eq(2), eq(1), any(Pageable.class)))
+                .thenReturn(List.of(failed(1L, 11L), failed(2L, 12L), failed(3L, 13L)));
+        when(scheduledTransactionExecutor.executeDue(11L)).thenThrow(new IllegalStateException("Still broken"));
+        when(scheduledTransactionExecutor.executeDue(12L)).thenReturn(0);
+        when(scheduledTransactionExecutor.executeDue(13L)).thenReturn(2);
+
+        // Act
+        int recovered = scheduledTransactionRetryWorker.retryDue(now);
+
+        // Assert
+        assertEquals(1, recovered);
+        verify(scheduledTransactionExecutor).executeDue(13L);
+        verify(scheduledTransactionJournal).recordNothingToRetry(2L);
+        verifyNoMoreInteractions(scheduledTransactionJournal);
+    }
+
+    @Test
+    void retryDue_WithNothingDue_ShouldNotExecuteAnything() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        when(schedulerLockService.currentShard()).thenReturn(SchedulerLockService.Shard.ALL);
+        when(scheduledTransactionExecutionRepository.findRetryable(eq(now), eq(1), eq(0), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        int recovered = scheduledTransactionRetryWorker.retryDue(now);
+
+        // Assert
+        assertEquals(0, recovered);
+        verifyNoInteractions(scheduledTransactionExecutor, scheduledTransactionJournal);
+    }
+}
@@ -6,13 +6,16 @@ import com.fintracker.core.domain.ScheduledTransaction;
 import com.fintracker.core.domain.Transaction;
 import com.fintracker.core.domain.User;
 import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
 import com.fintracker.core.repository.ScheduledTransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -43,6 +46,15 @@ public class ScheduledTransactionServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private InvestmentService investmentService;
+
+    @Mock
+    private ScheduledTransactionJournal scheduledTransactionJournal;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ScheduledTransactionService scheduledTransactionService;
 
@@ -219,12 +231,23 @@ public class ScheduledTransactionServiceTest {
         assertNotNull(result);
         assertEquals("Test Scheduled Transaction", result.getDescription());
         assertTrue(result.isActive());
+        assertEquals(result.getNextDueDate(), result.getDueAt());
         verify(accountService, times(1)).getAccountById(1L);
         verify(categoryService, times(1)).getCategoryById(1L);
         verify(userService, times(1)).getUserById(1L);
         verify(scheduledTransactionRepository, times(1)).save(any(ScheduledTransaction.class));
     }
 
+    @Test
+    void createScheduledTransaction_WithInvalidRecurrenceRule_ShouldThrowException() {
+        // Arrange
+        scheduledTransaction.setFrequency("FREQ=FORTNIGHTLY");
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> scheduledTransactionService.createScheduledTransaction(scheduledTransaction, 1L, 1L, 1L));
+        verify(scheduledTransactionRepository, never()).save(any(ScheduledTransaction.class));
+    }
+
     @Test
     void updateScheduledTransaction_WithValidScheduledTransaction_ShouldReturnUpdatedScheduledTransaction() {
         // Arrange
@@ -269,6 +292,10 @@ public class ScheduledTransactionServiceTest {
         // Assert
         verify(scheduledTransactionRepository, times(1)).findById(1L);
         verify(scheduledTransactionRepository, times(1)).delete(scheduledTransaction);
+        ArgumentCaptor<ScheduledTransactionChangedEvent> event = ArgumentCaptor.forClass(ScheduledTransactionChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1L, event.getValue().getScheduledTransactionId());
+        assertFalse(event.getValue().isActive());
     }
 
     @Test
@@ -290,22 +317,117 @@ public class ScheduledTransactionServiceTest {
     }
 
     @Test
-    void processScheduledTransactions_ShouldExecuteAllDueTransactions() {
+    void executeScheduledTransaction_WithLoadedSchedule_ShouldNotReloadIt() {
         // Arrange
-        List<ScheduledTransaction> dueTransactions = Arrays.asList(scheduledTransaction);
-        when(scheduledTransactionRepository.findByActiveTrueAndNextDueDateBefore(any(LocalDateTime.class)))
-                .thenReturn(dueTransactions);
-        when(scheduledTransactionRepository.findById(1L)).thenReturn(Optional.of(scheduledTransaction));
+        LocalDateTime dueDate = scheduledTransaction.getNextDueDate();
         when(transactionService.createTransaction(any(Transaction.class), eq(1L), eq(1L), eq(1L))).thenReturn(transaction);
         when(scheduledTransactionRepository.save(any(ScheduledTransaction.class))).thenReturn(scheduledTransaction);
 
         // Act
-        scheduledTransactionService.processScheduledTransactions();
+        Transaction result = scheduledTransactionService.executeScheduledTransaction(scheduledTransaction);
 
         // Assert
-        verify(scheduledTransactionRepository, times(1)).findByActiveTrueAndNextDueDateBefore(any(LocalDateTime.class));
-        verify(scheduledTransactionRepository, times(1)).findById(1L);
+        assertNotNull(result);
+        assertEquals(dueDate.plusMonths(1), scheduledTransaction.getNextDueDate());
+        verify(scheduledTransactionRepository, never()).findById(any());
         verify(transactionService, times(1)).createTransaction(any(Transaction.class), eq(1L), eq(1L), eq(1L));
-        verify(scheduledTransactionRepository, times(1)).save(any(ScheduledTransaction.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void catchUpScheduledTransaction_WithMissedMonths_ShouldPostThemInOneBatch() {
+        // Arrange
+        scheduledTransaction.setNextDueDate(LocalDateTime.of(2024, 1, 31, 0, 0));
+        when(scheduledTransactionRepository.save(any(ScheduledTransaction.class))).thenReturn(scheduledTransaction);
+
+        // Act
+        int posted = scheduledTransactionService.catchUpScheduledTransaction(scheduledTransaction, LocalDateTime.of(2024, 5, 15, 0, 0));
+
+        // Assert
+        assertEquals(4, posted);
+        ArgumentCaptor<List<Transaction>> batch = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, times(1)).createTransactionsInBatch(batch.capture());
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 31, 0, 0), LocalDateTime.of(2024, 2, 29, 0, 0),
+                        LocalDateTime.of(2024, 3, 31, 0, 0), LocalDateTime.of(2024, 4, 30, 0, 0)),
+                batch.getValue().stream().map(Transaction::getTransactionDate).toList());
+        assertSame(account, batch.getValue().get(0).getAccount());
+        verify(scheduledTransactionJournal).recordPosted(scheduledTransaction, LocalDateTime.of(2024, 1, 31, 0, 0), 4);
+        assertEquals(LocalDateTime.of(2024, 5, 31, 0, 0), scheduledTransaction.getNextDueDate());
+        verify(transactionService, never()).createTransaction(any(Transaction.class), any(), any(), any());
+        verify(scheduledTransactionRepository, times(1)).save(scheduledTransaction);
+        verify(eventPublisher).publishEvent(new ScheduledTransactionChangedEvent(1L, 1L, LocalDateTime.of(2024, 5, 31, 0, 0), true));
+    }
+
+    @Test
+    void catchUpScheduledTransaction_WhenNotYetDue_ShouldPostNothing() {
+        // Act
+        int posted = scheduledTransactionService.catchUpScheduledTransaction(scheduledTransaction, now);
+
+        // Assert
+        assertEquals(0, posted);
+        verify(transactionService, never()).createTransactionsInBatch(any());
+        verify(scheduledTransactionRepository, never()).save(any(ScheduledTransaction.class));
+        verifyNoInteractions(eventPublisher, scheduledTransactionJournal);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void catchUpScheduledTransaction_WithRecurrenceRule_ShouldPostEveryRuleOccurrence() {
+        // Arrange
+        scheduledTransaction.setFrequency("FREQ=MONTHLY;BYMONTHDAY=15,-1");
+        scheduledTransaction.setNextDueDate(LocalDateTime.of(2024, 1, 15, 9, 0));
+        when(scheduledTransactionRepository.save(any(ScheduledTransaction.class))).thenReturn(scheduledTransaction);
+
+        // Act
+        int posted = scheduledTransactionService.catchUpScheduledTransaction(scheduledTransaction, LocalDateTime.of(2024, 3, 1, 0, 0));
+
+        // Assert
+        assertEquals(4, posted);
+        ArgumentCaptor<List<Transaction>> batch = ArgumentCaptor.forClass(List.class);
+        verify(transactionService).createTransactionsInBatch(batch.capture());
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 15, 9, 0), LocalDateTime.of(2024, 1, 31, 9, 0),
+                        LocalDateTime.of(2024, 2, 15, 9, 0), LocalDateTime.of(2024, 2, 29, 9, 0)),
+                batch.getValue().stream().map(Transaction::getTransactionDate).toList());
+        assertEquals(LocalDateTime.of(2024, 3, 15, 9, 0), scheduledTransaction.getNextDueDate());
+        assertTrue(scheduledTransaction.isActive());
+    }
+
+    @Test
+    void catchUpScheduledTransaction_WithUnknownFrequency_ShouldPostOnceAndDeactivate() {
+        // Arrange
+        scheduledTransaction.setFrequency("ONCE");
+        scheduledTransaction.setNextDueDate(LocalDateTime.of(2024, 1, 31, 0, 0));
+        scheduledTransaction.setDueAt(LocalDateTime.of(2024, 1, 31, 0, 0));
+        when(scheduledTransactionRepository.save(any(ScheduledTransaction.class))).thenReturn(scheduledTransaction);
+
+        // Act
+        int posted = scheduledTransactionService.catchUpScheduledTransaction(scheduledTransaction, LocalDateTime.of(2024, 5, 15, 0, 0));
+
+        // Assert
+        assertEquals(1, posted);
+        assertFalse(scheduledTransaction.isActive());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 0, 0), scheduledTransaction.getNextDueDate());
+        verify(eventPublisher).publishEvent(new ScheduledTransactionChangedEvent(1L, 1L, LocalDateTime.of(2024, 1, 31, 0, 0), false));
+    }
+
+    @Test
+    void catchUpScheduledTransaction_WithOwnerTimezone_ShouldFallDueAtLocalMidnight() {
+        // Arrange
+        String timezone = "Pacific/Kiritimati";
+        user.setTimezone(timezone);
+        scheduledTransaction.setNextDueDate(LocalDateTime.of(2024, 1, 31, 0, 0));
+        when(scheduledTransactionRepository.save(any(ScheduledTransaction.class))).thenReturn(scheduledTransaction);
+        LocalDateTime localCutoff = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        // Act
+        int posted = scheduledTransactionService.catchUpScheduledTransaction(scheduledTransaction,
+                ScheduleTimes.serverTime(localCutoff, timezone));
+
+        // Assert
+        LocalDateTime dueAt = ScheduleTimes.serverTime(LocalDateTime.of(2024, 2, 29, 0, 0), timezone);
+        assertEquals(1, posted);
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), scheduledTransaction.getNextDueDate());
+        assertEquals(dueAt, scheduledTransaction.getDueAt());
+        verify(eventPublisher).publishEvent(new ScheduledTransactionChangedEvent(1L, 1L, dueAt, true));
+    }
+}
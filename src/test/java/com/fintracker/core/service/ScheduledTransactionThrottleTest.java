@@ -0,0 +1,89 @@
+package com.fintracker.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduledTransactionThrottleTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledTransactionThrottle scheduledTransactionThrottle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduledTransactionThrottle = new ScheduledTransactionThrottle(meterRegistry);
+    }
+
+    @Test
+    void smoothness_WithEvenLoad_ShouldBeOne() {
+        // Arrange
+        for (long minute = 1000; minute < 1060; minute++) {
+            scheduledTransactionThrottle.record(minute, 50);
+        }
+
+        // Act & Assert
+        assertEquals(50, scheduledTransactionThrottle.peak(1059));
+        assertEquals(1.0, scheduledTransactionThrottle.smoothness(1059), 1e-9);
+    }
+
+    @Test
+    void smoothness_WithSingleSpike_ShouldBeLow() {
+        // Arrange
+        scheduledTransactionThrottle.record(1000, 3000);
+
+        // Act & Assert
+        assertEquals(3000, scheduledTransactionThrottle.peak(1000));
+        assertEquals(1.0 / 60, scheduledTransactionThrottle.smoothness(1000), 1e-9);
+    }
+
+    @Test
+    void peak_ShouldForgetMinutesOlderThanAnHour() {
+        // Arrange
+        scheduledTransactionThrottle.record(1000, 3000);
+        scheduledTransactionThrottle.record(1001, 10);
+
+        // Act & Assert
+        assertEquals(10, scheduledTransactionThrottle.peak(1060));
+        // The spike's slot is reused by a later minute instead of adding to it
+        scheduledTransactionThrottle.record(1060, 5);
+        assertEquals(10, scheduledTransactionThrottle.peak(1060));
+    }
+
+    @Test
+    void smoothness_WhenIdle_ShouldBeOne() {
+        // Act & Assert
+        assertEquals(1.0, meterRegistry.get("scheduled.transactions.write.smoothness").gauge().value(), 1e-9);
+        assertEquals(0.0, meterRegistry.get("scheduled.transactions.write.peak").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void acquire_ShouldPacePostingsToMaximumRate() {
+        // Arrange
+        ReflectionTestUtils.setField(scheduledTransactionThrottle, "maxPostingsPerSecond", 100.0);
+
+        // Act
+        long started = System.nanoTime();
+        scheduledTransactionThrottle.acquire(10);
+        scheduledTransactionThrottle.acquire(10);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Assert
+        // The first ten go at once; the next ten wait for the 100 ms the first ones took up
+        assertTrue(elapsedMillis >= 90, "paced for " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void acquire_WhenUnlimited_ShouldNotWait() {
+        // Act
+        long started = System.nanoTime();
+        scheduledTransactionThrottle.acquire(100000);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Assert
+        assertTrue(elapsedMillis < 1000);
+    }
+}
@@ -0,0 +1,210 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.repository.ScheduledTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduledTransactionTimerTest {
+
+    @Mock
+    private ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @Mock
+    private ScheduledTransactionExecutor scheduledTransactionExecutor;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private ExecutorService workerPool;
+
+    @InjectMocks
+    private ScheduledTransactionTimer scheduledTransactionTimer;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.of(2024, 6, 1, 9, 0);
+        ReflectionTestUtils.setField(scheduledTransactionTimer, "windowMinutes", 60L);
+        ReflectionTestUtils.setField(scheduledTransactionTimer, "capacity", 100);
+        ReflectionTestUtils.setField(scheduledTransactionTimer, "workerPool", workerPool);
+    }
+
+    private static ScheduledTransactionRepository.DueSchedule due(long id, long accountId, LocalDateTime nextDueDate) {
+        return new ScheduledTransactionRepository.DueSchedule() {
+            public Long getId() { return id; }
+            public Long getAccountId() { return accountId; }
+            public LocalDateTime getDueAt() { return nextDueDate; }
+        };
+    }
+
+    private void runTasksInline() {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(workerPool).execute(any(Runnable.class));
+    }
+
+    private void loadQueue(ScheduledTransactionRepository.DueSchedule... schedules) {
+        when(schedulerLockService.currentShard()).thenReturn(SchedulerLockService.Shard.ALL);
+        when(scheduledTransactionRepository.findUpcoming(eq(now.plusMinutes(60)), isNull(), isNull(), eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(List.of(schedules));
+        scheduledTransactionTimer.refill(now);
+    }
+
+    @Test
+    void dispatchDue_ShouldFireOnlySchedulesWhoseTimeHasCome() {
+        // Arrange
+        runTasksInline();
+        loadQueue(due(1L, 10L, now.minusMinutes(5)), due(2L, 11L, now), due(3L, 12L, now.plusMinutes(30)));
+        when(scheduledTransactionExecutor.executeDue(anyLong())).thenReturn(1);
+
+        // Act
+        scheduledTransactionTimer.dispatchDue(now);
+
+        // Assert
+        verify(scheduledTransactionExecutor).executeDue(1L);
+        verify(scheduledTransactionExecutor).executeDue(2L);
+        verify(scheduledTransactionExecutor, never()).executeDue(3L);
+        assertEquals(1, scheduledTransactionTimer.size());
+    }
+
+    @Test
+    void dispatchDue_WhenWorkersAreSaturated_ShouldKeepScheduleForNextTick() {
+        // Arrange
+        loadQueue(due(1L, 10L, now.minusMinutes(1)));
+        doThrow(new RejectedExecutionException("Queue full")).when(workerPool).execute(any(Runnable.class));
+
+        // Act
+        scheduledTransactionTimer.dispatchDue(now);
+
+        // Assert
+        assertEquals(1, scheduledTransactionTimer.size());
+        verify(scheduledTransactionExecutor, never()).executeDue(anyLong());
+    }
+
+    @Test
+    void dispatchDue_WhenExecutionFails_ShouldDropEntryAndFreeAccount() {
+        // Arrange
+        runTasksInline();
+        loadQueue(due(1L, 10L, now.minusMinutes(2)), due(2L, 10L, now.minusMinutes(1)));
+        when(scheduledTransactionExecutor.executeDue(1L)).thenThrow(new IllegalStateException("Account closed"));
+        when(scheduledTransactionExecutor.executeDue(2L)).thenReturn(1);
+
+        // Act
+        scheduledTransactionTimer.dispatchDue(now);
+
+        // Assert
+        verify(scheduledTransactionExecutor).executeDue(2L);
+        assertEquals(0, scheduledTransactionTimer.size());
+    }
+
+    @Test
+    void refill_ShouldContinueFromLastLoadedKey() {
+        // Arrange
+        loadQueue(due(1L, 10L, now.plusMinutes(10)), due(2L, 11L, now.plusMinutes(20)));
+        LocalDateTime later = now.plusMinutes(1);
+        when(scheduledTransactionRepository.findUpcoming(eq(later.plusMinutes(60)), eq(now.plusMinutes(20)), eq(2L),
+                eq(1), eq(0), any(Pageable.class)))
+                .thenReturn(List.of(due(3L, 12L, now.plusMinutes(50))));
+
+        // Act
+        scheduledTransactionTimer.refill(later);
+
+        // Assert
+        assertEquals(3, scheduledTransactionTimer.size());
+    }
+
+    @Test
+    void refill_WhenFull_ShouldNotQueryDatabase() {
+        // Arrange
+        ReflectionTestUtils.setField(scheduledTransactionTimer, "capacity", 1);
+        loadQueue(due(1L, 10L, now.plusMinutes(10)));
+
+        // Act
+        scheduledTransactionTimer.refill(now.plusMinutes(1));
+
+        // Assert
+        verify(scheduledTransactionRepository, times(1)).findUpcoming(any(), any(), any(), anyInt(), anyInt(), any(Pageable.class));
+        assertEquals(1, scheduledTransactionTimer.size());
+    }
+
+    @Test
+    void refill_WhenNodesChange_ShouldRebuildForNewShard() {
+        // Arrange
+        loadQueue(due(1L, 10L, now.plusMinutes(10)), due(2L, 11L, now.plusMinutes(20)));
+        when(schedulerLockService.currentShard()).thenReturn(new SchedulerLockService.Shard(1, 2));
+        when(scheduledTransactionRepository.findUpcoming(eq(now.plusMinutes(60)), isNull(), isNull(), eq(2), eq(1), any(Pageable.class)))
+                .thenReturn(List.of(due(2L, 11L, now.plusMinutes(20))));
+
+        // Act
+        scheduledTransactionTimer.refill(now);
+        // Account 10 now belongs to the other node
+        scheduledTransactionTimer.onScheduleChanged(new ScheduledTransactionChangedEvent(1L, 10L, now.plusMinutes(5), true));
+
+        // Assert
+        assertEquals(1, scheduledTransactionTimer.size());
+    }
+
+    @Test
+    void onScheduleChanged_ShouldRescheduleWithinLoadedRangeAndDropOthers() {
+        // Arrange
+        runTasksInline();
+        loadQueue(due(1L, 10L, now.plusMinutes(10)), due(2L, 11L, now.plusMinutes(40)));
+        when(scheduledTransactionExecutor.executeDue(2L)).thenReturn(1);
+
+        // Act
+        // Schedule 1 is pushed past the loaded range; schedule 2 is brought forward
+        scheduledTransactionTimer.onScheduleChanged(new ScheduledTransactionChangedEvent(1L, 10L, now.plusDays(1), true));
+        scheduledTransactionTimer.onScheduleChanged(new ScheduledTransactionChangedEvent(2L, 11L, now.minusMinutes(1), true));
+        scheduledTransactionTimer.dispatchDue(now);
+
+        // Assert
+        verify(scheduledTransactionExecutor).executeDue(2L);
+        verify(scheduledTransactionExecutor, never()).executeDue(1L);
+        assertEquals(0, scheduledTransactionTimer.size());
+    }
+
+    @Test
+    void onScheduleChanged_WhenDeleted_ShouldRemoveEntry() {
+        // Arrange
+        loadQueue(due(1L, 10L, now.plusMinutes(10)));
+
+        // Act
+        scheduledTransactionTimer.onScheduleChanged(new ScheduledTransactionChangedEvent(1L, 10L, now.plusMinutes(10), false));
+
+        // Assert
+        assertEquals(0, scheduledTransactionTimer.size());
+    }
+
+    @Test
+    void onScheduleChanged_BeforeFirstRefill_ShouldLeaveQueueEmpty() {
+        // Act
+        scheduledTransactionTimer.onScheduleChanged(new ScheduledTransactionChangedEvent(1L, 10L, now, true));
+
+        // Assert
+        assertEquals(0, scheduledTransactionTimer.size());
+        verifyNoInteractions(scheduledTransactionRepository);
+    }
+}
@@ -0,0 +1,174 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several lock services with different node ids sharing one database stand in for several
+ * application nodes. Transactions commit for real, as they would between separate nodes.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SchedulerLockServiceTest {
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        schedulerLeaseRepository.deleteAll();
+    }
+
+    private SchedulerLockService node(String nodeId) {
+        SchedulerLockService node = new SchedulerLockService(schedulerLeaseRepository, transactionManager);
+        ReflectionTestUtils.setField(node, "configuredNodeId", nodeId);
+        ReflectionTestUtils.setField(node, "nodeLeaseSeconds", 30L);
+        node.initNodeId();
+        return node;
+    }
+
+    @Test
+    void tryAcquire_WhenHeldByAnotherNode_ShouldFail() {
+        // Arrange
+        SchedulerLockService first = node("node-a");
+        SchedulerLockService second = node("node-b");
+
+        // Act
+        boolean firstAcquired = first.tryAcquire("nightly", Duration.ofMinutes(5));
+        boolean secondAcquired = second.tryAcquire("nightly", Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(firstAcquired);
+        assertFalse(secondAcquired);
+        assertEquals("node-a", schedulerLeaseRepository.findById("nightly").orElseThrow().getOwner());
+    }
+
+    @Test
+    void tryAcquire_WhenLeaseExpired_ShouldTakeOver() {
+        // Arrange
+        SchedulerLockService first = node("node-a");
+        SchedulerLockService second = node("node-b");
+        first.tryAcquire("nightly", Duration.ZERO);
+
+        // Act
+        boolean acquired = second.tryAcquire("nightly", Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(acquired);
+        assertEquals("node-b", schedulerLeaseRepository.findById("nightly").orElseThrow().getOwner());
+    }
+
+    @Test
+    void tryAcquire_WithNodesRacingForNewLease_ShouldGrantItOnce() throws Exception {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            SchedulerLockService node = node("node-" + i);
+            attempts.add(() -> node.tryAcquire("nightly", Duration.ofMinutes(5)));
+        }
+
+        // Act
+        int winners = 0;
+        try {
+            for (Future<Boolean> attempt : pool.invokeAll(attempts)) {
+                winners += attempt.get() ? 1 : 0;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Assert
+        assertEquals(1, winners);
+    }
+
+    @Test
+    void runExclusively_ShouldSkipJobWhileAnotherNodeRunsIt() {
+        // Arrange
+        SchedulerLockService first = node("node-a");
+        SchedulerLockService second = node("node-b");
+        AtomicInteger runs = new AtomicInteger();
+
+        // Act
+        boolean ran = first.runExclusively("compaction", Duration.ofMinutes(5), Duration.ZERO, () -> {
+            runs.incrementAndGet();
+            assertFalse(second.runExclusively("compaction", Duration.ofMinutes(5), Duration.ZERO, runs::incrementAndGet));
+        });
+
+        // Assert
+        assertTrue(ran);
+        assertEquals(1, runs.get());
+        assertTrue(second.runExclusively("compaction", Duration.ofMinutes(5), Duration.ZERO, runs::incrementAndGet));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void runExclusively_WithMinimumHold_ShouldKeepLeaseAfterJob() {
+        // Arrange
+        SchedulerLockService first = node("node-a");
+        SchedulerLockService second = node("node-b");
+        first.runExclusively("compaction", Duration.ofMinutes(5), Duration.ofMinutes(1), () -> { });
+
+        // Act
+        boolean ran = second.runExclusively("compaction", Duration.ofMinutes(5), Duration.ZERO, () -> { });
+
+        // Assert
+        assertFalse(ran);
+    }
+
+    @Test
+    void currentShard_ShouldSplitAccountsBetweenLiveNodes() {
+        // Arrange
+        SchedulerLockService first = node("node-a");
+        SchedulerLockService second = node("node-b");
+        first.heartbeat();
+        second.heartbeat();
+
+        // Act
+        SchedulerLockService.Shard firstShard = first.currentShard();
+        SchedulerLockService.Shard secondShard = second.currentShard();
+
+        // Assert
+        assertEquals(new SchedulerLockService.Shard(0, 2), firstShard);
+        assertEquals(new SchedulerLockService.Shard(1, 2), secondShard);
+        for (long accountId = 1; accountId <= 10; accountId++) {
+            assertNotEquals(firstShard.owns(accountId), secondShard.owns(accountId));
+        }
+    }
+
+    @Test
+    void currentShard_WhenNodeStops_ShouldHandItsShardBack() {
+        // Arrange
+        SchedulerLockService first = node("node-a");
+        SchedulerLockService second = node("node-b");
+        first.heartbeat();
+        second.heartbeat();
+
+        // Act
+        second.stop();
+
+        // Assert
+        assertEquals(SchedulerLockService.Shard.ALL, first.currentShard());
+    }
+}
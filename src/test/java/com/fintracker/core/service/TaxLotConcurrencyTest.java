@@ -0,0 +1,127 @@
+package com.fintracker.core.service;
+
+import com.fintracker.config.DatabaseConfig;
+import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentLot;
+import com.fintracker.core.domain.User;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentCashFlowRepository;
+import com.fintracker.core.repository.InvestmentLotRepository;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.PriceHistoryStore;
+import com.fintracker.core.repository.RealizedGainRepository;
+import com.fintracker.core.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sales run for real against the database from two threads at once; transactions commit as
+ * they would for two requests
+ */
+@DataJpaTest
+@Import({DatabaseConfig.class, InvestmentService.class, TaxLotService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaxLotConcurrencyTest {
+
+    @Autowired
+    private TaxLotService taxLotService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InvestmentRepository investmentRepository;
+
+    @Autowired
+    private InvestmentLotRepository investmentLotRepository;
+
+    @Autowired
+    private RealizedGainRepository realizedGainRepository;
+
+    @Autowired
+    private InvestmentCashFlowRepository investmentCashFlowRepository;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private PriceHistoryStore priceHistoryStore;
+
+    @MockBean
+    private InvestmentValuationService investmentValuationService;
+
+    @AfterEach
+    void tearDown() {
+        investmentCashFlowRepository.deleteAll();
+        realizedGainRepository.deleteAll();
+        investmentLotRepository.deleteAll();
+        investmentRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void recordSale_WithTwoSalesOfTheSameUnitsAtOnce_ShouldLetOnlyOneDrawThem() throws Exception {
+        // Arrange
+        User user = userRepository.save(User.builder().username("alice").password("hash").fullName("Alice")
+                .email("alice@example.com").build());
+        Investment investment = investmentRepository.save(Investment.builder().name("Index Fund").investmentType("MUTUAL_FUND")
+                .initialAmount(new BigDecimal("1000.00")).currentValue(new BigDecimal("1000.00"))
+                .startDate(LocalDateTime.of(2024, 1, 1, 0, 0)).user(user)
+                .units(new BigDecimal("10")).costBasis(new BigDecimal("1000.00")).build());
+        investmentLotRepository.save(InvestmentLot.builder().investment(investment).acquiredOn(LocalDate.of(2024, 1, 1))
+                .units(new BigDecimal("10")).cost(new BigDecimal("1000.00"))
+                .remainingUnits(new BigDecimal("10")).remainingCost(new BigDecimal("1000.00")).closed(false).build());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> sales = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            sales.add(executor.submit(() -> {
+                start.await();
+                return taxLotService.recordSale(investment.getId(), LocalDate.of(2024, 6, 1),
+                        new BigDecimal("10"), new BigDecimal("1500.00"));
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int succeeded = 0;
+        int rejected = 0;
+        for (Future<?> sale : sales) {
+            try {
+                sale.get(10, TimeUnit.SECONDS);
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ValidationException.class, e.getCause());
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, succeeded);
+        assertEquals(1, rejected);
+        assertEquals(1, realizedGainRepository.count());
+        assertEquals(0, investmentRepository.findById(investment.getId()).orElseThrow().getUnits().signum());
+    }
+}
@@ -0,0 +1,283 @@
+package com.fintracker.core.service;
+
+import com.fintracker.core.domain.Investment;
+import com.fintracker.core.domain.InvestmentCashFlow;
+import com.fintracker.core.domain.InvestmentLot;
+import com.fintracker.core.domain.RealizedGain;
+import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.InvestmentCashFlowRepository;
+import com.fintracker.core.repository.InvestmentLotRepository;
+import com.fintracker.core.repository.InvestmentRepository;
+import com.fintracker.core.repository.RealizedGainRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaxLotServiceTest {
+
+    @Mock
+    private InvestmentService investmentService;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private InvestmentLotRepository investmentLotRepository;
+
+    @Mock
+    private RealizedGainRepository realizedGainRepository;
+
+    @Mock
+    private InvestmentCashFlowRepository investmentCashFlowRepository;
+
+    @InjectMocks
+    private TaxLotService taxLotService;
+
+    private Investment investment;
+    private InvestmentLot oldLot;
+    private InvestmentLot recentLot;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taxLotService, "financialYearStartMonth", 4);
+        ReflectionTestUtils.setField(taxLotService, "longTermDays", 365);
+
+        investment = Investment.builder()
+                .id(1L)
+                .name("Index Fund SIP")
+                .investmentType("SIP")
+                .initialAmount(new BigDecimal("1000.00"))
+                .startDate(LocalDate.of(2020, 1, 1).atStartOfDay())
+                .units(new BigDecimal("20.000000"))
+                .costBasis(new BigDecimal("3000.00"))
+                .build();
+        oldLot = lot(10L, LocalDate.of(2020, 1, 1), "10.000000", "1000.00");
+        recentLot = lot(11L, LocalDate.of(2023, 6, 1), "10.000000", "2000.00");
+    }
+
+    private InvestmentLot lot(long id, LocalDate acquiredOn, String units, String cost) {
+        return InvestmentLot.builder()
+                .id(id)
+                .investment(investment)
+                .acquiredOn(acquiredOn)
+                .units(new BigDecimal(units))
+                .cost(new BigDecimal(cost))
+                .remainingUnits(new BigDecimal(units))
+                .remainingCost(new BigDecimal(cost))
+                .build();
+    }
+
+    private static RealizedGainRepository.CapitalGainTotals totals(Long investmentId, boolean longTerm, String proceeds,
+                                                                   String costBasis, String gain) {
+        return new RealizedGainRepository.CapitalGainTotals() {
+            public Integer getFinancialYear() { return 2024; }
+            public Long getInvestmentId() { return investmentId; }
+            public Boolean getLongTerm() { return longTerm; }
+            public BigDecimal getProceeds() { return new BigDecimal(proceeds); }
+            public BigDecimal getCostBasis() { return new BigDecimal(costBasis); }
+            public BigDecimal getGain() { return new BigDecimal(gain); }
+        };
+    }
+
+    private void stubSale() {
+        when(investmentService.getInvestmentForUpdate(1L)).thenReturn(investment);
+        when(realizedGainRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void recordPurchase_ShouldOpenLotAndRecordContribution() {
+        // Arrange
+        when(investmentService.getInvestmentForUpdate(1L)).thenReturn(investment);
+        when(investmentLotRepository.findTopByInvestmentIdOrderByAcquiredOnDesc(1L)).thenReturn(Optional.of(recentLot));
+        when(investmentLotRepository.save(any(InvestmentLot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        InvestmentLot result = taxLotService.recordPurchase(1L, LocalDate.of(2024, 1, 1),
+                new BigDecimal("5.000000"), new BigDecimal("1500.00"));
+
+        // Assert
+        assertEquals(new BigDecimal("5.000000"), result.getRemainingUnits());
+        assertEquals(new BigDecimal("1500.00"), result.getRemainingCost());
+        assertFalse(result.isClosed());
+        assertEquals(new BigDecimal("25.000000"), investment.getUnits());
+        assertEquals(new BigDecimal("4500.00"), investment.getCostBasis());
+        ArgumentCaptor<InvestmentCashFlow> cashFlow = ArgumentCaptor.forClass(InvestmentCashFlow.class);
+        verify(investmentCashFlowRepository).save(cashFlow.capture());
+        assertEquals("CONTRIBUTION", cashFlow.getValue().getFlowType());
+        assertEquals(new BigDecimal("1500.00"), cashFlow.getValue().getAmount());
+    }
+
+    @Test
+    void recordPurchase_DatedBeforeLastSale_ShouldThrowValidationException() {
+        // Arrange
+        when(investmentService.getInvestmentForUpdate(1L)).thenReturn(investment);
+        when(realizedGainRepository.findTopByInvestmentIdOrderBySaleDateDesc(1L))
+                .thenReturn(Optional.of(RealizedGain.builder().saleDate(LocalDate.of(2024, 5, 1)).build()));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> taxLotService.recordPurchase(1L, LocalDate.of(2024, 4, 1),
+                new BigDecimal("1"), new BigDecimal("100.00")));
+        verify(investmentLotRepository, never()).save(any(InvestmentLot.class));
+    }
+
+    @Test
+    void recordSale_WithFifo_ShouldDrawOldestLotsFirst() {
+        // Arrange
+        stubSale();
+        when(investmentLotRepository.findOpenLotsOldestFirst(eq(1L), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(List.of(oldLot, recentLot)));
+
+        // Act
+        List<RealizedGain> gains = taxLotService.recordSale(1L, LocalDate.of(2024, 5, 1),
+                new BigDecimal("15"), new BigDecimal("3000.00"));
+
+        // Assert
+        assertEquals(2, gains.size());
+        RealizedGain first = gains.get(0);
+        assertSame(oldLot, first.getLot());
+        assertEquals(new BigDecimal("2000.00"), first.getProceeds());
+        assertEquals(new BigDecimal("1000.00"), first.getCostBasis());
+        assertEquals(new BigDecimal("1000.00"), first.getGain());
+        assertTrue(first.isLongTerm());
+        assertEquals(2024, first.getFinancialYear());
+
+        RealizedGain second = gains.get(1);
+        assertSame(recentLot, second.getLot());
+        assertEquals(0, new BigDecimal("5").compareTo(second.getUnits()));
+        assertEquals(new BigDecimal("1000.00"), second.getProceeds());
+        assertEquals(new BigDecimal("1000.00"), second.getCostBasis());
+        assertFalse(second.isLongTerm());
+
+        assertTrue(oldLot.isClosed());
+        assertFalse(recentLot.isClosed());
+        assertEquals(0, new BigDecimal("5").compareTo(recentLot.getRemainingUnits()));
+        assertEquals(new BigDecimal("1000.00"), recentLot.getRemainingCost());
+        assertEquals(new BigDecimal("1000.00"), investment.getCostBasis());
+        assertEquals(0, new BigDecimal("5").compareTo(investment.getUnits()));
+        verify(investmentLotRepository, times(1)).findOpenLotsOldestFirst(eq(1L), any(Pageable.class));
+        verify(investmentLotRepository, never()).findOpenLotsNewestFirst(any(), any());
+    }
+
+    @Test
+    void recordSale_WithLifo_ShouldDrawNewestLotsFirst() {
+        // Arrange
+        investment.setLotMatchingMethod("LIFO");
+        stubSale();
+        when(investmentLotRepository.findOpenLotsNewestFirst(eq(1L), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(List.of(recentLot, oldLot)));
+
+        // Act
+        List<RealizedGain> gains = taxLotService.recordSale(1L, LocalDate.of(2024, 5, 1),
+                new BigDecimal("10"), new BigDecimal("2500.00"));
+
+        // Assert
+        assertEquals(1, gains.size());
+        assertSame(recentLot, gains.get(0).getLot());
+        assertEquals(new BigDecimal("500.00"), gains.get(0).getGain());
+        assertTrue(recentLot.isClosed());
+        assertFalse(oldLot.isClosed());
+        assertEquals(new BigDecimal("1000.00"), investment.getCostBasis());
+    }
+
+    @Test
+    void recordSale_WithAverageCost_ShouldUseCostOfAllOpenUnits() {
+        // Arrange
+        investment.setLotMatchingMethod("AVERAGE");
+        stubSale();
+        when(investmentLotRepository.sumOpenUnits(1L)).thenReturn(new BigDecimal("20.000000"));
+        when(investmentLotRepository.findOpenLotsOldestFirst(eq(1L), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(List.of(oldLot, recentLot)));
+
+        // Act
+        List<RealizedGain> gains = taxLotService.recordSale(1L, LocalDate.of(2024, 5, 1),
+                new BigDecimal("10"), new BigDecimal("2000.00"));
+
+        // Assert
+        assertEquals(1, gains.size());
+        assertEquals(new BigDecimal("1500.00"), gains.get(0).getCostBasis());
+        assertEquals(new BigDecimal("500.00"), gains.get(0).getGain());
+        assertTrue(gains.get(0).isLongTerm());
+        assertEquals(new BigDecimal("1500.00"), investment.getCostBasis());
+    }
+
+    @Test
+    void recordSale_WithMoreUnitsThanHeld_ShouldThrowValidationException() {
+        // Arrange
+        when(investmentService.getInvestmentForUpdate(1L)).thenReturn(investment);
+        when(investmentLotRepository.findOpenLotsOldestFirst(eq(1L), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(List.of(oldLot)), new ArrayList<>());
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> taxLotService.recordSale(1L, LocalDate.of(2024, 5, 1),
+                new BigDecimal("15"), new BigDecimal("3000.00")));
+        verify(realizedGainRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void getCapitalGains_ShouldSplitShortAndLongTermPerInvestment() {
+        // Arrange
+        when(realizedGainRepository.sumByInvestmentForFinancialYear(1L, 2024)).thenReturn(List.of(
+                totals(1L, true, "2000.00", "1000.00", "1000.00"),
+                totals(1L, false, "1000.00", "1000.00", "0.00"),
+                totals(2L, false, "500.00", "600.00", "-100.00")));
+
+        // Act
+        TaxLotService.CapitalGainsSummary result = taxLotService.getCapitalGains(1L, 2024);
+
+        // Assert
+        assertEquals(new BigDecimal("3500.00"), result.getProceeds());
+        assertEquals(new BigDecimal("1000.00"), result.getLongTermGain());
+        assertEquals(new BigDecimal("-100.00"), result.getShortTermGain());
+        assertEquals(2, result.getInvestments().size());
+        assertEquals(new BigDecimal("1000.00"), result.getInvestments().get(0).getLongTermGain());
+        assertEquals(new BigDecimal("-100.00"), result.getInvestments().get(1).getShortTermGain());
+    }
+
+    @Test
+    void financialYearOf_ShouldStartInConfiguredMonth() {
+        assertEquals(2023, taxLotService.financialYearOf(LocalDate.of(2024, 3, 31)));
+        assertEquals(2024, taxLotService.financialYearOf(LocalDate.of(2024, 4, 1)));
+    }
+
+    @Test
+    void getLots_WithInvestmentNotVisible_ShouldThrowException() {
+        // Arrange
+        when(investmentService.getInvestmentById(1L))
+                .thenThrow(new ResourceNotFoundException("Investment not found with id: 1"));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> taxLotService.getLots(1L));
+        verifyNoInteractions(investmentLotRepository);
+    }
+
+    @Test
+    void getRealizedGains_WithInvestmentNotVisible_ShouldThrowException() {
+        // Arrange
+        when(investmentService.getInvestmentById(1L))
+                .thenThrow(new ResourceNotFoundException("Investment not found with id: 1"));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> taxLotService.getRealizedGains(1L));
+        verifyNoInteractions(realizedGainRepository);
+    }
+}
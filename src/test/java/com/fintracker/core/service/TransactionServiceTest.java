@@ -5,6 +5,7 @@ import com.fintracker.core.domain.Category;
 import com.fintracker.core.domain.Transaction;
 import com.fintracker.core.domain.User;
 import com.fintracker.core.exception.ResourceNotFoundException;
+import com.fintracker.core.exception.ValidationException;
 import com.fintracker.core.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +22,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +40,9 @@ public class TransactionServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private CategorizationRuleService categorizationRuleService;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -152,6 +157,35 @@ public class TransactionServiceTest {
         verify(transactionRepository, times(1)).findByCategoryId(1L);
     }
 
+    @Test
+    void getTransactionsByCategorySubtree_ShouldReturnTransactionsForCategoryAndDescendants() {
+        // Arrange
+        List<Transaction> transactions = Arrays.asList(transaction);
+        when(transactionRepository.findByCategorySubtree(1L)).thenReturn(transactions);
+
+        // Act
+        List<Transaction> result = transactionService.getTransactionsByCategorySubtree(1L);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(transactionRepository, times(1)).findByCategorySubtree(1L);
+    }
+
+    @Test
+    void getCategorySubtreeTotal_ShouldReturnSumFromRepository() {
+        // Arrange
+        LocalDateTime start = now.minusDays(30);
+        when(transactionRepository.sumAmountByCategorySubtreeAndDateRange(1L, "EXPENSE", start, now))
+                .thenReturn(new BigDecimal("250.00"));
+
+        // Act
+        BigDecimal result = transactionService.getCategorySubtreeTotal(1L, "EXPENSE", start, now);
+
+        // Assert
+        assertEquals(new BigDecimal("250.00"), result);
+        verify(transactionRepository, times(1)).sumAmountByCategorySubtreeAndDateRange(1L, "EXPENSE", start, now);
+    }
+
     @Test
     void getTransactionsByUserId_ShouldReturnTransactionsForUser() {
         // Arrange
@@ -249,4 +283,53 @@ public class TransactionServiceTest {
         verify(accountService, times(1)).updateAccount(eq(1L), any(Account.class));
         verify(transactionRepository, times(1)).delete(transaction);
     }
-}
\ No newline at end of file
+
+    @Test
+    void createTransaction_WithoutCategory_ShouldUseCategorizationRules() {
+        // Arrange
+        when(accountService.getAccountById(1L)).thenReturn(account);
+        when(categorizationRuleService.categorize(eq(1L), eq("Test Transaction"), any(BigDecimal.class), eq(1L), eq("EXPENSE")))
+                .thenReturn(Optional.of(category));
+        when(userService.getUserById(1L)).thenReturn(user);
+        when(accountService.updateAccount(eq(1L), any(Account.class))).thenReturn(account);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Transaction result = transactionService.createTransaction(transaction, 1L, null, 1L);
+
+        // Assert
+        assertEquals(category, result.getCategory());
+        verify(categoryService, never()).getCategoryById(any());
+    }
+
+    @Test
+    void createTransaction_WithoutCategoryAndNoMatchingRule_ShouldThrowException() {
+        // Arrange
+        when(accountService.getAccountById(1L)).thenReturn(account);
+        when(categorizationRuleService.categorize(eq(1L), any(), any(), eq(1L), any()))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> transactionService.createTransaction(transaction, 1L, null, 1L));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransactionsInBatch_ShouldInsertOnceAndMoveBalanceOnce() {
+        // Arrange
+        Transaction rent = Transaction.builder().amount(new BigDecimal("100.00")).transactionType("EXPENSE").account(account).build();
+        Transaction salary = Transaction.builder().amount(new BigDecimal("250.00")).transactionType("INCOME").account(account).build();
+        List<Transaction> transactions = List.of(rent, rent, salary);
+        when(transactionRepository.insertAll(transactions)).thenReturn(3);
+
+        // Act
+        int inserted = transactionService.createTransactionsInBatch(transactions);
+
+        // Assert
+        assertEquals(3, inserted);
+        assertEquals(new BigDecimal("1050.00"), account.getBalance());
+        verify(transactionRepository, times(1)).insertAll(transactions);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(accountService, times(1)).updateAccount(1L, account);
+    }
+}
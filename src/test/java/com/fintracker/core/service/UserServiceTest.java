@@ -1,8 +1,11 @@
 package com.fintracker.core.service;
 
+import com.fintracker.core.domain.Account;
+import com.fintracker.core.domain.ScheduledTransaction;
 import com.fintracker.core.domain.User;
 import com.fintracker.core.exception.ResourceNotFoundException;
 import com.fintracker.core.exception.ValidationException;
+import com.fintracker.core.repository.ScheduledTransactionRepository;
 import com.fintracker.core.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,8 +13,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +35,15 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ScheduledTransactionRepository scheduledTransactionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private UserService userService;
 
@@ -183,6 +198,60 @@ public class UserServiceTest {
         verify(userRepository, times(1)).existsByEmail("updated@example.com");
         verify(passwordEncoder, times(1)).encode("newpassword");
         verify(userRepository, times(1)).save(any(User.class));
+        verifyNoInteractions(scheduledTransactionRepository);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(1L, "testuser"));
+        verify(refreshTokenService).revokeAll(1L);
+    }
+
+    @Test
+    void updateUser_WithNewTimezone_ShouldMoveScheduleDueTimes() {
+        // Arrange
+        LocalDateTime midnight = LocalDateTime.of(2024, 3, 1, 0, 0);
+        ScheduledTransaction schedule = ScheduledTransaction.builder()
+                .id(5L)
+                .account(Account.builder().id(2L).build())
+                .nextDueDate(midnight)
+                .dueAt(midnight)
+                .active(true)
+                .build();
+        User updatedUser = User.builder()
+                .username("testuser")
+                .fullName("Test User")
+                .email("test@example.com")
+                .timezone("Asia/Tokyo")
+                .build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(scheduledTransactionRepository.findByCreatedById(1L)).thenReturn(List.of(schedule));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        User result = userService.updateUser(1L, updatedUser);
+
+        // Assert
+        LocalDateTime expected = midnight.atZone(ZoneId.of("Asia/Tokyo"))
+                .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        assertEquals("Asia/Tokyo", result.getTimezone());
+        assertEquals(midnight, schedule.getNextDueDate());
+        assertEquals(expected, schedule.getDueAt());
+        verify(scheduledTransactionRepository).saveAll(List.of(schedule));
+        verify(eventPublisher).publishEvent(new ScheduledTransactionChangedEvent(5L, 2L, expected, true));
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void updateUser_WithUnknownTimezone_ShouldThrowException() {
+        // Arrange
+        User updatedUser = User.builder()
+                .username("testuser")
+                .email("test@example.com")
+                .timezone("Mars/Olympus_Mons")
+                .build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> userService.updateUser(1L, updatedUser));
+        verify(userRepository, never()).save(any(User.class));
+        verifyNoInteractions(scheduledTransactionRepository);
     }
 
     @Test
@@ -197,5 +266,6 @@ public class UserServiceTest {
         // Assert
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).delete(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(1L, "testuser"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.fintracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    @Test
+    void mightContain_WithValuesPut_ShouldNeverMissOne() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        String[] values = new String[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.put(values[i]);
+        }
+
+        // Act & Assert
+        for (String value : values) {
+            assertTrue(filter.mightContain(value));
+        }
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    void mightContain_WithValuesNeverPut_ShouldStayNearFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 2_000, "False positive rate too high: " + falsePositives + " in 100000");
+    }
+
+    @Test
+    void put_WithSameValueAgain_ShouldNotCountTowardsSize() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1, 0.01);
+
+        // Act
+        boolean first = filter.put("token");
+        boolean second = filter.put("token");
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1, filter.insertions());
+        assertFalse(filter.isSaturated());
+        filter.put("other");
+        assertTrue(filter.isSaturated());
+    }
+}
@@ -0,0 +1,115 @@
+package com.fintracker.util;
+
+import com.fintracker.config.AuthenticatedUser;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils(SECRET, 60_000, 2);
+    }
+
+    @Test
+    void generateToken_WithAuthenticatedUser_ShouldCarryIdAndAuthorities() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(7L, "testuser", "hash", List.of(new SimpleGrantedAuthority("USER")));
+
+        // Act
+        String token = jwtUtils.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        AuthenticatedUser fromToken = jwtUtils.verify(token).user();
+
+        // Assert
+        assertEquals(7L, fromToken.getId());
+        assertEquals("testuser", fromToken.getUsername());
+        assertEquals("", fromToken.getPassword());
+        assertEquals(List.of(new SimpleGrantedAuthority("USER")), List.copyOf(fromToken.getAuthorities()));
+    }
+
+    @Test
+    void verify_WithTokenWithoutUserClaims_ShouldHaveNoUser() {
+        // Act
+        JwtUtils.VerifiedToken token = jwtUtils.verify(jwtUtils.generateToken("testuser"));
+
+        // Assert
+        assertEquals("testuser", token.username());
+        assertNull(token.user());
+    }
+
+    @Test
+    void generateToken_ShouldGiveEachTokenItsOwnId() {
+        // Act
+        JwtUtils.VerifiedToken first = jwtUtils.verify(jwtUtils.generateToken("testuser"));
+        JwtUtils.VerifiedToken second = jwtUtils.verify(jwtUtils.generateToken("testuser"));
+
+        // Assert
+        assertNotNull(first.id());
+        assertNotEquals(first.id(), second.id());
+    }
+
+    @Test
+    void verify_WithExpiredOrTamperedToken_ShouldThrowException() {
+        // Arrange
+        String token = jwtUtils.generateToken("testuser");
+        String expired = new JwtUtils(SECRET, -1000, 2).generateToken("testuser");
+        String[] parts = token.split("\\.");
+        String[] otherParts = jwtUtils.generateToken("admin").split("\\.");
+        String forged = parts[0] + "." + otherParts[1] + "." + parts[2];
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtUtils.verify(expired));
+        assertThrows(JwtException.class, () -> jwtUtils.verify(forged));
+        assertEquals(0, jwtUtils.cachedTokens());
+    }
+
+    @Test
+    void verify_WithSameToken_ShouldParseItOnce() {
+        // Arrange
+        String token = jwtUtils.generateToken("testuser");
+
+        // Act
+        JwtUtils.VerifiedToken first = jwtUtils.verify(token);
+        JwtUtils.VerifiedToken second = jwtUtils.verify(token);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("testuser", jwtUtils.getUsernameFromToken(token));
+        assertTrue(jwtUtils.validateToken(token));
+        assertEquals(1, jwtUtils.cachedTokens());
+    }
+
+    @Test
+    void verify_WhenCacheIsFull_ShouldStayWithinSize() {
+        // Act
+        jwtUtils.verify(jwtUtils.generateToken("first"));
+        jwtUtils.verify(jwtUtils.generateToken("second"));
+        jwtUtils.verify(jwtUtils.generateToken("third"));
+
+        // Assert
+        assertTrue(jwtUtils.cachedTokens() <= 2);
+    }
+
+    @Test
+    void verify_WithCacheDisabled_ShouldStillVerify() {
+        // Arrange
+        JwtUtils uncached = new JwtUtils(SECRET, 60_000, 0);
+        String token = uncached.generateToken("testuser");
+
+        // Act & Assert
+        assertEquals("testuser", uncached.verify(token).username());
+        assertNotSame(uncached.verify(token), uncached.verify(token));
+        assertEquals(0, uncached.cachedTokens());
+    }
+}